@@ -0,0 +1,60 @@
+package allaboutecm.benchmark;
+
+import allaboutecm.mining.ECMMiner;
+import allaboutecm.mining.graph.CollaborationGraph;
+import allaboutecm.mining.graph.CollaborationIndex;
+import allaboutecm.model.Album;
+import allaboutecm.model.Musician;
+import allaboutecm.synthetic.CatalogueGenerator;
+import allaboutecm.validation.UrlValidation;
+import allaboutecm.validation.UrlValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the collaboration graph behind mostSocialMusicians from the whole catalogue, against keeping
+ * a CollaborationIndex up to date when one album's line-up changes.
+ *
+ * mvn -P jmh compile exec:exec -Djmh.args="CollaborationGraphBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class CollaborationGraphBenchmark {
+    @Param({"10000", "100000"})
+    public int albums;
+
+    private List<Album> catalogue;
+    private CollaborationIndex<Musician> index;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        UrlValidation.setValidator(UrlValidator.ACCEPT_ALL);
+        catalogue = new CatalogueGenerator(ECMMinerBenchmark.SEED).generate(albums).getAlbums();
+        index = new CollaborationIndex<>();
+        for (int i = 0; i < catalogue.size(); i++) {
+            index.put(i, catalogue.get(i).getFeaturedMusicians());
+        }
+    }
+
+    @Benchmark
+    public List<Musician> buildAndRank() {
+        return CollaborationGraph.of(catalogue).mostConnected(10, ECMMiner.MUSICIAN_ORDER);
+    }
+
+    @Benchmark
+    public Set<Musician> updateOneAlbum() {
+        // Takes one album out and puts it back, so the index stays the same size.
+        int album = next;
+        next = (next + 1) % catalogue.size();
+        index.remove(album);
+        return index.put(album, catalogue.get(album).getFeaturedMusicians());
+    }
+}
@@ -0,0 +1,78 @@
+package allaboutecm.benchmark;
+
+import allaboutecm.mining.ECMMiner;
+import allaboutecm.mining.ObjectIntMap;
+import allaboutecm.model.Album;
+import allaboutecm.model.Musician;
+import allaboutecm.synthetic.CatalogueGenerator;
+import allaboutecm.synthetic.SyntheticCatalogue;
+import allaboutecm.validation.UrlValidation;
+import allaboutecm.validation.UrlValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counting featured albums per musician: the boxed HashMap containsKey/get/put loop mostSocialMusicians used
+ * to run, against ObjectIntMap, and the whole ranking as it is now. Run with the GC profiler to see the
+ * allocation per operation (gc.alloc.rate.norm):
+ *
+ * mvn -P jmh compile exec:exec -Djmh.args="CountingBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class CountingBenchmark {
+    @Param({"10000", "100000"})
+    public int albums;
+
+    private List<Album> catalogue;
+    private ECMMiner miner;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        UrlValidation.setValidator(UrlValidator.ACCEPT_ALL);
+        SyntheticCatalogue generated = new CatalogueGenerator(ECMMinerBenchmark.SEED).generate(albums);
+        catalogue = generated.getAlbums();
+        miner = new ECMMiner(new InMemoryDAO(generated));
+    }
+
+    @Benchmark
+    public Map<Musician, Integer> boxedHashMap() {
+        Map<Musician, Integer> musicianMap = new HashMap<>();
+        for (Album a : catalogue) {
+            List<Musician> musiciansList = new ArrayList<>(a.getFeaturedMusicians());
+            for (Musician musician : musiciansList) {
+                if (!musicianMap.containsKey(musician)) {
+                    musicianMap.put(musician, 1);
+                } else {
+                    musicianMap.put(musician, musicianMap.get(musician) + 1);
+                }
+            }
+        }
+        return musicianMap;
+    }
+
+    @Benchmark
+    public ObjectIntMap<Musician> objectIntMap() {
+        ObjectIntMap<Musician> counts = new ObjectIntMap<>();
+        for (Album a : catalogue) {
+            for (Musician musician : a.getFeaturedMusicians()) {
+                counts.increment(musician);
+            }
+        }
+        return counts;
+    }
+
+    @Benchmark
+    public List<Musician> mostSocialMusicians() {
+        return miner.mostSocialMusicians(10);
+    }
+}
@@ -0,0 +1,111 @@
+package allaboutecm.benchmark;
+
+import allaboutecm.mining.AlbumSimilarityIndex;
+import allaboutecm.mining.ECMMiner;
+import allaboutecm.model.Album;
+import allaboutecm.model.Musician;
+import allaboutecm.synthetic.CatalogueGenerator;
+import allaboutecm.synthetic.SyntheticCatalogue;
+import allaboutecm.validation.UrlValidation;
+import allaboutecm.validation.UrlValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every ECMMiner ranking in the in-memory mode over generated catalogues of 1k, 100k and 1M albums.
+ *
+ * mvn -P jmh compile exec:exec -Djmh.args="ECMMinerBenchmark -p albums=1000"
+ *
+ * The million album catalogue needs about 2 GB of heap.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class ECMMinerBenchmark {
+    public static final long SEED = 5171;
+
+    @Param({"1000", "100000", "1000000"})
+    public int albums;
+
+    @Param({"10"})
+    public int k;
+
+    private SyntheticCatalogue catalogue;
+    private ECMMiner miner;
+    private Album target;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        UrlValidation.setValidator(UrlValidator.ACCEPT_ALL);
+        catalogue = new CatalogueGenerator(SEED).generate(albums);
+        miner = new ECMMiner(new InMemoryDAO(catalogue));
+        // The catalogue does not change during a trial, so the lookups share one index, measured on its own below.
+        miner.setSimilarityIndex(AlbumSimilarityIndex.build(catalogue.getAlbums()));
+        target = catalogue.getAlbums().get(albums / 2);
+    }
+
+    @Benchmark
+    public List<Musician> mostProlificMusicians() {
+        return miner.mostProlificMusicians(k, -1, -1);
+    }
+
+    @Benchmark
+    public List<Musician> mostProlificMusiciansInDecade() {
+        return miner.mostProlificMusicians(k, 1990, 1999);
+    }
+
+    @Benchmark
+    public List<Musician> mostTalentedMusicians() {
+        return miner.mostTalentedMusicians(k);
+    }
+
+    @Benchmark
+    public List<Musician> mostSocialMusicians() {
+        return miner.mostSocialMusicians(k);
+    }
+
+    @Benchmark
+    public List<Integer> busiestYears() {
+        return miner.busiestYears(k);
+    }
+
+    @Benchmark
+    public List<Integer> busiestYearsInDecade() {
+        return miner.busiestYears(k, 1990, 1999);
+    }
+
+    @Benchmark
+    public List<Album> mostSimilarAlbums() {
+        return miner.mostSimilarAlbums(k, target);
+    }
+
+    @Benchmark
+    public List<Album> nearestAlbums() {
+        return miner.nearestAlbums(k, target);
+    }
+
+    @Benchmark
+    public AlbumSimilarityIndex buildSimilarityIndex() {
+        return AlbumSimilarityIndex.build(catalogue.getAlbums());
+    }
+
+    @Benchmark
+    public List<Album> highestRatedAlbums() {
+        return miner.highestRatedAlbums(k);
+    }
+
+    @Benchmark
+    public List<Album> highestRatedAlbumsWithThreeReviews() {
+        return miner.highestRatedAlbums(k, 3);
+    }
+
+    @Benchmark
+    public List<Album> bestSellingAlbums() {
+        return miner.bestSellingAlbums(k);
+    }
+}
@@ -0,0 +1,108 @@
+package allaboutecm.benchmark;
+
+import allaboutecm.model.Album;
+import allaboutecm.model.Musician;
+import allaboutecm.model.MusicianInstrument;
+import allaboutecm.synthetic.CatalogueGenerator;
+import allaboutecm.synthetic.SyntheticCatalogue;
+import allaboutecm.validation.UrlValidation;
+import allaboutecm.validation.UrlValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction, equals and hashCode of the entities the miner keys its maps and sets on.
+ *
+ * mvn -P jmh compile exec:exec -Djmh.args="EntityBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EntityBenchmark {
+    private static final int ENTITIES = 1024;
+
+    private List<Album> albums;
+    private List<Musician> musicians;
+    private List<MusicianInstrument> musicianInstruments;
+    private Set<Album> albumSet;
+    private Set<Musician> musicianSet;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        UrlValidation.setValidator(UrlValidator.ACCEPT_ALL);
+        SyntheticCatalogue catalogue = new CatalogueGenerator(ECMMinerBenchmark.SEED).generate(ENTITIES);
+        albums = catalogue.getAlbums();
+        musicians = catalogue.getMusicians();
+        musicianInstruments = catalogue.getMusicianInstruments();
+        albumSet = new HashSet<>(albums);
+        musicianSet = new HashSet<>(musicians);
+    }
+
+    private int next() {
+        next = (next + 1) & (ENTITIES - 1);
+        return next;
+    }
+
+    @Benchmark
+    public Album constructAlbum() {
+        int i = next();
+        return new Album(1975 + (i & 31), "ECM 1064/65", "The Köln Concert");
+    }
+
+    @Benchmark
+    public Musician constructMusician() {
+        return new Musician("Keith Jarrett");
+    }
+
+    @Benchmark
+    public int albumHashCode() {
+        return albums.get(next()).hashCode();
+    }
+
+    @Benchmark
+    public int musicianHashCode() {
+        return musicians.get(next() % musicians.size()).hashCode();
+    }
+
+    @Benchmark
+    public int musicianInstrumentHashCode() {
+        return musicianInstruments.get(next() % musicianInstruments.size()).hashCode();
+    }
+
+    // Distinct albums, so that every field is compared before the answer is known.
+    @Benchmark
+    public boolean albumEquals() {
+        int i = next();
+        return albums.get(i).equals(albums.get((i + 1) & (ENTITIES - 1)));
+    }
+
+    @Benchmark
+    public boolean musicianEquals() {
+        int i = next() % musicians.size();
+        return musicians.get(i).equals(musicians.get((i + 1) % musicians.size()));
+    }
+
+    @Benchmark
+    public boolean musicianInstrumentEquals() {
+        int i = next() % musicianInstruments.size();
+        return musicianInstruments.get(i).equals(musicianInstruments.get((i + 1) % musicianInstruments.size()));
+    }
+
+    @Benchmark
+    public boolean albumSetContains() {
+        return albumSet.contains(albums.get(next()));
+    }
+
+    @Benchmark
+    public boolean musicianSetContains() {
+        return musicianSet.contains(musicians.get(next() % musicians.size()));
+    }
+}
@@ -0,0 +1,82 @@
+package allaboutecm.benchmark;
+
+import allaboutecm.mining.graph.CentralityScores;
+import allaboutecm.mining.graph.CollaborationAnalytics;
+import allaboutecm.mining.graph.CollaborationGraph;
+import allaboutecm.mining.graph.Communities;
+import allaboutecm.model.Musician;
+import allaboutecm.synthetic.CatalogueGenerator;
+import allaboutecm.synthetic.SyntheticCatalogue;
+import allaboutecm.validation.UrlValidation;
+import allaboutecm.validation.UrlValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+
+/**
+ * The collaboration analytics on generated catalogues, the largest graph being over a million edges.
+ * threads = 0 runs on the calling thread.
+ *
+ * mvn -P jmh compile exec:exec -Djmh.args="GraphAnalyticsBenchmark -p threads=0,4"
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class GraphAnalyticsBenchmark {
+    @Param({"100000", "1000000"})
+    public int albums;
+
+    @Param({"0", "4"})
+    public int threads;
+
+    private SyntheticCatalogue catalogue;
+    private CollaborationGraph<Musician> graph;
+    private CollaborationAnalytics<Musician> analytics;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        UrlValidation.setValidator(UrlValidator.ACCEPT_ALL);
+        catalogue = new CatalogueGenerator(ECMMinerBenchmark.SEED).generate(albums);
+        graph = CollaborationGraph.of(catalogue.getAlbums(), catalogue.getMusicians());
+        isTrue(graph.edgeCount() > 0, "The generated catalogue should have collaborations.");
+        analytics = new CollaborationAnalytics<>(graph);
+        if (threads > 0) {
+            pool = new ForkJoinPool(threads);
+            analytics.setExecutor(pool);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public CollaborationGraph<Musician> buildGraph() {
+        return CollaborationGraph.of(catalogue.getAlbums(), catalogue.getMusicians());
+    }
+
+    @Benchmark
+    public CentralityScores<Musician> pageRank() {
+        return analytics.pageRank();
+    }
+
+    @Benchmark
+    public CentralityScores<Musician> betweenness() {
+        return analytics.betweenness(64, ECMMinerBenchmark.SEED);
+    }
+
+    @Benchmark
+    public Communities<Musician> labelPropagation() {
+        return analytics.communities(ECMMinerBenchmark.SEED);
+    }
+}
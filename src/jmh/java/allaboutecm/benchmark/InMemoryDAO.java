@@ -0,0 +1,218 @@
+package allaboutecm.benchmark;
+
+import allaboutecm.dataaccess.AlbumSummary;
+import allaboutecm.dataaccess.BatchListener;
+import allaboutecm.dataaccess.BatchResult;
+import allaboutecm.dataaccess.CollaborationEdges;
+import allaboutecm.dataaccess.DAO;
+import allaboutecm.dataaccess.FetchPlan;
+import allaboutecm.dataaccess.MusicianSummary;
+import allaboutecm.model.*;
+import allaboutecm.synthetic.SyntheticCatalogue;
+import com.google.common.collect.Multimap;
+import org.neo4j.ogm.cypher.query.Pagination;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * A read-only DAO over a generated catalogue, so that the miner benchmarks measure the mining and not the database.
+ * Only the loading methods the in-memory mining mode uses are supported.
+ */
+public class InMemoryDAO implements DAO {
+    private final Map<Class<?>, List<? extends Entity>> entities = new HashMap<>();
+
+    public InMemoryDAO(SyntheticCatalogue catalogue) {
+        notNull(catalogue, "Object is null.");
+        entities.put(Album.class, catalogue.getAlbums());
+        entities.put(Musician.class, catalogue.getMusicians());
+        entities.put(MusicalInstrument.class, catalogue.getInstruments());
+        entities.put(MusicianInstrument.class, catalogue.getMusicianInstruments());
+        entities.put(Review.class, catalogue.getReviews());
+        entities.put(Concert.class, catalogue.getConcerts());
+        entities.put(Group.class, catalogue.getGroups());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends Entity> Collection<T> loadAll(Class<T> clazz) {
+        List<T> all = (List<T>) entities.get(clazz);
+        return all == null ? Collections.emptyList() : all;
+    }
+
+    @Override
+    public <T extends Entity> Collection<T> loadAll(Class<T> clazz, Pagination pagination) {
+        throw unsupported();
+    }
+
+    @Override
+    public <T extends Entity> Stream<T> streamAll(Class<T> clazz, int pageSize) {
+        isTrue(pageSize > 0, "Page size should be positive.");
+        return loadAll(clazz).stream();
+    }
+
+    // The generated entities are wired up already, so every plan is met.
+    @Override
+    public <T extends Entity> Collection<T> loadAll(Class<T> clazz, FetchPlan plan) {
+        notNull(plan, "Object is null.");
+        return loadAll(clazz);
+    }
+
+    @Override
+    public <T extends Entity> Stream<T> streamAll(Class<T> clazz, int pageSize, FetchPlan plan) {
+        notNull(plan, "Object is null.");
+        return streamAll(clazz, pageSize);
+    }
+
+    @Override
+    public <T extends Entity> T load(Class<T> clazz, Long id) {
+        throw unsupported();
+    }
+
+    @Override
+    public <T extends Entity> T createOrUpdate(T entity) {
+        throw unsupported();
+    }
+
+    @Override
+    public <T extends Entity> BatchResult<T> createOrUpdateAll(Collection<T> entities) {
+        throw unsupported();
+    }
+
+    @Override
+    public <T extends Entity> BatchResult<T> createOrUpdateAll(Collection<T> entities, int chunkSize, BatchListener listener) {
+        throw unsupported();
+    }
+
+    @Override
+    public void relate(Class<? extends Entity> clazz, String relationship, Multimap<Long, Long> ids) {
+        throw unsupported();
+    }
+
+    @Override
+    public <T extends Entity> void delete(T entity) {
+        throw unsupported();
+    }
+
+    @Override
+    public Musician findMusicianByName(String name) {
+        throw unsupported();
+    }
+
+    @Override
+    public MusicalInstrument findMusicalInstrumentByName(String name) {
+        throw unsupported();
+    }
+
+    @Override
+    public Album findAlbumByAlbumName(String albumName) {
+        throw unsupported();
+    }
+
+    @Override
+    public Album findAlbumByRecordNumber(String recordNumber) {
+        throw unsupported();
+    }
+
+    @Override
+    public Album findAlbumByReleaseYear(int releaseYear) {
+        throw unsupported();
+    }
+
+    @Override
+    public Album findAlbumByGenre(String genre) {
+        throw unsupported();
+    }
+
+    @Override
+    public Album findAlbumByStyle(String style) {
+        throw unsupported();
+    }
+
+    @Override
+    public Track findTrackByName(String name) {
+        throw unsupported();
+    }
+
+    @Override
+    public Concert findConcertByName(String name) {
+        throw unsupported();
+    }
+
+    @Override
+    public Concert findConcertByCountry(String country) {
+        throw unsupported();
+    }
+
+    @Override
+    public Concert findConcertByCity(String city) {
+        throw unsupported();
+    }
+
+    @Override
+    public List<Musician> findMostProlificMusicians(int k, int startYear, int endYear) {
+        throw unsupported();
+    }
+
+    @Override
+    public List<Musician> findMostTalentedMusicians(int k) {
+        throw unsupported();
+    }
+
+    @Override
+    public List<Musician> findMostSocialMusicians(int k) {
+        throw unsupported();
+    }
+
+    @Override
+    public List<Integer> findBusiestYears(int k, int startYear, int endYear) {
+        throw unsupported();
+    }
+
+    @Override
+    public List<Album> findSimilarAlbums(int k, String genre, Set<String> instrumentNames) {
+        throw unsupported();
+    }
+
+    @Override
+    public List<Album> findHighestRatedAlbums(int k, int minReviews) {
+        throw unsupported();
+    }
+
+    @Override
+    public List<Album> findBestSellingAlbums(int k) {
+        throw unsupported();
+    }
+
+    @Override
+    public CollaborationEdges findCollaborationEdges() {
+        throw unsupported();
+    }
+
+    @Override
+    public <T extends Entity> List<T> loadAll(Class<T> clazz, List<Long> ids) {
+        throw unsupported();
+    }
+
+    @Override
+    public List<AlbumSummary> findAlbumSummaries() {
+        throw unsupported();
+    }
+
+    @Override
+    public List<MusicianSummary> findMusicianSummaries(int startYear, int endYear) {
+        throw unsupported();
+    }
+
+    private static UnsupportedOperationException unsupported() {
+        return new UnsupportedOperationException("The in-memory DAO only loads entities.");
+    }
+}
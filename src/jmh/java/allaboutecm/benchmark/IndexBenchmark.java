@@ -0,0 +1,81 @@
+package allaboutecm.benchmark;
+
+import allaboutecm.dataaccess.DAO;
+import allaboutecm.dataaccess.neo4j.IndexManager;
+import allaboutecm.dataaccess.neo4j.Neo4jDAO;
+import allaboutecm.model.Album;
+import allaboutecm.model.Musician;
+import com.google.common.collect.ImmutableMap;
+import org.neo4j.ogm.config.Configuration;
+import org.neo4j.ogm.session.Session;
+import org.neo4j.ogm.session.SessionFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups by key on an embedded database of half musicians and half albums, with and without the indexes of
+ * IndexManager. The nodes are written with Cypher, as an import would, before the indexes are created, so the
+ * setup also waits for populating them.
+ *
+ * mvn -P jmh compile exec:exec -Djmh.args="IndexBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class IndexBenchmark {
+    private static final int BATCH = 50000;
+
+    @Param({"1000000"})
+    public int nodes;
+
+    @Param({"false", "true"})
+    public boolean indexed;
+
+    private SessionFactory sessionFactory;
+    private Session session;
+    private DAO dao;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionFactory = new SessionFactory(new Configuration.Builder().build(), Musician.class.getPackage().getName());
+        session = sessionFactory.openSession();
+        for (int from = 0; from < nodes / 2; from += BATCH) {
+            ImmutableMap<String, Integer> range = ImmutableMap.of("from", from, "to", Math.min(from + BATCH, nodes / 2) - 1);
+            session.query("UNWIND range($from, $to) AS i CREATE (:Musician {name: 'Musician ' + i})", range);
+            session.query("UNWIND range($from, $to) AS i CREATE (:Album {albumName: 'Album ' + i, " +
+                    "recordNumber: 'ECM ' + i, releaseYear: 1970 + i % 50, genre: 'Jazz', style: 'Chamber Jazz'})", range);
+        }
+        if (indexed) {
+            new IndexManager(sessionFactory).ensureIndexes();
+        }
+        dao = new Neo4jDAO(session);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    // Keys spread over the whole range, so that no lookup is served by the one before.
+    private int nextKey() {
+        next = (next + 7919) % (nodes / 2);
+        return next;
+    }
+
+    @Benchmark
+    public Musician musicianByName() {
+        session.clear();
+        return dao.findMusicianByName("Musician " + nextKey());
+    }
+
+    @Benchmark
+    public Album albumByRecordNumber() {
+        session.clear();
+        return dao.findAlbumByRecordNumber("ECM " + nextKey());
+    }
+}
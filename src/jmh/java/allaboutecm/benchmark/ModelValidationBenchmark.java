@@ -0,0 +1,94 @@
+package allaboutecm.benchmark;
+
+import allaboutecm.model.Album;
+import allaboutecm.model.Musician;
+import allaboutecm.model.Review;
+import allaboutecm.validation.UrlValidation;
+import allaboutecm.validation.UrlValidator;
+import allaboutecm.validation.Validators;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the model's field checks per constructed entity, the regular expressions and Calendar the model
+ * used to run ("legacy") against Validators, and the full constructor cost as it is now.
+ *
+ * mvn -P jmh compile exec:exec -Djmh.args="ModelValidation -f 1"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class ModelValidationBenchmark {
+    private static final String[] NAMES = {"Keith Jarrett", "Chester Bennington", "Jan Garbarek", "Émile Parisien"};
+    private static final int[] YEARS = {1975, 1990, 2003, 2016};
+    private static final double[] RATINGS = {98, 48.5, 71.25, 12};
+
+    private URL url;
+    private int next;
+
+    @Setup
+    public void setUp() throws MalformedURLException {
+        // Keep the Review constructor off the network
+        UrlValidation.setValidator(UrlValidator.ACCEPT_ALL);
+        url = new URL("https://www.imdb.com/");
+    }
+
+    private int next() {
+        next = (next + 1) & 3;
+        return next;
+    }
+
+    @Benchmark
+    public boolean musicianNameLegacy() {
+        String name = NAMES[next()];
+        for (String token : name.split(" ")) {
+            if (!token.toLowerCase().matches("^[a-záäâèëéàêîïôüùû,/&à]*$")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Benchmark
+    public boolean musicianName() {
+        return Validators.isMusicianName(NAMES[next()]);
+    }
+
+    @Benchmark
+    public boolean releaseYearLegacy() {
+        int releaseYear = YEARS[next()];
+        int year = Calendar.getInstance().get(Calendar.YEAR);
+        return Integer.toString(releaseYear).matches("[0-9-]+") && releaseYear <= year && releaseYear >= Album.EARLIEST_RELEASE_YEAR;
+    }
+
+    @Benchmark
+    public boolean releaseYear() {
+        int releaseYear = YEARS[next()];
+        return releaseYear <= Validators.currentYear() && releaseYear >= Album.EARLIEST_RELEASE_YEAR;
+    }
+
+    @Benchmark
+    public boolean ratingLegacy() {
+        return Double.toString(RATINGS[next()]).matches("[0-9.]+");
+    }
+
+    @Benchmark
+    public boolean rating() {
+        return Validators.isPlainDecimal(RATINGS[next()]);
+    }
+
+    @Benchmark
+    public void constructEntities(Blackhole blackhole) {
+        int i = next();
+        blackhole.consume(new Musician(NAMES[i]));
+        blackhole.consume(new Album(YEARS[i], "ECM 1064/65", "The Köln Concert"));
+        blackhole.consume(new Review(url, RATINGS[i]));
+    }
+}
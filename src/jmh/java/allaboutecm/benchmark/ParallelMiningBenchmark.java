@@ -0,0 +1,86 @@
+package allaboutecm.benchmark;
+
+import allaboutecm.mining.ECMMiner;
+import allaboutecm.model.Album;
+import allaboutecm.model.Musician;
+import allaboutecm.synthetic.CatalogueGenerator;
+import allaboutecm.validation.UrlValidation;
+import allaboutecm.validation.UrlValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Speedup of ECMMiner's partitioned aggregation with the number of threads; threads = 0 is the sequential mode.
+ * Divide a row's score by the threads = 0 score of the same size for the speedup.
+ *
+ * mvn -P jmh compile exec:exec -Djmh.args="ParallelMiningBenchmark -p albums=100000"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class ParallelMiningBenchmark {
+    @Param({"100000", "1000000"})
+    public int albums;
+
+    @Param({"0", "1", "2", "4", "8", "16", "32"})
+    public int threads;
+
+    @Param({"10"})
+    public int k;
+
+    private ForkJoinPool pool;
+    private ECMMiner miner;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        UrlValidation.setValidator(UrlValidator.ACCEPT_ALL);
+        miner = new ECMMiner(new InMemoryDAO(new CatalogueGenerator(ECMMinerBenchmark.SEED).generate(albums)));
+        if (threads > 0) {
+            pool = new ForkJoinPool(threads);
+            miner.setExecutor(pool);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public List<Musician> mostProlificMusicians() {
+        return miner.mostProlificMusicians(k, -1, -1);
+    }
+
+    @Benchmark
+    public List<Musician> mostTalentedMusicians() {
+        return miner.mostTalentedMusicians(k);
+    }
+
+    @Benchmark
+    public List<Musician> mostSocialMusicians() {
+        return miner.mostSocialMusicians(k);
+    }
+
+    @Benchmark
+    public List<Integer> busiestYears() {
+        return miner.busiestYears(k);
+    }
+
+    @Benchmark
+    public List<Album> highestRatedAlbums() {
+        return miner.highestRatedAlbums(k);
+    }
+
+    @Benchmark
+    public List<Album> bestSellingAlbums() {
+        return miner.bestSellingAlbums(k);
+    }
+}
@@ -0,0 +1,106 @@
+package allaboutecm.benchmark;
+
+import allaboutecm.dataaccess.DAO;
+import allaboutecm.dataaccess.neo4j.IndexManager;
+import allaboutecm.dataaccess.neo4j.Neo4jDAO;
+import allaboutecm.dataaccess.neo4j.PooledNeo4jDAO;
+import allaboutecm.model.Musician;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import org.neo4j.ogm.config.Configuration;
+import org.neo4j.ogm.session.SessionFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A burst of requests, each writing one musician and looking up another, spread over request threads: on one
+ * Neo4jDAO serialised behind a lock, as the web tier shares it, against a PooledNeo4jDAO with a session per call.
+ *
+ * mvn -P jmh compile exec:exec -Djmh.args="PooledDAOBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class PooledDAOBenchmark {
+    private static final int MUSICIANS = 20000;
+    private static final int REQUESTS = 2000;
+
+    @Param({"locked", "pooled"})
+    public String dao;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private SessionFactory sessionFactory;
+    private DAO shared;
+    private ExecutorService executor;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionFactory = new SessionFactory(new Configuration.Builder().build(), Musician.class.getPackage().getName());
+        for (int i = 0; i < MUSICIANS; i++) {
+            sessionFactory.openSession().query("CREATE (:Musician {name: $name})", ImmutableMap.of("name", musicianName(i)));
+        }
+        new IndexManager(sessionFactory).ensureIndexes();
+        shared = "pooled".equals(dao) ? new PooledNeo4jDAO(sessionFactory, threads, 1000)
+                : new Neo4jDAO(sessionFactory.openSession());
+        executor = Executors.newFixedThreadPool(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdown();
+        sessionFactory.close();
+    }
+
+    private static String musicianName(int i) {
+        StringBuilder name = new StringBuilder("Musician ");
+        do {
+            name.append((char) ('a' + i % 26));
+            i /= 26;
+        } while (i > 0);
+        return name.toString();
+    }
+
+    private void request(int key) {
+        Musician musician = new Musician(musicianName(key));
+        String other = musicianName((key * 31) % MUSICIANS);
+        if ("pooled".equals(dao)) {
+            shared.createOrUpdate(musician);
+            shared.findMusicianByName(other);
+        } else {
+            synchronized (shared) {
+                shared.createOrUpdate(musician);
+                shared.findMusicianByName(other);
+            }
+        }
+    }
+
+    @Benchmark
+    public int burst() throws Exception {
+        List<Future<?>> requests = Lists.newArrayListWithCapacity(threads);
+        int perThread = REQUESTS / threads;
+        for (int t = 0; t < threads; t++) {
+            int first = next;
+            next = (next + perThread * 7919) % MUSICIANS;
+            requests.add(executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    request((first + i * 7919) % MUSICIANS);
+                }
+            }));
+        }
+        for (Future<?> request : requests) {
+            request.get();
+        }
+        return REQUESTS;
+    }
+}
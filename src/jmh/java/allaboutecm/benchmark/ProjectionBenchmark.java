@@ -0,0 +1,67 @@
+package allaboutecm.benchmark;
+
+import allaboutecm.dataaccess.AlbumSummary;
+import allaboutecm.dataaccess.DAO;
+import allaboutecm.dataaccess.FetchPlan;
+import allaboutecm.dataaccess.neo4j.Neo4jDAO;
+import allaboutecm.model.Album;
+import allaboutecm.model.Musician;
+import allaboutecm.synthetic.CatalogueGenerator;
+import allaboutecm.validation.UrlValidation;
+import allaboutecm.validation.UrlValidator;
+import org.neo4j.ogm.config.Configuration;
+import org.neo4j.ogm.session.Session;
+import org.neo4j.ogm.session.SessionFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What the album rankings load from an embedded database: Album entities with their reviews, as the in-memory
+ * mode reads them, against the AlbumSummary projection. Each call starts from an empty session, as a fresh
+ * ranking would. Run with the GC profiler to compare the bytes allocated per call:
+ *
+ * mvn -P jmh compile exec:exec -Djmh.args="ProjectionBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class ProjectionBenchmark {
+    @Param({"5000"})
+    public int albums;
+
+    private SessionFactory sessionFactory;
+    private Session session;
+    private DAO dao;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        UrlValidation.setValidator(UrlValidator.ACCEPT_ALL);
+        sessionFactory = new SessionFactory(new Configuration.Builder().build(), Musician.class.getPackage().getName());
+        session = sessionFactory.openSession();
+        dao = new Neo4jDAO(session);
+        new CatalogueGenerator(ECMMinerBenchmark.SEED).generate(albums).saveTo(dao);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public Collection<Album> albumEntities() {
+        session.clear();
+        return dao.loadAll(Album.class, FetchPlan.of("reviews"));
+    }
+
+    @Benchmark
+    public List<AlbumSummary> albumSummaries() {
+        session.clear();
+        return dao.findAlbumSummaries();
+    }
+}
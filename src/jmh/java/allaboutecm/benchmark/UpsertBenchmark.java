@@ -0,0 +1,83 @@
+package allaboutecm.benchmark;
+
+import allaboutecm.dataaccess.DAO;
+import allaboutecm.dataaccess.neo4j.IndexManager;
+import allaboutecm.dataaccess.neo4j.Neo4jDAO;
+import allaboutecm.model.Album;
+import allaboutecm.model.Musician;
+import com.google.common.collect.ImmutableMap;
+import org.neo4j.ogm.config.Configuration;
+import org.neo4j.ogm.session.Session;
+import org.neo4j.ogm.session.SessionFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The latency of DAO.createOrUpdate on an indexed embedded database, for entities that already exist and are
+ * written again from fresh objects, as an import or a form would. Each call starts from an empty session.
+ *
+ * mvn -P jmh compile exec:exec -Djmh.args="UpsertBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class UpsertBenchmark {
+    @Param({"100000"})
+    public int entities;
+
+    private SessionFactory sessionFactory;
+    private Session session;
+    private DAO dao;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionFactory = new SessionFactory(new Configuration.Builder().build(), Musician.class.getPackage().getName());
+        session = sessionFactory.openSession();
+        ImmutableMap<String, Integer> range = ImmutableMap.of("to", entities - 1);
+        session.query("UNWIND range(0, $to) AS i CREATE (:Album {albumName: 'Album ' + i, recordNumber: 'ECM ' + i, " +
+                "releaseYear: 1970 + i % 50, genre: 'Jazz', style: 'Chamber Jazz'})", range);
+        for (int i = 0; i < entities; i++) {
+            session.query("CREATE (:Musician {name: $name})", ImmutableMap.of("name", musicianName(i)));
+        }
+        new IndexManager(sessionFactory).ensureIndexes();
+        dao = new Neo4jDAO(session);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    // Musician names are letters only, so the number is spelled in them.
+    private static String musicianName(int i) {
+        StringBuilder name = new StringBuilder("Musician ");
+        do {
+            name.append((char) ('a' + i % 26));
+            i /= 26;
+        } while (i > 0);
+        return name.toString();
+    }
+
+    private int nextKey() {
+        next = (next + 7919) % entities;
+        return next;
+    }
+
+    @Benchmark
+    public Album updateAlbum() {
+        session.clear();
+        int i = nextKey();
+        return dao.createOrUpdate(new Album(1970 + i % 50, "ECM " + i, "Album " + i));
+    }
+
+    @Benchmark
+    public Musician updateMusician() {
+        session.clear();
+        return dao.createOrUpdate(new Musician(musicianName(nextKey())));
+    }
+}
@@ -0,0 +1,99 @@
+package allaboutecm.dataaccess;
+
+import java.util.Comparator;
+import java.util.Objects;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * What the album rankings read from an album, and nothing else: no URL, reviews, tracks, concerts or groups.
+ * DAO.findAlbumSummaries builds one per album straight from a query row, the rating already averaged.
+ */
+public final class AlbumSummary {
+    /**
+     * The same order as ECMMiner.ALBUM_ORDER: record number, name, release year, then id.
+     */
+    public static final Comparator<AlbumSummary> ORDER = Comparator.comparing(AlbumSummary::getRecordNumber)
+            .thenComparing(AlbumSummary::getAlbumName)
+            .thenComparingInt(AlbumSummary::getReleaseYear)
+            .thenComparing(AlbumSummary::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final Long id;
+    private final String albumName;
+    private final String recordNumber;
+    private final int releaseYear;
+    private final long sales;
+    private final int reviewCount;
+    private final double averageRating;
+
+    public AlbumSummary(Long id, String albumName, String recordNumber, int releaseYear, long sales,
+                        int reviewCount, double averageRating) {
+        notNull(albumName, "Object is null.");
+        notNull(recordNumber, "Object is null.");
+        isTrue(reviewCount >= 0, "Review count cannot be negative.");
+        this.id = id;
+        this.albumName = albumName;
+        this.recordNumber = recordNumber;
+        this.releaseYear = releaseYear;
+        this.sales = sales;
+        this.reviewCount = reviewCount;
+        this.averageRating = (reviewCount == 0) ? 0 : averageRating;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getAlbumName() {
+        return albumName;
+    }
+
+    public String getRecordNumber() {
+        return recordNumber;
+    }
+
+    public int getReleaseYear() {
+        return releaseYear;
+    }
+
+    public long getSales() {
+        return sales;
+    }
+
+    public int getReviewCount() {
+        return reviewCount;
+    }
+
+    /**
+     * The mean rating out of 100 of the album's reviews, zero when it has none.
+     */
+    public double getAverageRating() {
+        return averageRating;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AlbumSummary that = (AlbumSummary) o;
+        return releaseYear == that.releaseYear &&
+                sales == that.sales &&
+                reviewCount == that.reviewCount &&
+                Double.compare(that.averageRating, averageRating) == 0 &&
+                Objects.equals(id, that.id) &&
+                albumName.equals(that.albumName) &&
+                recordNumber.equals(that.recordNumber);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, albumName, recordNumber, releaseYear, sales, reviewCount, averageRating);
+    }
+
+    @Override
+    public String toString() {
+        return "AlbumSummary{" + id + ", " + recordNumber + " " + albumName + " (" + releaseYear + "), sales " + sales +
+                ", " + reviewCount + " reviews averaging " + averageRating + "}";
+    }
+}
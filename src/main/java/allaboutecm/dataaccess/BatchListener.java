@@ -0,0 +1,12 @@
+package allaboutecm.dataaccess;
+
+/**
+ * Told after each chunk of a DAO.createOrUpdateAll how many of the entities have been processed so far,
+ * whether their chunk was saved or not.
+ */
+@FunctionalInterface
+public interface BatchListener {
+    BatchListener NONE = (processed, total) -> { };
+
+    void onProgress(int processed, int total);
+}
@@ -0,0 +1,82 @@
+package allaboutecm.dataaccess;
+
+import allaboutecm.model.Entity;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * The outcome of a DAO.createOrUpdateAll: which entities were saved and which chunks were rolled back.
+ */
+public class BatchResult<T extends Entity> {
+    private final List<T> saved = Lists.newArrayList();
+    private final List<ChunkFailure<T>> failures = Lists.newArrayList();
+
+    public void addSaved(Collection<? extends T> entities) {
+        notNull(entities, "Object is null.");
+        saved.addAll(entities);
+    }
+
+    public void addFailure(ChunkFailure<T> failure) {
+        notNull(failure, "Object is null.");
+        failures.add(failure);
+    }
+
+    public List<T> getSaved() {
+        return ImmutableList.copyOf(saved);
+    }
+
+    public List<ChunkFailure<T>> getFailures() {
+        return ImmutableList.copyOf(failures);
+    }
+
+    public int getSavedCount() {
+        return saved.size();
+    }
+
+    public int getFailedCount() {
+        int failed = 0;
+        for (ChunkFailure<T> failure : failures) {
+            failed += failure.getEntities().size();
+        }
+        return failed;
+    }
+
+    public boolean isComplete() {
+        return failures.isEmpty();
+    }
+
+    /**
+     * A chunk whose transaction was rolled back. None of its entities were saved.
+     */
+    public static class ChunkFailure<T extends Entity> {
+        private final int chunk;
+        private final List<T> entities;
+        private final RuntimeException cause;
+
+        public ChunkFailure(int chunk, Collection<? extends T> entities, RuntimeException cause) {
+            notNull(entities, "Object is null.");
+            notNull(cause, "Object is null.");
+            this.chunk = chunk;
+            this.entities = ImmutableList.copyOf(entities);
+            this.cause = cause;
+        }
+
+        // Zero-based position of the chunk in the batch
+        public int getChunk() {
+            return chunk;
+        }
+
+        public List<T> getEntities() {
+            return entities;
+        }
+
+        public RuntimeException getCause() {
+            return cause;
+        }
+    }
+}
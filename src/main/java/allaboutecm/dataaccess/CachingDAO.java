@@ -0,0 +1,340 @@
+package allaboutecm.dataaccess;
+
+import allaboutecm.model.*;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * A read-through cache in front of another DAO.
+ *
+ * Caches load by id and the natural-key lookups findMusicianByName, findAlbumByRecordNumber and
+ * findMusicalInstrumentByName, misses included. Entries are evicted least recently used once the cache
+ * is full, and expire a fixed time after they were last read.
+ *
+ * Saving or deleting an entity through this DAO drops, by key, the entries that can be stale because of it:
+ * its id entry, the entry of its natural key (a cached miss included), the entries it was cached under before
+ * a rename, and the entries of cached albums and musicians it is part of, e.g. the albums featuring a deleted
+ * musician. To find the latter every entry is remembered under the ids of the entities in it, so a write costs
+ * as much as the entries it touches, not the size of the cache; relate drops the entries holding either end. Writes that bypass this DAO are only seen once
+ * the entries expire; call {@link #invalidateAll()} after them.
+ *
+ * Cached entities are not copied: every caller gets the same instances, and so sees changes another caller makes
+ * to them, saved or not. Treat them as read-only, and save changes through this DAO. Only the relationships
+ * between albums, their musicians and instruments are followed when invalidating; cached tracks, reviews and
+ * the like are refreshed when their album is saved or expires.
+ */
+public class CachingDAO extends ForwardingDAO {
+    public static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+    public static final long DEFAULT_EXPIRY_MINUTES = 10;
+
+    private static final String ID = "id";
+
+    private final Cache<Key, Optional<Entity>> cache;
+    // The cache keys under each entity's id that hold that entity or a graph containing it
+    private final ConcurrentMap<Long, Set<Key>> holders = new ConcurrentHashMap<>();
+
+    public CachingDAO(DAO delegate) {
+        this(delegate, DEFAULT_MAXIMUM_SIZE, DEFAULT_EXPIRY_MINUTES, TimeUnit.MINUTES);
+    }
+
+    public CachingDAO(DAO delegate, long maximumSize, long expireAfterAccess, TimeUnit unit) {
+        this(delegate, maximumSize, expireAfterAccess, unit, Ticker.systemTicker());
+    }
+
+    CachingDAO(DAO delegate, long maximumSize, long expireAfterAccess, TimeUnit unit, Ticker ticker) {
+        super(delegate);
+        isTrue(maximumSize > 0, "Maximum cache size should be positive.");
+        isTrue(expireAfterAccess > 0, "Cache expiry should be positive.");
+        notNull(unit, "Object is null.");
+        notNull(ticker, "Object is null.");
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(expireAfterAccess, unit)
+                .ticker(ticker)
+                .recordStats()
+                .removalListener(this::forget)
+                .build();
+    }
+
+    /*
+     * Hit, miss and eviction counters since this DAO was created
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+        holders.clear();
+    }
+
+    @Override
+    public <T extends Entity> T load(Class<T> clazz, Long id) {
+        if (null == clazz || null == id) {
+            return super.load(clazz, id);
+        }
+        return clazz.cast(get(new Key(clazz, ID, id), () -> super.load(clazz, id)));
+    }
+
+    @Override
+    public <T extends Entity> T createOrUpdate(T entity) {
+        // A failed save may still have assigned the id, so invalidate either way.
+        try {
+            return super.createOrUpdate(entity);
+        } finally {
+            invalidate(entity);
+        }
+    }
+
+    @Override
+    public <T extends Entity> BatchResult<T> createOrUpdateAll(Collection<T> entities) {
+        try {
+            return super.createOrUpdateAll(entities);
+        } finally {
+            invalidateAll(entities);
+        }
+    }
+
+    @Override
+    public <T extends Entity> BatchResult<T> createOrUpdateAll(Collection<T> entities, int chunkSize, BatchListener listener) {
+        try {
+            return super.createOrUpdateAll(entities, chunkSize, listener);
+        } finally {
+            invalidateAll(entities);
+        }
+    }
+
+    @Override
+    public void relate(Class<? extends Entity> clazz, String relationship, Multimap<Long, Long> ids) {
+        try {
+            super.relate(clazz, relationship, ids);
+        } finally {
+            if (null != ids) {
+                // Ids are unique across types, and every cached entity is held under its own id.
+                Set<Key> stale = Sets.newHashSet();
+                for (Map.Entry<Long, Long> pair : ids.entries()) {
+                    holdersOf(pair.getKey(), stale);
+                    holdersOf(pair.getValue(), stale);
+                }
+                cache.invalidateAll(stale);
+            }
+        }
+    }
+
+    @Override
+    public <T extends Entity> void delete(T entity) {
+        try {
+            super.delete(entity);
+        } finally {
+            invalidate(entity);
+        }
+    }
+
+    @Override
+    public Musician findMusicianByName(String name) {
+        if (null == name) {
+            return super.findMusicianByName(null);
+        }
+        return (Musician) get(new Key(Musician.class, "name", name), () -> super.findMusicianByName(name));
+    }
+
+    @Override
+    public MusicalInstrument findMusicalInstrumentByName(String name) {
+        if (null == name) {
+            return super.findMusicalInstrumentByName(null);
+        }
+        return (MusicalInstrument) get(new Key(MusicalInstrument.class, "name", name),
+                () -> super.findMusicalInstrumentByName(name));
+    }
+
+    @Override
+    public Album findAlbumByRecordNumber(String recordNumber) {
+        if (null == recordNumber) {
+            return super.findAlbumByRecordNumber(null);
+        }
+        return (Album) get(new Key(Album.class, "recordNumber", recordNumber),
+                () -> super.findAlbumByRecordNumber(recordNumber));
+    }
+
+    private Entity get(Key key, Supplier<? extends Entity> loader) {
+        try {
+            return cache.get(key, () -> Optional.ofNullable(hold(key, loader.get()))).orElse(null);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } catch (UncheckedExecutionException e) {
+            // Rethrow what the wrapped DAO threw, as a DAO without the cache would.
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    // Remembers the entry under the ids of the entities in it, on a miss only, so that hits stay a lookup.
+    private Entity hold(Key key, Entity entity) {
+        if (null != entity) {
+            for (Entity held : graph(entity)) {
+                holders.computeIfAbsent(held.getId(), id -> ConcurrentHashMap.newKeySet()).add(key);
+            }
+        }
+        return entity;
+    }
+
+    // Evicted, expired or invalidated: the entry no longer needs finding.
+    private void forget(RemovalNotification<Key, Optional<Entity>> removal) {
+        Optional<Entity> value = removal.getValue();
+        if (null == value || !value.isPresent()) {
+            return;
+        }
+        for (Entity held : graph(value.get())) {
+            holders.computeIfPresent(held.getId(), (id, keys) -> {
+                keys.remove(removal.getKey());
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    private void invalidate(Entity entity) {
+        if (null != entity) {
+            invalidateAll(Collections.singletonList(entity));
+        }
+    }
+
+    private void invalidateAll(Collection<? extends Entity> entities) {
+        if (null == entities) {
+            return;
+        }
+        Set<Key> stale = Sets.newHashSet();
+        for (Entity entity : entities) {
+            if (null == entity) {
+                continue;
+            }
+            Key naturalKey = naturalKey(entity);
+            if (null != naturalKey) {
+                stale.add(naturalKey);
+            }
+            // The entity, and the entities whose relationships to it the write may have changed
+            for (Entity written : graph(entity)) {
+                stale.add(idKey(written));
+                holdersOf(written.getId(), stale);
+            }
+        }
+        cache.invalidateAll(stale);
+    }
+
+    private void holdersOf(Long id, Set<Key> stale) {
+        Set<Key> keys = holders.remove(id);
+        if (null != keys) {
+            stale.addAll(keys);
+        }
+    }
+
+    // The entity with the saved entities it holds, as far as invalidation follows relationships
+    private static List<Entity> graph(Entity entity) {
+        List<Entity> graph = Lists.newArrayList();
+        addSaved(graph, entity);
+        if (entity instanceof Album) {
+            Album album = (Album) entity;
+            if (null != album.getFeaturedMusicians()) {
+                for (Musician musician : album.getFeaturedMusicians()) {
+                    addSaved(graph, musician);
+                }
+            }
+            if (null != album.getInstruments()) {
+                for (MusicianInstrument musicianInstrument : album.getInstruments()) {
+                    addSaved(graph, musicianInstrument);
+                    addSaved(graph, musicianInstrument.getMusician());
+                    if (null != musicianInstrument.getMusicalInstruments()) {
+                        for (MusicalInstrument instrument : musicianInstrument.getMusicalInstruments()) {
+                            addSaved(graph, instrument);
+                        }
+                    }
+                }
+            }
+        } else if (entity instanceof Musician && null != ((Musician) entity).getAlbums()) {
+            for (Album album : ((Musician) entity).getAlbums()) {
+                addSaved(graph, album);
+            }
+        }
+        return graph;
+    }
+
+    private static void addSaved(List<Entity> graph, Entity entity) {
+        if (null != entity && null != entity.getId()) {
+            graph.add(entity);
+        }
+    }
+
+    private static Key idKey(Entity entity) {
+        return new Key(entity.getClass(), ID, entity.getId());
+    }
+
+    // The natural-key entry the entity is looked up by now, if its type has one
+    private static Key naturalKey(Entity entity) {
+        Object value = null;
+        String field = null;
+        if (entity instanceof Musician) {
+            field = "name";
+            value = ((Musician) entity).getName();
+        } else if (entity instanceof MusicalInstrument) {
+            field = "name";
+            value = ((MusicalInstrument) entity).getName();
+        } else if (entity instanceof Album) {
+            field = "recordNumber";
+            value = ((Album) entity).getRecordNumber();
+        }
+        return (null == value) ? null : new Key(entity.getClass(), field, value);
+    }
+
+    private static final class Key {
+        private final Class<?> type;
+        private final String field;
+        private final Object value;
+
+        private Key(Class<?> type, String field, Object value) {
+            this.type = type;
+            this.field = field;
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return type.equals(key.type) && field.equals(key.field) && value.equals(key.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, field, value);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package allaboutecm.dataaccess;
+
+import allaboutecm.model.Musician;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * The musician-album graph projected onto musicians, as DAO.findCollaborationEdges reads it: the musicians, and
+ * for each pair that shares albums an edge from one position in the list to another, weighted by the number of
+ * albums. Mining builds its CollaborationGraph from these.
+ *
+ * The arrays are handed over, not copied, and should be treated as read-only.
+ */
+public final class CollaborationEdges {
+    private final List<Musician> musicians;
+    private final int[] sources;
+    private final int[] targets;
+    private final int[] weights;
+
+    public CollaborationEdges(List<Musician> musicians, int[] sources, int[] targets, int[] weights) {
+        notNull(musicians, "Object is null.");
+        notNull(sources, "Object is null.");
+        notNull(targets, "Object is null.");
+        notNull(weights, "Object is null.");
+        isTrue(sources.length == targets.length && sources.length == weights.length, "Edge arrays differ in length.");
+        this.musicians = Collections.unmodifiableList(musicians);
+        this.sources = sources;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    public List<Musician> getMusicians() {
+        return musicians;
+    }
+
+    public int[] getSources() {
+        return sources;
+    }
+
+    public int[] getTargets() {
+        return targets;
+    }
+
+    public int[] getWeights() {
+        return weights;
+    }
+
+    public int getEdgeCount() {
+        return sources.length;
+    }
+}
@@ -1,16 +1,63 @@
 package allaboutecm.dataaccess;
 
 import allaboutecm.model.*;
+import com.google.common.collect.Multimap;
+import org.neo4j.ogm.cypher.query.Pagination;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public interface DAO {
     <T extends Entity> T load(Class<T> clazz, Long id);
 
     <T extends Entity> T createOrUpdate(T entity);
 
+    /*
+     * Save many entities, committing one transaction per chunk. New entities are merged onto the node of their key, one
+     * statement per type and chunk; entities that have an id keep it
+     */
+    <T extends Entity> BatchResult<T> createOrUpdateAll(Collection<T> entities);
+
+    /*
+     * Save many entities in chunks of chunkSize, reporting progress after every chunk
+     */
+    <T extends Entity> BatchResult<T> createOrUpdateAll(Collection<T> entities, int chunkSize, BatchListener listener);
+
+    /*
+     * Relate saved entities by id without loading or saving them: every key of ids gets the relationship field of the
+     * class, named as in a FetchPlan, to each of its values, unless it is there already. Loaded entities are not updated
+     */
+    void relate(Class<? extends Entity> clazz, String relationship, Multimap<Long, Long> ids);
+
     <T extends Entity> Collection<T> loadAll(Class<T> clazz);
 
+    /*
+     * Load one page of the entities of a class
+     */
+    <T extends Entity> Collection<T> loadAll(Class<T> clazz, Pagination pagination);
+
+    /*
+     * Stream all entities of a class, loading pageSize of them at a time as the stream is consumed
+     */
+    <T extends Entity> Stream<T> streamAll(Class<T> clazz, int pageSize);
+
+    /*
+     * Load all entities of a class together with exactly the relationships of the plan, in one round trip
+     */
+    <T extends Entity> Collection<T> loadAll(Class<T> clazz, FetchPlan plan);
+
+    /*
+     * Stream all entities of a class pageSize at a time, each page loaded with the relationships of the plan
+     */
+    <T extends Entity> Stream<T> streamAll(Class<T> clazz, int pageSize, FetchPlan plan);
+
+    /*
+     * Load the entities of a class with the given ids in one lookup, in the order of the ids
+     */
+    <T extends Entity> List<T> loadAll(Class<T> clazz, List<Long> ids);
+
     <T extends Entity> void delete(T entity);
 
     /*
@@ -68,4 +115,54 @@ public interface DAO {
      */
     Concert findConcertByCity(String city);
 
+    /*
+     * Server-side ranking of musicians by the number of albums released in [startYear, endYear]
+     */
+    List<Musician> findMostProlificMusicians(int k, int startYear, int endYear);
+
+    /*
+     * Server-side ranking of musicians by the number of different instruments they play
+     */
+    List<Musician> findMostTalentedMusicians(int k);
+
+    /*
+     * Server-side ranking of musicians by the number of distinct musicians they share an album with
+     */
+    List<Musician> findMostSocialMusicians(int k);
+
+    /*
+     * Server-side ranking of release years in [startYear, endYear] by the number of albums released
+     */
+    List<Integer> findBusiestYears(int k, int startYear, int endYear);
+
+    /*
+     * Server-side lookup of albums of the given genre played on exactly the given instruments
+     */
+    List<Album> findSimilarAlbums(int k, String genre, Set<String> instrumentNames);
+
+    /*
+     * Server-side ranking of albums with at least minReviews reviews by their average review rating
+     */
+    List<Album> findHighestRatedAlbums(int k, int minReviews);
+
+    /*
+     * Server-side ranking of albums by sales
+     */
+    List<Album> findBestSellingAlbums(int k);
+
+    /*
+     * Server-side projection of the musician-album graph onto musicians, with the number of albums each pair shares
+     */
+    CollaborationEdges findCollaborationEdges();
+
+    /*
+     * Server-side projection of every album onto the fields the album rankings read
+     */
+    List<AlbumSummary> findAlbumSummaries();
+
+    /*
+     * Server-side projection of every musician with the number of their albums released in [startYear, endYear]
+     */
+    List<MusicianSummary> findMusicianSummaries(int startYear, int endYear);
+
 }
@@ -0,0 +1,97 @@
+package allaboutecm.dataaccess;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableSortedSet;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * The relationships to load along with the entities of a DAO.loadAll, as paths of relationship fields starting
+ * at the loaded class: FetchPlan.of("reviews", "instruments.musicalInstruments") loads the reviews of each album
+ * and its musician instruments together with their instruments. Fields are matched by name, case aside; every
+ * step of a path is loaded, and relationships outside the plan are left unloaded.
+ */
+public final class FetchPlan {
+    /**
+     * Loads the entities' own properties and no relationships.
+     */
+    public static final FetchPlan NONE = new FetchPlan(ImmutableSortedSet.of());
+
+    private static final Pattern PATH = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)*");
+
+    private final ImmutableSortedSet<String> paths;
+
+    private FetchPlan(ImmutableSortedSet<String> paths) {
+        this.paths = paths;
+    }
+
+    public static FetchPlan of(String... paths) {
+        notNull(paths, "Object is null.");
+        return NONE.and(paths);
+    }
+
+    /**
+     * This plan with more paths, for a caller that needs what another one loads and then some.
+     */
+    public FetchPlan and(String... morePaths) {
+        notNull(morePaths, "Object is null.");
+        ImmutableSortedSet.Builder<String> builder = ImmutableSortedSet.naturalOrder();
+        builder.addAll(paths);
+        for (String path : morePaths) {
+            notNull(path, "Object is null.");
+            isTrue(PATH.matcher(path).matches(), "Invalid fetch path: %s", path);
+            builder.add(path);
+        }
+        return new FetchPlan(builder.build());
+    }
+
+    public Set<String> getPaths() {
+        return paths;
+    }
+
+    /**
+     * Every path of the plan and every path leading up to one, shortest first; "a.b" brings "a" along.
+     */
+    public Set<String> getSteps() {
+        ImmutableSortedSet.Builder<String> steps = ImmutableSortedSet.orderedBy(
+                Comparator.comparingInt(FetchPlan::length).thenComparing(Comparator.naturalOrder()));
+        for (String path : paths) {
+            String[] fields = path.split("\\.");
+            for (int length = 1; length <= fields.length; length++) {
+                steps.add(Joiner.on('.').join(Arrays.asList(fields).subList(0, length)));
+            }
+        }
+        return steps.build();
+    }
+
+    private static int length(String path) {
+        return path.split("\\.").length;
+    }
+
+    public boolean isEmpty() {
+        return paths.isEmpty();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return paths.equals(((FetchPlan) o).paths);
+    }
+
+    @Override
+    public int hashCode() {
+        return paths.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "FetchPlan" + paths;
+    }
+}
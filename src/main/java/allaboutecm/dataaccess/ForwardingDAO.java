@@ -0,0 +1,193 @@
+package allaboutecm.dataaccess;
+
+import allaboutecm.model.*;
+import com.google.common.collect.Multimap;
+import org.neo4j.ogm.cypher.query.Pagination;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * A DAO that forwards every call to another DAO. Decorators extend it and override only the calls they change.
+ */
+public abstract class ForwardingDAO implements DAO {
+    private final DAO delegate;
+
+    protected ForwardingDAO(DAO delegate) {
+        notNull(delegate, "Delegate DAO should not be null.");
+        this.delegate = delegate;
+    }
+
+    protected DAO delegate() {
+        return delegate;
+    }
+
+    @Override
+    public <T extends Entity> T load(Class<T> clazz, Long id) {
+        return delegate.load(clazz, id);
+    }
+
+    @Override
+    public <T extends Entity> T createOrUpdate(T entity) {
+        return delegate.createOrUpdate(entity);
+    }
+
+    @Override
+    public <T extends Entity> BatchResult<T> createOrUpdateAll(Collection<T> entities) {
+        return delegate.createOrUpdateAll(entities);
+    }
+
+    @Override
+    public <T extends Entity> BatchResult<T> createOrUpdateAll(Collection<T> entities, int chunkSize, BatchListener listener) {
+        return delegate.createOrUpdateAll(entities, chunkSize, listener);
+    }
+
+    @Override
+    public void relate(Class<? extends Entity> clazz, String relationship, Multimap<Long, Long> ids) {
+        delegate.relate(clazz, relationship, ids);
+    }
+
+    @Override
+    public <T extends Entity> Collection<T> loadAll(Class<T> clazz) {
+        return delegate.loadAll(clazz);
+    }
+
+    @Override
+    public <T extends Entity> Collection<T> loadAll(Class<T> clazz, Pagination pagination) {
+        return delegate.loadAll(clazz, pagination);
+    }
+
+    @Override
+    public <T extends Entity> Stream<T> streamAll(Class<T> clazz, int pageSize) {
+        return delegate.streamAll(clazz, pageSize);
+    }
+
+    @Override
+    public <T extends Entity> Collection<T> loadAll(Class<T> clazz, FetchPlan plan) {
+        return delegate.loadAll(clazz, plan);
+    }
+
+    @Override
+    public <T extends Entity> Stream<T> streamAll(Class<T> clazz, int pageSize, FetchPlan plan) {
+        return delegate.streamAll(clazz, pageSize, plan);
+    }
+
+    @Override
+    public <T extends Entity> List<T> loadAll(Class<T> clazz, List<Long> ids) {
+        return delegate.loadAll(clazz, ids);
+    }
+
+    @Override
+    public <T extends Entity> void delete(T entity) {
+        delegate.delete(entity);
+    }
+
+    @Override
+    public Musician findMusicianByName(String name) {
+        return delegate.findMusicianByName(name);
+    }
+
+    @Override
+    public MusicalInstrument findMusicalInstrumentByName(String name) {
+        return delegate.findMusicalInstrumentByName(name);
+    }
+
+    @Override
+    public Album findAlbumByAlbumName(String albumName) {
+        return delegate.findAlbumByAlbumName(albumName);
+    }
+
+    @Override
+    public Album findAlbumByRecordNumber(String recordNumber) {
+        return delegate.findAlbumByRecordNumber(recordNumber);
+    }
+
+    @Override
+    public Album findAlbumByReleaseYear(int releaseYear) {
+        return delegate.findAlbumByReleaseYear(releaseYear);
+    }
+
+    @Override
+    public Album findAlbumByGenre(String genre) {
+        return delegate.findAlbumByGenre(genre);
+    }
+
+    @Override
+    public Album findAlbumByStyle(String style) {
+        return delegate.findAlbumByStyle(style);
+    }
+
+    @Override
+    public Track findTrackByName(String name) {
+        return delegate.findTrackByName(name);
+    }
+
+    @Override
+    public Concert findConcertByName(String name) {
+        return delegate.findConcertByName(name);
+    }
+
+    @Override
+    public Concert findConcertByCountry(String country) {
+        return delegate.findConcertByCountry(country);
+    }
+
+    @Override
+    public Concert findConcertByCity(String city) {
+        return delegate.findConcertByCity(city);
+    }
+
+    @Override
+    public List<Musician> findMostProlificMusicians(int k, int startYear, int endYear) {
+        return delegate.findMostProlificMusicians(k, startYear, endYear);
+    }
+
+    @Override
+    public List<Musician> findMostTalentedMusicians(int k) {
+        return delegate.findMostTalentedMusicians(k);
+    }
+
+    @Override
+    public List<Musician> findMostSocialMusicians(int k) {
+        return delegate.findMostSocialMusicians(k);
+    }
+
+    @Override
+    public List<Integer> findBusiestYears(int k, int startYear, int endYear) {
+        return delegate.findBusiestYears(k, startYear, endYear);
+    }
+
+    @Override
+    public List<Album> findSimilarAlbums(int k, String genre, Set<String> instrumentNames) {
+        return delegate.findSimilarAlbums(k, genre, instrumentNames);
+    }
+
+    @Override
+    public List<Album> findHighestRatedAlbums(int k, int minReviews) {
+        return delegate.findHighestRatedAlbums(k, minReviews);
+    }
+
+    @Override
+    public List<Album> findBestSellingAlbums(int k) {
+        return delegate.findBestSellingAlbums(k);
+    }
+
+    @Override
+    public CollaborationEdges findCollaborationEdges() {
+        return delegate.findCollaborationEdges();
+    }
+
+    @Override
+    public List<AlbumSummary> findAlbumSummaries() {
+        return delegate.findAlbumSummaries();
+    }
+
+    @Override
+    public List<MusicianSummary> findMusicianSummaries(int startYear, int endYear) {
+        return delegate.findMusicianSummaries(startYear, endYear);
+    }
+}
@@ -0,0 +1,54 @@
+package allaboutecm.dataaccess;
+
+import java.util.Objects;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * A musician's id and name with the number of albums counted for them, built straight from a query row
+ * by DAO.findMusicianSummaries.
+ */
+public final class MusicianSummary {
+    private final Long id;
+    private final String name;
+    private final int albumCount;
+
+    public MusicianSummary(Long id, String name, int albumCount) {
+        notNull(name, "Object is null.");
+        isTrue(albumCount >= 0, "Album count cannot be negative.");
+        this.id = id;
+        this.name = name;
+        this.albumCount = albumCount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getAlbumCount() {
+        return albumCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        MusicianSummary that = (MusicianSummary) o;
+        return albumCount == that.albumCount && Objects.equals(id, that.id) && name.equals(that.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name, albumCount);
+    }
+
+    @Override
+    public String toString() {
+        return "MusicianSummary{" + id + ", " + name + ", " + albumCount + " albums}";
+    }
+}
@@ -0,0 +1,470 @@
+package allaboutecm.dataaccess.csv;
+
+import allaboutecm.dataaccess.BatchListener;
+import allaboutecm.dataaccess.BatchResult;
+import allaboutecm.dataaccess.DAO;
+import allaboutecm.model.*;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Streams an ECM catalogue from CSV into a DAO.
+ *
+ * Every row starts with its type. An ALBUM row opens an album, and the rows after it up to the next ALBUM
+ * row belong to that album:
+ * <pre>
+ * ALBUM,releaseYear,recordNumber,albumName[,genre,style,releaseFormat,sales]
+ * MUSICIAN,name[,biography]               featured on the album; saved on its own before the first album
+ * INSTRUMENT,musician,instrument;...      what the musician plays on the album
+ * TRACK,name,lengthInMinutes
+ * REVIEW,url,ratingOutOf100[,review]
+ * CONCERT,concertName,country[,city,musician;...]
+ * GROUP,groupName                         the group the album is credited to
+ * </pre>
+ * Blank lines and lines starting with # are skipped, and empty optional fields keep the model's defaults.
+ *
+ * Rows are parsed one at a time and albums are written through DAO.createOrUpdateAll every batchSize albums,
+ * so the file itself is never held in memory. Entities live for one batch: albums are saved on their own and
+ * then related by id, through DAO.relate, to their musicians, instruments and groups, so that no musician or
+ * group collects the albums of the import. What outlives a batch is the id of every musician, instrument, musician
+ * instrument and group saved so far, by natural key, to deduplicate them for the whole import. A row that cannot
+ * be parsed is rejected and reported, and so are the rows of an album that was rejected.
+ */
+public class CatalogueImporter {
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private static final CSVFormat FORMAT = CSVFormat.DEFAULT
+            .withCommentMarker('#')
+            .withIgnoreEmptyLines()
+            .withIgnoreSurroundingSpaces();
+    private static final Splitter LIST_SPLITTER = Splitter.on(';').trimResults().omitEmptyStrings();
+
+    private final DAO dao;
+    private final int batchSize;
+
+    public CatalogueImporter(DAO dao) {
+        this(dao, DEFAULT_BATCH_SIZE);
+    }
+
+    public CatalogueImporter(DAO dao, int batchSize) {
+        notNull(dao, "Object is null.");
+        isTrue(batchSize > 0, "Batch size should be positive.");
+        this.dao = dao;
+        this.batchSize = batchSize;
+    }
+
+    public ImportReport importCatalogue(Path file) throws IOException {
+        return importCatalogue(file, ImportListener.NONE);
+    }
+
+    public ImportReport importCatalogue(Path file, ImportListener listener) throws IOException {
+        notNull(file, "Object is null.");
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importCatalogue(reader, listener);
+        }
+    }
+
+    public ImportReport importCatalogue(Reader reader) throws IOException {
+        return importCatalogue(reader, ImportListener.NONE);
+    }
+
+    public ImportReport importCatalogue(Reader reader, ImportListener listener) throws IOException {
+        notNull(reader, "Object is null.");
+        notNull(listener, "Object is null.");
+        Run run = new Run(listener);
+        try (CSVParser parser = FORMAT.parse(reader)) {
+            for (CSVRecord record : parser) {
+                run.accept(record, parser.getCurrentLineNumber());
+            }
+        }
+        run.flush();
+        run.report.finish();
+        return run.report;
+    }
+
+    // The state of one import
+    private class Run {
+        private final ImportListener listener;
+        private final ImportReport report = new ImportReport();
+
+        // What earlier batches saved, by natural key; only the ids are kept
+        private final Map<String, Long> musicianIds = Maps.newHashMap();
+        private final Map<String, Long> instrumentIds = Maps.newHashMap();
+        private final Map<List<Object>, Long> musicianInstrumentIds = Maps.newHashMap();
+        private final Map<String, Long> groupIds = Maps.newHashMap();
+
+        // Read since the last flush; all of these are cleared on every flush
+        private final Map<String, Musician> musicians = Maps.newLinkedHashMap();
+        private final Map<String, String> biographies = Maps.newHashMap();
+        private final Map<String, MusicalInstrument> instruments = Maps.newLinkedHashMap();
+        private final Set<List<Object>> musicianInstruments = Sets.newLinkedHashSet();
+        private final Map<String, Group> groups = Maps.newLinkedHashMap();
+        private final List<AlbumRows> albums = Lists.newArrayList();
+
+        private AlbumRows album;
+        private boolean albumRejected;
+
+        private Run(ImportListener listener) {
+            this.listener = listener;
+        }
+
+        private void accept(CSVRecord record, long line) {
+            report.addRow();
+            String type = record.get(0).toUpperCase(Locale.ROOT);
+            try {
+                if ("ALBUM".equals(type)) {
+                    album = null;
+                    albumRejected = true;
+                    if (albums.size() >= batchSize) {
+                        flush();
+                    }
+                    album = new AlbumRows(album(record));
+                    albums.add(album);
+                    albumRejected = false;
+                    return;
+                }
+                if (albumRejected) {
+                    report.reject(line, "Belongs to a rejected album.");
+                    return;
+                }
+                switch (type) {
+                    case "MUSICIAN":
+                        musician(record);
+                        break;
+                    case "INSTRUMENT":
+                        musicianInstrument(record);
+                        break;
+                    case "TRACK":
+                        currentAlbum().album.getTracks().add(new Track(required(record, 1), Double.parseDouble(required(record, 2))));
+                        break;
+                    case "REVIEW":
+                        review(record);
+                        break;
+                    case "CONCERT":
+                        concert(record);
+                        break;
+                    case "GROUP":
+                        currentAlbum().groups.add(groupNamed(required(record, 1)));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown row type " + type + ".");
+                }
+            } catch (RuntimeException | MalformedURLException e) {
+                report.reject(line, String.valueOf(e.getMessage()));
+            }
+        }
+
+        private Album album(CSVRecord record) {
+            Album album = new Album(Integer.parseInt(required(record, 1)), required(record, 2), required(record, 3));
+            if (!optional(record, 4).isEmpty()) {
+                album.setGenre(optional(record, 4));
+            }
+            if (!optional(record, 5).isEmpty()) {
+                album.setStyle(optional(record, 5));
+            }
+            if (!optional(record, 6).isEmpty()) {
+                album.setReleaseFormat(optional(record, 6));
+            }
+            if (!optional(record, 7).isEmpty()) {
+                album.setSales(Integer.parseInt(optional(record, 7)));
+            }
+            return album;
+        }
+
+        private void musician(CSVRecord record) {
+            String name = musicianNamed(required(record, 1));
+            String biography = optional(record, 2);
+            if (!biography.isEmpty()) {
+                if (musicians.containsKey(name)) {
+                    musicians.get(name).setBiography(biography);
+                } else {
+                    biographies.put(name, biography);
+                }
+            }
+            if (null != album) {
+                album.musicians.add(name);
+            }
+        }
+
+        private void musicianInstrument(CSVRecord record) {
+            AlbumRows album = currentAlbum();
+            String musician = musicianNamed(required(record, 1));
+            ImmutableSortedSet.Builder<String> names = ImmutableSortedSet.naturalOrder();
+            for (String name : LIST_SPLITTER.split(required(record, 2))) {
+                names.add(instrumentNamed(name));
+            }
+            List<Object> key = musicianInstrumentKey(musician, names.build());
+            if (!musicianInstrumentIds.containsKey(key)) {
+                musicianInstruments.add(key);
+            }
+            album.musicianInstruments.add(key);
+        }
+
+        private void review(CSVRecord record) throws MalformedURLException {
+            Review review = new Review(new URL(required(record, 1)), Double.parseDouble(required(record, 2)));
+            if (!optional(record, 3).isEmpty()) {
+                review.setReview(optional(record, 3));
+            }
+            currentAlbum().album.getReviews().add(review);
+        }
+
+        private void concert(CSVRecord record) {
+            AlbumRows album = currentAlbum();
+            Concert concert = new Concert(required(record, 1), required(record, 2));
+            if (!optional(record, 3).isEmpty()) {
+                concert.setCity(optional(record, 3));
+            }
+            List<String> performers = Lists.newArrayList();
+            for (String name : LIST_SPLITTER.split(optional(record, 4))) {
+                performers.add(musicianNamed(name));
+            }
+            album.album.getConcerts().add(concert);
+            album.performers.put(concert, performers);
+        }
+
+        // The name, with a musician to save for it if no batch has seen it yet
+        private String musicianNamed(String name) {
+            if (!musicianIds.containsKey(name) && !musicians.containsKey(name)) {
+                musicians.put(name, new Musician(name));
+            }
+            return name;
+        }
+
+        private String groupNamed(String name) {
+            if (!groupIds.containsKey(name) && !groups.containsKey(name)) {
+                groups.put(name, new Group(name));
+            }
+            return name;
+        }
+
+        private String instrumentNamed(String name) {
+            if (!instrumentIds.containsKey(name) && !instruments.containsKey(name)) {
+                instruments.put(name, new MusicalInstrument(name));
+            }
+            return name;
+        }
+
+        private AlbumRows currentAlbum() {
+            if (null == album) {
+                throw new IllegalArgumentException("No album for this row.");
+            }
+            return album;
+        }
+
+        /*
+         * Write everything read since the last flush. Musicians, instruments and groups go first so that the batch
+         * lookup matches them against the database, then the musician instruments, which need their musician and
+         * instruments as entities: those saved by an earlier batch are loaded again for it, and so are musicians
+         * given a biography after they were saved. The albums are saved on their own, with their tracks, reviews
+         * and concerts, and then related by id to their musicians, instruments and groups, both ways where
+         * the model has both, as ECMMiner reads albums from the musician side.
+         */
+        private void flush() {
+            Set<String> neededMusicians = Sets.newHashSet(biographies.keySet());
+            Set<String> neededInstruments = Sets.newHashSet();
+            for (List<Object> key : musicianInstruments) {
+                neededMusicians.add(playerOf(key));
+                neededInstruments.addAll(instrumentsOf(key));
+            }
+            Map<String, Musician> earlierMusicians = loadEarlier(Musician.class, musicianIds, neededMusicians, Musician::getName);
+            Map<String, MusicalInstrument> earlierInstruments = loadEarlier(MusicalInstrument.class, instrumentIds,
+                    neededInstruments, MusicalInstrument::getName);
+            biographies.forEach((name, biography) -> {
+                Musician musician = earlierMusicians.get(name);
+                if (null != musician) {
+                    musician.setBiography(biography);
+                    musicians.put(name, musician);
+                }
+            });
+
+            idsOf(save(musicians.values()), Musician::getName, musicianIds);
+            idsOf(save(instruments.values()), MusicalInstrument::getName, instrumentIds);
+            idsOf(save(groups.values()), Group::getGroupName, groupIds);
+            Map<List<Object>, MusicianInstrument> played = Maps.newLinkedHashMap();
+            for (List<Object> key : musicianInstruments) {
+                Musician musician = musicians.containsKey(playerOf(key)) ? musicians.get(playerOf(key)) : earlierMusicians.get(playerOf(key));
+                Set<MusicalInstrument> playedInstruments = Sets.newHashSet();
+                for (String name : instrumentsOf(key)) {
+                    MusicalInstrument instrument = instruments.containsKey(name) ? instruments.get(name) : earlierInstruments.get(name);
+                    if (null != instrument && null != instrument.getId()) {
+                        playedInstruments.add(instrument);
+                    }
+                }
+                // Left out if its musician or an instrument could not be saved; that failure is reported already.
+                if (null != musician && null != musician.getId() && playedInstruments.size() == instrumentsOf(key).size()) {
+                    played.put(key, new MusicianInstrument(musician, playedInstruments));
+                }
+            }
+            save(played.values());
+            played.forEach((key, musicianInstrument) -> {
+                // Saved unless its chunk failed, which leaves the id unset
+                if (null != musicianInstrument.getId()) {
+                    musicianInstrumentIds.put(key, musicianInstrument.getId());
+                }
+            });
+
+            List<Album> entities = Lists.newArrayList();
+            for (AlbumRows rows : albums) {
+                entities.add(rows.album);
+            }
+            save(entities);
+            relate();
+
+            musicians.clear();
+            biographies.clear();
+            instruments.clear();
+            musicianInstruments.clear();
+            groups.clear();
+            albums.clear();
+            listener.onProgress(report);
+        }
+
+        // Relates the saved albums of the batch by id; whatever failed to save has no id and is left out
+        private void relate() {
+            Multimap<Long, Long> featuredMusicians = LinkedHashMultimap.create();
+            Multimap<Long, Long> musicianAlbums = LinkedHashMultimap.create();
+            Multimap<Long, Long> albumInstruments = LinkedHashMultimap.create();
+            Multimap<Long, Long> featuredGroups = LinkedHashMultimap.create();
+            Multimap<Long, Long> groupAlbums = LinkedHashMultimap.create();
+            Multimap<Long, Long> concertMusicians = LinkedHashMultimap.create();
+            for (AlbumRows rows : albums) {
+                Long albumId = rows.album.getId();
+                if (null == albumId) {
+                    continue;
+                }
+                for (String name : rows.musicians) {
+                    Long musicianId = musicianIds.get(name);
+                    if (null != musicianId) {
+                        featuredMusicians.put(albumId, musicianId);
+                        musicianAlbums.put(musicianId, albumId);
+                    }
+                }
+                for (List<Object> key : rows.musicianInstruments) {
+                    Long musicianInstrumentId = musicianInstrumentIds.get(key);
+                    if (null != musicianInstrumentId) {
+                        albumInstruments.put(albumId, musicianInstrumentId);
+                    }
+                }
+                for (String name : rows.groups) {
+                    Long groupId = groupIds.get(name);
+                    if (null != groupId) {
+                        featuredGroups.put(albumId, groupId);
+                        groupAlbums.put(groupId, albumId);
+                    }
+                }
+                rows.performers.forEach((concert, performers) -> {
+                    for (String name : performers) {
+                        Long musicianId = musicianIds.get(name);
+                        if (null != concert.getId() && null != musicianId) {
+                            concertMusicians.put(concert.getId(), musicianId);
+                        }
+                    }
+                });
+            }
+            dao.relate(Album.class, "featuredMusicians", featuredMusicians);
+            dao.relate(Musician.class, "albums", musicianAlbums);
+            dao.relate(Album.class, "instruments", albumInstruments);
+            dao.relate(Album.class, "featuredGroup", featuredGroups);
+            dao.relate(Group.class, "albums", groupAlbums);
+            dao.relate(Concert.class, "musicians", concertMusicians);
+        }
+
+        // Loads those of the named entities an earlier batch saved, by name
+        private <T extends Entity> Map<String, T> loadEarlier(Class<T> clazz, Map<String, Long> ids, Set<String> names,
+                                                               Function<T, String> name) {
+            List<Long> earlier = Lists.newArrayList();
+            for (String each : names) {
+                if (ids.containsKey(each)) {
+                    earlier.add(ids.get(each));
+                }
+            }
+            Map<String, T> loaded = Maps.newHashMap();
+            if (!earlier.isEmpty()) {
+                for (T entity : dao.loadAll(clazz, earlier)) {
+                    loaded.put(name.apply(entity), entity);
+                }
+            }
+            return loaded;
+        }
+
+        private <T extends Entity> void idsOf(List<T> saved, Function<T, String> name, Map<String, Long> ids) {
+            for (T entity : saved) {
+                ids.put(name.apply(entity), entity.getId());
+            }
+        }
+
+        private <T extends Entity> List<T> save(Collection<T> entities) {
+            if (entities.isEmpty()) {
+                return Lists.newArrayList();
+            }
+            BatchResult<T> result = dao.createOrUpdateAll(entities, batchSize, BatchListener.NONE);
+            report.addBatch(result);
+            return result.getSaved();
+        }
+    }
+
+    // An album of the batch with the natural keys of what it is to be related to once everything has ids
+    private static class AlbumRows {
+        private final Album album;
+        private final Set<String> musicians = Sets.newLinkedHashSet();
+        private final Set<List<Object>> musicianInstruments = Sets.newLinkedHashSet();
+        private final Set<String> groups = Sets.newLinkedHashSet();
+        private final Map<Concert, List<String>> performers = Maps.newIdentityHashMap();
+
+        private AlbumRows(Album album) {
+            this.album = album;
+        }
+    }
+
+    // Musician instruments are keyed by the musician's name and the sorted names of the instruments
+    private static List<Object> musicianInstrumentKey(String musician, ImmutableSortedSet<String> instruments) {
+        return Arrays.asList(musician, instruments);
+    }
+
+    private static String playerOf(List<Object> key) {
+        return (String) key.get(0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<String> instrumentsOf(List<Object> key) {
+        return (Set<String>) key.get(1);
+    }
+
+    private static String required(CSVRecord record, int column) {
+        String value = optional(record, column);
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException("Column " + (column + 1) + " should not be empty.");
+        }
+        return value;
+    }
+
+    private static String optional(CSVRecord record, int column) {
+        return column < record.size() ? record.get(column).trim() : "";
+    }
+}
@@ -0,0 +1,107 @@
+package allaboutecm.dataaccess.csv;
+
+import allaboutecm.model.*;
+import com.google.common.base.Joiner;
+import com.google.common.collect.Ordering;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Writes albums in the CSV format CatalogueImporter reads, one album and the rows that belong to it at a time.
+ *
+ * The rows of an album are written in a stable order (tracks, reviews and concerts sorted on their fields),
+ * so the same albums always give the same text. Biographies, URLs of albums and musicians, and concert dates
+ * are not part of the format and are not written.
+ */
+public class CatalogueWriter implements Flushable {
+    private static final CSVFormat FORMAT = CSVFormat.DEFAULT.withRecordSeparator('\n').withCommentMarker('#');
+    private static final Joiner LIST_JOINER = Joiner.on(';');
+
+    private static final Comparator<Group> GROUP_ORDER = Comparator.comparing(Group::getGroupName);
+    private static final Comparator<MusicianInstrument> INSTRUMENT_ORDER = Comparator.comparing(CatalogueWriter::instrumentRow);
+    private static final Comparator<Track> TRACK_ORDER = Comparator.comparing(Track::getName)
+            .thenComparingDouble(Track::getLengthInMinutes);
+    private static final Comparator<Review> REVIEW_ORDER = Comparator.comparing((Review review) -> review.getUrl().toExternalForm())
+            .thenComparingDouble(Review::getRating)
+            .thenComparing(Review::getReview, Comparator.nullsFirst(Comparator.naturalOrder()));
+    private static final Comparator<Concert> CONCERT_ORDER = Comparator.comparing(Concert::getConcertName)
+            .thenComparing(Concert::getCountry)
+            .thenComparing(Concert::getCity);
+
+    private final CSVPrinter printer;
+    private long albums;
+
+    public CatalogueWriter(Appendable out) throws IOException {
+        notNull(out, "Object is null.");
+        this.printer = new CSVPrinter(out, FORMAT);
+    }
+
+    public void writeComment(String comment) throws IOException {
+        notNull(comment, "Object is null.");
+        printer.printComment(comment);
+    }
+
+    public void write(Iterable<Album> albums) throws IOException {
+        notNull(albums, "Object is null.");
+        for (Album album : albums) {
+            write(album);
+        }
+    }
+
+    public void write(Album album) throws IOException {
+        notNull(album, "Object is null.");
+        printer.printRecord("ALBUM", album.getReleaseYear(), album.getRecordNumber(), album.getAlbumName(),
+                album.getGenre(), album.getStyle(), album.getReleaseFormat(), album.getSales());
+        if (null != album.getFeaturedGroup()) {
+            for (Group group : Ordering.from(GROUP_ORDER).sortedCopy(album.getFeaturedGroup())) {
+                printer.printRecord("GROUP", group.getGroupName());
+            }
+        }
+        for (Musician musician : album.getFeaturedMusicians()) {
+            printer.printRecord("MUSICIAN", musician.getName());
+        }
+        for (MusicianInstrument musicianInstrument : Ordering.from(INSTRUMENT_ORDER)
+                .sortedCopy(album.getInstruments())) {
+            printer.printRecord("INSTRUMENT", musicianInstrument.getMusician().getName(), instrumentNames(musicianInstrument));
+        }
+        for (Track track : Ordering.from(TRACK_ORDER).sortedCopy(album.getTracks())) {
+            printer.printRecord("TRACK", track.getName(), track.getLengthInMinutes());
+        }
+        for (Review review : Ordering.from(REVIEW_ORDER).sortedCopy(album.getReviews())) {
+            printer.printRecord("REVIEW", review.getUrl().toExternalForm(), review.getRating(), review.getReview());
+        }
+        for (Concert concert : Ordering.from(CONCERT_ORDER).sortedCopy(album.getConcerts())) {
+            List<String> musicians = concert.getMusicians().stream().map(Musician::getName).sorted()
+                    .collect(Collectors.toList());
+            printer.printRecord("CONCERT", concert.getConcertName(), concert.getCountry(), concert.getCity(),
+                    LIST_JOINER.join(musicians));
+        }
+        albums++;
+    }
+
+    public long getAlbumsWritten() {
+        return albums;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        printer.flush();
+    }
+
+    private static String instrumentRow(MusicianInstrument musicianInstrument) {
+        return musicianInstrument.getMusician().getName() + "," + instrumentNames(musicianInstrument);
+    }
+
+    private static String instrumentNames(MusicianInstrument musicianInstrument) {
+        return LIST_JOINER.join(musicianInstrument.getMusicalInstruments().stream().map(MusicalInstrument::getName)
+                .sorted().iterator());
+    }
+}
@@ -0,0 +1,11 @@
+package allaboutecm.dataaccess.csv;
+
+/**
+ * Told after every batch a CatalogueImporter writes, with the totals so far.
+ */
+@FunctionalInterface
+public interface ImportListener {
+    ImportListener NONE = report -> { };
+
+    void onProgress(ImportReport report);
+}
@@ -0,0 +1,88 @@
+package allaboutecm.dataaccess.csv;
+
+import allaboutecm.dataaccess.BatchResult;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Running totals of a CatalogueImporter import. Only the first MAX_ERRORS error messages are kept.
+ */
+public class ImportReport {
+    public static final int MAX_ERRORS = 100;
+
+    private final long startNanos = System.nanoTime();
+    private long endNanos = -1;
+    private long rows;
+    private long rejectedRows;
+    private long savedEntities;
+    private long failedEntities;
+    private final List<String> errors = Lists.newArrayList();
+
+    void addRow() {
+        rows++;
+    }
+
+    void reject(long line, String message) {
+        rejectedRows++;
+        addError("Line " + line + ": " + message);
+    }
+
+    void addBatch(BatchResult<?> result) {
+        savedEntities += result.getSavedCount();
+        failedEntities += result.getFailedCount();
+        for (BatchResult.ChunkFailure<?> failure : result.getFailures()) {
+            addError("Chunk of " + failure.getEntities().size() + " entities not saved: " + failure.getCause().getMessage());
+        }
+    }
+
+    void finish() {
+        endNanos = System.nanoTime();
+    }
+
+    private void addError(String error) {
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(error);
+        }
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getRejectedRows() {
+        return rejectedRows;
+    }
+
+    public long getSavedEntities() {
+        return savedEntities;
+    }
+
+    public long getFailedEntities() {
+        return failedEntities;
+    }
+
+    public List<String> getErrors() {
+        return ImmutableList.copyOf(errors);
+    }
+
+    // Time since the import started, or its total time once it has finished
+    public long getElapsedMillis() {
+        long end = endNanos < 0 ? System.nanoTime() : endNanos;
+        return TimeUnit.NANOSECONDS.toMillis(end - startNanos);
+    }
+
+    public double getRowsPerSecond() {
+        long end = endNanos < 0 ? System.nanoTime() : endNanos;
+        long elapsed = Math.max(1, end - startNanos);
+        return rows * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d rows (%d rejected), %d entities saved, %d failed, in %d ms (%.0f rows/s)",
+                rows, rejectedRows, savedEntities, failedEntities, getElapsedMillis(), getRowsPerSecond());
+    }
+}
@@ -0,0 +1,12 @@
+package allaboutecm.dataaccess.neo4j;
+
+/**
+ * Told while IndexManager waits for new indexes to be populated how far each one has got, in percent,
+ * once for every change and a last time at 100 when the index comes online.
+ */
+@FunctionalInterface
+public interface IndexListener {
+    IndexListener NONE = (index, percent) -> { };
+
+    void onProgress(String index, double percent);
+}
@@ -0,0 +1,221 @@
+package allaboutecm.dataaccess.neo4j;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.neo4j.ogm.config.Configuration;
+import org.neo4j.ogm.exception.CypherException;
+import org.neo4j.ogm.session.Session;
+import org.neo4j.ogm.session.SessionFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Creates the schema indexes Neo4jDAO looks entities up by, so that finding an album or musician by its natural key,
+ * or by any of the properties of the findXByY methods, seeks an index instead of scanning every node of the label.
+ * Musicians and musical instruments are unique by name, which is enforced with a uniqueness constraint; albums are
+ * unique by name, record number and release year together, which Community Edition cannot constrain, so that key
+ * gets a composite index and createOrUpdate keeps checking it.
+ *
+ * The constraints can be turned off for a store that already holds namesakes, saved as separate nodes by cascading
+ * saves; the keys then get plain indexes instead.
+ *
+ * Running it again only creates what is missing. It fails fast: before a constraint is created the label is checked
+ * for duplicate values, and an index that fails to populate stops it, both with an IllegalStateException.
+ */
+public class IndexManager {
+    public static final long DEFAULT_TIMEOUT_SECONDS = 600;
+
+    private static final long POLL_MILLIS = 100;
+
+    private static final List<SchemaIndex> SCHEMA = ImmutableList.of(
+            new SchemaIndex("Musician", true, "name"),
+            new SchemaIndex("MusicalInstrument", true, "name"),
+            new SchemaIndex("Album", false, "albumName", "recordNumber", "releaseYear"),
+            new SchemaIndex("Album", false, "albumName"),
+            new SchemaIndex("Album", false, "recordNumber"),
+            new SchemaIndex("Album", false, "releaseYear"),
+            new SchemaIndex("Album", false, "genre"),
+            new SchemaIndex("Album", false, "style"),
+            new SchemaIndex("Track", false, "name"),
+            new SchemaIndex("Concert", false, "concertName"),
+            new SchemaIndex("Concert", false, "city"),
+            new SchemaIndex("Concert", false, "country"));
+
+    private static final String INDEXES_QUERY = "CALL db.indexes()";
+    private static final String DUPLICATES_QUERY =
+            "MATCH (n:`%s`) WHERE exists(n.`%s`) " +
+            "WITH n.`%2$s` AS value, count(*) AS nodes WHERE nodes > 1 " +
+            "RETURN value, nodes LIMIT 1";
+
+    private final SessionFactory sessionFactory;
+    private final IndexListener listener;
+    private long timeoutMillis = TimeUnit.SECONDS.toMillis(DEFAULT_TIMEOUT_SECONDS);
+    private boolean uniqueConstraints = true;
+
+    public IndexManager(SessionFactory sessionFactory) {
+        this(sessionFactory, IndexListener.NONE);
+    }
+
+    public IndexManager(SessionFactory sessionFactory, IndexListener listener) {
+        notNull(sessionFactory, "Object is null.");
+        notNull(listener, "Object is null.");
+        this.sessionFactory = sessionFactory;
+        this.listener = listener;
+    }
+
+    /**
+     * A session factory over the given store whose indexes are in place and online; the factory is closed again
+     * when they cannot be created.
+     */
+    public static SessionFactory start(Configuration configuration, IndexListener listener, String... packages) {
+        notNull(configuration, "Object is null.");
+        SessionFactory sessionFactory = new SessionFactory(configuration, packages);
+        try {
+            new IndexManager(sessionFactory, listener).ensureIndexes();
+        } catch (RuntimeException e) {
+            sessionFactory.close();
+            throw e;
+        }
+        return sessionFactory;
+    }
+
+    public void setTimeout(long timeout, TimeUnit unit) {
+        isTrue(timeout > 0, "Timeout should be positive.");
+        notNull(unit, "Object is null.");
+        this.timeoutMillis = unit.toMillis(timeout);
+    }
+
+    public void setUniqueConstraints(boolean uniqueConstraints) {
+        this.uniqueConstraints = uniqueConstraints;
+    }
+
+    /**
+     * Creates the missing indexes and constraints and waits for all of them to come online.
+     *
+     * @return the descriptions of the indexes created, empty when the schema was already in place
+     */
+    public List<String> ensureIndexes() {
+        Session session = sessionFactory.openSession();
+        Map<String, String> existing = indexTypes(session);
+        List<String> created = Lists.newArrayList();
+        for (SchemaIndex index : SCHEMA) {
+            boolean unique = index.unique && uniqueConstraints;
+            String type = existing.get(index.description());
+            if (unique && "node_label_property".equals(type)) {
+                // A plain index on the key is in the way of the constraint, which brings its own.
+                run(session, index.description(), "DROP " + index.description());
+                type = null;
+            }
+            if (type == null) {
+                if (unique) {
+                    checkNoDuplicates(session, index);
+                }
+                run(session, unique ? index.constraintDescription() : index.description(), index.createStatement(unique));
+                created.add(index.description());
+            }
+        }
+        awaitOnline(session, Sets.newHashSet(created));
+        return created;
+    }
+
+    // The type of every index by its description, such as "INDEX ON :Album(genre)"
+    private static Map<String, String> indexTypes(Session session) {
+        Map<String, String> types = Maps.newHashMap();
+        for (Map<String, Object> row : session.query(INDEXES_QUERY, Collections.emptyMap()).queryResults()) {
+            types.put((String) row.get("description"), (String) row.get("type"));
+        }
+        return types;
+    }
+
+    private static void checkNoDuplicates(Session session, SchemaIndex index) {
+        String property = index.properties.get(0);
+        for (Map<String, Object> row : session.query(String.format(DUPLICATES_QUERY, index.label, property),
+                Collections.emptyMap()).queryResults()) {
+            throw new IllegalStateException(String.format("Cannot create %s: %s %s nodes share the %s '%s'.",
+                    index.constraintDescription(), row.get("nodes"), index.label, property, row.get("value")));
+        }
+    }
+
+    private static void run(Session session, String description, String statement) {
+        try {
+            session.query(statement, Collections.emptyMap());
+        } catch (CypherException e) {
+            throw new IllegalStateException("Cannot update " + description + ": " + e.getMessage(), e);
+        }
+    }
+
+    // Polls the populating indexes until they are all online, passing on their progress as it changes.
+    private void awaitOnline(Session session, Set<String> waitingFor) {
+        Map<String, Double> reported = Maps.newHashMap();
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (!waitingFor.isEmpty()) {
+            for (Map<String, Object> row : session.query(INDEXES_QUERY, Collections.emptyMap()).queryResults()) {
+                String description = (String) row.get("description");
+                if (!waitingFor.contains(description)) {
+                    continue;
+                }
+                String state = (String) row.get("state");
+                if ("FAILED".equals(state)) {
+                    throw new IllegalStateException("Index " + description + " failed: " + row.get("failureMessage"));
+                }
+                double progress = "ONLINE".equals(state) ? 100 : ((Number) row.get("progress")).doubleValue();
+                if (!Double.valueOf(progress).equals(reported.put(description, progress))) {
+                    listener.onProgress(description, progress);
+                }
+                if ("ONLINE".equals(state)) {
+                    waitingFor.remove(description);
+                }
+            }
+            if (waitingFor.isEmpty()) {
+                return;
+            }
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Indexes still populating: " + Joiner.on(", ").join(waitingFor));
+            }
+            try {
+                Thread.sleep(POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for indexes.", e);
+            }
+        }
+    }
+
+    private static final class SchemaIndex {
+        private final String label;
+        private final boolean unique;
+        private final List<String> properties;
+
+        private SchemaIndex(String label, boolean unique, String... properties) {
+            this.label = label;
+            this.unique = unique;
+            this.properties = ImmutableList.copyOf(properties);
+        }
+
+        // The way db.indexes() describes it, the backing index of a constraint included
+        private String description() {
+            return "INDEX ON :" + label + "(" + Joiner.on(", ").join(properties) + ")";
+        }
+
+        private String constraintDescription() {
+            return "CONSTRAINT ON :" + label + "(" + properties.get(0) + ") IS UNIQUE";
+        }
+
+        private String createStatement(boolean unique) {
+            if (unique) {
+                return "CREATE CONSTRAINT ON (n:`" + label + "`) ASSERT n.`" + properties.get(0) + "` IS UNIQUE";
+            }
+            return "CREATE INDEX ON :`" + label + "`(" + Joiner.on(", ").join(properties) + ")";
+        }
+    }
+}
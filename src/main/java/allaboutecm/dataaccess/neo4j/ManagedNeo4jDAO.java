@@ -0,0 +1,242 @@
+package allaboutecm.dataaccess.neo4j;
+
+import allaboutecm.dataaccess.AlbumSummary;
+import allaboutecm.dataaccess.BatchListener;
+import allaboutecm.dataaccess.BatchResult;
+import allaboutecm.dataaccess.CollaborationEdges;
+import allaboutecm.dataaccess.DAO;
+import allaboutecm.dataaccess.FetchPlan;
+import allaboutecm.dataaccess.ForwardingDAO;
+import allaboutecm.dataaccess.MusicianSummary;
+import allaboutecm.model.*;
+import com.google.common.collect.Multimap;
+import org.neo4j.ogm.cypher.query.Pagination;
+import org.neo4j.ogm.session.Session;
+import org.neo4j.ogm.transaction.Transaction;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * A Neo4jDAO whose session is cleared by a SessionPolicy, for processes that keep one DAO for their lifetime, such
+ * as the miner service. The policy is asked after every call, and at the end of every unit of work instead of after
+ * the calls inside it. Streams are read after streamAll returns, so what they load is only looked at by the next call.
+ *
+ * Like the session it wraps, it is for one thread at a time; PooledNeo4jDAO shares sessions between threads.
+ */
+public class ManagedNeo4jDAO extends ForwardingDAO {
+    private final SessionLifecycle lifecycle;
+    private int unitOfWorkDepth;
+
+    public ManagedNeo4jDAO(Session session, SessionPolicy policy) {
+        this(new SessionLifecycle(session, policy));
+    }
+
+    public ManagedNeo4jDAO(SessionLifecycle lifecycle) {
+        super(new Neo4jDAO(lifecycle.getSession()));
+        this.lifecycle = lifecycle;
+    }
+
+    /**
+     * The session's lifecycle, with the number of entities it tracks and how often it was cleared.
+     */
+    public SessionLifecycle getLifecycle() {
+        return lifecycle;
+    }
+
+    /**
+     * Runs the work in one transaction, committed when the work returns and rolled back when it throws; the session
+     * is not cleared until the work is done. The DAO handed to the work is this one, and a unit of work started
+     * inside another joins it.
+     */
+    public <R> R inUnitOfWork(Function<? super DAO, R> work) {
+        notNull(work, "Object is null.");
+        if (unitOfWorkDepth > 0) {
+            return work.apply(this);
+        }
+        Transaction tx = lifecycle.getSession().beginTransaction();
+        unitOfWorkDepth++;
+        try {
+            R result = work.apply(this);
+            tx.commit();
+            return result;
+        } catch (RuntimeException e) {
+            tx.rollback();
+            // The session still holds what the rolled back work loaded and changed.
+            lifecycle.clear();
+            throw e;
+        } finally {
+            tx.close();
+            unitOfWorkDepth--;
+            lifecycle.afterUnitOfWork();
+        }
+    }
+
+    private <R> R afterCall(R result) {
+        if (unitOfWorkDepth == 0) {
+            lifecycle.afterCall();
+        }
+        return result;
+    }
+
+    @Override
+    public <T extends Entity> T load(Class<T> clazz, Long id) {
+        return afterCall(super.load(clazz, id));
+    }
+
+    @Override
+    public <T extends Entity> T createOrUpdate(T entity) {
+        return afterCall(super.createOrUpdate(entity));
+    }
+
+    @Override
+    public <T extends Entity> BatchResult<T> createOrUpdateAll(Collection<T> entities) {
+        return afterCall(super.createOrUpdateAll(entities));
+    }
+
+    @Override
+    public <T extends Entity> BatchResult<T> createOrUpdateAll(Collection<T> entities, int chunkSize, BatchListener listener) {
+        return afterCall(super.createOrUpdateAll(entities, chunkSize, listener));
+    }
+
+    @Override
+    public void relate(Class<? extends Entity> clazz, String relationship, Multimap<Long, Long> ids) {
+        super.relate(clazz, relationship, ids);
+        afterCall(null);
+    }
+
+    @Override
+    public <T extends Entity> Collection<T> loadAll(Class<T> clazz) {
+        return afterCall(super.loadAll(clazz));
+    }
+
+    @Override
+    public <T extends Entity> Collection<T> loadAll(Class<T> clazz, Pagination pagination) {
+        return afterCall(super.loadAll(clazz, pagination));
+    }
+
+    @Override
+    public <T extends Entity> Collection<T> loadAll(Class<T> clazz, FetchPlan plan) {
+        return afterCall(super.loadAll(clazz, plan));
+    }
+
+    @Override
+    public <T extends Entity> List<T> loadAll(Class<T> clazz, List<Long> ids) {
+        return afterCall(super.loadAll(clazz, ids));
+    }
+
+    @Override
+    public <T extends Entity> void delete(T entity) {
+        super.delete(entity);
+        afterCall(null);
+    }
+
+    @Override
+    public Musician findMusicianByName(String name) {
+        return afterCall(super.findMusicianByName(name));
+    }
+
+    @Override
+    public MusicalInstrument findMusicalInstrumentByName(String name) {
+        return afterCall(super.findMusicalInstrumentByName(name));
+    }
+
+    @Override
+    public Album findAlbumByAlbumName(String albumName) {
+        return afterCall(super.findAlbumByAlbumName(albumName));
+    }
+
+    @Override
+    public Album findAlbumByRecordNumber(String recordNumber) {
+        return afterCall(super.findAlbumByRecordNumber(recordNumber));
+    }
+
+    @Override
+    public Album findAlbumByReleaseYear(int releaseYear) {
+        return afterCall(super.findAlbumByReleaseYear(releaseYear));
+    }
+
+    @Override
+    public Album findAlbumByGenre(String genre) {
+        return afterCall(super.findAlbumByGenre(genre));
+    }
+
+    @Override
+    public Album findAlbumByStyle(String style) {
+        return afterCall(super.findAlbumByStyle(style));
+    }
+
+    @Override
+    public Track findTrackByName(String name) {
+        return afterCall(super.findTrackByName(name));
+    }
+
+    @Override
+    public Concert findConcertByName(String name) {
+        return afterCall(super.findConcertByName(name));
+    }
+
+    @Override
+    public Concert findConcertByCountry(String country) {
+        return afterCall(super.findConcertByCountry(country));
+    }
+
+    @Override
+    public Concert findConcertByCity(String city) {
+        return afterCall(super.findConcertByCity(city));
+    }
+
+    @Override
+    public List<Musician> findMostProlificMusicians(int k, int startYear, int endYear) {
+        return afterCall(super.findMostProlificMusicians(k, startYear, endYear));
+    }
+
+    @Override
+    public List<Musician> findMostTalentedMusicians(int k) {
+        return afterCall(super.findMostTalentedMusicians(k));
+    }
+
+    @Override
+    public List<Musician> findMostSocialMusicians(int k) {
+        return afterCall(super.findMostSocialMusicians(k));
+    }
+
+    @Override
+    public List<Integer> findBusiestYears(int k, int startYear, int endYear) {
+        return afterCall(super.findBusiestYears(k, startYear, endYear));
+    }
+
+    @Override
+    public List<Album> findSimilarAlbums(int k, String genre, Set<String> instrumentNames) {
+        return afterCall(super.findSimilarAlbums(k, genre, instrumentNames));
+    }
+
+    @Override
+    public List<Album> findHighestRatedAlbums(int k, int minReviews) {
+        return afterCall(super.findHighestRatedAlbums(k, minReviews));
+    }
+
+    @Override
+    public List<Album> findBestSellingAlbums(int k) {
+        return afterCall(super.findBestSellingAlbums(k));
+    }
+
+    @Override
+    public CollaborationEdges findCollaborationEdges() {
+        return afterCall(super.findCollaborationEdges());
+    }
+
+    @Override
+    public List<AlbumSummary> findAlbumSummaries() {
+        return afterCall(super.findAlbumSummaries());
+    }
+
+    @Override
+    public List<MusicianSummary> findMusicianSummaries(int startYear, int endYear) {
+        return afterCall(super.findMusicianSummaries(startYear, endYear));
+    }
+}
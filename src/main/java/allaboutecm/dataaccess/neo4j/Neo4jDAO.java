@@ -1,20 +1,147 @@
 package allaboutecm.dataaccess.neo4j;
 
+import allaboutecm.dataaccess.AlbumSummary;
+import allaboutecm.dataaccess.BatchListener;
+import allaboutecm.dataaccess.BatchResult;
+import allaboutecm.dataaccess.CollaborationEdges;
 import allaboutecm.dataaccess.DAO;
+import allaboutecm.dataaccess.FetchPlan;
+import allaboutecm.dataaccess.MusicianSummary;
 import allaboutecm.model.*;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
+import org.neo4j.ogm.annotation.Relationship;
 import org.neo4j.ogm.cypher.Filter;
 import org.neo4j.ogm.cypher.Filters;
+import org.neo4j.ogm.cypher.query.Pagination;
 import org.neo4j.ogm.session.Session;
 import org.neo4j.ogm.transaction.Transaction;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.noNullElements;
+import static org.apache.commons.lang3.Validate.notNull;
 import static org.neo4j.ogm.cypher.ComparisonOperator.EQUALS;
 
 public class Neo4jDAO implements DAO {
     private static final int DEPTH_LIST = 0;
     private static final int DEPTH_ENTITY = 1;
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    // Ranking queries aggregate on the server so that only the top k rows cross the OGM boundary.
+    // Ties are broken on the natural keys, the same way ECMMiner breaks them in memory.
+    private static final String PROLIFIC_MUSICIANS_QUERY =
+            "MATCH (m:Musician)-[:albums]->(a:Album) " +
+            "WHERE a.releaseYear >= $startYear AND a.releaseYear <= $endYear " +
+            "WITH m, count(DISTINCT a) AS albumCount " +
+            "ORDER BY albumCount DESC, m.name ASC LIMIT $k " +
+            "RETURN id(m) AS id";
+    private static final String TALENTED_MUSICIANS_QUERY =
+            "MATCH (mi:MusicianInstrument)-[:musician]->(m:Musician), " +
+            "(mi)-[:musicalInstruments]->(i:MusicalInstrument) " +
+            "WITH m, count(DISTINCT i.name) AS instrumentCount " +
+            "ORDER BY instrumentCount DESC, m.name ASC LIMIT $k " +
+            "RETURN id(m) AS id";
+    private static final String SOCIAL_MUSICIANS_QUERY =
+            "MATCH (m:Musician)<-[:featuredMusicians]-(:Album)-[:featuredMusicians]->(other:Musician) " +
+            "WHERE other <> m " +
+            "WITH m, count(DISTINCT other.name) AS collaborators " +
+            "ORDER BY collaborators DESC, m.name ASC LIMIT $k " +
+            "RETURN id(m) AS id";
+    private static final String BUSIEST_YEARS_QUERY =
+            "MATCH (a:Album) " +
+            "WHERE a.releaseYear >= $startYear AND a.releaseYear <= $endYear " +
+            "WITH a.releaseYear AS year, count(a) AS albumCount " +
+            "ORDER BY albumCount DESC, year DESC LIMIT $k " +
+            "RETURN year";
+    private static final String SIMILAR_ALBUMS_QUERY =
+            "MATCH (a:Album) WHERE a.genre = $genre " +
+            "OPTIONAL MATCH (a)-[:instruments]->(:MusicianInstrument)-[:musicalInstruments]->(i:MusicalInstrument) " +
+            "WITH a, collect(DISTINCT i.name) AS names " +
+            "WHERE size(names) = size($names) AND all(name IN names WHERE name IN $names) " +
+            "WITH a ORDER BY a.recordNumber ASC, a.albumName ASC, a.releaseYear ASC, id(a) ASC LIMIT $k " +
+            "RETURN id(a) AS id";
+    private static final String HIGHEST_RATED_ALBUMS_QUERY =
+            "MATCH (a:Album)-[:Reviews]->(r:Review) " +
+            "WITH a, avg(r.ratingOutOf100) AS rating, count(r) AS reviewCount " +
+            "WHERE reviewCount >= $minReviews " +
+            "WITH a, rating ORDER BY rating DESC, a.recordNumber ASC, a.albumName ASC, a.releaseYear ASC, id(a) ASC LIMIT $k " +
+            "RETURN id(a) AS id";
+    private static final String BEST_SELLING_ALBUMS_QUERY =
+            "MATCH (a:Album) " +
+            "WITH a ORDER BY a.sales DESC, a.recordNumber ASC, a.albumName ASC, a.releaseYear ASC, id(a) ASC LIMIT $k " +
+            "RETURN id(a) AS id";
+
+    // The collaboration graph is projected on the server, both directions of the musician-album relation
+    // included, so that one row per pair of collaborators crosses the OGM boundary instead of every album.
+    private static final String GRAPH_MUSICIANS_QUERY =
+            "MATCH (m:Musician)-[:featuredMusicians|albums]-(:Album) " +
+            "RETURN DISTINCT id(m) AS id ORDER BY id";
+    private static final String COLLABORATIONS_QUERY =
+            "MATCH (m:Musician)-[:featuredMusicians|albums]-(a:Album)-[:featuredMusicians|albums]-(other:Musician) " +
+            "WHERE id(m) < id(other) " +
+            "RETURN id(m) AS source, id(other) AS target, count(DISTINCT a) AS albums";
+
+    // Projections return plain values, so that no entity, URL conversion or relationship set is built for them.
+    private static final String ALBUM_SUMMARIES_QUERY =
+            "MATCH (a:Album) " +
+            "OPTIONAL MATCH (a)-[:Reviews]->(r:Review) " +
+            "RETURN id(a) AS id, a.albumName AS albumName, a.recordNumber AS recordNumber, " +
+            "a.releaseYear AS releaseYear, a.sales AS sales, count(r) AS reviewCount, avg(r.ratingOutOf100) AS rating";
+    private static final String MUSICIAN_SUMMARIES_QUERY =
+            "MATCH (m:Musician) " +
+            "OPTIONAL MATCH (m)-[:albums]->(a:Album) " +
+            "WHERE a.releaseYear >= $startYear AND a.releaseYear <= $endYear " +
+            "RETURN id(m) AS id, m.name AS name, count(DISTINCT a) AS albumCount";
+
+    // Batched existence check for the musician instruments of createOrUpdateAll, which are keyed by their
+    // relationships and so cannot be merged on properties.
+    private static final String EXISTING_MUSICIAN_INSTRUMENTS_QUERY =
+            "MATCH (mi:MusicianInstrument)-[:musician]->(m:Musician) WHERE m.name IN $names " +
+            "OPTIONAL MATCH (mi)-[:musicalInstruments]->(i:MusicalInstrument) " +
+            "WITH mi, m, collect(DISTINCT i.name) AS instruments " +
+            "RETURN m.name AS name, instruments, id(mi) AS id";
+
+    // Upserts for createOrUpdate and createOrUpdateAll: a new entity merges on its key, one row per entity, and
+    // only the ids come back. An entity that has an id keeps it. The save that follows runs in the same
+    // transaction, so the key's node cannot appear between the two.
+    private static final String UPSERT_QUERY = "UNWIND $keys AS key MERGE (n:`%s` {%s}) RETURN id(n) AS id";
+
+    // Relationships by id for relate, one row per pair; the labels and the hop are filled in from the field.
+    private static final String RELATE_QUERY =
+            "UNWIND $pairs AS pair " +
+            "MATCH (n:`%s`) WHERE id(n) = pair.from " +
+            "MATCH (m:`%s`) WHERE id(m) = pair.to " +
+            "MERGE (n)%s(m)";
+
+    // Id-range cursor for streamAll; the label is filled in per class.
+    private static final String PAGE_IDS_QUERY =
+            "MATCH (n:`%s`) WHERE id(n) > $after " +
+            "RETURN id(n) AS id ORDER BY id LIMIT $pageSize";
+
+    // Fetch plans load an entity and its planned relationships in one query: every step of the plan comes back
+    // as a list of paths next to the entity. Pattern comprehensions keep the steps from multiplying each other's
+    // rows the way a chain of OPTIONAL MATCHes would.
+    private static final String FETCH_QUERY = "MATCH (n:`%s`) %sRETURN n%s";
+    private static final String FETCH_IDS = "WHERE id(n) IN $ids ";
 
     private Session session;
 
@@ -31,23 +158,192 @@ public class Neo4jDAO implements DAO {
     public <T extends Entity> T createOrUpdate(T entity) {
         Class clazz = entity.getClass();
 
-        T existingEntity = findExistingEntity(entity, clazz);
-        if (null != existingEntity) {
-            entity.setId(existingEntity.getId());
+        // Ids as they were before the save, to undo what a rolled back save assigned
+        Map<Entity, Long> previousIds = Maps.newIdentityHashMap();
+        rememberIds(entity, previousIds);
+        Map<String, Object> key = keyProperties(entity);
+        if (null == key) {
+            T existingEntity = findExistingEntity(entity, clazz);
+            if (null != existingEntity) {
+                entity.setId(existingEntity.getId());
+            }
         }
         Transaction tx = session.beginTransaction();
-        session.save(entity, DEPTH_ENTITY);
-        tx.commit();
+        try {
+            if (null != key && null == entity.getId()) {
+                entity.setId(upsert(clazz, Collections.singletonList(key)).get(0));
+            }
+            session.save(entity, DEPTH_ENTITY);
+            tx.commit();
+        } catch (RuntimeException e) {
+            previousIds.forEach(Entity::setId);
+            throw e;
+        } finally {
+            tx.close();
+        }
         return entity;
 
     }
 
+    @Override
+    public <T extends Entity> BatchResult<T> createOrUpdateAll(Collection<T> entities) {
+        return createOrUpdateAll(entities, DEFAULT_CHUNK_SIZE, BatchListener.NONE);
+    }
+
+    @Override
+    public <T extends Entity> BatchResult<T> createOrUpdateAll(Collection<T> entities, int chunkSize, BatchListener listener) {
+        notNull(entities, "Object is null.");
+        noNullElements(entities, "Entities should not contain null.");
+        isTrue(chunkSize > 0, "Chunk size should be positive.");
+        notNull(listener, "Object is null.");
+
+        Map<Object, Long> existingIds = findExistingMusicianInstruments(entities);
+        BatchResult<T> result = new BatchResult<>();
+        List<List<T>> chunks = Lists.partition(Lists.newArrayList(entities), chunkSize);
+        int processed = 0;
+        for (int chunk = 0; chunk < chunks.size(); chunk++) {
+            List<T> entitiesInChunk = chunks.get(chunk);
+            // Ids as they were before the chunk, to undo what a rolled back chunk assigned
+            Map<Entity, Long> previousIds = Maps.newIdentityHashMap();
+            Map<Object, Long> idsFromChunk = Maps.newHashMap();
+            Transaction tx = session.beginTransaction();
+            try {
+                for (T entity : entitiesInChunk) {
+                    rememberIds(entity, previousIds);
+                }
+                upsertAll(entitiesInChunk);
+                for (T entity : entitiesInChunk) {
+                    Object key = (null == entity.getId()) ? musicianInstrumentKey(entity) : null;
+                    if (null != key && existingIds.containsKey(key)) {
+                        entity.setId(existingIds.get(key));
+                    } else if (null != key && idsFromChunk.containsKey(key)) {
+                        entity.setId(idsFromChunk.get(key));
+                    }
+                    session.save(entity, DEPTH_ENTITY);
+                    if (null != key) {
+                        idsFromChunk.put(key, entity.getId());
+                    }
+                }
+                tx.commit();
+                existingIds.putAll(idsFromChunk);
+                result.addSaved(entitiesInChunk);
+            } catch (RuntimeException e) {
+                tx.rollback();
+                previousIds.forEach(Entity::setId);
+                result.addFailure(new BatchResult.ChunkFailure<>(chunk, entitiesInChunk, e));
+            } finally {
+                tx.close();
+            }
+            processed += entitiesInChunk.size();
+            listener.onProgress(processed, entities.size());
+        }
+        return result;
+    }
+
+    @Override
+    public void relate(Class<? extends Entity> clazz, String relationship, Multimap<Long, Long> ids) {
+        notNull(clazz, "Object is null.");
+        notNull(relationship, "Object is null.");
+        notNull(ids, "Object is null.");
+        Field field = relationshipField(clazz, relationship);
+        isTrue(null != field, "%s has no relationship %s.", clazz.getSimpleName(), relationship);
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Map<String, Long>> pairs = Lists.newArrayList();
+        for (Map.Entry<Long, Long> pair : ids.entries()) {
+            pairs.add(ImmutableMap.of("from", pair.getKey(), "to", pair.getValue()));
+        }
+        String cypher = String.format(RELATE_QUERY, clazz.getSimpleName(), targetType(field).getSimpleName(), hop(field));
+        session.query(cypher, ImmutableMap.of("pairs", pairs));
+    }
+
     @Override
     public <T extends Entity> Collection<T> loadAll(Class<T> clazz) {
         return session.loadAll(clazz, DEPTH_LIST);
     }
 
 
+    /*
+     * One page of entities, by SKIP and LIMIT in the store's order. Use streamAll to go through every
+     * entity, as pages can shift when entities are created or deleted between two calls.
+     */
+    @Override
+    public <T extends Entity> Collection<T> loadAll(Class<T> clazz, Pagination pagination) {
+        notNull(pagination, "Object is null.");
+        return session.loadAll(clazz, pagination, DEPTH_LIST);
+    }
+
+    /*
+     * All entities with exactly the relationships of the plan, in one round trip. An empty plan loads
+     * the entities alone, like loadAll(clazz).
+     */
+    @Override
+    public <T extends Entity> Collection<T> loadAll(Class<T> clazz, FetchPlan plan) {
+        notNull(clazz, "Object is null.");
+        notNull(plan, "Object is null.");
+        if (plan.isEmpty()) {
+            return loadAll(clazz);
+        }
+        return fetch(clazz, plan, "", Collections.emptyMap());
+    }
+
+    @Override
+    public <T extends Entity> Stream<T> streamAll(Class<T> clazz, int pageSize) {
+        return streamAll(clazz, pageSize, FetchPlan.NONE);
+    }
+
+    /*
+     * Walks the label in id order, fetching the next pageSize ids after the last one seen and then loading
+     * only those entities, so entities created or deleted while streaming never shift a page. The session
+     * still keeps every entity it loads; stream from a session of its own to keep the heap bounded. Each
+     * page is loaded with the relationships of the plan, in one more query.
+     */
+    @Override
+    public <T extends Entity> Stream<T> streamAll(Class<T> clazz, int pageSize, FetchPlan plan) {
+        notNull(clazz, "Object is null.");
+        isTrue(pageSize > 0, "Page size should be positive.");
+        notNull(plan, "Object is null.");
+        // Model classes are mapped with the default label, their simple name
+        String cypher = String.format(PAGE_IDS_QUERY, clazz.getSimpleName());
+        Iterator<T> entities = new AbstractIterator<T>() {
+            private Iterator<T> page = Collections.emptyIterator();
+            private long after = -1;
+            private boolean lastPage;
+
+            @Override
+            protected T computeNext() {
+                while (!page.hasNext()) {
+                    if (lastPage) {
+                        return endOfData();
+                    }
+                    List<Long> ids = Lists.newArrayList();
+                    Map<String, Long> parameters = ImmutableMap.of("after", after, "pageSize", (long) pageSize);
+                    for (Map<String, Object> row : session.query(cypher, parameters).queryResults()) {
+                        ids.add(((Number) row.get("id")).longValue());
+                    }
+                    lastPage = ids.size() < pageSize;
+                    if (!ids.isEmpty()) {
+                        after = ids.get(ids.size() - 1);
+                    }
+                    page = (plan.isEmpty() || ids.isEmpty()) ? loadInOrder(clazz, ids, DEPTH_LIST).iterator()
+                            : inOrder(ids, fetch(clazz, plan, FETCH_IDS, ImmutableMap.of("ids", ids))).iterator();
+                }
+                return page.next();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(entities,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public <T extends Entity> List<T> loadAll(Class<T> clazz, List<Long> ids) {
+        notNull(clazz, "Object is null.");
+        notNull(ids, "Object is null.");
+        noNullElements(ids, "Ids should not contain null.");
+        return loadInOrder(clazz, ids, DEPTH_ENTITY);
+    }
+
     /*
      * Delete data
      */
@@ -206,6 +502,363 @@ public class Neo4jDAO implements DAO {
         }
     }
 
+    @Override
+    public List<Musician> findMostProlificMusicians(int k, int startYear, int endYear) {
+        return loadRanked(Musician.class, PROLIFIC_MUSICIANS_QUERY,
+                ImmutableMap.of("k", k, "startYear", startYear, "endYear", endYear));
+    }
+
+    @Override
+    public List<Musician> findMostTalentedMusicians(int k) {
+        return loadRanked(Musician.class, TALENTED_MUSICIANS_QUERY, ImmutableMap.of("k", k));
+    }
+
+    @Override
+    public List<Musician> findMostSocialMusicians(int k) {
+        return loadRanked(Musician.class, SOCIAL_MUSICIANS_QUERY, ImmutableMap.of("k", k));
+    }
+
+    @Override
+    public List<Integer> findBusiestYears(int k, int startYear, int endYear) {
+        List<Integer> years = Lists.newArrayList();
+        Map<String, Integer> parameters = ImmutableMap.of("k", k, "startYear", startYear, "endYear", endYear);
+        for (Map<String, Object> row : session.query(BUSIEST_YEARS_QUERY, parameters).queryResults()) {
+            years.add(((Number) row.get("year")).intValue());
+        }
+        return years;
+    }
+
+    @Override
+    public List<Album> findSimilarAlbums(int k, String genre, Set<String> instrumentNames) {
+        return loadRanked(Album.class, SIMILAR_ALBUMS_QUERY,
+                ImmutableMap.of("k", k, "genre", genre, "names", instrumentNames));
+    }
+
+    @Override
+    public List<Album> findHighestRatedAlbums(int k, int minReviews) {
+        return loadRanked(Album.class, HIGHEST_RATED_ALBUMS_QUERY, ImmutableMap.of("k", k, "minReviews", minReviews));
+    }
+
+    @Override
+    public List<Album> findBestSellingAlbums(int k) {
+        return loadRanked(Album.class, BEST_SELLING_ALBUMS_QUERY, ImmutableMap.of("k", k));
+    }
+
+    @Override
+    public CollaborationEdges findCollaborationEdges() {
+        List<Long> ids = Lists.newArrayList();
+        for (Map<String, Object> row : session.query(GRAPH_MUSICIANS_QUERY, Collections.emptyMap()).queryResults()) {
+            ids.add(((Number) row.get("id")).longValue());
+        }
+        // Musicians are equal by name, so nodes sharing a name become one musician of the graph.
+        List<Musician> musicians = Lists.newArrayList();
+        Map<Musician, Integer> positions = Maps.newHashMap();
+        Map<Long, Integer> positionOfNode = Maps.newHashMap();
+        for (Musician musician : loadInOrder(Musician.class, ids, DEPTH_LIST)) {
+            Integer position = positions.get(musician);
+            if (position == null) {
+                position = musicians.size();
+                positions.put(musician, position);
+                musicians.add(musician);
+            }
+            positionOfNode.put(musician.getId(), position);
+        }
+
+        List<int[]> edges = Lists.newArrayList();
+        for (Map<String, Object> row : session.query(COLLABORATIONS_QUERY, Collections.emptyMap()).queryResults()) {
+            Integer source = positionOfNode.get(((Number) row.get("source")).longValue());
+            Integer target = positionOfNode.get(((Number) row.get("target")).longValue());
+            if (source != null && target != null && !source.equals(target)) {
+                edges.add(new int[]{source, target, ((Number) row.get("albums")).intValue()});
+            }
+        }
+        int[] sources = new int[edges.size()];
+        int[] targets = new int[edges.size()];
+        int[] weights = new int[edges.size()];
+        for (int i = 0; i < edges.size(); i++) {
+            sources[i] = edges.get(i)[0];
+            targets[i] = edges.get(i)[1];
+            weights[i] = edges.get(i)[2];
+        }
+        return new CollaborationEdges(musicians, sources, targets, weights);
+    }
+
+    @Override
+    public List<AlbumSummary> findAlbumSummaries() {
+        List<AlbumSummary> summaries = Lists.newArrayList();
+        for (Map<String, Object> row : session.query(ALBUM_SUMMARIES_QUERY, Collections.emptyMap()).queryResults()) {
+            Number sales = (Number) row.get("sales");
+            Number rating = (Number) row.get("rating");
+            summaries.add(new AlbumSummary(((Number) row.get("id")).longValue(), (String) row.get("albumName"),
+                    (String) row.get("recordNumber"), ((Number) row.get("releaseYear")).intValue(),
+                    (sales == null) ? 0 : sales.longValue(), ((Number) row.get("reviewCount")).intValue(),
+                    (rating == null) ? 0 : rating.doubleValue()));
+        }
+        return summaries;
+    }
+
+    @Override
+    public List<MusicianSummary> findMusicianSummaries(int startYear, int endYear) {
+        List<MusicianSummary> summaries = Lists.newArrayList();
+        Map<String, Integer> parameters = ImmutableMap.of("startYear", startYear, "endYear", endYear);
+        for (Map<String, Object> row : session.query(MUSICIAN_SUMMARIES_QUERY, parameters).queryResults()) {
+            summaries.add(new MusicianSummary(((Number) row.get("id")).longValue(), (String) row.get("name"),
+                    ((Number) row.get("albumCount")).intValue()));
+        }
+        return summaries;
+    }
+
+    // Run a ranking query returning ids, then hydrate only those entities, keeping the query's order
+    private <T extends Entity> List<T> loadRanked(Class<T> clazz, String cypher, Map<String, ?> parameters) {
+        List<Long> ids = Lists.newArrayList();
+        for (Map<String, Object> row : session.query(cypher, parameters).queryResults()) {
+            ids.add(((Number) row.get("id")).longValue());
+        }
+        return loadInOrder(clazz, ids, DEPTH_ENTITY);
+    }
+
+    // Load the entities with the given ids, in the order of the ids
+    private <T extends Entity> List<T> loadInOrder(Class<T> clazz, List<Long> ids, int depth) {
+        if (ids.isEmpty()) {
+            return Lists.newArrayList();
+        }
+        return inOrder(ids, session.loadAll(clazz, ids, depth));
+    }
+
+    private static <T extends Entity> List<T> inOrder(List<Long> ids, Collection<T> loaded) {
+        Map<Long, T> entities = Maps.newHashMap();
+        for (T entity : loaded) {
+            entities.put(entity.getId(), entity);
+        }
+        List<T> ordered = Lists.newArrayList();
+        for (Long id : ids) {
+            T entity = entities.get(id);
+            if (null != entity) {
+                ordered.add(entity);
+            }
+        }
+        return ordered;
+    }
+
+    // Run a fetch plan over the entities matching the condition; the session wires up the relationships of the paths
+    private <T extends Entity> List<T> fetch(Class<T> clazz, FetchPlan plan, String condition, Map<String, ?> parameters) {
+        List<List<Field>> steps = Lists.newArrayList();
+        StringBuilder columns = new StringBuilder();
+        for (String path : plan.getSteps()) {
+            List<Field> fields = relationshipPath(clazz, path);
+            columns.append(", [p = ").append(pattern(fields)).append(" | p] AS step").append(steps.size());
+            steps.add(fields);
+        }
+        String cypher = String.format(FETCH_QUERY, clazz.getSimpleName(), condition, columns);
+        List<T> entities = Lists.newArrayList();
+        for (Map<String, Object> row : session.query(cypher, parameters).queryResults()) {
+            T entity = clazz.cast(row.get("n"));
+            for (List<Field> fields : steps) {
+                emptyIfUnset(entity, fields, 0);
+            }
+            entities.add(entity);
+        }
+        return entities;
+    }
+
+    // The relationship fields a fetch path goes through, starting at the class
+    private static List<Field> relationshipPath(Class<?> clazz, String path) {
+        List<Field> fields = Lists.newArrayList();
+        Class<?> type = clazz;
+        for (String name : path.split("\\.")) {
+            Field field = relationshipField(type, name);
+            isTrue(null != field, "%s has no relationship %s.", type.getSimpleName(), name);
+            fields.add(field);
+            type = targetType(field);
+        }
+        return fields;
+    }
+
+    // The class at the other end of a relationship field, the element class for collections
+    private static Class<?> targetType(Field field) {
+        return (field.getGenericType() instanceof ParameterizedType)
+                ? (Class<?>) ((ParameterizedType) field.getGenericType()).getActualTypeArguments()[0]
+                : field.getType();
+    }
+
+    // The Cypher pattern following the fields from n, one relationship each, the way the field is mapped
+    private static String pattern(List<Field> fields) {
+        StringBuilder pattern = new StringBuilder("(n)");
+        for (Field field : fields) {
+            pattern.append(hop(field)).append("()");
+        }
+        return pattern.toString();
+    }
+
+    // One relationship of the field, in the field's direction
+    private static String hop(Field field) {
+        Relationship relationship = field.getAnnotation(Relationship.class);
+        String type = relationship.type().isEmpty() ? relationship.value() : relationship.type();
+        isTrue(!type.isEmpty(), "%s.%s has no relationship type.", field.getDeclaringClass().getSimpleName(), field.getName());
+        String hop = "-[:`" + type + "`]-";
+        if (Relationship.INCOMING.equals(relationship.direction())) {
+            hop = "<" + hop;
+        } else if (Relationship.OUTGOING.equals(relationship.direction())) {
+            hop = hop + ">";
+        }
+        return hop;
+    }
+
+    // The session leaves a collection without relationships null; a planned one was loaded, so it is empty instead
+    private static void emptyIfUnset(Object entity, List<Field> fields, int depth) {
+        Field field = fields.get(depth);
+        try {
+            Object value = field.get(entity);
+            if (null == value && Collection.class.isAssignableFrom(field.getType())) {
+                value = List.class.isAssignableFrom(field.getType()) ? Lists.newArrayList() : Sets.newLinkedHashSet();
+                field.set(entity, value);
+            }
+            if (depth + 1 < fields.size() && null != value) {
+                for (Object next : (value instanceof Collection) ? (Collection<?>) value : Collections.singleton(value)) {
+                    emptyIfUnset(next, fields, depth + 1);
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // The relationship field of that name, case aside, declared by the class or a superclass
+    private static Field relationshipField(Class<?> clazz, String name) {
+        for (Class<?> type = clazz; type != null; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (field.getName().equalsIgnoreCase(name) && field.isAnnotationPresent(Relationship.class)) {
+                    field.setAccessible(true);
+                    return field;
+                }
+            }
+        }
+        return null;
+    }
+
+    // Records the ids of the entity and of the entities saved with it at DEPTH_ENTITY, the first time each is seen
+    private static void rememberIds(Entity entity, Map<Entity, Long> ids) {
+        if (ids.containsKey(entity)) {
+            return;
+        }
+        ids.put(entity, entity.getId());
+        for (Class<?> type = entity.getClass(); type != null; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (!field.isAnnotationPresent(Relationship.class)) {
+                    continue;
+                }
+                try {
+                    field.setAccessible(true);
+                    Object value = field.get(entity);
+                    for (Object related : (value instanceof Collection) ? (Collection<?>) value : Collections.singleton(value)) {
+                        if (related instanceof Entity) {
+                            ids.putIfAbsent((Entity) related, ((Entity) related).getId());
+                        }
+                    }
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+    }
+
+    // Look up the ids of the new musician instruments that already exist, in one query, keyed by musicianInstrumentKey
+    private Map<Object, Long> findExistingMusicianInstruments(Collection<? extends Entity> entities) {
+        Set<String> playerNames = Sets.newHashSet();
+        for (Entity entity : entities) {
+            if (entity instanceof MusicianInstrument && null == entity.getId()) {
+                playerNames.add(((MusicianInstrument) entity).getMusician().getName());
+            }
+        }
+
+        Map<Object, Long> existingIds = Maps.newHashMap();
+        if (!playerNames.isEmpty()) {
+            for (Map<String, Object> row : session.query(EXISTING_MUSICIAN_INSTRUMENTS_QUERY, ImmutableMap.of("names", playerNames)).queryResults()) {
+                existingIds.put(Arrays.asList(row.get("name"), namesOf(row.get("instruments"))),
+                        ((Number) row.get("id")).longValue());
+            }
+        }
+        return existingIds;
+    }
+
+    // The key findExistingMusicianInstruments uses for a musician instrument, or null for any other entity
+    private static Object musicianInstrumentKey(Entity entity) {
+        if (!(entity instanceof MusicianInstrument)) {
+            return null;
+        }
+        MusicianInstrument musicianInstrument = (MusicianInstrument) entity;
+        ImmutableSortedSet.Builder<String> names = ImmutableSortedSet.naturalOrder();
+        for (MusicalInstrument instrument : musicianInstrument.getMusicalInstruments()) {
+            names.add(instrument.getName());
+        }
+        return Arrays.asList(musicianInstrument.getMusician().getName(), names.build());
+    }
+
+    // The property values an entity is merged on, or null for types keyed by relationships or with a key unset
+    private static Map<String, Object> keyProperties(Entity entity) {
+        Map<String, Object> key = null;
+        if (entity instanceof Album) {
+            Album album = (Album) entity;
+            key = Maps.newLinkedHashMap();
+            key.put("albumName", album.getAlbumName());
+            key.put("recordNumber", album.getRecordNumber());
+            key.put("releaseYear", album.getReleaseYear());
+        } else if (entity instanceof Musician) {
+            key = Collections.singletonMap("name", ((Musician) entity).getName());
+        } else if (entity instanceof MusicalInstrument) {
+            key = Collections.singletonMap("name", ((MusicalInstrument) entity).getName());
+        } else if (entity instanceof Group) {
+            key = Collections.singletonMap("groupName", ((Group) entity).getGroupName());
+        }
+        return (null == key || key.containsValue(null)) ? null : key;
+    }
+
+    // Gives every new keyed entity the id of its key's node, merging it in one statement per class
+    private void upsertAll(Collection<? extends Entity> entities) {
+        Map<Class<?>, List<Entity>> newByClass = Maps.newLinkedHashMap();
+        Map<Class<?>, List<Map<String, Object>>> keysByClass = Maps.newLinkedHashMap();
+        for (Entity entity : entities) {
+            Map<String, Object> key = keyProperties(entity);
+            if (null != key && null == entity.getId()) {
+                newByClass.computeIfAbsent(entity.getClass(), clazz -> Lists.newArrayList()).add(entity);
+                keysByClass.computeIfAbsent(entity.getClass(), clazz -> Lists.newArrayList()).add(key);
+            }
+        }
+        for (Map.Entry<Class<?>, List<Entity>> group : newByClass.entrySet()) {
+            List<Long> ids = upsert(group.getKey(), keysByClass.get(group.getKey()));
+            for (int i = 0; i < ids.size(); i++) {
+                // The same instance may be listed twice; the first row gave it its id already.
+                if (null == group.getValue().get(i).getId()) {
+                    group.getValue().get(i).setId(ids.get(i));
+                }
+            }
+        }
+    }
+
+    // Finds or creates the node of each key, all keys of the same class and properties, and returns their ids in order
+    private List<Long> upsert(Class<?> clazz, List<Map<String, Object>> keys) {
+        StringBuilder properties = new StringBuilder();
+        for (String property : keys.get(0).keySet()) {
+            properties.append(properties.length() == 0 ? "" : ", ").append('`').append(property).append("`: key.").append(property);
+        }
+        String cypher = String.format(UPSERT_QUERY, clazz.getSimpleName(), properties);
+        List<Long> ids = Lists.newArrayList();
+        for (Map<String, Object> row : session.query(cypher, ImmutableMap.of("keys", keys)).queryResults()) {
+            ids.add(((Number) row.get("id")).longValue());
+        }
+        return ids;
+    }
+
+    // Collected lists come back from the query as either arrays or iterables
+    private static ImmutableSortedSet<String> namesOf(Object collected) {
+        ImmutableSortedSet.Builder<String> names = ImmutableSortedSet.naturalOrder();
+        Iterable<?> values = collected instanceof Object[] ? Arrays.asList((Object[]) collected) : (Iterable<?>) collected;
+        for (Object value : values) {
+            names.add((String) value);
+        }
+        return names.build();
+    }
+
     // Search existing entities, including Album, Musician, MusicalInstrument and MusicianInstrument
     private <T extends Entity> T findExistingEntity(Entity entity, Class clazz) {
         Filters filters = new Filters();
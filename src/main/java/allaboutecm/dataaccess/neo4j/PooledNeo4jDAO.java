@@ -0,0 +1,352 @@
+package allaboutecm.dataaccess.neo4j;
+
+import allaboutecm.dataaccess.AlbumSummary;
+import allaboutecm.dataaccess.BatchListener;
+import allaboutecm.dataaccess.BatchResult;
+import allaboutecm.dataaccess.CollaborationEdges;
+import allaboutecm.dataaccess.DAO;
+import allaboutecm.dataaccess.FetchPlan;
+import allaboutecm.dataaccess.MusicianSummary;
+import allaboutecm.model.*;
+import com.google.common.collect.Multimap;
+import org.neo4j.ogm.cypher.query.Pagination;
+import org.neo4j.ogm.session.SessionFactory;
+import org.neo4j.ogm.transaction.Transaction;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * A DAO that can be shared between threads. OGM sessions are not thread-safe, so every call leases a session of
+ * its own from a pool, runs on a Neo4jDAO over it and hands it back; at most poolSize calls run at once and the
+ * others wait up to the lease timeout for a session to come free.
+ *
+ * A session remembers the entities it has loaded or saved, and a pooled one lives on after the call. To keep that
+ * from growing without end every session has a SessionLifecycle, whose policy is asked as the session comes back
+ * to the pool; by default it is cleared once it tracks more than maxEntities entities.
+ *
+ * inUnitOfWork runs several calls on one session and in one transaction, committed when the work returns and
+ * rolled back when it throws. Streams read lazily, after the call that returned them, so they get a session of
+ * their own unless they are opened inside a unit of work.
+ */
+public class PooledNeo4jDAO implements DAO {
+    public static final int DEFAULT_POOL_SIZE = 16;
+    public static final int DEFAULT_MAX_ENTITIES = 10000;
+    public static final long DEFAULT_LEASE_TIMEOUT_SECONDS = 30;
+
+    private final SessionFactory sessionFactory;
+    private final SessionPolicy policy;
+    private final Semaphore leases;
+    private final ConcurrentLinkedQueue<PooledSession> idle = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<PooledSession> unitOfWork = new ThreadLocal<>();
+    private volatile long leaseTimeoutMillis = TimeUnit.SECONDS.toMillis(DEFAULT_LEASE_TIMEOUT_SECONDS);
+
+    public PooledNeo4jDAO(SessionFactory sessionFactory) {
+        this(sessionFactory, DEFAULT_POOL_SIZE, DEFAULT_MAX_ENTITIES);
+    }
+
+    public PooledNeo4jDAO(SessionFactory sessionFactory, int poolSize, int maxEntities) {
+        this(sessionFactory, poolSize, SessionPolicy.afterEntities(maxEntities));
+    }
+
+    public PooledNeo4jDAO(SessionFactory sessionFactory, int poolSize, SessionPolicy policy) {
+        notNull(sessionFactory, "Object is null.");
+        isTrue(poolSize > 0, "Pool size should be positive.");
+        notNull(policy, "Object is null.");
+        this.sessionFactory = sessionFactory;
+        this.policy = policy;
+        this.leases = new Semaphore(poolSize, true);
+    }
+
+    public void setLeaseTimeout(long timeout, TimeUnit unit) {
+        isTrue(timeout > 0, "Timeout should be positive.");
+        notNull(unit, "Object is null.");
+        this.leaseTimeoutMillis = unit.toMillis(timeout);
+    }
+
+    /**
+     * The number of sessions opened so far and waiting in the pool; sessions are opened as calls need them.
+     */
+    public int getIdleSessions() {
+        return idle.size();
+    }
+
+    /**
+     * The entities tracked by the sessions waiting in the pool; sessions out on a lease are not counted.
+     */
+    public long getTrackedEntities() {
+        long tracked = 0;
+        for (PooledSession pooled : idle) {
+            tracked += Math.max(0, pooled.lifecycle.getTrackedEntities());
+        }
+        return tracked;
+    }
+
+    /**
+     * How often the pool's sessions were cleared, rolled back units of work included.
+     */
+    public long getClearCount() {
+        long clears = 0;
+        for (PooledSession pooled : idle) {
+            clears += pooled.lifecycle.getClearCount();
+        }
+        return clears;
+    }
+
+    /**
+     * Runs the work on one session and in one transaction. The DAO handed to the work is this one, so calls made
+     * through either, on the same thread, join the unit of work; a unit of work started inside another joins it too.
+     */
+    public <R> R inUnitOfWork(Function<? super DAO, R> work) {
+        notNull(work, "Object is null.");
+        if (null != unitOfWork.get()) {
+            return work.apply(this);
+        }
+        PooledSession pooled = lease();
+        unitOfWork.set(pooled);
+        Transaction tx = pooled.lifecycle.getSession().beginTransaction();
+        try {
+            R result = work.apply(this);
+            tx.commit();
+            return result;
+        } catch (RuntimeException e) {
+            tx.rollback();
+            // The session still holds what the rolled back work loaded and changed.
+            pooled.lifecycle.clear();
+            throw e;
+        } finally {
+            tx.close();
+            unitOfWork.remove();
+            pooled.lifecycle.afterUnitOfWork();
+            release(pooled);
+        }
+    }
+
+    private PooledSession lease() {
+        try {
+            if (!leases.tryAcquire(leaseTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("No session came free within " + leaseTimeoutMillis + " ms.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for a session.", e);
+        }
+        PooledSession pooled = idle.poll();
+        return (null == pooled) ? new PooledSession(new SessionLifecycle(sessionFactory.openSession(), policy)) : pooled;
+    }
+
+    private void release(PooledSession pooled) {
+        idle.offer(pooled);
+        leases.release();
+    }
+
+    // Runs one call on the session of the current unit of work, or on a leased one.
+    private <R> R call(Function<DAO, R> call) {
+        PooledSession current = unitOfWork.get();
+        if (null != current) {
+            return call.apply(current.dao);
+        }
+        PooledSession pooled = lease();
+        try {
+            return call.apply(pooled.dao);
+        } finally {
+            pooled.lifecycle.afterCall();
+            release(pooled);
+        }
+    }
+
+    private DAO streamingDAO() {
+        PooledSession current = unitOfWork.get();
+        return (null != current) ? current.dao : new Neo4jDAO(sessionFactory.openSession());
+    }
+
+    @Override
+    public <T extends Entity> T load(Class<T> clazz, Long id) {
+        return call(dao -> dao.load(clazz, id));
+    }
+
+    @Override
+    public <T extends Entity> T createOrUpdate(T entity) {
+        return call(dao -> dao.createOrUpdate(entity));
+    }
+
+    @Override
+    public <T extends Entity> BatchResult<T> createOrUpdateAll(Collection<T> entities) {
+        return call(dao -> dao.createOrUpdateAll(entities));
+    }
+
+    @Override
+    public <T extends Entity> BatchResult<T> createOrUpdateAll(Collection<T> entities, int chunkSize, BatchListener listener) {
+        return call(dao -> dao.createOrUpdateAll(entities, chunkSize, listener));
+    }
+
+    @Override
+    public void relate(Class<? extends Entity> clazz, String relationship, Multimap<Long, Long> ids) {
+        call(dao -> {
+            dao.relate(clazz, relationship, ids);
+            return null;
+        });
+    }
+
+    @Override
+    public <T extends Entity> Collection<T> loadAll(Class<T> clazz) {
+        return call(dao -> dao.loadAll(clazz));
+    }
+
+    @Override
+    public <T extends Entity> Collection<T> loadAll(Class<T> clazz, Pagination pagination) {
+        return call(dao -> dao.loadAll(clazz, pagination));
+    }
+
+    @Override
+    public <T extends Entity> Stream<T> streamAll(Class<T> clazz, int pageSize) {
+        return streamingDAO().streamAll(clazz, pageSize);
+    }
+
+    @Override
+    public <T extends Entity> Collection<T> loadAll(Class<T> clazz, FetchPlan plan) {
+        return call(dao -> dao.loadAll(clazz, plan));
+    }
+
+    @Override
+    public <T extends Entity> Stream<T> streamAll(Class<T> clazz, int pageSize, FetchPlan plan) {
+        return streamingDAO().streamAll(clazz, pageSize, plan);
+    }
+
+    @Override
+    public <T extends Entity> List<T> loadAll(Class<T> clazz, List<Long> ids) {
+        return call(dao -> dao.loadAll(clazz, ids));
+    }
+
+    @Override
+    public <T extends Entity> void delete(T entity) {
+        call(dao -> {
+            dao.delete(entity);
+            return null;
+        });
+    }
+
+    @Override
+    public Musician findMusicianByName(String name) {
+        return call(dao -> dao.findMusicianByName(name));
+    }
+
+    @Override
+    public MusicalInstrument findMusicalInstrumentByName(String name) {
+        return call(dao -> dao.findMusicalInstrumentByName(name));
+    }
+
+    @Override
+    public Album findAlbumByAlbumName(String albumName) {
+        return call(dao -> dao.findAlbumByAlbumName(albumName));
+    }
+
+    @Override
+    public Album findAlbumByRecordNumber(String recordNumber) {
+        return call(dao -> dao.findAlbumByRecordNumber(recordNumber));
+    }
+
+    @Override
+    public Album findAlbumByReleaseYear(int releaseYear) {
+        return call(dao -> dao.findAlbumByReleaseYear(releaseYear));
+    }
+
+    @Override
+    public Album findAlbumByGenre(String genre) {
+        return call(dao -> dao.findAlbumByGenre(genre));
+    }
+
+    @Override
+    public Album findAlbumByStyle(String style) {
+        return call(dao -> dao.findAlbumByStyle(style));
+    }
+
+    @Override
+    public Track findTrackByName(String name) {
+        return call(dao -> dao.findTrackByName(name));
+    }
+
+    @Override
+    public Concert findConcertByName(String name) {
+        return call(dao -> dao.findConcertByName(name));
+    }
+
+    @Override
+    public Concert findConcertByCountry(String country) {
+        return call(dao -> dao.findConcertByCountry(country));
+    }
+
+    @Override
+    public Concert findConcertByCity(String city) {
+        return call(dao -> dao.findConcertByCity(city));
+    }
+
+    @Override
+    public List<Musician> findMostProlificMusicians(int k, int startYear, int endYear) {
+        return call(dao -> dao.findMostProlificMusicians(k, startYear, endYear));
+    }
+
+    @Override
+    public List<Musician> findMostTalentedMusicians(int k) {
+        return call(dao -> dao.findMostTalentedMusicians(k));
+    }
+
+    @Override
+    public List<Musician> findMostSocialMusicians(int k) {
+        return call(dao -> dao.findMostSocialMusicians(k));
+    }
+
+    @Override
+    public List<Integer> findBusiestYears(int k, int startYear, int endYear) {
+        return call(dao -> dao.findBusiestYears(k, startYear, endYear));
+    }
+
+    @Override
+    public List<Album> findSimilarAlbums(int k, String genre, Set<String> instrumentNames) {
+        return call(dao -> dao.findSimilarAlbums(k, genre, instrumentNames));
+    }
+
+    @Override
+    public List<Album> findHighestRatedAlbums(int k, int minReviews) {
+        return call(dao -> dao.findHighestRatedAlbums(k, minReviews));
+    }
+
+    @Override
+    public List<Album> findBestSellingAlbums(int k) {
+        return call(dao -> dao.findBestSellingAlbums(k));
+    }
+
+    @Override
+    public CollaborationEdges findCollaborationEdges() {
+        return call(DAO::findCollaborationEdges);
+    }
+
+    @Override
+    public List<AlbumSummary> findAlbumSummaries() {
+        return call(DAO::findAlbumSummaries);
+    }
+
+    @Override
+    public List<MusicianSummary> findMusicianSummaries(int startYear, int endYear) {
+        return call(dao -> dao.findMusicianSummaries(startYear, endYear));
+    }
+
+    private static final class PooledSession {
+        private final SessionLifecycle lifecycle;
+        private final DAO dao;
+
+        private PooledSession(SessionLifecycle lifecycle) {
+            this.lifecycle = lifecycle;
+            this.dao = new Neo4jDAO(lifecycle.getSession());
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package allaboutecm.dataaccess.neo4j;
+
+import org.neo4j.ogm.context.MappingContext;
+import org.neo4j.ogm.session.Neo4jSession;
+import org.neo4j.ogm.session.Session;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Keeps the identity map of one OGM session in check. A session remembers every entity loaded or saved through it
+ * until it is cleared, so a DAO that lives as long as the process holds on to everything it ever read; this clears
+ * the session whenever its SessionPolicy says so, and counts what the session tracks along the way.
+ *
+ * OGM keeps the size of its mapping context to itself, so the count is read from the context's node and
+ * relationship entity registers directly. Should a later OGM rename them the count is -1, unknown, and
+ * SessionPolicy.afterEntities clears after every call rather than let the session grow.
+ *
+ * Like the session, a lifecycle is used by one thread at a time; its counters can be read from any.
+ */
+public class SessionLifecycle {
+    private static final Field NODE_ENTITIES = register("nodeEntityRegister");
+    private static final Field RELATIONSHIP_ENTITIES = register("relationshipEntityRegister");
+
+    private final Session session;
+    private final SessionPolicy policy;
+    private final AtomicLong clears = new AtomicLong();
+    private final AtomicLong peak = new AtomicLong();
+
+    public SessionLifecycle(Session session, SessionPolicy policy) {
+        notNull(session, "Object is null.");
+        notNull(policy, "Object is null.");
+        this.session = session;
+        this.policy = policy;
+    }
+
+    private static Field register(String name) {
+        try {
+            Field field = MappingContext.class.getDeclaredField(name);
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    public Session getSession() {
+        return session;
+    }
+
+    /**
+     * The entities the session tracks now, nodes and relationship entities, or -1 when they cannot be counted.
+     */
+    public long getTrackedEntities() {
+        if (!(session instanceof Neo4jSession) || null == NODE_ENTITIES || null == RELATIONSHIP_ENTITIES) {
+            return -1;
+        }
+        MappingContext context = ((Neo4jSession) session).context();
+        try {
+            return ((Map<?, ?>) NODE_ENTITIES.get(context)).size() + ((Map<?, ?>) RELATIONSHIP_ENTITIES.get(context)).size();
+        } catch (IllegalAccessException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * The most entities the session was seen tracking when the policy was asked.
+     */
+    public long getPeakTrackedEntities() {
+        return peak.get();
+    }
+
+    public long getClearCount() {
+        return clears.get();
+    }
+
+    /**
+     * Asks the policy after a call made outside a unit of work.
+     *
+     * @return whether the session was cleared
+     */
+    public boolean afterCall() {
+        return check(false);
+    }
+
+    /**
+     * Asks the policy at the end of a unit of work.
+     *
+     * @return whether the session was cleared
+     */
+    public boolean afterUnitOfWork() {
+        return check(true);
+    }
+
+    private boolean check(boolean endOfUnitOfWork) {
+        long tracked = getTrackedEntities();
+        peak.accumulateAndGet(tracked, Math::max);
+        if (policy.shouldClear(tracked, endOfUnitOfWork)) {
+            clear();
+            return true;
+        }
+        return false;
+    }
+
+    public void clear() {
+        session.clear();
+        clears.incrementAndGet();
+    }
+}
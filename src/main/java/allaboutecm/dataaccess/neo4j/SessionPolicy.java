@@ -0,0 +1,67 @@
+package allaboutecm.dataaccess.neo4j;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.function.Supplier;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * When a SessionLifecycle clears its session, dropping every entity the session tracks. It is asked after every
+ * call made outside a unit of work, and at the end of every unit of work; inside one the session is never cleared,
+ * since the work still holds the entities it loaded.
+ */
+@FunctionalInterface
+public interface SessionPolicy {
+    SessionPolicy NEVER = (trackedEntities, endOfUnitOfWork) -> false;
+
+    /**
+     * @param trackedEntities the entities the session tracks, or -1 when they cannot be counted
+     * @param endOfUnitOfWork whether a unit of work has just finished
+     */
+    boolean shouldClear(long trackedEntities, boolean endOfUnitOfWork);
+
+    /**
+     * Clears once the session tracks more than maxEntities entities, or when they cannot be counted.
+     */
+    static SessionPolicy afterEntities(long maxEntities) {
+        isTrue(maxEntities > 0, "Maximum entities should be positive.");
+        return (trackedEntities, endOfUnitOfWork) -> trackedEntities < 0 || trackedEntities > maxEntities;
+    }
+
+    static SessionPolicy afterEachUnitOfWork() {
+        return (trackedEntities, endOfUnitOfWork) -> endOfUnitOfWork;
+    }
+
+    /**
+     * Clears while the heap in use is above the fraction of the maximum heap. Garbage counts as in use until it is
+     * collected, so this clears sooner rather than later; it is the backstop for what the other policies miss.
+     */
+    static SessionPolicy heapWatermark(double fraction) {
+        return heapWatermark(fraction, ManagementFactory.getMemoryMXBean()::getHeapMemoryUsage);
+    }
+
+    /**
+     * Clears while the memory in use is above the fraction of its maximum, or of what is committed when there is
+     * no maximum.
+     */
+    static SessionPolicy heapWatermark(double fraction, Supplier<MemoryUsage> memory) {
+        isTrue(fraction > 0 && fraction < 1, "Watermark should be between 0 and 1.");
+        notNull(memory, "Object is null.");
+        return (trackedEntities, endOfUnitOfWork) -> {
+            MemoryUsage usage = memory.get();
+            long limit = (usage.getMax() > 0) ? usage.getMax() : usage.getCommitted();
+            return usage.getUsed() > fraction * limit;
+        };
+    }
+
+    /**
+     * Clears when either policy would.
+     */
+    default SessionPolicy or(SessionPolicy other) {
+        notNull(other, "Object is null.");
+        return (trackedEntities, endOfUnitOfWork) -> shouldClear(trackedEntities, endOfUnitOfWork)
+                || other.shouldClear(trackedEntities, endOfUnitOfWork);
+    }
+}
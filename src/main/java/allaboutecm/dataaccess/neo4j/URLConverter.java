@@ -1,13 +1,13 @@
 package allaboutecm.dataaccess.neo4j;
 
+import allaboutecm.model.WebAddress;
 import org.neo4j.ogm.typeconversion.AttributeConverter;
 
 import java.net.MalformedURLException;
-import java.net.URL;
 
-public class URLConverter implements AttributeConverter<URL, String> {
+public class URLConverter implements AttributeConverter<WebAddress, String> {
     @Override
-    public String toGraphProperty(URL value) {
+    public String toGraphProperty(WebAddress value) {
         if (null == value) {
             return null;
         }
@@ -15,13 +15,13 @@ public class URLConverter implements AttributeConverter<URL, String> {
     }
 
     @Override
-    public URL toEntityAttribute(String value) {
+    public WebAddress toEntityAttribute(String value) {
         if (null == value) {
             return null;
         }
 
         try {
-            return new URL(value);
+            return WebAddress.parse(value);
         } catch (MalformedURLException e) {
             throw new IllegalArgumentException("Cannot convert string to URL:" + value);
         }
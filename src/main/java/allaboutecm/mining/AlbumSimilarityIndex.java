@@ -0,0 +1,191 @@
+package allaboutecm.mining;
+
+import allaboutecm.model.Album;
+import allaboutecm.model.MusicalInstrument;
+import allaboutecm.model.MusicianInstrument;
+import com.google.common.collect.ImmutableSortedSet;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Precomputed lookup of albums by genre and by the set of instruments played on them.
+ *
+ * Two structures are kept per genre:
+ * - albums by instrument-set signature, for exact matches in O(1);
+ * - albums by single instrument name (an inverted index), so that a Jaccard-ranked neighbour search
+ *   only touches albums sharing at least one instrument with the target, not the whole catalogue.
+ *
+ * Albums are held by identity, not by equals: their natural key is mutable, and distinct albums may share one.
+ * An album changed after it was added must be re-indexed with update, and removed as the same instance.
+ */
+public class AlbumSimilarityIndex {
+    private final Map<String, Map<Set<String>, Set<Album>>> albumsBySignature = new HashMap<>();
+    private final Map<String, Map<String, Set<Album>>> albumsByInstrument = new HashMap<>();
+    private final Map<Album, Indexed> indexed = new IdentityHashMap<>();
+
+    public static AlbumSimilarityIndex build(Collection<Album> albums) {
+        notNull(albums, "Object is null.");
+        AlbumSimilarityIndex index = new AlbumSimilarityIndex();
+        for (Album album : albums) {
+            index.add(album);
+        }
+        return index;
+    }
+
+    /**
+     * The names of all instruments played on an album; this is what similarity is measured on.
+     */
+    public static Set<String> instrumentNames(Album album) {
+        ImmutableSortedSet.Builder<String> names = ImmutableSortedSet.naturalOrder();
+        // An album or entry loaded without its instruments has them as null.
+        if (album.getInstruments() == null) {
+            return names.build();
+        }
+        for (MusicianInstrument musicianInstrument : album.getInstruments()) {
+            if (musicianInstrument.getMusicalInstruments() != null) {
+                for (MusicalInstrument instrument : musicianInstrument.getMusicalInstruments()) {
+                    names.add(instrument.getName());
+                }
+            }
+        }
+        return names.build();
+    }
+
+    /**
+     * Adds an album, or re-indexes it if it is already in the index.
+     */
+    public void add(Album album) {
+        notNull(album, "Object is null.");
+        remove(album);
+        Indexed entry = new Indexed(album.getGenre(), instrumentNames(album));
+        indexed.put(album, entry);
+        albumsBySignature.computeIfAbsent(entry.genre, genre -> new HashMap<>())
+                .computeIfAbsent(entry.signature, key -> identitySet())
+                .add(album);
+        Map<String, Set<Album>> postings = albumsByInstrument.computeIfAbsent(entry.genre, genre -> new HashMap<>());
+        for (String name : entry.signature) {
+            postings.computeIfAbsent(name, key -> identitySet()).add(album);
+        }
+    }
+
+    /**
+     * Re-indexes an album after its genre or instruments changed.
+     *
+     * @return false, leaving the index as it was, if the album is not in the index.
+     */
+    public boolean update(Album album) {
+        notNull(album, "Object is null.");
+        if (!indexed.containsKey(album)) {
+            return false;
+        }
+        add(album);
+        return true;
+    }
+
+    /**
+     * @return false if the album is not in the index.
+     */
+    public boolean remove(Album album) {
+        notNull(album, "Object is null.");
+        Indexed entry = indexed.remove(album);
+        if (entry == null) {
+            return false;
+        }
+        // Found under the genre and signature it was indexed with, whatever the album says now.
+        Map<Set<String>, Set<Album>> bySignature = albumsBySignature.get(entry.genre);
+        Set<Album> albums = bySignature.get(entry.signature);
+        albums.remove(album);
+        if (albums.isEmpty()) {
+            bySignature.remove(entry.signature);
+        }
+        Map<String, Set<Album>> postings = albumsByInstrument.get(entry.genre);
+        for (String name : entry.signature) {
+            albums = postings.get(name);
+            albums.remove(album);
+            if (albums.isEmpty()) {
+                postings.remove(name);
+            }
+        }
+        return true;
+    }
+
+    public boolean contains(Album album) {
+        return indexed.containsKey(album);
+    }
+
+    public int size() {
+        return indexed.size();
+    }
+
+    /**
+     * Albums of the given genre played on exactly the given set of instruments, as a set of distinct instances.
+     */
+    public Set<Album> exactMatches(String genre, Set<String> instrumentNames) {
+        Map<Set<String>, Set<Album>> bySignature = albumsBySignature.get(genre);
+        if (bySignature == null) {
+            return Collections.emptySet();
+        }
+        Set<Album> albums = bySignature.get(ImmutableSortedSet.copyOf(instrumentNames));
+        return (albums == null) ? Collections.emptySet() : Collections.unmodifiableSet(albums);
+    }
+
+    /**
+     * The k albums of the same genre with the highest Jaccard similarity of instrument sets to the given album,
+     * excluding the album itself (the same instance, or one with the same id) and albums sharing no instrument with it.
+     *
+     * @param tieBreak orders albums with equal similarity.
+     */
+    public List<Album> nearest(int k, Album album, Comparator<Album> tieBreak) {
+        Set<String> target = instrumentNames(album);
+        Map<String, Set<Album>> postings = albumsByInstrument.get(album.getGenre());
+        if (k <= 0 || target.isEmpty() || postings == null) {
+            return new ArrayList<>();
+        }
+
+        // Only albums on the target's posting lists can have a non-zero overlap.
+        ObjectIntMap<Album> overlaps = ObjectIntMap.identityKeyed();
+        for (String name : target) {
+            for (Album candidate : postings.getOrDefault(name, Collections.emptySet())) {
+                overlaps.increment(candidate);
+            }
+        }
+
+        ScoredTopK<Album> top = new ScoredTopK<>(k, tieBreak);
+        overlaps.forEach((candidate, intersection) -> {
+            if (!isSameAlbum(candidate, album)) {
+                int union = target.size() + indexed.get(candidate).signature.size() - intersection;
+                top.offer(candidate, (double) intersection / union);
+            }
+        });
+        return top.toList();
+    }
+
+    private static boolean isSameAlbum(Album candidate, Album album) {
+        return candidate == album || (album.getId() != null && album.getId().equals(candidate.getId()));
+    }
+
+    private static Set<Album> identitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    // Where an album was put, so that it is found again after its genre or instruments change.
+    private static final class Indexed {
+        private final String genre;
+        private final Set<String> signature;
+
+        private Indexed(String genre, Set<String> signature) {
+            this.genre = genre;
+            this.signature = signature;
+        }
+    }
+}
@@ -1,28 +1,129 @@
 package allaboutecm.mining;
 
+import allaboutecm.dataaccess.AlbumSummary;
+import allaboutecm.dataaccess.CollaborationEdges;
 import allaboutecm.dataaccess.DAO;
+import allaboutecm.dataaccess.FetchPlan;
+import allaboutecm.dataaccess.MusicianSummary;
+import allaboutecm.mining.graph.CollaborationAnalytics;
+import allaboutecm.mining.graph.CollaborationGraph;
+import allaboutecm.mining.statistics.CatalogueStatistics;
+import allaboutecm.mining.statistics.StatisticsDAO;
 import allaboutecm.model.*;
-import java.util.Collections;
+import com.google.common.collect.Lists;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.apache.commons.lang3.Validate.notNull;
 
 
 public class ECMMiner {
 
     private final DAO dao;
+    private final MiningMode mode;
+    private AlbumSimilarityIndex similarityIndex;
+    private int pageSize;
+    private Executor executor;
+    private int parallelism;
     private static String exceptionMessage = "Object is null.";
     private static String kExceptionMessage = "k should be positive";
 
+    /**
+     * Deterministic tie-breaks on the natural keys; Neo4jDAO's ranking queries and CatalogueStatistics order ties the same way.
+     */
+    public static final Comparator<Musician> MUSICIAN_ORDER = Comparator.comparing(Musician::getName);
+    public static final Comparator<Album> ALBUM_ORDER = Comparator.comparing(Album::getRecordNumber)
+            .thenComparing(Album::getAlbumName)
+            .thenComparingInt(Album::getReleaseYear)
+            .thenComparing(Album::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    // The relationships each in-memory ranking walks, loaded with the entities in the same round trip.
+    private static final FetchPlan MUSICIAN_ALBUMS = FetchPlan.of("albums");
+    private static final FetchPlan PLAYED_INSTRUMENTS = FetchPlan.of("musician", "musicalInstruments");
+    private static final FetchPlan LINE_UPS = FetchPlan.of("featuredMusicians");
+    private static final FetchPlan ALBUM_INSTRUMENTS = FetchPlan.of("instruments.musicalInstruments");
+    private static final FetchPlan ALBUM_REVIEWS = FetchPlan.of("reviews");
+
     public ECMMiner(DAO dao) {
+        this(dao, MiningMode.IN_MEMORY);
+    }
+
+    public ECMMiner(DAO dao, MiningMode mode) {
+        if (mode == null) {
+            throw new NullPointerException(exceptionMessage);
+        }
+        if (mode == MiningMode.STATISTICS && !(dao instanceof StatisticsDAO)) {
+            throw new IllegalArgumentException("Statistics mode needs a StatisticsDAO.");
+        }
         this.dao = dao;
+        this.mode = mode;
+    }
+
+    public MiningMode getMode() {
+        return mode;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * When positive, the in-memory mode streams entities from the DAO pageSize at a time instead of
+     * loading each label at once, and keeps only what the ranking needs: one count per musician, a year
+     * histogram, or the current top k. Zero, the default, loads everything with DAO.loadAll. Either way each
+     * ranking asks the DAO for the relationships it walks through a FetchPlan, and for nothing else.
+     */
+    public void setPageSize(int pageSize) {
+        if (pageSize < 0) {
+            throw new IllegalArgumentException("Page size cannot be negative.");
+        }
+        this.pageSize = pageSize;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * When set, the in-memory mode splits each loaded label into partitions, aggregates every partition
+     * on the executor (one count per musician, a year histogram or a top k) and merges the partial results.
+     * The merged rankings are the same as the sequential ones, ties included, as every ranking breaks ties
+     * on a total order. Null, the default, aggregates on the calling thread. With a page size set, entities
+     * are streamed and aggregated on the calling thread either way.
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * The number of partitions each label is split into when an executor is set. Zero, the default, uses
+     * the parallelism of a ForkJoinPool executor, and otherwise the number of available processors.
+     */
+    public int getParallelism() {
+        if (parallelism > 0) {
+            return parallelism;
+        }
+        if (executor instanceof ForkJoinPool) {
+            return ((ForkJoinPool) executor).getParallelism();
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    public void setParallelism(int parallelism) {
+        if (parallelism < 0) {
+            throw new IllegalArgumentException("Parallelism cannot be negative.");
+        }
+        this.parallelism = parallelism;
     }
 
     /**
@@ -39,34 +140,50 @@ public class ECMMiner {
         startYear = (startYear < 0) ? 0 : startYear;
         endYear = (endYear < 0) ? Integer.MAX_VALUE : endYear;
 
-        Collection<Musician> musicians = dao.loadAll(Musician.class);
-        if(musicians==null)
-        {
-            throw new NullPointerException(exceptionMessage);
+        if (mode == MiningMode.QUERY_PUSHDOWN) {
+            return pushedDown(dao.findMostProlificMusicians(k, startYear, endYear));
+        }
+        if (mode == MiningMode.STATISTICS) {
+            return statistics().mostProlificMusicians(k, startYear, endYear);
+        }
+        if (mode == MiningMode.PROJECTION) {
+            TopK<MusicianSummary> top = new TopK<>(k, Comparator.comparingInt(MusicianSummary::getAlbumCount).reversed()
+                    .thenComparing(MusicianSummary::getName));
+            for (MusicianSummary summary : notNull(dao.findMusicianSummaries(startYear, endYear), exceptionMessage)) {
+                if (summary.getAlbumCount() > 0) {
+                    top.offer(summary);
+                }
+            }
+            return loadRanked(Musician.class, top.toList(), MusicianSummary::getId);
         }
 
-        Map<Musician, Integer> musicianAlbumNumMap = new HashMap<>();
-
-        for (Musician m : musicians) {
-            Set<Album> albums = m.getAlbums();
-            int numOfValidAlbum = 0;
-            for (Album album : albums) {
-                if (album.getReleaseYear() >= startYear && album.getReleaseYear() <= endYear) {
-                    numOfValidAlbum++;
+        // Namesakes are one musician, as MUSICIAN_ORDER and Musician.equals have it, and may sit in different
+        // partitions, so their albums are merged by name before ranking; an album both list counts once.
+        int from = startYear;
+        int to = endYear;
+        List<Map<Musician, Set<Album>>> partials = aggregate(Musician.class, MUSICIAN_ALBUMS, musicians -> {
+            Map<Musician, Set<Album>> released = new HashMap<>();
+            for (Musician m : musicians) {
+                for (Album album : m.getAlbums()) {
+                    if (album.getReleaseYear() >= from && album.getReleaseYear() <= to) {
+                        released.computeIfAbsent(m, key -> new HashSet<>()).add(album);
+                    }
                 }
             }
-            if (numOfValidAlbum != 0) {
-                musicianAlbumNumMap.put(m, numOfValidAlbum);
+            return released;
+        });
+        Map<Musician, Set<Album>> albumsByMusician = partials.get(0);
+        for (Map<Musician, Set<Album>> partial : partials.subList(1, partials.size())) {
+            for (Map.Entry<Musician, Set<Album>> entry : partial.entrySet()) {
+                albumsByMusician.computeIfAbsent(entry.getKey(), key -> new HashSet<>()).addAll(entry.getValue());
             }
         }
 
-        List<Musician> result = musicianAlbumNumMap.entrySet().stream()
-                .sorted(Collections.reverseOrder(Map.Entry.comparingByValue()))
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toList());
-
-        k = Math.min(k, result.size());
-        return result.subList(0, k);
+        ScoredTopK<Musician> top = new ScoredTopK<>(k, MUSICIAN_ORDER);
+        for (Map.Entry<Musician, Set<Album>> entry : albumsByMusician.entrySet()) {
+            top.offer(entry.getKey(), entry.getValue().size());
+        }
+        return top.toList();
     }
 
     /**
@@ -81,38 +198,42 @@ public class ECMMiner {
             throw new IllegalArgumentException(kExceptionMessage);
         }
 
-
-        Collection<MusicianInstrument> musicianInstruments = dao.loadAll(MusicianInstrument.class);
-        if(musicianInstruments==null)
-        {
-            throw new NullPointerException(exceptionMessage);
+        if (mode == MiningMode.QUERY_PUSHDOWN) {
+            return pushedDown(dao.findMostTalentedMusicians(k));
+        }
+        if (mode == MiningMode.STATISTICS) {
+            return statistics().mostTalentedMusicians(k);
         }
-        Map<Musician, Integer> musicianInstrumentMap = new HashMap<>();
 
-        for(MusicianInstrument m : musicianInstruments){
-            Musician musician = m.getMusician();
-            Set<MusicalInstrument> instruments = m.getMusicalInstruments();
-            int numOfInstruments = 0;
-            for(MusicalInstrument i : instruments){
-                numOfInstruments++;
+        // A musician may have several MusicianInstrument entries (one per album), so count distinct instruments.
+        List<Map<Musician, Set<MusicalInstrument>>> partials = aggregate(MusicianInstrument.class, PLAYED_INSTRUMENTS, musicianInstruments -> {
+            Map<Musician, Set<MusicalInstrument>> played = new HashMap<>();
+            for(MusicianInstrument m : musicianInstruments){
+                played.computeIfAbsent(m.getMusician(), key -> new HashSet<>())
+                        .addAll(m.getMusicalInstruments());
             }
-            if (numOfInstruments != 0) {
-                musicianInstrumentMap.put(musician, numOfInstruments);
+            return played;
+        });
+        Map<Musician, Set<MusicalInstrument>> instrumentsByMusician = partials.get(0);
+        for (Map<Musician, Set<MusicalInstrument>> partial : partials.subList(1, partials.size())) {
+            for (Map.Entry<Musician, Set<MusicalInstrument>> entry : partial.entrySet()) {
+                instrumentsByMusician.computeIfAbsent(entry.getKey(), key -> new HashSet<>()).addAll(entry.getValue());
             }
         }
 
-        List<Musician> result = musicianInstrumentMap.entrySet().stream()
-                .sorted(Collections.reverseOrder(Map.Entry.comparingByValue()))
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toList());
-
-        k = Math.min(k, result.size());
-        return result.subList(0, k);
+        ScoredTopK<Musician> top = new ScoredTopK<>(k, MUSICIAN_ORDER);
+        for (Map.Entry<Musician, Set<MusicalInstrument>> entry : instrumentsByMusician.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                top.offer(entry.getKey(), entry.getValue().size());
+            }
+        }
+        return top.toList();
 
     }
 
-    /** 
-     * Musicians that collaborate the most widely, by the number of other musicians they work with on albums.
+    /**
+     * Musicians that collaborate the most widely, by the number of distinct other musicians they are featured with on albums.
+     * Musicians who only appear alone are not ranked; ties are broken on the musician's name.
      *
      * @Param k the number of musicians to be returned.
      */
@@ -123,84 +244,96 @@ public class ECMMiner {
             throw new IllegalArgumentException(kExceptionMessage);
         }
 
-        Collection<Album> albums = dao.loadAll(Album.class);
-        if(albums==null)
-        {
-            throw new NullPointerException(exceptionMessage);
+        if (mode == MiningMode.QUERY_PUSHDOWN) {
+            return pushedDown(dao.findMostSocialMusicians(k));
         }
-        Map<Musician, Integer> musicianMap = new HashMap<>();
-        Integer num;
-
-        for(Album a: albums){
-            List<Musician> musicians = a.getFeaturedMusicians();
-            List<Musician> musiciansList = new ArrayList<>(musicians);
-            if (!(musiciansList.isEmpty())) {
-                for (int j = 0; j < musicians.size() ; j++) {
-                    if (!musicianMap.containsKey(musiciansList.get(j)))
-                        musicianMap.put(musiciansList.get(j), 1);
-                    else {
-                        num = musicianMap.get(musiciansList.get(j));
-                        musicianMap.put(musiciansList.get(j), (num + 1));
-                    }
-                }
-            }
+        if (mode == MiningMode.STATISTICS) {
+            return statistics().mostSocialMusicians(k);
         }
-        List<Musician> result = musicianMap.entrySet().stream()
-                .sorted(Collections.reverseOrder(Map.Entry.comparingByValue()))
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toList());
-        k = Math.min(k, result.size());
-        return result.subList(0, k);
+
+        // The collaborators of a musician are spread over albums in every partition, so the graph is built in one pass.
+        return CollaborationGraph.of(entities(Album.class, LINE_UPS)).mostConnected(k, MUSICIAN_ORDER);
     }
 
- /**
+    /**
+     * The collaboration graph of the catalogue, for analytics beyond the top k rankings. In memory and with query
+     * pushdown an album's line-up is its featured musicians together with the musicians listing it among their
+     * albums; the statistics mode keeps featured musicians only.
+     */
+    public CollaborationGraph<Musician> collaborationGraph()
+    {
+        if (mode == MiningMode.QUERY_PUSHDOWN) {
+            CollaborationEdges edges = dao.findCollaborationEdges();
+            return CollaborationGraph.fromEdges(edges.getMusicians(), edges.getSources(), edges.getTargets(),
+                    edges.getWeights());
+        }
+        if (mode == MiningMode.STATISTICS) {
+            return statistics().collaborationGraph();
+        }
+        return CollaborationGraph.of(entities(Album.class, LINE_UPS), entities(Musician.class, MUSICIAN_ALBUMS));
+    }
+
+    /**
+     * Centrality and communities over the collaboration graph, on this miner's executor and parallelism.
+     */
+    public CollaborationAnalytics<Musician> collaborationAnalytics()
+    {
+        CollaborationAnalytics<Musician> analytics = new CollaborationAnalytics<>(collaborationGraph());
+        analytics.setExecutor(executor);
+        analytics.setParallelism(parallelism);
+        return analytics;
+    }
+
+    /**
      * Busiest year in terms of number of albums released.
      *
      * @Param k the number of years to be returned.
      */
-
     public List<Integer> busiestYears(int k)
+    {
+        return busiestYears(k, -1, -1);
+    }
+
+    /**
+     * Busiest year in terms of number of albums released, the later year first when counts are equal.
+     *
+     * @Param k the number of years to be returned.
+     * @Param startYear, endYear between the two years [startYear, endYear].
+     * When startYear/endYear is negative, that means startYear/endYear is ignored.
+     */
+    public List<Integer> busiestYears(int k, int startYear, int endYear)
     {
        if (k <= 0)
             throw new IllegalArgumentException("Number of Years cannot be Zero or negative.");
+        startYear = (startYear < 0) ? 0 : startYear;
+        endYear = (endYear < 0) ? Integer.MAX_VALUE : endYear;
 
-        Collection<Album> albums = dao.loadAll(Album.class);
-        if(albums==null)
-        {
-            throw new NullPointerException(exceptionMessage);
+        if (mode == MiningMode.QUERY_PUSHDOWN) {
+            return pushedDown(dao.findBusiestYears(k, startYear, endYear));
         }
-        Map<Integer,Integer> yearMap = new HashMap<>();
-        Integer count;
-        for (Album album : albums) {
-            Integer year = album.getReleaseYear();
-            if (!yearMap.containsKey(year))
-                yearMap.put(year, 1);
-            else {
-                count = yearMap.get(year);
-                yearMap.put(year, (count + 1));
-            }
+        if (mode == MiningMode.STATISTICS) {
+            return statistics().busiestYears(k, startYear, endYear);
         }
-
-        List<Map.Entry<Integer, Integer>> sortList = new ArrayList<>(yearMap.entrySet());
-        sortList.sort(Map.Entry.comparingByValue());
-        Collections.reverse(sortList);
-
-        for (int i = 0; i < sortList.size() -1 ; i++) {
-            for(int j = 0;j < sortList.size() - i - 1; j++ ){
-                if(sortList.get(j).getValue().equals(sortList.get(j + 1).getValue())
-                        && sortList.get(j).getKey() < sortList.get(j+1).getKey() )
-                    Collections.swap(sortList, j, j+1);
+        if (mode == MiningMode.PROJECTION) {
+            YearHistogram histogram = YearHistogram.forReleaseYears();
+            for (AlbumSummary summary : albumSummaries()) {
+                histogram.add(summary.getReleaseYear());
             }
+            return histogram.busiest(k, startYear, endYear);
         }
 
-        if (k > sortList.size())
-            k = sortList.size();
-
-        List<Integer> result = new ArrayList<>();
-        for (int i = 0; i < k; i++) {
-            result.add(sortList.get(i).getKey());
+        List<YearHistogram> partials = aggregate(Album.class, FetchPlan.NONE, albums -> {
+            YearHistogram partial = YearHistogram.forReleaseYears();
+            for (Album album : albums) {
+                partial.add(album.getReleaseYear());
+            }
+            return partial;
+        });
+        YearHistogram histogram = partials.get(0);
+        for (YearHistogram partial : partials.subList(1, partials.size())) {
+            histogram.merge(partial);
         }
-        return result;
+        return histogram.busiest(k, startYear, endYear);
     }
 
     /**
@@ -208,47 +341,67 @@ public class ECMMiner {
      * if similar musical instruments are used in different albums and if the genre
      * of the album is same, then they are the most similar albums.
      *
+     * In the in-memory mode the lookup goes through the album similarity index, see {@link #getSimilarityIndex()},
+     * or through the statistics of a StatisticsDAO, which its writes keep current.
+     *
      * @Param k the number of albums to be returned.
      * @Param album
      */
-
     public List<Album> mostSimilarAlbums(int k, Album album)
     {
-        Collection<Album> albums = dao.loadAll(Album.class);
-        if(albums==null)
-        {
-            throw new NullPointerException(exceptionMessage);
-        }
-        List<Album> similarAlbums = new ArrayList<>();
-        Set<String> givenAlbumInstruments = new HashSet<>();
+        Set<String> givenAlbumInstruments = AlbumSimilarityIndex.instrumentNames(album);
         String givenAlbumGenre = album.getGenre();
-        for(MusicianInstrument i:album.getInstruments())
-        {
-            Set<MusicalInstrument> musicianInstruments = i.getMusicalInstruments();
-            for(MusicalInstrument j:musicianInstruments)
-            {
-                givenAlbumInstruments.add(j.getName());
-            }
+
+        if (mode == MiningMode.QUERY_PUSHDOWN) {
+            return (k <= 0) ? new ArrayList<>() : pushedDown(dao.findSimilarAlbums(k, givenAlbumGenre, givenAlbumInstruments));
         }
 
-        for (Album a : albums)
-        {
-            Set<MusicianInstrument> musicianInstruments = a.getInstruments();
-            Set<String> musicalInstruments = new HashSet<>();
-            for(MusicianInstrument m : musicianInstruments)
-            {
-                for(MusicalInstrument i:m.getMusicalInstruments())
-                {
-                    musicalInstruments.add(i.getName());
-                }
-            }
-            if(musicalInstruments.equals(givenAlbumInstruments) && a.getGenre().equals(givenAlbumGenre)&&!(0>=k))
-            {
-                similarAlbums.add(a);
-                k--;
-            }
+        TopK<Album> similarAlbums = new TopK<>(k, ALBUM_ORDER);
+        if (indexedByStatistics()) {
+            similarAlbums.offerAll(statistics().similarAlbums(givenAlbumGenre, givenAlbumInstruments));
+        } else {
+            similarAlbums.offerAll(getSimilarityIndex().exactMatches(givenAlbumGenre, givenAlbumInstruments));
         }
-          return similarAlbums;
+        return similarAlbums.toList();
+    }
+
+    /**
+     * Albums of the same genre nearest to a given album, ranked by the Jaccard similarity of
+     * the sets of instruments played on them. Unlike mostSimilarAlbums, partial overlaps count;
+     * the given album itself and albums sharing no instrument with it are not returned.
+     *
+     * @Param k the number of albums to be returned.
+     * @Param album
+     */
+    public List<Album> nearestAlbums(int k, Album album)
+    {
+        notNull(album, exceptionMessage);
+        if (indexedByStatistics()) {
+            return statistics().nearestAlbums(k, album, ALBUM_ORDER);
+        }
+        return getSimilarityIndex().nearest(k, album, ALBUM_ORDER);
+    }
+
+    /**
+     * The album similarity index lookups go through: the one set with {@link #setSimilarityIndex(AlbumSimilarityIndex)},
+     * or else one built from the DAO on first use and kept. Writes do not reach a kept index; to have lookups
+     * follow them, mine a StatisticsDAO, whose statistics its writes keep current, or set null after writing.
+     */
+    public synchronized AlbumSimilarityIndex getSimilarityIndex()
+    {
+        if (similarityIndex == null) {
+            similarityIndex = AlbumSimilarityIndex.build(Lists.newArrayList(entities(Album.class, ALBUM_INSTRUMENTS)));
+        }
+        return similarityIndex;
+    }
+
+    /**
+     * Serves lookups from an index the caller keeps current, e.g. by adding and updating albums as it writes them;
+     * null drops the index, and the next lookup builds one again from the DAO.
+     */
+    public synchronized void setSimilarityIndex(AlbumSimilarityIndex similarityIndex)
+    {
+        this.similarityIndex = similarityIndex;
     }
 
     /**
@@ -258,51 +411,55 @@ public class ECMMiner {
      */
     public List<Album> highestRatedAlbums(int k)
     {
-        Collection<Album> albums = dao.loadAll(Album.class);
-        if(albums==null)
-        {
-            throw new NullPointerException(exceptionMessage);
+        return highestRatedAlbums(k, 1);
+    }
+
+    /**
+     * To return the album with the highest average rate, among albums with at least minReviews reviews,
+     * so that a single enthusiastic review does not top the chart.
+     *
+     * @Param k the number of albums to be returned.
+     * @Param minReviews the number of reviews an album needs to be ranked; values below 1 are treated as 1.
+     */
+    public List<Album> highestRatedAlbums(int k, int minReviews)
+    {
+        minReviews = Math.max(minReviews, 1);
+        if (mode == MiningMode.QUERY_PUSHDOWN) {
+            return (k <= 0) ? new ArrayList<>() : pushedDown(dao.findHighestRatedAlbums(k, minReviews));
         }
-        Map<String, Double> albumMap = new HashMap<>();
-        for(Album a:albums)
-        {
-            double count = 0;
-            int totalReviews = 0;
-            for(Review r:a.getReviews())
-            {
-               count=count+r.getRating();
-               totalReviews++;
+        if (mode == MiningMode.STATISTICS) {
+            return statistics().highestRatedAlbums(k, minReviews);
+        }
+        if (mode == MiningMode.PROJECTION) {
+            TopK<AlbumSummary> top = new TopK<>(k, Comparator.comparingDouble(AlbumSummary::getAverageRating).reversed()
+                    .thenComparing(AlbumSummary.ORDER));
+            for (AlbumSummary summary : albumSummaries()) {
+                if (summary.getReviewCount() >= minReviews) {
+                    top.offer(summary);
+                }
             }
-            if(totalReviews!=0)
-            {albumMap.put(a.getAlbumName(),(count/totalReviews));}
-
-         }
-        List<Entry<String, Double>> list = new LinkedList<>(albumMap.entrySet());
-        Collections.sort(list, new Comparator<Entry<String, Double>>()
-        {
-            public int compare(Entry<String, Double> i1, Entry<String, Double> i2)
-            {return i2.getValue().compareTo(i1.getValue());
-            }});
-
-        Map<String, Double> sortedMap = new LinkedHashMap<>();
-        for(Entry<String, Double> entry : list)
-        {
-            sortedMap.put(entry.getKey(), entry.getValue());
-        }
-        List<Album> results = new ArrayList<>();
-        for(String name: sortedMap.keySet())
-        {
-            for(Album a : albums)
+            return loadRanked(Album.class, top.toList(), AlbumSummary::getId);
+        }
+
+        int reviewsNeeded = minReviews;
+        return mergedTopAlbums(k, aggregate(Album.class, ALBUM_REVIEWS, albums -> {
+            ScoredTopK<Album> topAlbums = new ScoredTopK<>(k, ALBUM_ORDER);
+            for(Album a:albums)
             {
-                if(a.getAlbumName().equals(name)&& !(0>=k))
+                double count = 0;
+                int totalReviews = 0;
+                for(Review r:a.getReviews())
+                {
+                   count=count+r.getRating();
+                   totalReviews++;
+                }
+                if(totalReviews>=reviewsNeeded)
                 {
-                    results.add(a);
-                    k--;
+                    topAlbums.offer(a, count/totalReviews);
                 }
             }
-        }
-
-        return results;
+            return topAlbums;
+        }));
     }
 
     /**
@@ -312,39 +469,119 @@ public class ECMMiner {
      */
     public List<Album> bestSellingAlbums(int k)
     {
-        Collection<Album> albums = dao.loadAll(Album.class);
-        if(albums==null)
-        {
-            throw new NullPointerException(exceptionMessage);
+        if (mode == MiningMode.QUERY_PUSHDOWN) {
+            return (k <= 0) ? new ArrayList<>() : pushedDown(dao.findBestSellingAlbums(k));
+        }
+        if (mode == MiningMode.STATISTICS) {
+            return statistics().bestSellingAlbums(k);
+        }
+        if (mode == MiningMode.PROJECTION) {
+            TopK<AlbumSummary> top = new TopK<>(k, Comparator.comparingLong(AlbumSummary::getSales).reversed()
+                    .thenComparing(AlbumSummary.ORDER));
+            top.offerAll(albumSummaries());
+            return loadRanked(Album.class, top.toList(), AlbumSummary::getId);
         }
-        Map<String, Integer> albumMap = new HashMap<>();
-        for(Album a:albums)
-        {
-            albumMap.put(a.getAlbumName(),a.getSales());
-        }
-        List<Entry<String, Integer>> list = new LinkedList<>(albumMap.entrySet());
-        Collections.sort(list, new Comparator<Entry<String, Integer>>()
-        {
-            public int compare(Entry<String, Integer> i1, Entry<String, Integer> i2)
-            {return i2.getValue().compareTo(i1.getValue());}});
-
-        Map<String, Integer> sortedMap = new LinkedHashMap<>();
-        for(Entry<String, Integer> entry : list)
-        {
-            sortedMap.put(entry.getKey(), entry.getValue());
-        }
-        List<Album> results = new ArrayList<>();
-        for(String name: sortedMap.keySet())
-        {
-            for(Album a : albums)
+
+        return mergedTopAlbums(k, aggregate(Album.class, FetchPlan.NONE, albums -> {
+            ScoredTopK<Album> topAlbums = new ScoredTopK<>(k, ALBUM_ORDER);
+            for(Album a:albums)
             {
-                if(a.getAlbumName().equals(name)&& !(k<=0))
-                {
-                    results.add(a);
-                    k--;
+                topAlbums.offer(a, a.getSales());
+            }
+            return topAlbums;
+        }));
+    }
+
+    // Highest score first, ties broken on the album; albums are ranked as references, so albums sharing a name are kept apart.
+    private static List<Album> mergedTopAlbums(int k, List<ScoredTopK<Album>> partials) {
+        ScoredTopK<Album> topAlbums = new ScoredTopK<>(k, ALBUM_ORDER);
+        for (ScoredTopK<Album> partial : partials) {
+            topAlbums.offerAll(partial);
+        }
+        return topAlbums.toList();
+    }
+
+    // All entities of a class with the relationships of the plan, a page at a time when a page size is set.
+    private <T extends Entity> Iterable<T> entities(Class<T> clazz, FetchPlan plan) {
+        if (pageSize > 0) {
+            return () -> {
+                Stream<T> stream = dao.streamAll(clazz, pageSize, plan);
+                if (stream == null) {
+                    throw new NullPointerException(exceptionMessage);
                 }
+                return stream.iterator();
+            };
+        }
+        Collection<T> all = dao.loadAll(clazz, plan);
+        if (all == null) {
+            throw new NullPointerException(exceptionMessage);
+        }
+        return all;
+    }
+
+    /*
+     * Aggregate all entities of a class: in one go on the calling thread, or, with an executor set and no
+     * page size, split into consecutive partitions aggregated on the executor. The partial results come
+     * back in partition order.
+     */
+    private <T extends Entity, R> List<R> aggregate(Class<T> clazz, FetchPlan plan, Function<Iterable<T>, R> aggregation) {
+        if (executor == null || pageSize > 0) {
+            return Collections.singletonList(aggregation.apply(entities(clazz, plan)));
+        }
+        Iterable<T> all = entities(clazz, plan);
+        List<T> list = (all instanceof List) ? (List<T>) all : Lists.newArrayList(all);
+        int partitions = Math.max(1, Math.min(getParallelism(), list.size()));
+        if (partitions == 1) {
+            return Collections.singletonList(aggregation.apply(list));
+        }
+        List<CompletableFuture<R>> futures = new ArrayList<>(partitions);
+        for (List<T> partition : Lists.partition(list, (list.size() + partitions - 1) / partitions)) {
+            futures.add(CompletableFuture.supplyAsync(() -> aggregation.apply(partition), executor));
+        }
+        List<R> partials = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<R> future : futures) {
+                partials.add(future.join());
             }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return partials;
+    }
+
+    private List<AlbumSummary> albumSummaries() {
+        return notNull(dao.findAlbumSummaries(), exceptionMessage);
+    }
+
+    // The entities behind the top summaries, in ranking order, loaded in one lookup.
+    private <T extends Entity, S> List<T> loadRanked(Class<T> clazz, List<S> ranked, Function<S, Long> id) {
+        if (ranked.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> ids = new ArrayList<>(ranked.size());
+        for (S summary : ranked) {
+            ids.add(id.apply(summary));
+        }
+        return pushedDown(dao.loadAll(clazz, ids));
+    }
+
+    // The statistics serve similarity lookups in their mode, and in memory when no index was set for a StatisticsDAO
+    private synchronized boolean indexedByStatistics() {
+        return mode == MiningMode.STATISTICS || (similarityIndex == null && dao instanceof StatisticsDAO);
+    }
+
+    private CatalogueStatistics statistics() {
+        return ((StatisticsDAO) dao).getStatistics();
+    }
+
+    // Ranked results from the DAO are already ordered and limited to k.
+    private static <T> List<T> pushedDown(List<T> ranked) {
+        if (ranked == null) {
+            throw new NullPointerException(exceptionMessage);
         }
-        return results;
+        return ranked;
     }
 }
@@ -0,0 +1,27 @@
+package allaboutecm.mining;
+
+/**
+ * How ECMMiner evaluates its rankings.
+ */
+public enum MiningMode {
+    /**
+     * Load the whole label through the DAO and count and sort in Java.
+     */
+    IN_MEMORY,
+
+    /**
+     * Push the counting, sorting and limiting down to the database, so that only the top k rows are loaded.
+     */
+    QUERY_PUSHDOWN,
+
+    /**
+     * Answer from the counters a StatisticsDAO maintains on every write, without loading anything.
+     */
+    STATISTICS,
+
+    /**
+     * Rank compact AlbumSummary and MusicianSummary projections built straight from query rows, then load
+     * only the top k entities. Rankings that walk relationships the projections leave out run in memory.
+     */
+    PROJECTION
+}
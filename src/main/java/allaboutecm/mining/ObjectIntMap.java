@@ -0,0 +1,139 @@
+package allaboutecm.mining;
+
+import java.util.function.ObjIntConsumer;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Counts per key in primitive ints, for the miner's aggregations.
+ *
+ * Keys and counts sit in two parallel arrays with open addressing and linear probing, so incrementing a count
+ * is a hash, an equals and an array write: no Integer boxing and no entry objects, unlike a HashMap with
+ * containsKey/get/put. Keys are compared with equals and hashCode like a HashMap, since the in-memory entities
+ * may not have ids yet, unless the map is identityKeyed. Keys cannot be removed; an absent key counts zero.
+ */
+public class ObjectIntMap<K> {
+    private static final int MINIMUM_CAPACITY = 16;
+
+    private final boolean identity;
+    private Object[] keys;
+    private int[] values;
+    private int size;
+
+    public ObjectIntMap() {
+        this(MINIMUM_CAPACITY / 2);
+    }
+
+    public ObjectIntMap(int expectedSize) {
+        this(expectedSize, false);
+    }
+
+    /**
+     * A map comparing keys with == and System.identityHashCode, for keys whose equals may change or collide.
+     */
+    public static <K> ObjectIntMap<K> identityKeyed() {
+        return new ObjectIntMap<>(MINIMUM_CAPACITY / 2, true);
+    }
+
+    private ObjectIntMap(int expectedSize, boolean identity) {
+        this.identity = identity;
+        isTrue(expectedSize >= 0, "Expected size cannot be negative.");
+        // At most half full, so that probe sequences stay short
+        int capacity = MINIMUM_CAPACITY;
+        while (capacity < expectedSize * 2L) {
+            capacity <<= 1;
+        }
+        keys = new Object[capacity];
+        values = new int[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(K key) {
+        notNull(key, "Object is null.");
+        return keys[slot(key)] != null;
+    }
+
+    public int get(K key) {
+        notNull(key, "Object is null.");
+        return values[slot(key)];
+    }
+
+    /**
+     * Adds delta to the count of the key, starting from zero for a new key.
+     *
+     * @return the new count.
+     */
+    public int add(K key, int delta) {
+        notNull(key, "Object is null.");
+        int slot = slot(key);
+        if (keys[slot] == null) {
+            keys[slot] = key;
+            size++;
+        }
+        int count = values[slot] += delta;
+        if (size * 2 > keys.length) {
+            grow();
+        }
+        return count;
+    }
+
+    public int increment(K key) {
+        return add(key, 1);
+    }
+
+    /**
+     * Adds every count of another map into this one.
+     */
+    public void addAll(ObjectIntMap<? extends K> other) {
+        notNull(other, "Object is null.");
+        other.forEach(this::add);
+    }
+
+    /**
+     * Calls the action with every key and its count, in no particular order.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(ObjIntConsumer<? super K> action) {
+        notNull(action, "Object is null.");
+        Object[] keys = this.keys;
+        int[] values = this.values;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                action.accept((K) keys[i], values[i]);
+            }
+        }
+    }
+
+    // The slot holding the key, or the empty slot where it would go
+    private int slot(Object key) {
+        int mask = keys.length - 1;
+        int h = identity ? System.identityHashCode(key) : key.hashCode();
+        int slot = (h ^ (h >>> 16)) * 0x9E3779B9 & mask;
+        while (keys[slot] != null && keys[slot] != key && (identity || !keys[slot].equals(key))) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        Object[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new Object[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package allaboutecm.mining;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Selects the k elements with the highest scores. It is a TopK over (element, score) pairs, but the scores are
+ * kept in a primitive array next to the elements, so offering a candidate neither boxes its score nor allocates
+ * an entry for it. The arrays start small and double as candidates arrive, so a k far beyond the number of
+ * candidates costs nothing up front.
+ *
+ * Equal scores are ordered by the tie-break comparator, where an element that compares lower ranks higher; it
+ * must be a total order for the selection to be deterministic.
+ */
+public class ScoredTopK<T> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int k;
+    private final Comparator<? super T> tieBreak;
+    private Object[] elements;
+    private double[] scores;
+    private int size;
+
+    public ScoredTopK(int k, Comparator<? super T> tieBreak) {
+        notNull(tieBreak, "Tie-break should not be null.");
+        this.k = Math.max(k, 0);
+        this.tieBreak = tieBreak;
+        this.elements = new Object[Math.min(this.k, INITIAL_CAPACITY)];
+        this.scores = new double[elements.length];
+    }
+
+    private ScoredTopK(ScoredTopK<T> other) {
+        this.k = other.k;
+        this.tieBreak = other.tieBreak;
+        this.elements = Arrays.copyOf(other.elements, other.size);
+        this.scores = Arrays.copyOf(other.scores, other.size);
+        this.size = other.size;
+    }
+
+    /**
+     * Offers a candidate, keeping it only if it ranks among the best k seen so far.
+     */
+    public void offer(T candidate, double score) {
+        if (size < k) {
+            if (size == elements.length) {
+                grow();
+            }
+            elements[size] = candidate;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (k > 0 && compare(candidate, score, 0) < 0) {
+            elements[0] = candidate;
+            scores[0] = score;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Offers everything another selection kept, with its score, to merge partial results.
+     */
+    @SuppressWarnings("unchecked")
+    public void offerAll(ScoredTopK<? extends T> other) {
+        notNull(other, "Object is null.");
+        for (int i = 0; i < other.size; i++) {
+            offer((T) other.elements[i], other.scores[i]);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the selected elements, best first.
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> toList() {
+        return new ArrayList<>((List<T>) Arrays.asList(sorted().elements));
+    }
+
+    /**
+     * Returns the scores of the selected elements, in the order of {@link #toList()}.
+     */
+    public double[] toScores() {
+        return sorted().scores;
+    }
+
+    private void grow() {
+        int capacity = (int) Math.min(k, Math.max(2L * elements.length, 1));
+        elements = Arrays.copyOf(elements, capacity);
+        scores = Arrays.copyOf(scores, capacity);
+    }
+
+    // Heap sorts a copy: the worst of what is left moves to the back each round, leaving the best first.
+    private ScoredTopK<T> sorted() {
+        ScoredTopK<T> copy = new ScoredTopK<>(this);
+        for (int end = size - 1; end > 0; end--) {
+            copy.swap(0, end);
+            copy.size = end;
+            copy.siftDown(0);
+        }
+        copy.size = size;
+        return copy;
+    }
+
+    // Below zero when the candidate ranks higher than the element in the slot: a higher score, then the tie-break.
+    @SuppressWarnings("unchecked")
+    private int compare(T candidate, double score, int slot) {
+        int byScore = Double.compare(scores[slot], score);
+        return (byScore != 0) ? byScore : tieBreak.compare(candidate, (T) elements[slot]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(int slot, int other) {
+        return compare((T) elements[slot], scores[slot], other);
+    }
+
+    // The slots form a binary heap whose root is the worst of the current top k, so that it can be evicted first.
+    private void siftUp(int slot) {
+        while (slot > 0) {
+            int parent = (slot - 1) / 2;
+            if (compare(slot, parent) <= 0) {
+                return;
+            }
+            swap(slot, parent);
+            slot = parent;
+        }
+    }
+
+    private void siftDown(int slot) {
+        while (true) {
+            int worst = slot;
+            for (int child = 2 * slot + 1; child <= 2 * slot + 2 && child < size; child++) {
+                if (compare(child, worst) > 0) {
+                    worst = child;
+                }
+            }
+            if (worst == slot) {
+                return;
+            }
+            swap(slot, worst);
+            slot = worst;
+        }
+    }
+
+    private void swap(int a, int b) {
+        Object element = elements[a];
+        elements[a] = elements[b];
+        elements[b] = element;
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+}
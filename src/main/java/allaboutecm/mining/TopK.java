@@ -0,0 +1,67 @@
+package allaboutecm.mining;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Selects the k best elements of a stream of candidates with a size-k min-heap.
+ *
+ * The order is given by a ranking comparator, where an element that compares lower ranks higher.
+ * The comparator must be a total order (break ties explicitly) for the selection to be deterministic.
+ * Offering n candidates costs O(n log k) time and O(k) memory, instead of sorting all n.
+ */
+public class TopK<T> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int k;
+    private final Comparator<? super T> ranking;
+    private final PriorityQueue<T> heap;
+
+    public TopK(int k, Comparator<? super T> ranking) {
+        notNull(ranking, "Ranking should not be null.");
+        this.k = Math.max(k, 0);
+        this.ranking = ranking;
+        // The head of the heap is the worst of the current top k, so that it can be evicted first.
+        // It starts small and grows with the candidates, since k may be far beyond their number.
+        this.heap = new PriorityQueue<>(Math.max(Math.min(this.k, INITIAL_CAPACITY), 1), Collections.reverseOrder(ranking));
+    }
+
+    /**
+     * Offers a candidate, keeping it only if it ranks among the best k seen so far.
+     */
+    public void offer(T candidate) {
+        if (k == 0) {
+            return;
+        }
+        if (heap.size() < k) {
+            heap.add(candidate);
+        } else if (ranking.compare(candidate, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(candidate);
+        }
+    }
+
+    public void offerAll(Iterable<? extends T> candidates) {
+        for (T candidate : candidates) {
+            offer(candidate);
+        }
+    }
+
+    public int size() {
+        return heap.size();
+    }
+
+    /**
+     * Returns the selected elements, best first.
+     */
+    public List<T> toList() {
+        List<T> result = new ArrayList<>(heap);
+        result.sort(ranking);
+        return result;
+    }
+}
@@ -0,0 +1,102 @@
+package allaboutecm.mining;
+
+import allaboutecm.model.Album;
+import allaboutecm.validation.Validators;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Number of albums released per year, counted in a primitive array indexed by year.
+ *
+ * Release years are bounded by the Album constructor (1500 up to the current year),
+ * so the whole histogram is a few hundred ints and needs no boxing or hashing.
+ */
+public class YearHistogram {
+    private final int firstYear;
+    private final int[] counts;
+
+    public YearHistogram(int firstYear, int lastYear) {
+        if (lastYear < firstYear) {
+            throw new IllegalArgumentException("Last year should not be before the first year.");
+        }
+        this.firstYear = firstYear;
+        this.counts = new int[lastYear - firstYear + 1];
+    }
+
+    /**
+     * A histogram covering every valid album release year.
+     */
+    public static YearHistogram forReleaseYears() {
+        return new YearHistogram(Album.EARLIEST_RELEASE_YEAR, Validators.currentYear());
+    }
+
+    public int getFirstYear() {
+        return firstYear;
+    }
+
+    public int getLastYear() {
+        return firstYear + counts.length - 1;
+    }
+
+    /**
+     * Counts one album released in the given year. Years outside the histogram are ignored.
+     *
+     * @return whether the year was counted.
+     */
+    public boolean add(int year) {
+        return add(year, 1);
+    }
+
+    public boolean add(int year, int delta) {
+        if (year < firstYear || year > getLastYear()) {
+            return false;
+        }
+        counts[year - firstYear] += delta;
+        return true;
+    }
+
+    public int count(int year) {
+        if (year < firstYear || year > getLastYear()) {
+            return 0;
+        }
+        return counts[year - firstYear];
+    }
+
+    /**
+     * Adds the counts of another histogram over the same years into this one.
+     */
+    public void merge(YearHistogram other) {
+        if (other.firstYear != firstYear || other.counts.length != counts.length) {
+            throw new IllegalArgumentException("Histograms should cover the same years.");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+    }
+
+    /**
+     * The k years in [startYear, endYear] with the most albums, the later year first on equal counts.
+     */
+    public List<Integer> busiest(int k, int startYear, int endYear) {
+        int from = Math.max(startYear, firstYear) - firstYear;
+        int to = Math.min(endYear, getLastYear()) - firstYear;
+
+        // Pack (count, year) into one long so that a single ascending sort orders by count, then by year.
+        long[] keys = new long[Math.max(to - from + 1, 0)];
+        int size = 0;
+        for (int i = from; i <= to; i++) {
+            if (counts[i] > 0) {
+                keys[size++] = ((long) counts[i] << 32) | (firstYear + i);
+            }
+        }
+        Arrays.sort(keys, 0, size);
+
+        List<Integer> result = new ArrayList<>(Math.min(k, size));
+        for (int i = size - 1; i >= 0 && result.size() < k; i--) {
+            result.add((int) keys[i]);
+        }
+        return result;
+    }
+}
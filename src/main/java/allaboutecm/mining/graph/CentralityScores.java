@@ -0,0 +1,72 @@
+package allaboutecm.mining.graph;
+
+import allaboutecm.mining.TopK;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * A score for every musician of a CollaborationGraph, indexed by compact id, and how the scores were reached.
+ */
+public final class CentralityScores<K> {
+    private final CollaborationGraph<K> graph;
+    private final double[] scores;
+    private final Convergence convergence;
+
+    CentralityScores(CollaborationGraph<K> graph, double[] scores, Convergence convergence) {
+        this.graph = graph;
+        this.scores = scores;
+        this.convergence = convergence;
+    }
+
+    public CollaborationGraph<K> getGraph() {
+        return graph;
+    }
+
+    public Convergence getConvergence() {
+        return convergence;
+    }
+
+    // The scores themselves, for the algorithms that build on others.
+    double[] values() {
+        return scores;
+    }
+
+    public double score(int id) {
+        return scores[id];
+    }
+
+    /**
+     * The score of a musician, zero for a musician outside the graph.
+     */
+    public double scoreOf(K musician) {
+        int id = graph.idOf(musician);
+        return (id < 0) ? 0 : scores[id];
+    }
+
+    /**
+     * The k musicians with the highest scores, ties in the given order.
+     */
+    public List<K> top(int k, Comparator<? super K> tieBreak) {
+        notNull(tieBreak, "Object is null.");
+        if (k <= 0) {
+            return Collections.emptyList();
+        }
+        TopK<Map.Entry<K, Double>> top = new TopK<>(k, Map.Entry.<K, Double>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey(tieBreak)));
+        for (int id = 0; id < scores.length; id++) {
+            top.offer(new AbstractMap.SimpleImmutableEntry<>(graph.musician(id), scores[id]));
+        }
+        List<K> result = new ArrayList<>(top.size());
+        for (Map.Entry<K, Double> entry : top.toList()) {
+            result.add(entry.getKey());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,337 @@
+package allaboutecm.mining.graph;
+
+import allaboutecm.mining.TopK;
+import allaboutecm.model.Album;
+import allaboutecm.model.Musician;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Who played with whom: an undirected graph with an edge between two musicians featured together on at least one album.
+ *
+ * Musicians get compact ids 0..n-1 in the order they are first seen, and the edges are kept in compressed sparse rows:
+ * the collaborators of musician i are neighbours[offsets[i]] up to neighbours[offsets[i + 1]], each once, with the
+ * number of albums the two share at the same position in weights. The degree of a musician, the number of distinct
+ * musicians they worked with, is the length of its row. Building costs time and memory in the number of edges, one
+ * pass over the line-ups and one over the rows; the graph does not change afterwards, CollaborationIndex keeps one
+ * up to date as albums change.
+ */
+public final class CollaborationGraph<K> {
+    private final List<K> musicians;
+    private final Map<K, Integer> ids;
+    final int[] offsets;
+    final int[] neighbours;
+    final int[] weights;
+
+    private CollaborationGraph(List<K> musicians, Map<K, Integer> ids, int[] offsets, int[] neighbours, int[] weights) {
+        this.musicians = musicians;
+        this.ids = ids;
+        this.offsets = offsets;
+        this.neighbours = neighbours;
+        this.weights = weights;
+    }
+
+    /**
+     * The graph of the featured musicians of the albums; musicians are matched with equals, as Musician compares names.
+     */
+    public static CollaborationGraph<Musician> of(Iterable<Album> albums) {
+        notNull(albums, "Object is null.");
+        List<List<Musician>> lineUps = new ArrayList<>();
+        for (Album album : albums) {
+            lineUps.add(album.getFeaturedMusicians());
+        }
+        return fromLineUps(lineUps);
+    }
+
+    /**
+     * The graph of both sides of the musician-album relation: an album's line-up is its featured musicians
+     * together with every musician listing the album among their own albums.
+     */
+    public static CollaborationGraph<Musician> of(Iterable<Album> albums, Iterable<Musician> musicians) {
+        notNull(albums, "Object is null.");
+        notNull(musicians, "Object is null.");
+        // Line-ups are a handful of musicians, so lists with contains beat a set per album.
+        Map<Album, List<Musician>> lineUps = new LinkedHashMap<>();
+        for (Album album : albums) {
+            addAll(lineUps.computeIfAbsent(album, a -> new ArrayList<>()), album.getFeaturedMusicians());
+        }
+        for (Musician musician : musicians) {
+            for (Album album : musician.getAlbums()) {
+                addAll(lineUps.computeIfAbsent(album, a -> new ArrayList<>()), Collections.singletonList(musician));
+            }
+        }
+        return fromLineUps(lineUps.values());
+    }
+
+    /**
+     * The graph of a collection of line-ups, every line-up making its members collaborators of each other.
+     */
+    public static <K> CollaborationGraph<K> fromLineUps(Iterable<? extends Collection<? extends K>> lineUps) {
+        notNull(lineUps, "Object is null.");
+        Map<K, Integer> ids = new HashMap<>();
+        List<K> musicians = new ArrayList<>();
+        List<int[]> compact = new ArrayList<>();
+        for (Collection<? extends K> lineUp : lineUps) {
+            notNull(lineUp, "Object is null.");
+            int[] members = new int[lineUp.size()];
+            int i = 0;
+            for (K musician : lineUp) {
+                notNull(musician, "Object is null.");
+                Integer id = ids.get(musician);
+                if (id == null) {
+                    id = musicians.size();
+                    ids.put(musician, id);
+                    musicians.add(musician);
+                }
+                if (!contains(members, i, id)) {
+                    members[i++] = id;
+                }
+            }
+            compact.add((i == members.length) ? members : Arrays.copyOf(members, i));
+        }
+
+        // Every member of a line-up of s meets the s - 1 others, repeats included for now.
+        int n = musicians.size();
+        long[] counts = new long[n + 1];
+        for (int[] lineUp : compact) {
+            for (int member : lineUp) {
+                counts[member + 1] += lineUp.length - 1;
+            }
+        }
+        int[] next = rowStarts(counts);
+        int[] raw = new int[(int) counts[n]];
+        int[] rawWeights = new int[raw.length];
+        for (int[] lineUp : compact) {
+            for (int member : lineUp) {
+                for (int other : lineUp) {
+                    if (other != member) {
+                        rawWeights[next[member]] = 1;
+                        raw[next[member]++] = other;
+                    }
+                }
+            }
+        }
+        return compress(musicians, ids, counts, raw, rawWeights);
+    }
+
+    /**
+     * The graph of weighted edges between distinct musicians, each edge given once in either direction;
+     * the weights of an edge given more than once are added up. Musicians without edges stay in the graph.
+     */
+    public static <K> CollaborationGraph<K> fromEdges(List<? extends K> musicians, int[] sources, int[] targets, int[] weights) {
+        notNull(musicians, "Object is null.");
+        notNull(sources, "Object is null.");
+        notNull(targets, "Object is null.");
+        notNull(weights, "Object is null.");
+        isTrue(sources.length == targets.length && sources.length == weights.length, "Edge arrays differ in length.");
+        Map<K, Integer> ids = new HashMap<>();
+        List<K> list = new ArrayList<>(musicians.size());
+        for (K musician : musicians) {
+            notNull(musician, "Object is null.");
+            isTrue(ids.put(musician, list.size()) == null, "Duplicate musician.");
+            list.add(musician);
+        }
+        int n = list.size();
+        long[] counts = new long[n + 1];
+        for (int e = 0; e < sources.length; e++) {
+            isTrue(sources[e] >= 0 && sources[e] < n && targets[e] >= 0 && targets[e] < n, "Edge out of range.");
+            isTrue(sources[e] != targets[e], "A musician cannot collaborate with themselves.");
+            isTrue(weights[e] > 0, "Edge weights should be positive.");
+            counts[sources[e] + 1]++;
+            counts[targets[e] + 1]++;
+        }
+        int[] next = rowStarts(counts);
+        int[] raw = new int[(int) counts[n]];
+        int[] rawWeights = new int[raw.length];
+        for (int e = 0; e < sources.length; e++) {
+            rawWeights[next[sources[e]]] = weights[e];
+            raw[next[sources[e]]++] = targets[e];
+            rawWeights[next[targets[e]]] = weights[e];
+            raw[next[targets[e]]++] = sources[e];
+        }
+        return compress(list, ids, counts, raw, rawWeights);
+    }
+
+    private static void addAll(List<Musician> lineUp, Collection<Musician> musicians) {
+        for (Musician musician : musicians) {
+            if (!lineUp.contains(musician)) {
+                lineUp.add(musician);
+            }
+        }
+    }
+
+    // Line-ups are a handful of musicians, so a scan beats a set for dropping a musician listed twice.
+    static boolean contains(int[] members, int length, int id) {
+        for (int i = 0; i < length; i++) {
+            if (members[i] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Turns per-row counts into running offsets, and returns where each row starts.
+    private static int[] rowStarts(long[] counts) {
+        int n = counts.length - 1;
+        for (int i = 0; i < n; i++) {
+            counts[i + 1] += counts[i];
+        }
+        isTrue(counts[n] <= Integer.MAX_VALUE - 8, "Too many collaborations for one graph.");
+        int[] starts = new int[n];
+        for (int i = 0; i < n; i++) {
+            starts[i] = (int) counts[i];
+        }
+        return starts;
+    }
+
+    // Squeezes the repeats out of each row, adding up their weights. A row never moves right,
+    // so it is compacted in place; only the collaborators marked in the row are cleared afterwards.
+    private static <K> CollaborationGraph<K> compress(List<K> musicians, Map<K, Integer> ids, long[] counts,
+                                                      int[] raw, int[] rawWeights) {
+        int n = musicians.size();
+        int[] positions = new int[n];
+        BitSet seen = new BitSet(n);
+        int[] offsets = new int[n + 1];
+        int write = 0;
+        for (int i = 0; i < n; i++) {
+            offsets[i] = write;
+            for (int read = (int) counts[i]; read < counts[i + 1]; read++) {
+                int other = raw[read];
+                if (seen.get(other)) {
+                    rawWeights[positions[other]] += rawWeights[read];
+                } else {
+                    seen.set(other);
+                    positions[other] = write;
+                    raw[write] = other;
+                    rawWeights[write] = rawWeights[read];
+                    write++;
+                }
+            }
+            for (int j = offsets[i]; j < write; j++) {
+                seen.clear(raw[j]);
+            }
+        }
+        offsets[n] = write;
+        return new CollaborationGraph<>(musicians, ids, offsets,
+                (write == raw.length) ? raw : Arrays.copyOf(raw, write),
+                (write == rawWeights.length) ? rawWeights : Arrays.copyOf(rawWeights, write));
+    }
+
+    /**
+     * The same graph over other keys, one for each musician; the rows are shared, not copied.
+     */
+    public <V> CollaborationGraph<V> map(Function<? super K, ? extends V> mapping) {
+        notNull(mapping, "Object is null.");
+        List<V> mapped = new ArrayList<>(musicians.size());
+        Map<V, Integer> mappedIds = new HashMap<>();
+        for (K musician : musicians) {
+            V key = mapping.apply(musician);
+            notNull(key, "Object is null.");
+            isTrue(mappedIds.put(key, mapped.size()) == null, "Duplicate musician.");
+            mapped.add(key);
+        }
+        return new CollaborationGraph<>(mapped, mappedIds, offsets, neighbours, weights);
+    }
+
+    /**
+     * The number of musicians, collaborators or not.
+     */
+    public int size() {
+        return musicians.size();
+    }
+
+    /**
+     * The number of distinct pairs of musicians who worked together.
+     */
+    public long edgeCount() {
+        return neighbours.length / 2;
+    }
+
+    public K musician(int id) {
+        return musicians.get(id);
+    }
+
+    /**
+     * The compact id of a musician, or -1 when the musician is not on any line-up.
+     */
+    public int idOf(K musician) {
+        notNull(musician, "Object is null.");
+        Integer id = ids.get(musician);
+        return (id == null) ? -1 : id;
+    }
+
+    public int degree(int id) {
+        return offsets[id + 1] - offsets[id];
+    }
+
+    /**
+     * The number of distinct musicians this one worked with, zero for an unknown musician.
+     */
+    public int degreeOf(K musician) {
+        int id = idOf(musician);
+        return (id < 0) ? 0 : degree(id);
+    }
+
+    /**
+     * The number of albums shared with all collaborators, an album with three others counting three times.
+     */
+    public long weightedDegree(int id) {
+        long sum = 0;
+        for (int j = offsets[id]; j < offsets[id + 1]; j++) {
+            sum += weights[j];
+        }
+        return sum;
+    }
+
+    /**
+     * The ids of the musician's collaborators, each once.
+     */
+    public int[] neighbours(int id) {
+        return Arrays.copyOfRange(neighbours, offsets[id], offsets[id + 1]);
+    }
+
+    /**
+     * The number of albums shared with each collaborator, in the order of neighbours(id).
+     */
+    public int[] weights(int id) {
+        return Arrays.copyOfRange(weights, offsets[id], offsets[id + 1]);
+    }
+
+    /**
+     * The k musicians with the most distinct collaborators, ties in the given order. Musicians who
+     * only ever played alone are not ranked.
+     */
+    public List<K> mostConnected(int k, Comparator<? super K> tieBreak) {
+        notNull(tieBreak, "Object is null.");
+        if (k <= 0) {
+            return Collections.emptyList();
+        }
+        TopK<Map.Entry<K, Integer>> top = new TopK<>(k, Map.Entry.<K, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey(tieBreak)));
+        for (int id = 0; id < musicians.size(); id++) {
+            int degree = degree(id);
+            if (degree > 0) {
+                top.offer(new AbstractMap.SimpleImmutableEntry<>(musicians.get(id), degree));
+            }
+        }
+        List<K> result = new ArrayList<>(top.size());
+        for (Map.Entry<K, Integer> entry : top.toList()) {
+            result.add(entry.getKey());
+        }
+        return result;
+    }
+}
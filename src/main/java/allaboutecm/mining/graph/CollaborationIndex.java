@@ -0,0 +1,146 @@
+package allaboutecm.mining.graph;
+
+import allaboutecm.mining.ObjectIntMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * The number of distinct collaborators of every musician, kept up to date as album line-ups are added, changed and removed.
+ *
+ * Albums are keyed by whatever identifies them to the caller, an entity id for saved albums. Each musician keeps the
+ * number of albums shared with every collaborator, so a change to one line-up only moves the counts of the pairs on
+ * the old and the new line-up: a musician gains a collaborator when a count leaves zero and loses one when it gets
+ * back there. The work is the square of the line-up size, however many albums its musicians are on.
+ * snapshot() turns the current line-ups into a CollaborationGraph.
+ */
+public class CollaborationIndex<K> {
+    private static final int[] NO_MEMBERS = new int[0];
+
+    private final Map<K, Integer> ids = new HashMap<>();
+    private final List<K> musicians = new ArrayList<>();
+    private final List<ObjectIntMap<Integer>> sharedAlbums = new ArrayList<>();
+    private final Map<Object, int[]> lineUps = new HashMap<>();
+    private int[] degrees = new int[16];
+
+    /**
+     * Sets the line-up of an album, replacing the previous one if the album was indexed before.
+     *
+     * @return the musicians whose number of collaborators may have changed.
+     */
+    public Set<K> put(Object album, Collection<? extends K> lineUp) {
+        notNull(album, "Object is null.");
+        notNull(lineUp, "Object is null.");
+        int[] members = new int[lineUp.size()];
+        int size = 0;
+        for (K musician : lineUp) {
+            notNull(musician, "Object is null.");
+            int id = idOf(musician);
+            if (!CollaborationGraph.contains(members, size, id)) {
+                members[size++] = id;
+            }
+        }
+        members = (size == members.length) ? members : Arrays.copyOf(members, size);
+        int[] previous = lineUps.put(album, members);
+        return update((previous == null) ? NO_MEMBERS : previous, members);
+    }
+
+    /**
+     * Removes an album's line-up; an album that was never indexed changes nothing.
+     *
+     * @return the musicians whose number of collaborators may have changed.
+     */
+    public Set<K> remove(Object album) {
+        notNull(album, "Object is null.");
+        int[] previous = lineUps.remove(album);
+        if (previous == null) {
+            return Collections.emptySet();
+        }
+        return update(previous, NO_MEMBERS);
+    }
+
+    /**
+     * The number of distinct musicians this one shares an album with, zero for an unknown musician.
+     */
+    public int degree(K musician) {
+        notNull(musician, "Object is null.");
+        Integer id = ids.get(musician);
+        return (id == null) ? 0 : degrees[id];
+    }
+
+    public int albumCount() {
+        return lineUps.size();
+    }
+
+    public void clear() {
+        ids.clear();
+        musicians.clear();
+        sharedAlbums.clear();
+        lineUps.clear();
+        degrees = new int[16];
+    }
+
+    /**
+     * The graph of the current line-ups, without the musicians no album features any more. It keeps its own
+     * arrays, so later changes do not reach it.
+     */
+    public CollaborationGraph<K> snapshot() {
+        List<List<K>> current = new ArrayList<>(lineUps.size());
+        for (int[] members : lineUps.values()) {
+            List<K> lineUp = new ArrayList<>(members.length);
+            for (int id : members) {
+                lineUp.add(musicians.get(id));
+            }
+            current.add(lineUp);
+        }
+        return CollaborationGraph.fromLineUps(current);
+    }
+
+    private int idOf(K musician) {
+        Integer id = ids.get(musician);
+        if (id == null) {
+            id = musicians.size();
+            ids.put(musician, id);
+            musicians.add(musician);
+            sharedAlbums.add(new ObjectIntMap<>());
+            if (id == degrees.length) {
+                degrees = Arrays.copyOf(degrees, degrees.length * 2);
+            }
+        }
+        return id;
+    }
+
+    private Set<K> update(int[] previous, int[] members) {
+        for (int id : previous) {
+            for (int other : previous) {
+                if (other != id && sharedAlbums.get(id).add(other, -1) == 0) {
+                    degrees[id]--;
+                }
+            }
+        }
+        for (int id : members) {
+            for (int other : members) {
+                if (other != id && sharedAlbums.get(id).add(other, 1) == 1) {
+                    degrees[id]++;
+                }
+            }
+        }
+        Set<K> changed = new LinkedHashSet<>();
+        for (int id : previous) {
+            changed.add(musicians.get(id));
+        }
+        for (int id : members) {
+            changed.add(musicians.get(id));
+        }
+        return changed;
+    }
+}
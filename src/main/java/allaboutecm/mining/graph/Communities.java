@@ -0,0 +1,92 @@
+package allaboutecm.mining.graph;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A partition of the musicians of a CollaborationGraph into communities numbered 0..count-1, in the order of
+ * their first musician, and how the partition was reached.
+ */
+public final class Communities<K> {
+    private final CollaborationGraph<K> graph;
+    private final int[] labels;
+    private final int[] sizes;
+    private final Convergence convergence;
+
+    Communities(CollaborationGraph<K> graph, int[] labels, int count, Convergence convergence) {
+        this.graph = graph;
+        this.labels = labels;
+        this.sizes = new int[count];
+        for (int label : labels) {
+            sizes[label]++;
+        }
+        this.convergence = convergence;
+    }
+
+    public CollaborationGraph<K> getGraph() {
+        return graph;
+    }
+
+    public Convergence getConvergence() {
+        return convergence;
+    }
+
+    public int count() {
+        return sizes.length;
+    }
+
+    public int communityOf(int id) {
+        return labels[id];
+    }
+
+    /**
+     * The community of a musician, or -1 for a musician outside the graph.
+     */
+    public int communityOf(K musician) {
+        int id = graph.idOf(musician);
+        return (id < 0) ? -1 : labels[id];
+    }
+
+    public int size(int community) {
+        return sizes[community];
+    }
+
+    public List<K> members(int community) {
+        List<K> members = new ArrayList<>(sizes[community]);
+        for (int id = 0; id < labels.length; id++) {
+            if (labels[id] == community) {
+                members.add(graph.musician(id));
+            }
+        }
+        return members;
+    }
+
+    /**
+     * Weighted modularity of the partition: the share of shared albums that fall inside communities, less the
+     * share expected if collaborations were drawn at random with the same weighted degrees. Zero for a graph
+     * without edges; clearly separated scenes score towards one.
+     */
+    public double modularity() {
+        double[] inside = new double[sizes.length];
+        double[] total = new double[sizes.length];
+        double all = 0;
+        for (int id = 0; id < labels.length; id++) {
+            for (int j = graph.offsets[id]; j < graph.offsets[id + 1]; j++) {
+                int weight = graph.weights[j];
+                total[labels[id]] += weight;
+                all += weight;
+                if (labels[graph.neighbours[j]] == labels[id]) {
+                    inside[labels[id]] += weight;
+                }
+            }
+        }
+        if (all == 0) {
+            return 0;
+        }
+        double modularity = 0;
+        for (int c = 0; c < sizes.length; c++) {
+            modularity += inside[c] / all - (total[c] / all) * (total[c] / all);
+        }
+        return modularity;
+    }
+}
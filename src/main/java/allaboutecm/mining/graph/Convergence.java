@@ -0,0 +1,57 @@
+package allaboutecm.mining.graph;
+
+import java.util.Arrays;
+
+/**
+ * How an iterative graph algorithm finished: the iterations it ran, whether it met its tolerance before
+ * running out of iterations, the residual after every iteration and the time it took.
+ *
+ * The residual is the algorithm's own measure of change: the L1 distance between successive score vectors
+ * for PageRank, the fraction of musicians that changed community for label propagation.
+ */
+public final class Convergence {
+    private final int iterations;
+    private final boolean converged;
+    private final double[] residuals;
+    private final long elapsedNanos;
+
+    Convergence(int iterations, boolean converged, double[] residuals, long elapsedNanos) {
+        this.iterations = iterations;
+        this.converged = converged;
+        this.residuals = residuals;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public boolean isConverged() {
+        return converged;
+    }
+
+    public double[] getResiduals() {
+        return residuals.clone();
+    }
+
+    /**
+     * The residual of the last iteration, zero when nothing was iterated.
+     */
+    public double getFinalResidual() {
+        return (residuals.length == 0) ? 0 : residuals[residuals.length - 1];
+    }
+
+    public long getElapsedMillis() {
+        return elapsedNanos / 1_000_000;
+    }
+
+    @Override
+    public String toString() {
+        return "Convergence{" +
+                "iterations=" + iterations +
+                ", converged=" + converged +
+                ", residuals=" + Arrays.toString(residuals) +
+                ", elapsedMillis=" + getElapsedMillis() +
+                '}';
+    }
+}
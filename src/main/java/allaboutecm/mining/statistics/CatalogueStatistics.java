@@ -0,0 +1,423 @@
+package allaboutecm.mining.statistics;
+
+import allaboutecm.dataaccess.DAO;
+import allaboutecm.dataaccess.FetchPlan;
+import allaboutecm.mining.AlbumSimilarityIndex;
+import allaboutecm.mining.TopK;
+import allaboutecm.mining.YearHistogram;
+import allaboutecm.mining.graph.CollaborationGraph;
+import allaboutecm.mining.graph.CollaborationIndex;
+import allaboutecm.model.*;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multiset;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Running counters behind the ECMMiner rankings, updated entity by entity as the catalogue changes.
+ *
+ * Each saved Album, Musician and MusicianInstrument leaves a contribution, which is subtracted again when the
+ * entity is updated or deleted. Rankings are kept ordered on every update, so that reading the top k costs O(k)
+ * and never touches the database.
+ * Musicians are keyed by name everywhere, as Musician.equals is: two musician nodes sharing a name count as one
+ * musician, whose albums are those of the node saved last. Albums and musician instruments are keyed by entity
+ * id, so that albums sharing a name stay apart.
+ *
+ * A contribution is worked out in full before the previous one is subtracted, so an entity that cannot be
+ * counted leaves the counters as they were. Relationships an entity was loaded without count as empty.
+ */
+public class CatalogueStatistics {
+    // Everything record reads from each entity, loaded along with it when the catalogue is counted.
+    static final FetchPlan ALBUM_PLAN = FetchPlan.of("featuredMusicians", "reviews", "instruments.musicalInstruments");
+    static final FetchPlan MUSICIAN_PLAN = FetchPlan.of("albums");
+    static final FetchPlan MUSICIAN_INSTRUMENT_PLAN = FetchPlan.of("musician", "musicalInstruments");
+
+    private final Map<String, Musician> musicians = new HashMap<>();
+
+    private final Map<Long, AlbumContribution> albumContributions = new HashMap<>();
+    private final Map<String, MusicianContribution> musicianContributions = new HashMap<>();
+    // The name each musician id was last counted under, to find the contribution a renamed musician leaves behind
+    private final Map<Long, String> musicianNames = new HashMap<>();
+    private final Map<Long, InstrumentContribution> instrumentContributions = new HashMap<>();
+
+    private final Map<String, Multiset<Integer>> albumYearsByMusician = new HashMap<>();
+    private final Map<String, Multiset<String>> instrumentsByMusician = new HashMap<>();
+    private final Ranking<String> albumsPerMusician = new Ranking<>(Comparator.naturalOrder());
+    private final Ranking<String> collaboratorsPerMusician = new Ranking<>(Comparator.naturalOrder());
+    private final Ranking<String> instrumentsPerMusician = new Ranking<>(Comparator.naturalOrder());
+    private final Ranking<Long> salesPerAlbum = new Ranking<>(this::compareAlbums);
+    private final Ranking<Long> ratingPerAlbum = new Ranking<>(this::compareAlbums);
+    private final YearHistogram albumsPerYear = YearHistogram.forReleaseYears();
+    private final AlbumSimilarityIndex similarityIndex = new AlbumSimilarityIndex();
+    private final CollaborationIndex<String> collaborations = new CollaborationIndex<>();
+
+    /**
+     * Counts the whole catalogue currently behind the DAO, replacing whatever was counted before.
+     */
+    public synchronized void rebuild(DAO dao) {
+        clear();
+        recordAll(dao.loadAll(Album.class, ALBUM_PLAN));
+        recordAll(dao.loadAll(Musician.class, MUSICIAN_PLAN));
+        recordAll(dao.loadAll(MusicianInstrument.class, MUSICIAN_INSTRUMENT_PLAN));
+    }
+
+    private void recordAll(Collection<? extends Entity> entities) {
+        if (entities != null) {
+            for (Entity entity : entities) {
+                record(entity);
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        for (Long id : new ArrayList<>(albumContributions.keySet())) {
+            forgetAlbum(id);
+        }
+        musicianContributions.clear();
+        musicianNames.clear();
+        instrumentContributions.clear();
+        albumYearsByMusician.clear();
+        instrumentsByMusician.clear();
+        albumsPerMusician.clear();
+        instrumentsPerMusician.clear();
+        collaborations.clear();
+        musicians.clear();
+    }
+
+    /**
+     * Counts a saved entity, replacing its previous contribution if it was counted before.
+     * Entities other than albums, musicians and musician instruments are not counted.
+     */
+    public synchronized void record(Entity entity) {
+        notNull(entity, "Object is null.");
+        notNull(entity.getId(), "Entity should be saved before it is counted.");
+        if (entity instanceof Album) {
+            recordAlbum((Album) entity);
+        } else if (entity instanceof Musician) {
+            recordMusician((Musician) entity);
+        } else if (entity instanceof MusicianInstrument) {
+            recordMusicianInstrument((MusicianInstrument) entity);
+        }
+    }
+
+    /**
+     * Subtracts the contribution of a deleted entity.
+     */
+    public synchronized void forget(Entity entity) {
+        notNull(entity, "Object is null.");
+        if (entity.getId() == null) {
+            return;
+        }
+        if (entity instanceof Album) {
+            forgetAlbum(entity.getId());
+        } else if (entity instanceof Musician) {
+            // A namesake saved later owns the name now, and stays counted.
+            String name = musicianNames.remove(entity.getId());
+            MusicianContribution contribution = (name != null) ? musicianContributions.get(name) : null;
+            if (name == null) {
+                musicians.remove(((Musician) entity).getName());
+            } else if (contribution != null && entity.getId().equals(contribution.id)) {
+                forgetMusician(name);
+                musicians.remove(name);
+            }
+        } else if (entity instanceof MusicianInstrument) {
+            forgetMusicianInstrument(entity.getId());
+        }
+    }
+
+    private void recordAlbum(Album album) {
+        AlbumContribution contribution = new AlbumContribution(album);
+        forgetAlbum(album.getId());
+        albumContributions.put(album.getId(), contribution);
+
+        albumsPerYear.add(contribution.releaseYear);
+        salesPerAlbum.set(album.getId(), contribution.sales);
+        if (contribution.reviewCount > 0) {
+            ratingPerAlbum.set(album.getId(), contribution.reviewSum / contribution.reviewCount);
+        }
+        for (Musician musician : contribution.featured) {
+            remember(musician);
+        }
+        updateCollaborators(collaborations.put(album.getId(), contribution.featuredMusicians));
+        similarityIndex.add(album);
+    }
+
+    private void forgetAlbum(Long id) {
+        AlbumContribution contribution = albumContributions.get(id);
+        if (contribution == null) {
+            return;
+        }
+        // The rankings look albums up by id to break ties, so leave them before the contribution goes.
+        salesPerAlbum.remove(id);
+        ratingPerAlbum.remove(id);
+        albumContributions.remove(id);
+
+        albumsPerYear.add(contribution.releaseYear, -1);
+        updateCollaborators(collaborations.remove(id));
+        similarityIndex.remove(contribution.album);
+    }
+
+    private void recordMusician(Musician musician) {
+        MusicianContribution contribution = new MusicianContribution(musician.getId(), musician.getName());
+        for (Album album : orEmpty(musician.getAlbums())) {
+            contribution.releaseYears.add(album.getReleaseYear());
+        }
+        String previousName = musicianNames.put(musician.getId(), contribution.name);
+        if (previousName != null && !previousName.equals(contribution.name)) {
+            forgetMusician(previousName);
+        }
+        forgetMusician(contribution.name);
+
+        remember(musician);
+        Multiset<Integer> years = albumYearsByMusician.computeIfAbsent(contribution.name, name -> HashMultiset.create());
+        for (Integer year : contribution.releaseYears) {
+            years.add(year);
+            albumsPerMusician.add(contribution.name, 1);
+        }
+        if (years.isEmpty()) {
+            albumYearsByMusician.remove(contribution.name);
+        }
+        musicianContributions.put(contribution.name, contribution);
+    }
+
+    private void forgetMusician(String name) {
+        MusicianContribution contribution = musicianContributions.remove(name);
+        if (contribution == null || contribution.releaseYears.isEmpty()) {
+            return;
+        }
+        Multiset<Integer> years = albumYearsByMusician.get(contribution.name);
+        for (Integer year : contribution.releaseYears) {
+            years.remove(year);
+            albumsPerMusician.add(contribution.name, -1);
+        }
+        if (years.isEmpty()) {
+            albumYearsByMusician.remove(contribution.name);
+        }
+    }
+
+    private void recordMusicianInstrument(MusicianInstrument musicianInstrument) {
+        Musician musician = musicianInstrument.getMusician();
+        if (musician == null) {
+            // Loaded without its musician, so there is nobody to count the instruments for.
+            forgetMusicianInstrument(musicianInstrument.getId());
+            return;
+        }
+        InstrumentContribution contribution = new InstrumentContribution(musician.getName());
+        for (MusicalInstrument instrument : orEmpty(musicianInstrument.getMusicalInstruments())) {
+            contribution.instrumentNames.add(instrument.getName());
+        }
+        forgetMusicianInstrument(musicianInstrument.getId());
+
+        remember(musician);
+        Multiset<String> instruments = instrumentsByMusician.computeIfAbsent(musician.getName(), name -> HashMultiset.create());
+        instruments.addAll(contribution.instrumentNames);
+        instrumentContributions.put(musicianInstrument.getId(), contribution);
+        updateInstrumentCount(musician.getName());
+    }
+
+    private void forgetMusicianInstrument(Long id) {
+        InstrumentContribution contribution = instrumentContributions.remove(id);
+        if (contribution == null) {
+            return;
+        }
+        Multiset<String> instruments = instrumentsByMusician.get(contribution.musicianName);
+        for (String name : contribution.instrumentNames) {
+            instruments.remove(name);
+        }
+        updateInstrumentCount(contribution.musicianName);
+    }
+
+    // Talent is the number of distinct instruments over all of the musician's entries.
+    private void updateInstrumentCount(String musicianName) {
+        Multiset<String> instruments = instrumentsByMusician.get(musicianName);
+        if (instruments == null || instruments.isEmpty()) {
+            instrumentsByMusician.remove(musicianName);
+            instrumentsPerMusician.remove(musicianName);
+        } else {
+            instrumentsPerMusician.set(musicianName, instruments.elementSet().size());
+        }
+    }
+
+    // Sociability is the number of distinct musicians shared an album with; only the musicians on a changed line-up are recounted.
+    private void updateCollaborators(Set<String> musicianNames) {
+        for (String name : musicianNames) {
+            int degree = collaborations.degree(name);
+            if (degree > 0) {
+                collaboratorsPerMusician.set(name, degree);
+            } else {
+                collaboratorsPerMusician.remove(name);
+            }
+        }
+    }
+
+    private void remember(Musician musician) {
+        musicians.put(musician.getName(), musician);
+    }
+
+    // OGM leaves the collections of relationships an entity was loaded without as null
+    private static <T> Collection<T> orEmpty(Collection<T> collection) {
+        return (collection != null) ? collection : Collections.emptyList();
+    }
+
+    private int compareAlbums(Long a, Long b) {
+        AlbumContribution first = albumContributions.get(a);
+        AlbumContribution second = albumContributions.get(b);
+        int result = first.recordNumber.compareTo(second.recordNumber);
+        if (result == 0) {
+            result = first.albumName.compareTo(second.albumName);
+        }
+        if (result == 0) {
+            result = Integer.compare(first.releaseYear, second.releaseYear);
+        }
+        return (result != 0) ? result : a.compareTo(b);
+    }
+
+    public synchronized List<Musician> mostProlificMusicians(int k, int startYear, int endYear) {
+        if (startYear <= albumsPerYear.getFirstYear() && endYear >= albumsPerYear.getLastYear()) {
+            return musiciansOf(albumsPerMusician.top(k));
+        }
+        // A year window cannot be kept ordered in advance, so sum each musician's years in the window.
+        TopK<Map.Entry<String, Integer>> top = new TopK<>(k,
+                Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        for (Map.Entry<String, Multiset<Integer>> entry : albumYearsByMusician.entrySet()) {
+            int count = 0;
+            for (Multiset.Entry<Integer> year : entry.getValue().entrySet()) {
+                if (year.getElement() >= startYear && year.getElement() <= endYear) {
+                    count += year.getCount();
+                }
+            }
+            if (count > 0) {
+                top.offer(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), count));
+            }
+        }
+        List<String> names = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : top.toList()) {
+            names.add(entry.getKey());
+        }
+        return musiciansOf(names);
+    }
+
+    public synchronized List<Musician> mostTalentedMusicians(int k) {
+        return musiciansOf(instrumentsPerMusician.top(k));
+    }
+
+    public synchronized List<Musician> mostSocialMusicians(int k) {
+        return musiciansOf(collaboratorsPerMusician.top(k));
+    }
+
+    /**
+     * The graph of the featured musicians of the albums counted so far.
+     */
+    public synchronized CollaborationGraph<Musician> collaborationGraph() {
+        // A deleted musician can still be featured on a counted album, and is then known by name only.
+        return collaborations.snapshot().map(name -> musicians.containsKey(name) ? musicians.get(name) : new Musician(name));
+    }
+
+    public synchronized List<Integer> busiestYears(int k, int startYear, int endYear) {
+        return albumsPerYear.busiest(k, startYear, endYear);
+    }
+
+    public synchronized List<Album> highestRatedAlbums(int k, int minReviews) {
+        List<Album> result = new ArrayList<>();
+        for (Long id : ratingPerAlbum) {
+            if (result.size() >= k) {
+                break;
+            }
+            AlbumContribution contribution = albumContributions.get(id);
+            if (contribution.reviewCount >= minReviews) {
+                result.add(contribution.album);
+            }
+        }
+        return result;
+    }
+
+    public synchronized List<Album> bestSellingAlbums(int k) {
+        List<Album> result = new ArrayList<>();
+        for (Long id : salesPerAlbum.top(k)) {
+            result.add(albumContributions.get(id).album);
+        }
+        return result;
+    }
+
+    public synchronized Set<Album> similarAlbums(String genre, Set<String> instrumentNames) {
+        return new LinkedHashSet<>(similarityIndex.exactMatches(genre, instrumentNames));
+    }
+
+    public synchronized List<Album> nearestAlbums(int k, Album album, Comparator<Album> tieBreak) {
+        return similarityIndex.nearest(k, album, tieBreak);
+    }
+
+    public synchronized int albumCount() {
+        return albumContributions.size();
+    }
+
+    private List<Musician> musiciansOf(List<String> names) {
+        List<Musician> result = new ArrayList<>(names.size());
+        for (String name : names) {
+            result.add(musicians.get(name));
+        }
+        return result;
+    }
+
+    private static final class AlbumContribution {
+        private final Album album;
+        private final String recordNumber;
+        private final String albumName;
+        private final int releaseYear;
+        private final int sales;
+        private final double reviewSum;
+        private final int reviewCount;
+        private final List<String> featuredMusicians = new ArrayList<>();
+        private final List<Musician> featured = new ArrayList<>();
+
+        private AlbumContribution(Album album) {
+            this.album = album;
+            this.recordNumber = album.getRecordNumber();
+            this.albumName = album.getAlbumName();
+            this.releaseYear = album.getReleaseYear();
+            this.sales = album.getSales();
+            double sum = 0;
+            Collection<Review> reviews = orEmpty(album.getReviews());
+            for (Review review : reviews) {
+                sum += review.getRating();
+            }
+            this.reviewSum = sum;
+            this.reviewCount = reviews.size();
+            for (Musician musician : orEmpty(album.getFeaturedMusicians())) {
+                featured.add(musician);
+                featuredMusicians.add(musician.getName());
+            }
+        }
+    }
+
+    private static final class MusicianContribution {
+        private final Long id;
+        private final String name;
+        private final List<Integer> releaseYears = new ArrayList<>();
+
+        private MusicianContribution(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    private static final class InstrumentContribution {
+        private final String musicianName;
+        private final List<String> instrumentNames = new ArrayList<>();
+
+        private InstrumentContribution(String musicianName) {
+            this.musicianName = musicianName;
+        }
+    }
+}
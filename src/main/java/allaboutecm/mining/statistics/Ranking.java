@@ -0,0 +1,86 @@
+package allaboutecm.mining.statistics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Keys kept in descending order of a score that changes over time.
+ *
+ * Changing a score costs O(log n); reading the top k costs O(k), because the order is maintained
+ * on every update instead of being recomputed on every read.
+ */
+class Ranking<K> implements Iterable<K> {
+    private final Map<K, Double> scores = new HashMap<>();
+    private final TreeSet<K> order;
+
+    Ranking(Comparator<? super K> tieBreak) {
+        this.order = new TreeSet<>((a, b) -> {
+            int byScore = Double.compare(scores.get(b), scores.get(a));
+            return (byScore != 0) ? byScore : tieBreak.compare(a, b);
+        });
+    }
+
+    double get(K key) {
+        return scores.getOrDefault(key, 0.0);
+    }
+
+    boolean contains(K key) {
+        return scores.containsKey(key);
+    }
+
+    void set(K key, double score) {
+        // The key has to leave the tree before its score changes, or the tree cannot find it again.
+        remove(key);
+        scores.put(key, score);
+        order.add(key);
+    }
+
+    /**
+     * Adds delta to the score of key, dropping the key once its score falls to zero.
+     */
+    void add(K key, double delta) {
+        double score = get(key) + delta;
+        if (score > 0) {
+            set(key, score);
+        } else {
+            remove(key);
+        }
+    }
+
+    void remove(K key) {
+        if (scores.containsKey(key)) {
+            order.remove(key);
+            scores.remove(key);
+        }
+    }
+
+    void clear() {
+        order.clear();
+        scores.clear();
+    }
+
+    int size() {
+        return scores.size();
+    }
+
+    List<K> top(int k) {
+        List<K> result = new ArrayList<>(Math.max(Math.min(k, order.size()), 0));
+        for (K key : order) {
+            if (result.size() >= k) {
+                break;
+            }
+            result.add(key);
+        }
+        return result;
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return order.iterator();
+    }
+}
@@ -0,0 +1,81 @@
+package allaboutecm.mining.statistics;
+
+import allaboutecm.dataaccess.BatchListener;
+import allaboutecm.dataaccess.BatchResult;
+import allaboutecm.dataaccess.DAO;
+import allaboutecm.dataaccess.ForwardingDAO;
+import allaboutecm.model.Entity;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Multimap;
+
+import java.util.Collection;
+
+/**
+ * A DAO that keeps CatalogueStatistics up to date with every write that goes through it.
+ *
+ * The statistics are counted once from the wrapped DAO on construction and then maintained
+ * incrementally on createOrUpdate and delete, so ECMMiner can rank without calling loadAll. The entities relate
+ * starts from are reloaded from the wrapped DAO and counted again.
+ * Writes that bypass this DAO are not seen; call {@link #rebuildStatistics()} after them.
+ */
+public class StatisticsDAO extends ForwardingDAO {
+    private final CatalogueStatistics statistics = new CatalogueStatistics();
+
+    public StatisticsDAO(DAO delegate) {
+        super(delegate);
+        statistics.rebuild(delegate);
+    }
+
+    public CatalogueStatistics getStatistics() {
+        return statistics;
+    }
+
+    public void rebuildStatistics() {
+        statistics.rebuild(delegate());
+    }
+
+    @Override
+    public <T extends Entity> T createOrUpdate(T entity) {
+        T saved = super.createOrUpdate(entity);
+        statistics.record(saved);
+        return saved;
+    }
+
+    @Override
+    public <T extends Entity> BatchResult<T> createOrUpdateAll(Collection<T> entities) {
+        return recordSaved(super.createOrUpdateAll(entities));
+    }
+
+    @Override
+    public <T extends Entity> BatchResult<T> createOrUpdateAll(Collection<T> entities, int chunkSize, BatchListener listener) {
+        return recordSaved(super.createOrUpdateAll(entities, chunkSize, listener));
+    }
+
+    @Override
+    public void relate(Class<? extends Entity> clazz, String relationship, Multimap<Long, Long> ids) {
+        super.relate(clazz, relationship, ids);
+        for (Entity entity : delegate().loadAll(clazz, Lists.newArrayList(ids.keySet()))) {
+            statistics.record(entity);
+        }
+    }
+
+    @Override
+    public <T extends Entity> void delete(T entity) {
+        // Forget first, while the entity still has its id, and count it again if the delete fails.
+        statistics.forget(entity);
+        try {
+            super.delete(entity);
+        } catch (RuntimeException e) {
+            statistics.record(entity);
+            throw e;
+        }
+    }
+
+    // Only entities from committed chunks are counted
+    private <T extends Entity> BatchResult<T> recordSaved(BatchResult<T> result) {
+        for (T entity : result.getSaved()) {
+            statistics.record(entity);
+        }
+        return result;
+    }
+}
@@ -1,6 +1,8 @@
 package allaboutecm.model;
 
 import allaboutecm.dataaccess.neo4j.URLConverter;
+import allaboutecm.validation.UrlValidation;
+import allaboutecm.validation.Validators;
 import com.google.common.collect.Sets;
 import org.neo4j.ogm.annotation.NodeEntity;
 import org.neo4j.ogm.annotation.Property;
@@ -8,7 +10,6 @@ import org.neo4j.ogm.annotation.Relationship;
 import org.neo4j.ogm.annotation.typeconversion.Convert;
 
 import java.io.IOException;
-import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.UnknownHostException;
 import java.util.*;
@@ -45,7 +46,7 @@ public class Album extends Entity {
 
     @Convert(URLConverter.class)
     @Property(name="albumURL")
-    private URL albumURL;
+    private WebAddress albumURL;
 
     @Relationship(type="tracks")
     private Set<Track> tracks;
@@ -73,18 +74,23 @@ public class Album extends Entity {
 
     private static final String exceptionMessage="Object should not be null.";
 
+    /**
+     * No album can be released before this year.
+     */
+    public static final int EARLIEST_RELEASE_YEAR = 1500;
+
+    public Album() {
+    }
+
 
     public Album(int releaseYear, String recordNumber, String albumName) {
         notNull(recordNumber,"Record number should not be null.");
         notNull(albumName,"Album name cannot be null.");
         notBlank(recordNumber);
         notBlank(albumName);
-        int year = Calendar.getInstance().get(Calendar.YEAR);
-        if(!Integer.toString(releaseYear).matches("[0-9-]+"))
-        {
-            throw new NumberFormatException("Release year should have just numbers.");
-        }
-        if(releaseYear>year || releaseYear<1500)
+        // An int is always written with digits and an optional minus sign, so only the range needs checking.
+        int year = Validators.currentYear();
+        if(releaseYear>year || releaseYear<EARLIEST_RELEASE_YEAR)
         {
             throw new IllegalArgumentException("Not a valid year.");
         }
@@ -104,6 +110,7 @@ public class Album extends Entity {
         this.instruments = Sets.newHashSet();
         this.tracks = Sets.newHashSet();
         this.concerts = Sets.newHashSet();
+        this.featuredGroup = Sets.newHashSet();
         this.sales = 0;
     }
 
@@ -160,7 +167,7 @@ public class Album extends Entity {
     }
 
     public URL getAlbumURL() {
-        return albumURL;
+        return albumURL == null ? null : albumURL.toURL();
     }
 
     public void setAlbumURL(URL albumURL) throws IOException {
@@ -169,15 +176,14 @@ public class Album extends Entity {
         {
             albumURL=new URL("https://google.com");
         }
-        HttpURLConnection connectionString = (HttpURLConnection) albumURL.openConnection();
-        connectionString.setRequestMethod("GET");
-        int codeInResponse = connectionString.getResponseCode();
-        if(!albumURL.toString().toLowerCase().contains("ecm")||(codeInResponse!=200))
+        // Only a syntactic check here; reachability is checked in the background, see UrlValidation.
+        if(!albumURL.toString().toLowerCase().contains("ecm") || !UrlValidation.isWellFormed(albumURL))
         {
             throw new UnknownHostException("Not a valid URL.");
         }
+        UrlValidation.defer(albumURL);
 
-        this.albumURL = albumURL;
+        this.albumURL = WebAddress.of(albumURL);
     }
 
     public Set<Track> getTracks() {
@@ -219,10 +225,6 @@ public class Album extends Entity {
         {
             throw new IllegalArgumentException("Sales number should be greater than or equal to 0.");
         }
-        if(!(Integer.toString(sales).matches("[0-9]+")))
-        {
-            throw new NumberFormatException("Sales should be just in numbers.");
-        }
         this.sales = sales;
     }
 
@@ -236,12 +238,9 @@ public class Album extends Entity {
 
     public void setReleaseYear(int releaseYear)
     {
-        int year = Calendar.getInstance().get(Calendar.YEAR);
-        if(!Integer.toString(releaseYear).matches("[0-9-]+"))
-        {
-            throw new NumberFormatException("Release year should have just numbers.");
-        }
-        if(releaseYear>year || releaseYear<1500)
+        // An int is always written with digits and an optional minus sign, so only the range needs checking.
+        int year = Validators.currentYear();
+        if(releaseYear>year || releaseYear<EARLIEST_RELEASE_YEAR)
         {
             throw new IllegalArgumentException("Not a valid year.");
         }
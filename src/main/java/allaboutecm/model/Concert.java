@@ -28,6 +28,9 @@ public class Concert extends Entity{
     @Property(name="concertDate")
     private Date concertDate;
 
+    public Concert() {
+    }
+
     public Concert(String concertName,String country)
     {
         notNull(concertName);
@@ -25,6 +25,9 @@ public class Group extends Entity {
     @Relationship(type = "albums")
     private Set<Album> albums;
 
+    public Group() {
+    }
+
     public Group(String groupName) {
         this.groupName = groupName;
         albums = new LinkedHashSet<>();
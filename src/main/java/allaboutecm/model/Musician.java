@@ -1,6 +1,8 @@
 package allaboutecm.model;
 
 import allaboutecm.dataaccess.neo4j.URLConverter;
+import allaboutecm.validation.UrlValidation;
+import allaboutecm.validation.Validators;
 import com.google.common.collect.Sets;
 import org.neo4j.ogm.annotation.NodeEntity;
 import org.neo4j.ogm.annotation.Property;
@@ -8,7 +10,6 @@ import org.neo4j.ogm.annotation.Relationship;
 import org.neo4j.ogm.annotation.typeconversion.Convert;
 
 import java.io.IOException;
-import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.UnknownHostException;
 import java.util.Objects;
@@ -29,7 +30,7 @@ public class Musician extends Entity {
 
     @Convert(URLConverter.class)
     @Property(name="musicianURL")
-    private URL musicianUrl;
+    private WebAddress musicianUrl;
 
     @Relationship(type="albums")
     private Set<Album> albums;
@@ -46,16 +47,7 @@ public class Musician extends Entity {
     public Musician(String name) {
         notNull(name);
         notBlank(name);
-        String[] names = name.split(" ");
-        boolean letter = true;
-        for(String name1:names)
-        {
-            if(!name1.toLowerCase().matches("^[a-záäâèëéàêîïôüùû,/&à]*$")) //covering the french letters as well
-            {
-                letter = false;
-                break;
-            }
-        }
+        boolean letter = Validators.isMusicianName(name); //covering the french letters as well
         if(!letter || name.length()<3 || name.length()>40)
         {
             throw new IllegalArgumentException("Please input an appropriate name.");
@@ -75,16 +67,7 @@ public class Musician extends Entity {
     {
         notNull(musicianName,"Object is null.");
         notBlank(musicianName,"Name cannot be blank.");
-        String[] names = musicianName.split(" ");
-        boolean letter = true;
-        for(String name1:names)
-        {
-            if(!name1.toLowerCase().matches("^[a-záäâèëéàêîïôüùû,/&à]*$")) //covering the french letters as well
-            {
-                letter = false;
-                break;
-            }
-        }
+        boolean letter = Validators.isMusicianName(musicianName); //covering the french letters as well
         if(!letter || musicianName.length()<3 || musicianName.length()>40)
         {
             throw new IllegalArgumentException("Please input an appropriate name.");
@@ -123,7 +106,7 @@ public class Musician extends Entity {
     }
 
     public URL getMusicianUrl() {
-        return musicianUrl;
+        return musicianUrl == null ? null : musicianUrl.toURL();
     }
 
     public void setMusicianUrl(URL musicianUrl) throws IOException {
@@ -132,14 +115,13 @@ public class Musician extends Entity {
         {
             musicianUrl=new URL("https://google.com");
         }
-        HttpURLConnection connectionString = (HttpURLConnection) musicianUrl.openConnection();
-        connectionString.setRequestMethod("GET");
-        int codeInResponse = connectionString.getResponseCode();
-        if(codeInResponse!=200)
+        // Only a syntactic check here; reachability is checked in the background, see UrlValidation.
+        if(!UrlValidation.isWellFormed(musicianUrl))
         {
             throw new UnknownHostException("Not a valid URL.");
         }
-        this.musicianUrl = musicianUrl;
+        UrlValidation.defer(musicianUrl);
+        this.musicianUrl = WebAddress.of(musicianUrl);
     }
 
     public String getBiography(){return biography;}
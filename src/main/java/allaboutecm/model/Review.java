@@ -1,12 +1,13 @@
 package allaboutecm.model;
 
 import allaboutecm.dataaccess.neo4j.URLConverter;
+import allaboutecm.validation.UrlValidation;
+import allaboutecm.validation.Validators;
 import org.neo4j.ogm.annotation.NodeEntity;
 import org.neo4j.ogm.annotation.Property;
 import org.neo4j.ogm.annotation.typeconversion.Convert;
 
 import java.io.IOException;
-import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.UnknownHostException;
 
@@ -17,7 +18,7 @@ public class Review extends Entity{
 
     @Convert(URLConverter.class)
     @Property(name="websiteUrl")
-    private URL websiteUrl;
+    private WebAddress websiteUrl;
 
     @Property(name="review")
     private String review;
@@ -25,11 +26,14 @@ public class Review extends Entity{
     @Property(name="ratingOutOf100")
     private double ratingOutOf100;
 
+    public Review() {
+    }
+
     public Review(URL websiteUrl,double ratingOutOf100)
     {
         notNull(ratingOutOf100);
         notNull(websiteUrl);
-        if(!(Double.toString(ratingOutOf100).matches("[0-9.]+")))
+        if(!Validators.isPlainDecimal(ratingOutOf100))
         {
             throw new NumberFormatException("Rating should be just in numbers.");
         }
@@ -37,12 +41,18 @@ public class Review extends Entity{
         {
             throw new IllegalArgumentException("Not a valid rating.");
         }
-        this.websiteUrl = websiteUrl;
+        // The same check as setUrl, reachability included.
+        if(!UrlValidation.isWellFormed(websiteUrl))
+        {
+            throw new IllegalArgumentException("Not a valid URL.");
+        }
+        UrlValidation.defer(websiteUrl);
+        this.websiteUrl = WebAddress.of(websiteUrl);
         this.ratingOutOf100 = ratingOutOf100;
         review = "The song is nice.";
     }
 
-    public URL getUrl(){return websiteUrl;}
+    public URL getUrl(){return websiteUrl == null ? null : websiteUrl.toURL();}
 
     public String getReview(){return review;}
 
@@ -54,14 +64,13 @@ public class Review extends Entity{
         {
             websiteUrl=new URL("https://google.com");
         }
-        HttpURLConnection connectionString = (HttpURLConnection) websiteUrl.openConnection();
-        connectionString.setRequestMethod("GET");
-        int codeInResponse = connectionString.getResponseCode();
-        if(codeInResponse!=200)
+        // Only a syntactic check here; reachability is checked in the background, see UrlValidation.
+        if(!UrlValidation.isWellFormed(websiteUrl))
         {
             throw new UnknownHostException("Not a valid URL.");
         }
-        this.websiteUrl = websiteUrl;
+        UrlValidation.defer(websiteUrl);
+        this.websiteUrl = WebAddress.of(websiteUrl);
     }
 
     public void setReview(String review)
@@ -73,7 +82,7 @@ public class Review extends Entity{
     public void setRating(double ratingOutOf100)
     {
         notNull(ratingOutOf100);
-        if(!(Double.toString(ratingOutOf100).matches("[0-9.]+")))
+        if(!Validators.isPlainDecimal(ratingOutOf100))
         {
             throw new NumberFormatException("Rating should be just in numbers.");
         }
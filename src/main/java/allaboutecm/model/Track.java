@@ -17,6 +17,9 @@ public class Track extends Entity{
     @Property(name="lengthInMinutes")
     private double lengthInMinutes;
 
+    public Track() {
+    }
+
 
     public Track(String name,double lengthInMinutes)
     {
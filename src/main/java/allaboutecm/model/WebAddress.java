@@ -0,0 +1,88 @@
+package allaboutecm.model;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Locale;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * A URL compared by its normalised text instead of by URL.equals, which resolves both hosts to compare them and so
+ * blocks on DNS for every equals and hashCode. Scheme and host are compared case aside, the default port of the
+ * scheme is the same as no port and an empty path is the same as "/"; path, query and fragment are compared as
+ * written. Two hosts that happen to resolve to the same address are different addresses here.
+ *
+ * The URL is kept as given, so toString and the stored property keep their original spelling.
+ */
+public final class WebAddress {
+    private final URL url;
+    private final String key;
+    private final int hash;
+
+    private WebAddress(URL url) {
+        this.url = url;
+        this.key = normalise(url);
+        this.hash = key.hashCode();
+    }
+
+    public static WebAddress of(URL url) {
+        notNull(url, "Object is null.");
+        return new WebAddress(url);
+    }
+
+    public static WebAddress parse(String url) throws MalformedURLException {
+        notNull(url, "Object is null.");
+        return new WebAddress(new URL(url));
+    }
+
+    private static String normalise(URL url) {
+        StringBuilder key = new StringBuilder(url.getProtocol().toLowerCase(Locale.ROOT)).append(':');
+        if (url.getAuthority() != null) {
+            key.append("//");
+            if (url.getUserInfo() != null) {
+                key.append(url.getUserInfo()).append('@');
+            }
+            key.append(url.getHost().toLowerCase(Locale.ROOT));
+            if (url.getPort() != -1 && url.getPort() != url.getDefaultPort()) {
+                key.append(':').append(url.getPort());
+            }
+        }
+        key.append(url.getPath().isEmpty() && url.getAuthority() != null ? "/" : url.getPath());
+        if (url.getQuery() != null) {
+            key.append('?').append(url.getQuery());
+        }
+        if (url.getRef() != null) {
+            key.append('#').append(url.getRef());
+        }
+        return key.toString();
+    }
+
+    public URL toURL() {
+        return url;
+    }
+
+    /**
+     * The text two addresses are compared by.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        WebAddress that = (WebAddress) o;
+        return hash == that.hash && key.equals(that.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return url.toString();
+    }
+}
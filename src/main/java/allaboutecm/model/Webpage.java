@@ -1,12 +1,12 @@
 package allaboutecm.model;
 
 import allaboutecm.dataaccess.neo4j.URLConverter;
+import allaboutecm.validation.UrlValidation;
 import org.neo4j.ogm.annotation.NodeEntity;
 import org.neo4j.ogm.annotation.Property;
 import org.neo4j.ogm.annotation.typeconversion.Convert;
 
 import java.io.IOException;
-import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.UnknownHostException;
 import java.util.Objects;
@@ -19,11 +19,14 @@ public class Webpage extends Entity{
 
       @Convert(URLConverter.class)
       @Property(name="url")
-      private URL url;
+      private WebAddress url;
 
       @Property(name="name")
       private String name;
 
+    public Webpage() {
+    }
+
       public Webpage(String name,URL url){
           notNull(name);
           notBlank(name);
@@ -32,14 +35,20 @@ public class Webpage extends Entity{
           {
               throw new IllegalArgumentException("Name of the webpage should not exceed 50 characters.");
           }
-          this.url = url;
+          // The same check as setUrl, reachability included.
+          if(!UrlValidation.isWellFormed(url))
+          {
+              throw new IllegalArgumentException("Not a valid URL.");
+          }
+          UrlValidation.defer(url);
+          this.url = WebAddress.of(url);
           this.name = name;
 
       }
 
       public String getName(){return name;}
 
-      public URL getUrl(){return url;}
+      public URL getUrl(){return url == null ? null : url.toURL();}
 
     public void setName(String name)
     {
@@ -58,15 +67,14 @@ public class Webpage extends Entity{
         {
             url=new URL("https://google.com");
         }
-        HttpURLConnection connectionString = (HttpURLConnection) url.openConnection();
-        connectionString.setRequestMethod("GET");
-        int codeInResponse = connectionString.getResponseCode();
-        if(codeInResponse!=200)
+        // Only a syntactic check here; reachability is checked in the background, see UrlValidation.
+        if(!UrlValidation.isWellFormed(url))
         {
             throw new UnknownHostException("Not a valid URL.");
         }
+        UrlValidation.defer(url);
 
-        this.url = url;
+        this.url = WebAddress.of(url);
     }
 
 
@@ -76,12 +84,12 @@ public class Webpage extends Entity{
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Webpage webpage = (Webpage) o;
-        return url.equals(webpage.url);
+        return Objects.equals(url, webpage.url);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(url);
+        return Objects.hashCode(url);
     }
 
 
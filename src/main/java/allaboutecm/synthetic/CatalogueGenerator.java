@@ -0,0 +1,323 @@
+package allaboutecm.synthetic;
+
+import allaboutecm.model.*;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+
+/**
+ * Generates an ECM-like catalogue of any size from a seed; the same seed and size always give the same catalogue.
+ *
+ * The distributions follow the label rather than being uniform:
+ * - musicians are picked for albums by Zipf-distributed popularity, and a sideman is often someone the
+ *   leader has recorded with before, so both albums per musician and collaborations follow a power law;
+ * - every musician plays one to three instruments, piano, bass and drums the most common, and a
+ *   different subset of them from album to album;
+ * - sales are Zipf distributed over a random ranking of the albums, and better selling albums get more reviews;
+ * - release years lean towards the later decades;
+ * - some albums are credited to a group led by their first musician, and some come with a concert.
+ *
+ * The one thing not under the seed is the concert date, which the model sets to the time of construction.
+ */
+public class CatalogueGenerator {
+    public static final int FIRST_YEAR = 1969;
+    public static final int LAST_YEAR = 2019;
+    public static final int TOP_SALES = 1_000_000;
+
+    private static final String[] FIRST_NAMES = {"Keith", "Jan", "Anouar", "Tomasz", "Nik", "Arild", "Jon",
+            "Manu", "Paul", "Charlie", "Gary", "Pat", "Ralph", "Eberhard", "Terje", "Kenny", "Dave", "Bobo",
+            "Marilyn", "Vassilis", "Louis", "Carla", "Heinz", "Ketil", "Anja", "Meredith", "Sinikka", "Jack",
+            "Ralf", "Mats", "Trygve", "Avishai", "Andrew", "Craig", "Tigran", "Shai", "Elina", "Giovanni",
+            "Nils", "Mette"};
+    private static final String[] LAST_NAMES = {"Jarrett", "Garbarek", "Brahem", "Stanko", "Bartsch",
+            "Andersen", "Balke", "Katche", "Motian", "Haden", "Peacock", "Metheny", "Towner", "Weber", "Rypdal",
+            "Wheeler", "Holland", "Stenson", "Mazur", "Tsabropoulos", "Sclavis", "Bley", "Holliger", "Bjornstad",
+            "Lechner", "Monk", "Langeland", "Dejohnette", "Hutter", "Eilertsen", "Seim", "Cohen", "Cyrille",
+            "Taborn", "Hamasyan", "Maestro", "Duni", "Guidi", "Petter", "Henriette", "Gismonti", "Surman",
+            "Kuhn", "Rava", "Gurtu", "Abercrombie", "Frisell", "Burton", "Corea", "Iyer"};
+    private static final String[] INSTRUMENTS = {"Piano", "Double Bass", "Drums", "Saxophone", "Guitar",
+            "Trumpet", "Violin", "Percussion", "Cello", "Clarinet", "Organ", "Flute", "Viola", "Bass Clarinet",
+            "Oud", "Tabla", "Accordion", "Harp", "Marimba", "Voice", "Electric Bass", "Bandoneon", "Trombone",
+            "Synthesizer"};
+    private static final String[] GENRES = {"Jazz", "Jazz", "Jazz", "Jazz", "Contemporary", "Contemporary",
+            "Classical", "World", "Folk"};
+    private static final String[] FORMATS = {"CD", "CD", "CD", "LP", "Digital"};
+    private static final String[] ENSEMBLES = {"Solo", "Duo", "Trio", "Quartet", "Quintet", "Sextet", "Septet", "Octet"};
+    private static final String[][] CITIES = {{"Germany", "Munich"}, {"Germany", "Cologne"}, {"Norway", "Oslo"},
+            {"Italy", "Milan"}, {"France", "Paris"}, {"Japan", "Tokyo"}, {"United States", "New York"},
+            {"United Kingdom", "London"}, {"Australia", "Melbourne"}, {"Switzerland", "Lugano"}};
+    private static final String[] REVIEW_SITES = {"https://www.allmusic.com/", "https://www.jazzwise.com/",
+            "https://www.allaboutjazz.com/", "https://www.theguardian.com/", "https://www.downbeat.com/"};
+
+    private static final double MUSICIAN_SKEW = 1.1;
+    private static final double INSTRUMENT_SKEW = 1.3;
+    private static final double SALES_SKEW = 1.0;
+    private static final double REPEAT_COLLABORATION = 0.5;
+    private static final double GROUP_SHARE = 0.15;
+    private static final double CONCERT_SHARE = 0.1;
+    private static final int MAX_MUSICIANS_PER_ALBUM = 8;
+    private static final int MAX_REMEMBERED_COLLABORATORS = 64;
+
+    private final long seed;
+
+    public CatalogueGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public SyntheticCatalogue generate(int albumCount) {
+        isTrue(albumCount > 0, "Number of albums should be positive.");
+        return new Run(albumCount).generate();
+    }
+
+    // The state of one generation
+    private class Run {
+        private final int albumCount;
+        private final Random random = new Random(seed);
+
+        private final List<MusicalInstrument> instruments = Lists.newArrayList();
+        private final List<Musician> musicians = Lists.newArrayList();
+        private final List<MusicianInstrument> musicianInstruments = Lists.newArrayList();
+        private final List<Album> albums = Lists.newArrayList();
+        private final List<Review> reviews = Lists.newArrayList();
+        private final List<Concert> concerts = Lists.newArrayList();
+        private final Map<String, Group> groups = Maps.newLinkedHashMap();
+        private final List<URL> sites = Lists.newArrayList();
+
+        // Per musician: the instruments they play, what they played on each album by instrument bit mask,
+        // and the last musicians they recorded with.
+        private int[][] plays;
+        private List<Map<Integer, MusicianInstrument>> played;
+        private int[][] collaborators;
+        private int[] collaboratorCount;
+        private Zipf popularity;
+
+        private Run(int albumCount) {
+            this.albumCount = albumCount;
+        }
+
+        private SyntheticCatalogue generate() {
+            for (String name : INSTRUMENTS) {
+                instruments.add(new MusicalInstrument(name));
+            }
+            for (String site : REVIEW_SITES) {
+                try {
+                    sites.add(new URL(site));
+                } catch (MalformedURLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            musicians();
+            int[] salesRanks = shuffledRanks();
+            for (int i = 0; i < albumCount; i++) {
+                albums.add(album(i, salesRanks[i]));
+            }
+            return new SyntheticCatalogue(albums, musicians, instruments, musicianInstruments, reviews, concerts,
+                    Lists.newArrayList(groups.values()));
+        }
+
+        private void musicians() {
+            int count = Math.max(16, albumCount / 3);
+            Zipf instrumentPopularity = new Zipf(instruments.size(), INSTRUMENT_SKEW);
+            plays = new int[count][];
+            played = Lists.newArrayListWithCapacity(count);
+            collaborators = new int[count][];
+            collaboratorCount = new int[count];
+            for (int i = 0; i < count; i++) {
+                musicians.add(new Musician(musicianName(i)));
+                Set<Integer> instrumentsPlayed = Sets.newLinkedHashSet();
+                int instrumentCount = 1 + geometric(0.6, 2);
+                while (instrumentsPlayed.size() < instrumentCount) {
+                    instrumentsPlayed.add(instrumentPopularity.sample(random));
+                }
+                plays[i] = instrumentsPlayed.stream().mapToInt(Integer::intValue).toArray();
+                played.add(null);
+            }
+            popularity = new Zipf(count, MUSICIAN_SKEW);
+        }
+
+        private Album album(int i, int salesRank) {
+            int year = FIRST_YEAR + (int) ((LAST_YEAR - FIRST_YEAR + 1) * Math.sqrt(random.nextDouble()));
+            Album album = new Album(Math.min(year, LAST_YEAR), "ECM " + (1001 + i), "Synthetic Album " + (i + 1));
+            album.setGenre(GENRES[random.nextInt(GENRES.length)]);
+            album.setReleaseFormat(FORMATS[random.nextInt(FORMATS.length)]);
+            int sales = Math.max(1, (int) (TOP_SALES / Math.pow(salesRank, SALES_SKEW)));
+            album.setSales(sales);
+
+            List<Integer> lineUp = lineUp();
+            for (int m : lineUp) {
+                Musician musician = musicians.get(m);
+                MusicianInstrument musicianInstrument = musicianInstrument(m);
+                album.getFeaturedMusicians().add(musician);
+                album.getInstruments().add(musicianInstrument);
+                musician.getAlbums().add(album);
+            }
+            remember(lineUp);
+
+            // Best sellers are reviewed more: one more expected review per factor of ten in sales
+            int reviewCount = Math.min(12, geometric(0.5, 12) + (int) Math.log10(sales) / 2);
+            for (int r = 0; r < reviewCount; r++) {
+                double rating = Math.max(1, Math.min(100, Math.round(70 + 15 * random.nextGaussian())));
+                Review review = new Review(sites.get(random.nextInt(sites.size())), rating);
+                album.getReviews().add(review);
+                reviews.add(review);
+            }
+
+            Musician leader = musicians.get(lineUp.get(0));
+            if (random.nextDouble() < GROUP_SHARE) {
+                String name = leader.getName() + " " + ENSEMBLES[lineUp.size() - 1];
+                Group group = groups.computeIfAbsent(name, Group::new);
+                group.getAlbums().add(album);
+                album.getFeaturedGroup().add(group);
+            }
+            if (random.nextDouble() < CONCERT_SHARE) {
+                String[] place = CITIES[random.nextInt(CITIES.length)];
+                Concert concert = new Concert(leader.getName() + " Live in " + place[1], place[0]);
+                concert.setCity(place[1]);
+                for (Musician musician : album.getFeaturedMusicians()) {
+                    concert.getMusicians().add(musician);
+                }
+                album.getConcerts().add(concert);
+                concerts.add(concert);
+            }
+            return album;
+        }
+
+        // A leader by popularity, then sidemen drawn either from the leader's past collaborators or by popularity
+        private List<Integer> lineUp() {
+            int size = Math.min(musicians.size(), 1 + geometric(0.45, MAX_MUSICIANS_PER_ALBUM - 1));
+            Set<Integer> lineUp = Sets.newLinkedHashSet();
+            int leader = popularity.sample(random);
+            lineUp.add(leader);
+            while (lineUp.size() < size) {
+                if (collaboratorCount[leader] > 0 && random.nextDouble() < REPEAT_COLLABORATION) {
+                    int remembered = Math.min(collaboratorCount[leader], MAX_REMEMBERED_COLLABORATORS);
+                    lineUp.add(collaborators[leader][random.nextInt(remembered)]);
+                } else {
+                    lineUp.add(popularity.sample(random));
+                }
+            }
+            return Lists.newArrayList(lineUp);
+        }
+
+        private void remember(List<Integer> lineUp) {
+            for (int m : lineUp) {
+                for (int other : lineUp) {
+                    if (m == other) {
+                        continue;
+                    }
+                    if (null == collaborators[m]) {
+                        collaborators[m] = new int[MAX_REMEMBERED_COLLABORATORS];
+                    }
+                    // Past the limit a random entry is replaced, which keeps the draw proportional to recent collaborations
+                    int slot = collaboratorCount[m] < MAX_REMEMBERED_COLLABORATORS
+                            ? collaboratorCount[m] : random.nextInt(MAX_REMEMBERED_COLLABORATORS);
+                    collaborators[m][slot] = other;
+                    collaboratorCount[m]++;
+                }
+            }
+        }
+
+        // The main instrument always, each of the others half of the time; one entity per distinct set
+        private MusicianInstrument musicianInstrument(int m) {
+            int mask = 1;
+            for (int i = 1; i < plays[m].length; i++) {
+                if (random.nextBoolean()) {
+                    mask |= 1 << i;
+                }
+            }
+            if (null == played.get(m)) {
+                played.set(m, Maps.newHashMap());
+            }
+            MusicianInstrument musicianInstrument = played.get(m).get(mask);
+            if (null == musicianInstrument) {
+                Set<MusicalInstrument> set = Sets.newHashSet();
+                for (int i = 0; i < plays[m].length; i++) {
+                    if ((mask & 1 << i) != 0) {
+                        set.add(instruments.get(plays[m][i]));
+                    }
+                }
+                musicianInstrument = new MusicianInstrument(musicians.get(m), set);
+                played.get(m).put(mask, musicianInstrument);
+                musicianInstruments.add(musicianInstrument);
+            }
+            return musicianInstrument;
+        }
+
+        // 1..albumCount in random order
+        private int[] shuffledRanks() {
+            int[] ranks = new int[albumCount];
+            for (int i = 0; i < albumCount; i++) {
+                ranks[i] = i + 1;
+            }
+            for (int i = albumCount - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int rank = ranks[i];
+                ranks[i] = ranks[j];
+                ranks[j] = rank;
+            }
+            return ranks;
+        }
+
+        // Failures before the first success, at most max
+        private int geometric(double p, int max) {
+            int n = 0;
+            while (n < max && random.nextDouble() >= p) {
+                n++;
+            }
+            return n;
+        }
+    }
+
+    /*
+     * Musician names may only hold letters, so once the first and last names run out a letter suffix is added
+     */
+    static String musicianName(int i) {
+        int combinations = FIRST_NAMES.length * LAST_NAMES.length;
+        String name = FIRST_NAMES[i % FIRST_NAMES.length] + " " + LAST_NAMES[i / FIRST_NAMES.length % LAST_NAMES.length];
+        int round = i / combinations;
+        if (round == 0) {
+            return name;
+        }
+        StringBuilder suffix = new StringBuilder();
+        for (int n = round; n > 0; n /= 26) {
+            suffix.append((char) ('a' + n % 26));
+        }
+        return name + " " + suffix.reverse();
+    }
+
+    /*
+     * Ranks 0..n-1 with P(rank) proportional to 1 / (rank + 1)^skew, sampled by binary search over the cumulative weights
+     */
+    static final class Zipf {
+        private final double[] cumulative;
+
+        Zipf(int n, double skew) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += 1 / Math.pow(i + 1, skew);
+                cumulative[i] = sum;
+            }
+        }
+
+        int sample(Random random) {
+            double u = random.nextDouble() * cumulative[cumulative.length - 1];
+            int i = Arrays.binarySearch(cumulative, u);
+            return Math.min(i >= 0 ? i : -i - 1, cumulative.length - 1);
+        }
+    }
+}
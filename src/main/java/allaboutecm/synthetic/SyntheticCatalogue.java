@@ -0,0 +1,114 @@
+package allaboutecm.synthetic;
+
+import allaboutecm.dataaccess.BatchListener;
+import allaboutecm.dataaccess.BatchResult;
+import allaboutecm.dataaccess.DAO;
+import allaboutecm.dataaccess.csv.CatalogueWriter;
+import allaboutecm.model.*;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * A generated catalogue, fully linked in memory: albums hold their musicians, musician instruments, reviews,
+ * concerts and groups, and musicians and groups hold their albums. It can be saved through a DAO or written
+ * as CSV for CatalogueImporter.
+ */
+public class SyntheticCatalogue {
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    private final List<Album> albums;
+    private final List<Musician> musicians;
+    private final List<MusicalInstrument> instruments;
+    private final List<MusicianInstrument> musicianInstruments;
+    private final List<Review> reviews;
+    private final List<Concert> concerts;
+    private final List<Group> groups;
+
+    SyntheticCatalogue(List<Album> albums, List<Musician> musicians, List<MusicalInstrument> instruments,
+                       List<MusicianInstrument> musicianInstruments, List<Review> reviews, List<Concert> concerts,
+                       List<Group> groups) {
+        this.albums = Collections.unmodifiableList(albums);
+        this.musicians = Collections.unmodifiableList(musicians);
+        this.instruments = Collections.unmodifiableList(instruments);
+        this.musicianInstruments = Collections.unmodifiableList(musicianInstruments);
+        this.reviews = Collections.unmodifiableList(reviews);
+        this.concerts = Collections.unmodifiableList(concerts);
+        this.groups = Collections.unmodifiableList(groups);
+    }
+
+    public List<Album> getAlbums() {
+        return albums;
+    }
+
+    public List<Musician> getMusicians() {
+        return musicians;
+    }
+
+    public List<MusicalInstrument> getInstruments() {
+        return instruments;
+    }
+
+    public List<MusicianInstrument> getMusicianInstruments() {
+        return musicianInstruments;
+    }
+
+    public List<Review> getReviews() {
+        return reviews;
+    }
+
+    public List<Concert> getConcerts() {
+        return concerts;
+    }
+
+    public List<Group> getGroups() {
+        return groups;
+    }
+
+    public BatchResult<Entity> saveTo(DAO dao) {
+        return saveTo(dao, DEFAULT_CHUNK_SIZE, BatchListener.NONE);
+    }
+
+    /*
+     * Save everything through DAO.createOrUpdateAll, in the order CatalogueImporter uses: musicians and instruments
+     * first so that existing ones are matched by natural key, then the albums, and then the concerts and groups,
+     * whose own relationships saving an album does not reach. The listener hears about every chunk of every type.
+     */
+    public BatchResult<Entity> saveTo(DAO dao, int chunkSize, BatchListener listener) {
+        notNull(dao, "Object is null.");
+        notNull(listener, "Object is null.");
+        isTrue(chunkSize > 0, "Chunk size should be positive.");
+        BatchResult<Entity> result = new BatchResult<>();
+        save(dao, musicians, chunkSize, listener, result);
+        save(dao, instruments, chunkSize, listener, result);
+        save(dao, musicianInstruments, chunkSize, listener, result);
+        save(dao, albums, chunkSize, listener, result);
+        save(dao, concerts, chunkSize, listener, result);
+        save(dao, groups, chunkSize, listener, result);
+        return result;
+    }
+
+    public void writeCsv(Appendable out) throws IOException {
+        CatalogueWriter writer = new CatalogueWriter(out);
+        writer.writeComment("Synthetic catalogue of " + albums.size() + " albums");
+        writer.write(albums);
+        writer.flush();
+    }
+
+    private static <T extends Entity> void save(DAO dao, Collection<T> entities, int chunkSize, BatchListener listener,
+                                                BatchResult<Entity> result) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        BatchResult<T> saved = dao.createOrUpdateAll(entities, chunkSize, listener);
+        result.addSaved(saved.getSaved());
+        for (BatchResult.ChunkFailure<T> failure : saved.getFailures()) {
+            result.addFailure(new BatchResult.ChunkFailure<>(failure.getChunk(), failure.getEntities(), failure.getCause()));
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package allaboutecm.validation;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Checks URLs with an HTTP HEAD request, falling back to GET for servers that do not allow HEAD.
+ * A URL is reachable when the answer is 2xx after redirects; errors and timeouts make it unreachable.
+ *
+ * Requests run on a pool of daemon threads with connect and read timeouts, so a slow host only holds
+ * up its own check. Answers are cached by URL text, reachable ones for longer than unreachable ones,
+ * and concurrent checks of the same URL share one request.
+ */
+public class HttpUrlValidator implements UrlValidator, AutoCloseable {
+    public static final int DEFAULT_TIMEOUT_MILLIS = 3000;
+    public static final long DEFAULT_REACHABLE_TTL_MINUTES = 60;
+    public static final long DEFAULT_UNREACHABLE_TTL_MINUTES = 5;
+    public static final int DEFAULT_THREADS = 16;
+    public static final long MAXIMUM_CACHED_URLS = 10_000;
+
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+    private final Cache<String, Boolean> reachable;
+    private final Cache<String, Boolean> unreachable;
+    private final ConcurrentMap<String, CompletableFuture<Boolean>> inFlight = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+
+    public HttpUrlValidator() {
+        this(DEFAULT_TIMEOUT_MILLIS, DEFAULT_TIMEOUT_MILLIS, DEFAULT_REACHABLE_TTL_MINUTES,
+                DEFAULT_UNREACHABLE_TTL_MINUTES, TimeUnit.MINUTES, DEFAULT_THREADS);
+    }
+
+    public HttpUrlValidator(int connectTimeoutMillis, int readTimeoutMillis, long reachableTtl, long unreachableTtl,
+                            TimeUnit unit, int threads) {
+        this(connectTimeoutMillis, readTimeoutMillis, reachableTtl, unreachableTtl, unit, threads, Ticker.systemTicker());
+    }
+
+    HttpUrlValidator(int connectTimeoutMillis, int readTimeoutMillis, long reachableTtl, long unreachableTtl,
+                     TimeUnit unit, int threads, Ticker ticker) {
+        isTrue(connectTimeoutMillis > 0, "Connect timeout should be positive.");
+        isTrue(readTimeoutMillis > 0, "Read timeout should be positive.");
+        isTrue(reachableTtl >= 0 && unreachableTtl >= 0, "Cache expiry cannot be negative.");
+        isTrue(threads > 0, "Number of threads should be positive.");
+        notNull(unit, "Object is null.");
+        notNull(ticker, "Object is null.");
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.reachable = CacheBuilder.newBuilder().maximumSize(MAXIMUM_CACHED_URLS)
+                .expireAfterWrite(reachableTtl, unit).ticker(ticker).build();
+        this.unreachable = CacheBuilder.newBuilder().maximumSize(MAXIMUM_CACHED_URLS)
+                .expireAfterWrite(unreachableTtl, unit).ticker(ticker).build();
+        this.executor = Executors.newFixedThreadPool(threads,
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("url-validator-%d").build());
+    }
+
+    @Override
+    public CompletableFuture<Boolean> check(URL url) {
+        notNull(url, "Object is null.");
+        String key = url.toExternalForm();
+        Boolean cached = cached(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        CompletableFuture<Boolean> running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            return running;
+        }
+        try {
+            executor.execute(() -> run(url, key, future));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, future);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /*
+     * The cached answer for a URL, or null when it has not been checked or the answer has expired
+     */
+    public Boolean cached(URL url) {
+        notNull(url, "Object is null.");
+        return cached(url.toExternalForm());
+    }
+
+    public void invalidateAll() {
+        reachable.invalidateAll();
+        unreachable.invalidateAll();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private Boolean cached(String key) {
+        if (reachable.getIfPresent(key) != null) {
+            return true;
+        }
+        if (unreachable.getIfPresent(key) != null) {
+            return false;
+        }
+        return null;
+    }
+
+    private void run(URL url, String key, CompletableFuture<Boolean> future) {
+        boolean ok = false;
+        try {
+            ok = request(url);
+        } finally {
+            // Cache before leaving the in-flight map, so that no check in between requests it again
+            (ok ? reachable : unreachable).put(key, ok);
+            inFlight.remove(key, future);
+            future.complete(ok);
+        }
+    }
+
+    private boolean request(URL url) {
+        try {
+            int code = status(url, "HEAD");
+            if (code == HttpURLConnection.HTTP_BAD_METHOD || code == HttpURLConnection.HTTP_NOT_IMPLEMENTED) {
+                code = status(url, "GET");
+            }
+            return code >= 200 && code < 300;
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    private int status(URL url, String method) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try {
+            connection.setRequestMethod(method);
+            connection.setConnectTimeout(connectTimeoutMillis);
+            connection.setReadTimeout(readTimeoutMillis);
+            connection.setInstanceFollowRedirects(true);
+            return connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package allaboutecm.validation;
+
+import java.net.URL;
+
+/**
+ * Told the answer of every reachability check the model deferred through UrlValidation. A check that failed
+ * counts as unreachable.
+ */
+@FunctionalInterface
+public interface UrlCheckListener {
+    UrlCheckListener NONE = (url, reachable) -> { };
+
+    void onChecked(URL url, boolean reachable);
+}
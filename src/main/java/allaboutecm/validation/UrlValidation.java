@@ -0,0 +1,84 @@
+package allaboutecm.validation;
+
+import com.google.common.collect.Maps;
+
+import java.net.URL;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * The URL validator the model uses. Constructors and setters that take a URL only check that it is well
+ * formed and hand it to {@link #defer(URL)}, so they never block on the network. The answer goes to the
+ * installed {@link UrlCheckListener} and is returned to whoever deferred the check.
+ *
+ * The default is {@link UrlValidator#ACCEPT_ALL}, which keeps the model off the network. Install an
+ * {@link HttpUrlValidator} to check reachability for real.
+ */
+public final class UrlValidation {
+    private static volatile UrlValidator validator = UrlValidator.ACCEPT_ALL;
+    private static volatile UrlCheckListener listener = UrlCheckListener.NONE;
+
+    private UrlValidation() {
+    }
+
+    public static UrlValidator getValidator() {
+        return validator;
+    }
+
+    public static void setValidator(UrlValidator urlValidator) {
+        notNull(urlValidator, "Object is null.");
+        validator = urlValidator;
+    }
+
+    public static UrlCheckListener getListener() {
+        return listener;
+    }
+
+    public static void setListener(UrlCheckListener checkListener) {
+        notNull(checkListener, "Object is null.");
+        listener = checkListener;
+    }
+
+    /*
+     * Syntactic check only: an http or https URL with a host
+     */
+    public static boolean isWellFormed(URL url) {
+        if (url == null) {
+            return false;
+        }
+        String protocol = url.getProtocol();
+        return ("http".equalsIgnoreCase(protocol) || "https".equalsIgnoreCase(protocol))
+                && url.getHost() != null && !url.getHost().trim().isEmpty();
+    }
+
+    /*
+     * Queue a reachability check on the current validator and return at once. The listener installed now is
+     * told the answer, which the returned future also completes with; a failed check answers false
+     */
+    public static CompletableFuture<Boolean> defer(URL url) {
+        notNull(url, "Object is null.");
+        UrlCheckListener current = listener;
+        return validator.check(url).handle((reachable, failure) -> {
+            boolean answer = null == failure && Boolean.TRUE.equals(reachable);
+            current.onChecked(url, answer);
+            return answer;
+        });
+    }
+
+    static Map<String, Boolean> joinAll(UrlValidator urlValidator, Collection<URL> urls) {
+        notNull(urls, "Object is null.");
+        Map<String, CompletableFuture<Boolean>> checks = Maps.newLinkedHashMap();
+        for (URL url : urls) {
+            notNull(url, "Object within the collection should not be null.");
+            checks.computeIfAbsent(url.toExternalForm(), key -> urlValidator.check(url));
+        }
+        Map<String, Boolean> results = Maps.newLinkedHashMap();
+        for (Map.Entry<String, CompletableFuture<Boolean>> check : checks.entrySet()) {
+            results.put(check.getKey(), check.getValue().join());
+        }
+        return results;
+    }
+}
@@ -0,0 +1,41 @@
+package allaboutecm.validation;
+
+import java.net.URL;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Checks whether URLs can be reached. Implementations decide how, and how long an answer is reused.
+ */
+public interface UrlValidator {
+    /**
+     * A validator that accepts every URL without any I/O.
+     */
+    UrlValidator ACCEPT_ALL = new UrlValidator() {
+        @Override
+        public CompletableFuture<Boolean> check(URL url) {
+            return CompletableFuture.completedFuture(true);
+        }
+    };
+
+    /*
+     * Start checking a URL without waiting for the answer
+     */
+    CompletableFuture<Boolean> check(URL url);
+
+    /*
+     * Check a URL and wait for the answer
+     */
+    default boolean isReachable(URL url) {
+        return check(url).join();
+    }
+
+    /*
+     * Check many URLs at once and wait for all of them. The answers are keyed by URL.toExternalForm(),
+     * as URL.equals and URL.hashCode resolve host names.
+     */
+    default Map<String, Boolean> validate(Collection<URL> urls) {
+        return UrlValidation.joinAll(this, urls);
+    }
+}
@@ -0,0 +1,81 @@
+package allaboutecm.validation;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Field checks shared by the model constructors and setters, written so that a bulk load does not
+ * compile a regular expression, lower-case a string or build a Calendar per entity.
+ */
+public final class Validators {
+    // Every character a musician name may contain; upper-case letters count as their lower-case form.
+    private static final String NAME_CHARACTERS = " abcdefghijklmnopqrstuvwxyzáäâèëéàêîïôüùû,/&";
+    private static final boolean[] NAME_TABLE = new boolean[256];
+
+    static {
+        for (char c = 0; c < NAME_TABLE.length; c++) {
+            NAME_TABLE[c] = NAME_CHARACTERS.indexOf(Character.toLowerCase(c)) >= 0;
+        }
+    }
+
+    private static volatile CurrentYear currentYear = CurrentYear.now();
+
+    private Validators() {
+    }
+
+    /*
+     * Whether every character of the name is a space, a letter a-z (French accents included), ',', '/' or '&'
+     */
+    public static boolean isMusicianName(String name) {
+        if (name == null) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c >= NAME_TABLE.length || !NAME_TABLE[c]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Whether Double.toString would print the value with digits and a dot only: not negative, not NaN or
+     * infinite, and zero or in [0.001, 10^7), outside of which it switches to scientific notation
+     */
+    public static boolean isPlainDecimal(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value) || Double.doubleToRawLongBits(value) < 0) {
+            return false;
+        }
+        return value == 0 || (value >= 1e-3 && value < 1e7);
+    }
+
+    /*
+     * The current year in the system time zone, worked out again only once the year is over
+     */
+    public static int currentYear() {
+        CurrentYear cached = currentYear;
+        if (System.currentTimeMillis() >= cached.endMillis) {
+            cached = CurrentYear.now();
+            currentYear = cached;
+        }
+        return cached.year;
+    }
+
+    private static final class CurrentYear {
+        private final int year;
+        private final long endMillis;
+
+        private CurrentYear(int year, long endMillis) {
+            this.year = year;
+            this.endMillis = endMillis;
+        }
+
+        private static CurrentYear now() {
+            ZoneId zone = ZoneId.systemDefault();
+            LocalDate today = LocalDate.now(zone);
+            long endMillis = today.withDayOfYear(1).plusYears(1).atStartOfDay(zone).toInstant().toEpochMilli();
+            return new CurrentYear(today.getYear(), endMillis);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package allaboutecm.dataaccess;
+
+import allaboutecm.model.*;
+import com.google.common.base.Ticker;
+import com.google.common.collect.Lists;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CachingDAOUnitTest {
+    private DAO delegate;
+    private CachingDAO dao;
+    private FakeTicker ticker;
+    private Musician musician;
+    private Album album;
+
+    @BeforeEach
+    public void setUp()
+    {
+        delegate = mock(DAO.class);
+        ticker = new FakeTicker();
+        dao = new CachingDAO(delegate, 2, 10, TimeUnit.MINUTES, ticker);
+        musician = new Musician("Keith Jarrett");
+        musician.setId(1L);
+        album = new Album(1975, "ECM 1064/65", "The Köln Concert");
+        album.setId(2L);
+        when(delegate.load(Musician.class, 1L)).thenReturn(musician);
+        when(delegate.findMusicianByName("Keith Jarrett")).thenReturn(musician);
+        when(delegate.findAlbumByRecordNumber("ECM 1064/65")).thenReturn(album);
+    }
+
+    @Test
+    @DisplayName("Repeated id lookups should only reach the wrapped DAO once.")
+    public void repeatedLoadsAreCached()
+    {
+        assertSame(musician, dao.load(Musician.class, 1L));
+        assertSame(musician, dao.load(Musician.class, 1L));
+        verify(delegate, times(1)).load(Musician.class, 1L);
+        assertEquals(1, dao.getStats().hitCount());
+        assertEquals(1, dao.getStats().missCount());
+    }
+
+    @Test
+    @DisplayName("Natural-key lookups should be cached, misses included.")
+    public void naturalKeyLookupsAreCached()
+    {
+        assertSame(musician, dao.findMusicianByName("Keith Jarrett"));
+        assertSame(musician, dao.findMusicianByName("Keith Jarrett"));
+        assertNull(dao.findMusicalInstrumentByName("Theremin"));
+        assertNull(dao.findMusicalInstrumentByName("Theremin"));
+        verify(delegate, times(1)).findMusicianByName("Keith Jarrett");
+        verify(delegate, times(1)).findMusicalInstrumentByName("Theremin");
+    }
+
+    @Test
+    @DisplayName("Saving an entity should drop its cached lookups.")
+    public void createOrUpdateInvalidates()
+    {
+        dao = new CachingDAO(delegate, 10, 10, TimeUnit.MINUTES, ticker);
+        dao.load(Musician.class, 1L);
+        dao.findMusicianByName("Keith Jarrett");
+        dao.findAlbumByRecordNumber("ECM 1064/65");
+        dao.createOrUpdate(musician);
+        dao.load(Musician.class, 1L);
+        dao.findMusicianByName("Keith Jarrett");
+        dao.findAlbumByRecordNumber("ECM 1064/65");
+        verify(delegate, times(2)).load(Musician.class, 1L);
+        verify(delegate, times(2)).findMusicianByName("Keith Jarrett");
+        verify(delegate, times(1)).findAlbumByRecordNumber("ECM 1064/65");
+    }
+
+    @Test
+    @DisplayName("A batch save should drop the cached lookups of every entity in it.")
+    public void createOrUpdateAllInvalidates()
+    {
+        dao.load(Musician.class, 1L);
+        dao.findAlbumByRecordNumber("ECM 1064/65");
+        dao.createOrUpdateAll(Lists.newArrayList(musician, album));
+        assertEquals(0, dao.size());
+    }
+
+    @Test
+    @DisplayName("Saving an entity should leave the cached lookups of other entities of its type alone.")
+    public void createOrUpdateKeepsUnrelatedEntries()
+    {
+        dao = new CachingDAO(delegate, 10, 10, TimeUnit.MINUTES, ticker);
+        dao.findMusicianByName("Keith Jarrett");
+        Musician other = new Musician("Jan Garbarek");
+        other.setId(3L);
+        dao.createOrUpdate(other);
+        dao.findMusicianByName("Keith Jarrett");
+        verify(delegate, times(1)).findMusicianByName("Keith Jarrett");
+        assertEquals(1, dao.size());
+    }
+
+    @Test
+    @DisplayName("Renaming an entity should drop the entry of its old name.")
+    public void renameDropsTheOldKey()
+    {
+        dao = new CachingDAO(delegate, 10, 10, TimeUnit.MINUTES, ticker);
+        dao.findMusicianByName("Keith Jarrett");
+        musician.setName("Jan Garbarek");
+        dao.createOrUpdate(musician);
+        when(delegate.findMusicianByName("Keith Jarrett")).thenReturn(null);
+        assertNull(dao.findMusicianByName("Keith Jarrett"));
+    }
+
+    @Test
+    @DisplayName("Deleting a musician should drop the cached albums featuring it.")
+    public void deleteDropsAlbumsHoldingTheEntity()
+    {
+        dao = new CachingDAO(delegate, 10, 10, TimeUnit.MINUTES, ticker);
+        album.setFeaturedMusicians(Lists.newArrayList(musician));
+        dao.findAlbumByRecordNumber("ECM 1064/65");
+        dao.delete(musician);
+        dao.findAlbumByRecordNumber("ECM 1064/65");
+        verify(delegate, times(2)).findAlbumByRecordNumber("ECM 1064/65");
+    }
+
+    @Test
+    @DisplayName("A cached miss should be dropped once an entity of that type is saved.")
+    public void savingDropsCachedMisses()
+    {
+        assertNull(dao.findMusicalInstrumentByName("Piano"));
+        MusicalInstrument piano = new MusicalInstrument("Piano");
+        dao.createOrUpdate(piano);
+        when(delegate.findMusicalInstrumentByName("Piano")).thenReturn(piano);
+        assertSame(piano, dao.findMusicalInstrumentByName("Piano"));
+    }
+
+    @Test
+    @DisplayName("Deleting an entity should drop its cached lookups, even when the delete fails.")
+    public void deleteInvalidates()
+    {
+        dao.load(Musician.class, 1L);
+        doThrow(new IllegalStateException("Database is down.")).when(delegate).delete(musician);
+        assertThrows(IllegalStateException.class, () -> dao.delete(musician));
+        dao.load(Musician.class, 1L);
+        verify(delegate, times(2)).load(Musician.class, 1L);
+    }
+
+    @Test
+    @DisplayName("The least recently used entry should be evicted when the cache is full.")
+    public void leastRecentlyUsedIsEvicted()
+    {
+        dao.load(Musician.class, 1L);
+        dao.findAlbumByRecordNumber("ECM 1064/65");
+        dao.load(Musician.class, 1L);
+        dao.findMusicianByName("Keith Jarrett");
+        assertEquals(2, dao.size());
+        assertEquals(1, dao.getStats().evictionCount());
+        dao.load(Musician.class, 1L);
+        verify(delegate, times(1)).load(Musician.class, 1L);
+        dao.findAlbumByRecordNumber("ECM 1064/65");
+        verify(delegate, times(2)).findAlbumByRecordNumber("ECM 1064/65");
+    }
+
+    @Test
+    @DisplayName("Entries should expire after they have not been read for the configured time.")
+    public void entriesExpire()
+    {
+        dao.load(Musician.class, 1L);
+        ticker.advance(9, TimeUnit.MINUTES);
+        dao.load(Musician.class, 1L);
+        ticker.advance(9, TimeUnit.MINUTES);
+        dao.load(Musician.class, 1L);
+        verify(delegate, times(1)).load(Musician.class, 1L);
+        ticker.advance(11, TimeUnit.MINUTES);
+        dao.load(Musician.class, 1L);
+        verify(delegate, times(2)).load(Musician.class, 1L);
+    }
+
+    @Test
+    @DisplayName("Exceptions from the wrapped DAO should not be wrapped or cached.")
+    public void exceptionsPassThrough()
+    {
+        when(delegate.findMusicianByName("Nobody")).thenThrow(new IllegalStateException("Database is down."));
+        assertThrows(IllegalStateException.class, () -> dao.findMusicianByName("Nobody"));
+        assertThrows(IllegalStateException.class, () -> dao.findMusicianByName("Nobody"));
+        verify(delegate, times(2)).findMusicianByName("Nobody");
+    }
+
+    @Test
+    @DisplayName("Cache size and expiry should be positive.")
+    public void invalidConfigurationIsRejected()
+    {
+        assertThrows(NullPointerException.class, () -> new CachingDAO(null));
+        assertThrows(IllegalArgumentException.class, () -> new CachingDAO(delegate, 0, 10, TimeUnit.MINUTES));
+        assertThrows(IllegalArgumentException.class, () -> new CachingDAO(delegate, 10, -1, TimeUnit.MINUTES));
+    }
+
+    private static class FakeTicker extends Ticker {
+        private final AtomicLong nanos = new AtomicLong();
+
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+
+        void advance(long time, TimeUnit unit) {
+            nanos.addAndGet(unit.toNanos(time));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package allaboutecm.dataaccess;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FetchPlanUnitTest {
+
+    /** To Validate the paths and the steps leading up to them */
+    @Test
+    @DisplayName("A fetch plan should keep its paths once each and bring every step of a path along.")
+    public void pathsAndSteps()
+    {
+        FetchPlan plan = FetchPlan.of("reviews", "instruments.musicalInstruments", "reviews");
+
+        assertEquals(Sets.newHashSet("reviews", "instruments.musicalInstruments"), plan.getPaths());
+        assertEquals(Lists.newArrayList("instruments", "reviews", "instruments.musicalInstruments"),
+                Lists.newArrayList(plan.getSteps()));
+        assertFalse(plan.isEmpty());
+        assertTrue(FetchPlan.NONE.isEmpty());
+        assertTrue(FetchPlan.of().isEmpty());
+    }
+
+    /** To Validate equality and combining plans */
+    @Test
+    @DisplayName("Plans with the same paths should be equal, whatever the order they were given in.")
+    public void plansCompareByPaths()
+    {
+        FetchPlan plan = FetchPlan.of("reviews").and("featuredMusicians");
+
+        assertEquals(FetchPlan.of("featuredMusicians", "reviews"), plan);
+        assertEquals(FetchPlan.of("featuredMusicians", "reviews").hashCode(), plan.hashCode());
+        assertNotEquals(FetchPlan.NONE, plan);
+        assertEquals("FetchPlan[featuredMusicians, reviews]", plan.toString());
+    }
+
+    /** To Validate the path checks */
+    @Test
+    @DisplayName("Paths that are not dotted field names should be rejected.")
+    public void invalidPathsAreRejected()
+    {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> FetchPlan.of("reviews."));
+        assertEquals("Invalid fetch path: reviews.", exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> FetchPlan.of(""));
+        assertThrows(IllegalArgumentException.class, () -> FetchPlan.of("reviews]->() DETACH DELETE n //"));
+        assertThrows(NullPointerException.class, () -> FetchPlan.of((String) null));
+        assertThrows(NullPointerException.class, () -> FetchPlan.of((String[]) null));
+    }
+}
@@ -0,0 +1,97 @@
+package allaboutecm.dataaccess.csv;
+
+import allaboutecm.dataaccess.DAO;
+import allaboutecm.dataaccess.FetchPlan;
+import allaboutecm.dataaccess.neo4j.IndexManager;
+import allaboutecm.dataaccess.neo4j.Neo4jDAO;
+import allaboutecm.model.*;
+import org.junit.jupiter.api.*;
+import org.neo4j.ogm.config.Configuration;
+import org.neo4j.ogm.session.Session;
+import org.neo4j.ogm.session.SessionFactory;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogueImporterIntegrationTest {
+    private static final String CATALOGUE =
+            "MUSICIAN,Jan Garbarek,Saxophonist.\n" +
+            "ALBUM,1975,ECM 1064/65,The Köln Concert\n" +
+            "GROUP,Keith Jarrett Solo\n" +
+            "MUSICIAN,Keith Jarrett\n" +
+            "INSTRUMENT,Keith Jarrett,Piano\n" +
+            "ALBUM,1977,ECM 1090,Staircase\n" +
+            "GROUP,Keith Jarrett Solo\n" +
+            "MUSICIAN,Keith Jarrett,Pianist.\n" +
+            "INSTRUMENT,Keith Jarrett,Piano;Drums\n" +
+            "ALBUM,1974,ECM 1049,Belonging\n" +
+            "MUSICIAN,Keith Jarrett\n" +
+            "MUSICIAN,Jan Garbarek\n" +
+            "INSTRUMENT,Keith Jarrett,Piano\n" +
+            "INSTRUMENT,Jan Garbarek,Saxophone\n" +
+            "CONCERT,Live in Oslo,Norway,Oslo,Keith Jarrett;Jan Garbarek\n";
+
+    private static SessionFactory sessionFactory;
+    private static Session session;
+
+    @BeforeAll
+    public static void setUp() {
+        sessionFactory = new SessionFactory(new Configuration.Builder().build(), Musician.class.getPackage().getName());
+        new IndexManager(sessionFactory).ensureIndexes();
+        session = sessionFactory.openSession();
+    }
+
+    /*
+     Purging the database*/
+
+    @AfterEach
+    public void tearDownEach() {
+        session.purgeDatabase();
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        session.purgeDatabase();
+        session.clear();
+        sessionFactory.close();
+    }
+
+    /** To Validate an import of one album per batch, read back on a session of its own */
+    @Test
+    @DisplayName("Albums imported in separate batches should be related to the same musicians, instruments and groups.")
+    public void importsRelationshipsAcrossBatches() throws IOException
+    {
+        ImportReport report = new CatalogueImporter(new Neo4jDAO(sessionFactory.openSession()), 1)
+                .importCatalogue(new StringReader(CATALOGUE));
+        assertEquals(0, report.getRejectedRows(), report.getErrors().toString());
+        assertEquals(0, report.getFailedEntities(), report.getErrors().toString());
+
+        DAO dao = new Neo4jDAO(sessionFactory.openSession());
+        assertEquals(2, dao.loadAll(Musician.class).size());
+        assertEquals(3, dao.loadAll(MusicianInstrument.class).size());
+        assertEquals(1, dao.loadAll(Group.class).size());
+
+        Musician keith = dao.findMusicianByName("Keith Jarrett");
+        assertEquals(3, keith.getAlbums().size());
+        assertEquals("Pianist.", keith.getBiography());
+        Musician jan = dao.findMusicianByName("Jan Garbarek");
+        assertEquals("Saxophonist.", jan.getBiography());
+        assertEquals(1, jan.getAlbums().size());
+
+        Collection<Album> albums = dao.loadAll(Album.class, FetchPlan.of("featuredMusicians", "featuredGroup.albums",
+                "instruments.musician", "instruments.musicalInstruments", "concerts.musicians"));
+        assertEquals(3, albums.size());
+        for (Album album : albums) {
+            assertEquals(album.getInstruments().size(), album.getFeaturedMusicians().size());
+            if ("ECM 1049".equals(album.getRecordNumber())) {
+                assertEquals(2, album.getConcerts().iterator().next().getMusicians().size());
+                assertTrue(album.getFeaturedGroup().isEmpty());
+            } else {
+                assertEquals(2, album.getFeaturedGroup().iterator().next().getAlbums().size());
+            }
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package allaboutecm.dataaccess.csv;
+
+import allaboutecm.dataaccess.BatchResult;
+import allaboutecm.dataaccess.DAO;
+import allaboutecm.model.*;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import org.apache.commons.lang3.reflect.MethodUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CatalogueImporterUnitTest {
+    // Adds to a relationship collection found by reflection, whatever its element type
+    private static final Method COLLECTION_ADD = MethodUtils.getAccessibleMethod(Collection.class, "add", Object.class);
+
+    private static final String CATALOGUE =
+            "# A small catalogue\n" +
+            "MUSICIAN,Jan Garbarek,Saxophonist.\n" +
+            "ALBUM,1975,ECM 1064/65,The Köln Concert,Jazz,,,1000\n" +
+            "MUSICIAN,Keith Jarrett\n" +
+            "INSTRUMENT,Keith Jarrett,Piano;Drums\n" +
+            "TRACK,Part I,26\n" +
+            "TRACK,Part II,34\n" +
+            "REVIEW,https://www.imdb.com/,90,Timeless.\n" +
+            "CONCERT,Live in Cologne,Germany,Cologne\n" +
+            "\n" +
+            "ALBUM,1977,ECM 1090,Staircase\n" +
+            "MUSICIAN,Keith Jarrett\n" +
+            "INSTRUMENT,Keith Jarrett,Drums;Piano\n";
+
+    private DAO dao;
+    private List<Collection<?>> batches;
+    private Map<Long, Entity> saved;
+    private Map<String, Multimap<Long, Long>> related;
+
+    @BeforeEach
+    public void setUp()
+    {
+        dao = mock(DAO.class);
+        batches = Lists.newArrayList();
+        saved = Maps.newHashMap();
+        related = Maps.newHashMap();
+        AtomicLong ids = new AtomicLong();
+        when(dao.createOrUpdateAll(anyCollection(), anyInt(), any())).thenAnswer(invocation -> {
+            Collection<Entity> entities = invocation.getArgument(0);
+            batches.add(Lists.newArrayList(entities));
+            BatchResult<Entity> result = new BatchResult<>();
+            for (Entity entity : entities) {
+                List<Entity> cascaded = Lists.newArrayList(entity);
+                if (entity instanceof Album) {
+                    cascaded.addAll(((Album) entity).getConcerts());
+                }
+                for (Entity each : cascaded) {
+                    if (null == each.getId()) {
+                        each.setId(ids.incrementAndGet());
+                    }
+                    saved.put(each.getId(), each);
+                }
+            }
+            result.addSaved(entities);
+            return result;
+        });
+        when(dao.loadAll(any(), anyList())).thenAnswer(invocation -> {
+            List<Entity> loaded = Lists.newArrayList();
+            for (Long id : invocation.<List<Long>>getArgument(1)) {
+                loaded.add(saved.get(id));
+            }
+            return loaded;
+        });
+        // Relates the saved entities in memory, as the database would
+        doAnswer(invocation -> {
+            Class<?> clazz = invocation.getArgument(0);
+            String relationship = invocation.getArgument(1);
+            Multimap<Long, Long> pairs = invocation.getArgument(2);
+            related.computeIfAbsent(clazz.getSimpleName() + "." + relationship, key -> LinkedHashMultimap.create()).putAll(pairs);
+            Field field = clazz.getDeclaredField(relationship);
+            field.setAccessible(true);
+            for (Map.Entry<Long, Long> pair : pairs.entries()) {
+                COLLECTION_ADD.invoke(field.get(saved.get(pair.getKey())), saved.get(pair.getValue()));
+            }
+            return null;
+        }).when(dao).relate(any(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Albums and their rows should be imported, with musicians and instruments deduplicated.")
+    public void importsAlbumsWithTheirRows() throws IOException
+    {
+        ImportReport report = new CatalogueImporter(dao).importCatalogue(new StringReader(CATALOGUE));
+
+        assertEquals(11, report.getRows());
+        assertEquals(0, report.getRejectedRows());
+        List<Album> albums = savedOf(Album.class);
+        assertEquals(2, albums.size());
+        Album koln = albums.get(0);
+        assertEquals(1000, koln.getSales());
+        assertEquals(2, koln.getTracks().size());
+        assertEquals(1, koln.getReviews().size());
+        assertEquals("Cologne", koln.getConcerts().iterator().next().getCity());
+        assertEquals(koln.getInstruments(), albums.get(1).getInstruments());
+
+        Musician keith = koln.getFeaturedMusicians().get(0);
+        assertSame(keith, albums.get(1).getFeaturedMusicians().get(0));
+        assertEquals(2, keith.getAlbums().size());
+        assertEquals(2, savedOf(MusicalInstrument.class).size());
+        assertEquals(1, savedOf(MusicianInstrument.class).size());
+        assertEquals("Saxophonist.", savedOf(Musician.class).get(0).getBiography());
+        assertTrue(report.getRowsPerSecond() > 0);
+
+        // Albums are saved on their own and related by id afterwards.
+        assertEquals(2, related.get("Musician.albums").get(keith.getId()).size());
+        assertEquals(1, related.get("Album.instruments").get(koln.getId()).size());
+        verify(dao, never()).loadAll(any(), anyList());
+    }
+
+    @Test
+    @DisplayName("What an earlier batch saved should be kept as an id, and loaded again only when a later batch needs it.")
+    public void earlierBatchesAreKeptAsIds() throws IOException
+    {
+        String catalogue =
+                "ALBUM,1975,ECM 1064/65,The Köln Concert\n" +
+                "MUSICIAN,Keith Jarrett\n" +
+                "INSTRUMENT,Keith Jarrett,Piano\n" +
+                "ALBUM,1977,ECM 1090,Staircase\n" +
+                "MUSICIAN,Keith Jarrett,Pianist.\n" +
+                "INSTRUMENT,Keith Jarrett,Piano;Drums\n" +
+                "CONCERT,Live in Paris,France,Paris,Keith Jarrett\n";
+
+        ImportReport report = new CatalogueImporter(dao, 1).importCatalogue(new StringReader(catalogue));
+
+        assertEquals(0, report.getRejectedRows(), report.getErrors().toString());
+        assertEquals(1, savedOf(Musician.class).size());
+        Musician keith = savedOf(Musician.class).get(0);
+        assertEquals("Pianist.", keith.getBiography());
+        verify(dao, times(1)).loadAll(Musician.class, Lists.newArrayList(keith.getId()));
+        List<MusicianInstrument> played = savedOf(MusicianInstrument.class);
+        assertEquals(2, played.size());
+        assertSame(keith, played.get(1).getMusician());
+        assertEquals(2, keith.getAlbums().size());
+        Album staircase = savedOf(Album.class).get(1);
+        assertEquals(Lists.newArrayList(keith), staircase.getFeaturedMusicians());
+        assertEquals(played.get(1), staircase.getInstruments().iterator().next());
+        assertEquals(1, staircase.getConcerts().iterator().next().getMusicians().size());
+    }
+
+    @Test
+    @DisplayName("Bad rows should be rejected and reported, along with the rows of a rejected album.")
+    public void badRowsAreRejected() throws IOException
+    {
+        String catalogue =
+                "TRACK,Orphan,10\n" +
+                "ALBUM,1975,ECM 1064/65,The Köln Concert\n" +
+                "TRACK,Part I,not a number\n" +
+                "REVIEW,not a url,90\n" +
+                "FOO,bar\n" +
+                "ALBUM,1975,1064/65,Not an ECM record\n" +
+                "TRACK,Part I,26\n" +
+                "ALBUM,1977,ECM 1090,Staircase\n" +
+                "TRACK,Part I,26\n";
+
+        ImportReport report = new CatalogueImporter(dao).importCatalogue(new StringReader(catalogue));
+
+        assertEquals(9, report.getRows());
+        assertEquals(6, report.getRejectedRows());
+        assertEquals(6, report.getErrors().size());
+        assertTrue(report.getErrors().get(0).startsWith("Line 1: "));
+        assertTrue(report.getErrors().get(5).startsWith("Line 7: "));
+        assertEquals(2, savedOf(Album.class).size());
+        assertEquals(1, savedOf(Album.class).get(1).getTracks().size());
+    }
+
+    @Test
+    @DisplayName("Failed batches should be counted in the report.")
+    public void failedBatchesAreReported() throws IOException
+    {
+        when(dao.createOrUpdateAll(anyCollection(), anyInt(), any())).thenAnswer(invocation -> {
+            Collection<Entity> entities = invocation.getArgument(0);
+            BatchResult<Entity> result = new BatchResult<>();
+            result.addFailure(new BatchResult.ChunkFailure<>(0, entities, new IllegalStateException("Database is down.")));
+            return result;
+        });
+
+        ImportReport report = new CatalogueImporter(dao).importCatalogue(new StringReader(CATALOGUE));
+
+        assertEquals(0, report.getSavedEntities());
+        assertTrue(report.getFailedEntities() > 0);
+        assertTrue(report.getErrors().get(0).contains("Database is down."));
+    }
+
+    @Test
+    @DisplayName("A large stream should be written in batches no larger than the batch size.")
+    public void largeStreamIsWrittenInBoundedBatches() throws IOException
+    {
+        int albums = 20_000;
+        AtomicInteger progress = new AtomicInteger();
+
+        ImportReport report = new CatalogueImporter(dao, 100).importCatalogue(new GeneratedCatalogue(albums),
+                r -> progress.incrementAndGet());
+
+        assertEquals(albums * 3L, report.getRows());
+        assertEquals(0, report.getRejectedRows());
+        assertEquals(albums / 100, progress.get());
+        int musicianSaves = 0;
+        for (Collection<?> batch : batches) {
+            assertTrue(batch.size() <= 100);
+            musicianSaves += batch.stream().filter(entity -> entity instanceof Musician).count();
+        }
+        // Each musician is saved once, and not again for every batch featuring it.
+        assertEquals(savedOf(Musician.class).size(), musicianSaves);
+    }
+
+    @Test
+    @DisplayName("Importer should reject invalid arguments.")
+    public void invalidArgumentsAreRejected()
+    {
+        assertThrows(NullPointerException.class, () -> new CatalogueImporter(null));
+        assertThrows(IllegalArgumentException.class, () -> new CatalogueImporter(dao, 0));
+        assertThrows(NullPointerException.class, () -> new CatalogueImporter(dao).importCatalogue((Reader) null));
+    }
+
+    private <T extends Entity> List<T> savedOf(Class<T> clazz) {
+        List<T> saved = Lists.newArrayList();
+        for (Collection<?> batch : batches) {
+            for (Object entity : batch) {
+                if (clazz.isInstance(entity) && !saved.contains(entity)) {
+                    saved.add(clazz.cast(entity));
+                }
+            }
+        }
+        return saved;
+    }
+
+    // Produces an album, a track and a musician row per album without ever holding the catalogue in memory
+    private static class GeneratedCatalogue extends Reader {
+        private final int albums;
+        private int album;
+        private String pending = "";
+        private int position;
+
+        GeneratedCatalogue(int albums) {
+            this.albums = albums;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (position == pending.length()) {
+                if (album == albums) {
+                    return -1;
+                }
+                album++;
+                pending = "ALBUM,2000,ECM " + album + ",Album " + album + "\n" +
+                        "TRACK,Track " + album + ",5\n" +
+                        "MUSICIAN,Musician " + (char) ('a' + album % 26) + (char) ('a' + album / 26 % 26) + "\n";
+                position = 0;
+            }
+            int read = Math.min(length, pending.length() - position);
+            pending.getChars(position, position + read, buffer, offset);
+            position += read;
+            return read;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
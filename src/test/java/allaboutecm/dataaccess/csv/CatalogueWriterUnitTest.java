@@ -0,0 +1,161 @@
+package allaboutecm.dataaccess.csv;
+
+import allaboutecm.dataaccess.BatchResult;
+import allaboutecm.dataaccess.DAO;
+import allaboutecm.model.*;
+import allaboutecm.synthetic.CatalogueGenerator;
+import allaboutecm.synthetic.SyntheticCatalogue;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
+import org.apache.commons.lang3.reflect.MethodUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogueWriterUnitTest {
+    // Adds to a relationship collection found by reflection, whatever its element type
+    private static final Method COLLECTION_ADD = MethodUtils.getAccessibleMethod(Collection.class, "add", Object.class);
+
+    private DAO dao;
+    private List<Album> imported;
+
+    @BeforeEach
+    public void setUp()
+    {
+        dao = mock(DAO.class);
+        imported = Lists.newArrayList();
+        Map<Long, Entity> saved = Maps.newHashMap();
+        AtomicLong ids = new AtomicLong();
+        when(dao.createOrUpdateAll(anyCollection(), anyInt(), any())).thenAnswer(invocation -> {
+            Collection<Entity> entities = invocation.getArgument(0);
+            for (Entity entity : entities) {
+                List<Entity> cascaded = Lists.newArrayList(entity);
+                if (entity instanceof Album) {
+                    imported.add((Album) entity);
+                    cascaded.addAll(((Album) entity).getConcerts());
+                }
+                for (Entity each : cascaded) {
+                    if (null == each.getId()) {
+                        each.setId(ids.incrementAndGet());
+                    }
+                    saved.put(each.getId(), each);
+                }
+            }
+            BatchResult<Entity> result = new BatchResult<>();
+            result.addSaved(entities);
+            return result;
+        });
+        when(dao.loadAll(any(), anyList())).thenAnswer(invocation -> {
+            List<Entity> loaded = Lists.newArrayList();
+            for (Long id : invocation.<List<Long>>getArgument(1)) {
+                loaded.add(saved.get(id));
+            }
+            return loaded;
+        });
+        // Relates the saved entities in memory, as the database would
+        doAnswer(invocation -> {
+            Class<?> clazz = invocation.getArgument(0);
+            Field field = clazz.getDeclaredField(invocation.getArgument(1));
+            field.setAccessible(true);
+            for (Map.Entry<Long, Long> pair : invocation.<Multimap<Long, Long>>getArgument(2).entries()) {
+                COLLECTION_ADD.invoke(field.get(saved.get(pair.getKey())), saved.get(pair.getValue()));
+            }
+            return null;
+        }).when(dao).relate(any(), anyString(), any());
+    }
+
+    /** To Validate the rows written for an album */
+    @Test
+    @DisplayName("An album should be written with its group, musicians, instruments, tracks, reviews and concerts.")
+    public void writesAlbumRows() throws IOException
+    {
+        Album album = new Album(1975, "ECM 1064/65", "The Köln Concert");
+        album.setSales(1000);
+        Musician keith = new Musician("Keith Jarrett");
+        album.getFeaturedMusicians().add(keith);
+        album.getInstruments().add(new MusicianInstrument(keith,
+                Sets.newHashSet(new MusicalInstrument("Piano"), new MusicalInstrument("Drums"))));
+        album.getFeaturedGroup().add(new Group("Keith Jarrett Solo"));
+        album.getTracks().add(new Track("Part II", 34));
+        album.getTracks().add(new Track("Part I", 26));
+        album.getReviews().add(new Review(new URL("https://www.imdb.com/"), 90));
+        Concert concert = new Concert("Live in Cologne", "Germany");
+        concert.setCity("Cologne");
+        concert.getMusicians().add(keith);
+        album.getConcerts().add(concert);
+        StringBuilder out = new StringBuilder();
+
+        CatalogueWriter writer = new CatalogueWriter(out);
+        writer.write(album);
+        writer.flush();
+
+        assertEquals("ALBUM,1975,ECM 1064/65,The Köln Concert,Jazz,contemporary Jazz,CD,1000\n" +
+                "GROUP,Keith Jarrett Solo\n" +
+                "MUSICIAN,Keith Jarrett\n" +
+                "INSTRUMENT,Keith Jarrett,Drums;Piano\n" +
+                "TRACK,Part I,26.0\n" +
+                "TRACK,Part II,34.0\n" +
+                "REVIEW,https://www.imdb.com/,90.0,The song is nice.\n" +
+                "CONCERT,Live in Cologne,Germany,Cologne,Keith Jarrett\n", out.toString());
+        assertEquals(1, writer.getAlbumsWritten());
+    }
+
+    /** To Validate that what the writer writes the importer reads back the same */
+    @Test
+    @DisplayName("A written catalogue should import back to albums that write the same text.")
+    public void roundTripsThroughTheImporter() throws IOException
+    {
+        SyntheticCatalogue catalogue = new CatalogueGenerator(3).generate(300);
+        StringBuilder written = new StringBuilder();
+        catalogue.writeCsv(written);
+
+        ImportReport report = new CatalogueImporter(dao, 50).importCatalogue(new StringReader(written.toString()));
+
+        assertEquals(0, report.getRejectedRows(), report.getErrors().toString());
+        assertEquals(300, imported.size());
+        StringBuilder original = new StringBuilder();
+        new CatalogueWriter(original).write(catalogue.getAlbums());
+        StringBuilder again = new StringBuilder();
+        new CatalogueWriter(again).write(imported);
+        assertEquals(original.toString(), again.toString());
+
+        Album withGroup = imported.stream().filter(album -> !album.getFeaturedGroup().isEmpty()).findFirst().get();
+        assertTrue(withGroup.getFeaturedGroup().iterator().next().getAlbums().contains(withGroup));
+        Album withConcert = imported.stream().filter(album -> !album.getConcerts().isEmpty()).findFirst().get();
+        assertEquals(Sets.newHashSet(withConcert.getFeaturedMusicians()),
+                withConcert.getConcerts().iterator().next().getMusicians());
+    }
+
+    /** To Validate the argument checks */
+    @Test
+    @DisplayName("Writer should reject null arguments.")
+    public void nullArgumentsAreRejected() throws IOException
+    {
+        assertThrows(NullPointerException.class, () -> new CatalogueWriter(null));
+        CatalogueWriter writer = new CatalogueWriter(new StringBuilder());
+        assertThrows(NullPointerException.class, () -> writer.write((Album) null));
+        assertThrows(NullPointerException.class, () -> writer.writeComment(null));
+    }
+}
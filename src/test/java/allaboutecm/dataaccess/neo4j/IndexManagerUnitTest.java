@@ -0,0 +1,202 @@
+package allaboutecm.dataaccess.neo4j;
+
+import allaboutecm.dataaccess.DAO;
+import allaboutecm.model.Musician;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.junit.jupiter.api.*;
+import org.neo4j.ogm.config.Configuration;
+import org.neo4j.ogm.session.Session;
+import org.neo4j.ogm.session.SessionFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexManagerUnitTest {
+    private static SessionFactory sessionFactory;
+    private static Session session;
+
+    @BeforeAll
+    public static void setUp() {
+        sessionFactory = new SessionFactory(new Configuration.Builder().build(), Musician.class.getPackage().getName());
+        session = sessionFactory.openSession();
+    }
+
+    /*
+     Purging the database and its schema*/
+
+    @AfterEach
+    public void tearDownEach() {
+        session.purgeDatabase();
+        for (Map<String, Object> row : session.query("CALL db.constraints()", Collections.emptyMap()).queryResults()) {
+            session.query("DROP " + row.get("description"), Collections.emptyMap());
+        }
+        for (Map<String, Object> row : session.query("CALL db.indexes()", Collections.emptyMap()).queryResults()) {
+            session.query("DROP " + row.get("description"), Collections.emptyMap());
+        }
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        session.purgeDatabase();
+        session.clear();
+        sessionFactory.close();
+    }
+
+    private static Map<String, String> indexTypes() {
+        Map<String, String> types = Maps.newHashMap();
+        for (Map<String, Object> row : session.query("CALL db.indexes()", Collections.emptyMap()).queryResults()) {
+            types.put((String) row.get("description"), (String) row.get("type"));
+        }
+        return types;
+    }
+
+    /** To Validate that the schema is created once and reported online */
+    @Test
+    @DisplayName("Indexes and constraints should be created once, and each reported online.")
+    public void createsTheSchemaOnce()
+    {
+        Map<String, Double> progress = Maps.newHashMap();
+        IndexManager indexManager = new IndexManager(sessionFactory, progress::put);
+
+        List<String> created = indexManager.ensureIndexes();
+
+        assertEquals(12, created.size());
+        Map<String, String> types = indexTypes();
+        assertEquals("node_unique_property", types.get("INDEX ON :Musician(name)"));
+        assertEquals("node_unique_property", types.get("INDEX ON :MusicalInstrument(name)"));
+        assertEquals("node_label_property", types.get("INDEX ON :Album(albumName, recordNumber, releaseYear)"));
+        assertEquals("node_label_property", types.get("INDEX ON :Concert(city)"));
+        for (String index : created) {
+            assertEquals(100, progress.get(index));
+        }
+        assertEquals(Collections.emptyList(), indexManager.ensureIndexes());
+        assertEquals(types, indexTypes());
+    }
+
+    /** To Validate that populating an index over existing nodes is waited for */
+    @Test
+    @DisplayName("Indexes over existing nodes should be online when ensureIndexes returns.")
+    public void waitsForPopulation()
+    {
+        session.query("UNWIND range(1, 20000) AS i " +
+                "CREATE (:Album {albumName: 'Album ' + i, recordNumber: 'ECM ' + i, releaseYear: 1970 + i % 50, genre: 'Jazz'})",
+                Collections.emptyMap());
+
+        new IndexManager(sessionFactory).ensureIndexes();
+
+        for (Map<String, Object> row : session.query("CALL db.indexes()", Collections.emptyMap()).queryResults()) {
+            assertEquals("ONLINE", row.get("state"));
+        }
+        assertEquals("Album 777", new Neo4jDAO(session).findAlbumByRecordNumber("ECM 777").getAlbumName());
+    }
+
+    /** To Validate that a plain index on a unique key makes way for the constraint */
+    @Test
+    @DisplayName("A plain index on a unique key should be replaced by its constraint.")
+    public void replacesPlainIndexWithConstraint()
+    {
+        session.query("CREATE INDEX ON :Musician(name)", Collections.emptyMap());
+
+        List<String> created = new IndexManager(sessionFactory).ensureIndexes();
+
+        assertTrue(created.contains("INDEX ON :Musician(name)"));
+        assertEquals("node_unique_property", indexTypes().get("INDEX ON :Musician(name)"));
+    }
+
+    /** To Validate that duplicates stop the bootstrap before any constraint is created */
+    @Test
+    @DisplayName("Duplicate musicians should fail fast, naming the duplicate value.")
+    public void duplicatesFailFast()
+    {
+        session.query("CREATE (:Musician {name: 'Keith Jarrett'}), (:Musician {name: 'Keith Jarrett'})", Collections.emptyMap());
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> new IndexManager(sessionFactory).ensureIndexes());
+
+        assertEquals("Cannot create CONSTRAINT ON :Musician(name) IS UNIQUE: 2 Musician nodes share the name 'Keith Jarrett'.",
+                exception.getMessage());
+        assertNull(indexTypes().get("INDEX ON :Musician(name)"));
+    }
+
+    /** To Validate that turning the constraints off indexes the keys plainly */
+    @Test
+    @DisplayName("Without constraints namesakes should be accepted and the key indexed plainly.")
+    public void plainIndexesWithoutConstraints()
+    {
+        session.query("CREATE (:Musician {name: 'Keith Jarrett'}), (:Musician {name: 'Keith Jarrett'})", Collections.emptyMap());
+        IndexManager indexManager = new IndexManager(sessionFactory);
+        indexManager.setUniqueConstraints(false);
+
+        assertEquals(12, indexManager.ensureIndexes().size());
+        assertEquals("node_label_property", indexTypes().get("INDEX ON :Musician(name)"));
+    }
+
+    /** To Validate that the constraint guards createOrUpdate afterwards */
+    @Test
+    @DisplayName("Once the constraint exists a second musician with the same name should be rejected by the store.")
+    public void constraintIsEnforced()
+    {
+        new IndexManager(sessionFactory).ensureIndexes();
+        DAO dao = new Neo4jDAO(session);
+        dao.createOrUpdate(new Musician("Keith Jarrett"));
+        dao.createOrUpdate(new Musician("Keith Jarrett"));
+
+        assertEquals(1, dao.loadAll(Musician.class).size());
+        assertThrows(RuntimeException.class, () -> session.query("CREATE (:Musician {name: $name})",
+                ImmutableMap.of("name", "Keith Jarrett")));
+    }
+
+    /** To Validate that concurrent writers of one musician end up on one node */
+    @Test
+    @DisplayName("Concurrent createOrUpdate calls for one musician should neither duplicate it nor fail.")
+    public void concurrentUpsertsCreateOneNode() throws Exception
+    {
+        new IndexManager(sessionFactory).ensureIndexes();
+        int writers = 8;
+        CyclicBarrier start = new CyclicBarrier(writers);
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<Long>> ids = Lists.newArrayList();
+            for (int i = 0; i < writers; i++) {
+                ids.add(executor.submit(() -> {
+                    DAO dao = new Neo4jDAO(sessionFactory.openSession());
+                    start.await();
+                    return dao.createOrUpdate(new Musician("Keith Jarrett")).getId();
+                }));
+            }
+            Set<Long> distinct = Sets.newHashSet();
+            for (Future<Long> id : ids) {
+                distinct.add(id.get(60, TimeUnit.SECONDS));
+            }
+
+            assertEquals(1, distinct.size());
+            assertEquals(1, new Neo4jDAO(sessionFactory.openSession()).loadAll(Musician.class).size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /** To Validate the argument checks */
+    @Test
+    @DisplayName("Invalid arguments should be rejected.")
+    public void invalidArgumentsAreRejected()
+    {
+        assertThrows(NullPointerException.class, () -> new IndexManager(null));
+        assertThrows(NullPointerException.class, () -> new IndexManager(sessionFactory, null));
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new IndexManager(sessionFactory).setTimeout(0, TimeUnit.SECONDS));
+        assertEquals("Timeout should be positive.", exception.getMessage());
+    }
+}
@@ -0,0 +1,171 @@
+package allaboutecm.dataaccess.neo4j;
+
+import allaboutecm.model.Album;
+import allaboutecm.model.Musician;
+import com.google.common.collect.Lists;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.neo4j.ogm.config.Configuration;
+import org.neo4j.ogm.cypher.query.Pagination;
+import org.neo4j.ogm.session.Session;
+import org.neo4j.ogm.session.SessionFactory;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * One long-lived ManagedNeo4jDAO under mixed traffic: writes, lookups, pages and rankings over a catalogue of
+ * fixed size, so that whatever grows is the session and not the data. The regular test replays a fixed number of
+ * requests and checks the entities tracked; the soak test, which also watches the heap, only runs when
+ * soak.seconds is set, for hours with
+ *
+ * mvn test -Dtest=ManagedNeo4jDAOIntegrationTest -Dsoak.seconds=14400
+ */
+class ManagedNeo4jDAOIntegrationTest {
+    private static final int MUSICIANS = 2000;
+    private static final int ALBUMS = 500;
+    private static final int MAX_ENTITIES = 500;
+    private static final int REQUESTS = 1000;
+    private static final long MB = 1024 * 1024;
+
+    private static SessionFactory sessionFactory;
+
+    @BeforeAll
+    public static void setUp() {
+        sessionFactory = new SessionFactory(new Configuration.Builder().build(), Musician.class.getPackage().getName());
+        new IndexManager(sessionFactory).ensureIndexes();
+        // Every key written once up front, so the catalogue no longer grows.
+        Session session = sessionFactory.openSession();
+        List<Musician> musicians = Lists.newArrayList();
+        for (int i = 0; i < MUSICIANS; i++) {
+            musicians.add(new Musician(musicianName(i)));
+        }
+        session.save(musicians);
+        List<Album> albums = Lists.newArrayList();
+        for (int i = 0; i < ALBUMS; i++) {
+            albums.add(new Album(1970 + i % 50, "ECM " + i, "Album " + i));
+        }
+        session.save(albums);
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        sessionFactory.openSession().purgeDatabase();
+        sessionFactory.close();
+    }
+
+    private static String musicianName(int i) {
+        StringBuilder name = new StringBuilder("Musician ");
+        do {
+            name.append((char) ('a' + i % 26));
+            i /= 26;
+        } while (i > 0);
+        return name.toString();
+    }
+
+    // One request of the mix; every key comes from the fixed catalogue.
+    private static void request(ManagedNeo4jDAO dao, Random random) {
+        switch (random.nextInt(6)) {
+            case 0:
+                dao.createOrUpdate(new Musician(musicianName(random.nextInt(MUSICIANS))));
+                break;
+            case 1:
+                int number = random.nextInt(ALBUMS);
+                Album album = new Album(1970 + number % 50, "ECM " + number, "Album " + number);
+                Musician musician = dao.findMusicianByName(musicianName(random.nextInt(MUSICIANS)));
+                if (null != musician) {
+                    album.setFeaturedMusicians(Lists.newArrayList(musician));
+                }
+                dao.inUnitOfWork(work -> work.createOrUpdate(album));
+                break;
+            case 2:
+                dao.findMusicianByName(musicianName(random.nextInt(MUSICIANS)));
+                break;
+            case 3:
+                dao.findAlbumByRecordNumber("ECM " + random.nextInt(ALBUMS));
+                break;
+            case 4:
+                dao.loadAll(Musician.class, new Pagination(random.nextInt(MUSICIANS / 50), 50));
+                break;
+            default:
+                dao.findMostProlificMusicians(5, 1970, 2019);
+        }
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /** To Validate the bound on tracked entities under a fixed replay of mixed traffic */
+    @Test
+    @DisplayName("A managed DAO should track no more than its bound, where an unmanaged one keeps everything it reads.")
+    public void trackedEntitiesStayBounded()
+    {
+        ManagedNeo4jDAO managed = new ManagedNeo4jDAO(sessionFactory.openSession(), SessionPolicy.afterEntities(MAX_ENTITIES));
+        Random random = new Random(25);
+        for (int i = 0; i < REQUESTS; i++) {
+            request(managed, random);
+            assertTrue(managed.getLifecycle().getTrackedEntities() <= MAX_ENTITIES);
+        }
+
+        ManagedNeo4jDAO unmanaged = new ManagedNeo4jDAO(sessionFactory.openSession(), SessionPolicy.NEVER);
+        Random control = new Random(25);
+        for (int i = 0; i < REQUESTS; i++) {
+            request(unmanaged, control);
+        }
+
+        assertTrue(managed.getLifecycle().getClearCount() > 0);
+        assertEquals(0, unmanaged.getLifecycle().getClearCount());
+        assertTrue(unmanaged.getLifecycle().getTrackedEntities() > MAX_ENTITIES,
+                "Unmanaged session tracks " + unmanaged.getLifecycle().getTrackedEntities());
+    }
+
+    /** To Validate flat memory under mixed traffic, for soak.seconds */
+    @Test
+    @EnabledIfSystemProperty(named = "soak.seconds", matches = "\\d+")
+    @DisplayName("Over a long run a managed DAO should stay within its bound and keep the retained heap flat.")
+    public void soak()
+    {
+        long seconds = Long.getLong("soak.seconds");
+        Random random = new Random(25);
+        ManagedNeo4jDAO managed = new ManagedNeo4jDAO(sessionFactory.openSession(),
+                SessionPolicy.afterEntities(MAX_ENTITIES).or(SessionPolicy.heapWatermark(0.85)));
+
+        List<Long> heap = Lists.newArrayList(usedHeapAfterGc());
+        long requests = 0;
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        long nextSample = System.nanoTime() + TimeUnit.SECONDS.toNanos(Math.max(1, seconds / 10));
+        while (System.nanoTime() < end) {
+            request(managed, random);
+            requests++;
+            assertTrue(managed.getLifecycle().getTrackedEntities() <= MAX_ENTITIES);
+            if (System.nanoTime() > nextSample) {
+                heap.add(usedHeapAfterGc());
+                nextSample = System.nanoTime() + TimeUnit.SECONDS.toNanos(Math.max(1, seconds / 10));
+            }
+        }
+        heap.add(usedHeapAfterGc());
+
+        // The same traffic on a session that is never cleared.
+        ManagedNeo4jDAO unmanaged = new ManagedNeo4jDAO(sessionFactory.openSession(), SessionPolicy.NEVER);
+        Random control = new Random(25);
+        for (long i = 0; i < Math.min(requests, 5000); i++) {
+            request(unmanaged, control);
+        }
+
+        assertTrue(managed.getLifecycle().getClearCount() > 0);
+        assertTrue(unmanaged.getLifecycle().getTrackedEntities() > MAX_ENTITIES,
+                "Unmanaged session tracks " + unmanaged.getLifecycle().getTrackedEntities());
+        // Flat: the heap retained at the end is within a margin of what it was after the warm-up.
+        long growth = heap.get(heap.size() - 1) - heap.get(0);
+        assertTrue(growth < 64 * MB, "Retained heap grew by " + growth / MB + " MB over " + requests
+                + " requests, samples " + heap);
+    }
+}
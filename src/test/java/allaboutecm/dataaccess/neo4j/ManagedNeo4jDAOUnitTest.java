@@ -0,0 +1,170 @@
+package allaboutecm.dataaccess.neo4j;
+
+import allaboutecm.model.Album;
+import allaboutecm.model.Musician;
+import com.google.common.collect.Lists;
+import org.junit.jupiter.api.*;
+import org.neo4j.ogm.config.Configuration;
+import org.neo4j.ogm.session.Session;
+import org.neo4j.ogm.session.SessionFactory;
+
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ManagedNeo4jDAOUnitTest {
+    private static SessionFactory sessionFactory;
+    private static Session session;
+
+    @BeforeAll
+    public static void setUp() {
+        sessionFactory = new SessionFactory(new Configuration.Builder().build(), Musician.class.getPackage().getName());
+        session = sessionFactory.openSession();
+    }
+
+    /*
+     Purging the database*/
+
+    @AfterEach
+    public void tearDownEach() {
+        session.purgeDatabase();
+        session.clear();
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        session.purgeDatabase();
+        session.clear();
+        sessionFactory.close();
+    }
+
+    private static String musicianName(int i) {
+        StringBuilder name = new StringBuilder("Musician ");
+        do {
+            name.append((char) ('a' + i % 26));
+            i /= 26;
+        } while (i > 0);
+        return name.toString();
+    }
+
+    private static void saveMusicians(int count) {
+        for (int i = 0; i < count; i++) {
+            session.save(new Musician(musicianName(i)));
+        }
+        session.clear();
+    }
+
+    /** To Validate the count of tracked entities */
+    @Test
+    @DisplayName("The lifecycle should count the entities its session tracks.")
+    public void countsTrackedEntities()
+    {
+        saveMusicians(10);
+        SessionLifecycle lifecycle = new SessionLifecycle(sessionFactory.openSession(), SessionPolicy.NEVER);
+
+        assertEquals(0, lifecycle.getTrackedEntities());
+        lifecycle.getSession().loadAll(Musician.class);
+        assertEquals(10, lifecycle.getTrackedEntities());
+        assertFalse(lifecycle.afterCall());
+        assertEquals(10, lifecycle.getPeakTrackedEntities());
+
+        lifecycle.clear();
+        assertEquals(0, lifecycle.getTrackedEntities());
+        assertEquals(1, lifecycle.getClearCount());
+    }
+
+    /** To Validate that the session never tracks more than the bound after a call */
+    @Test
+    @DisplayName("With afterEntities the session should be cleared once a call leaves it past the bound.")
+    public void boundedSession()
+    {
+        saveMusicians(30);
+        ManagedNeo4jDAO dao = new ManagedNeo4jDAO(sessionFactory.openSession(), SessionPolicy.afterEntities(15));
+
+        for (int i = 0; i < 10; i++) {
+            dao.findMusicianByName(musicianName(i));
+        }
+        assertEquals(10, dao.getLifecycle().getTrackedEntities());
+        Musician first = dao.findMusicianByName(musicianName(0));
+        assertSame(first, dao.findMusicianByName(musicianName(0)));
+
+        assertEquals(30, dao.loadAll(Musician.class).size());
+        assertEquals(0, dao.getLifecycle().getTrackedEntities());
+        assertEquals(30, dao.getLifecycle().getPeakTrackedEntities());
+        assertEquals(1, dao.getLifecycle().getClearCount());
+        assertNotSame(first, dao.findMusicianByName(musicianName(0)));
+    }
+
+    /** To Validate that a unit of work keeps its entities until it is done */
+    @Test
+    @DisplayName("A unit of work should not be cleared midway, and afterEachUnitOfWork should clear at its end.")
+    public void unitOfWorkIsClearedAtItsEnd()
+    {
+        saveMusicians(30);
+        ManagedNeo4jDAO dao = new ManagedNeo4jDAO(sessionFactory.openSession(),
+                SessionPolicy.afterEntities(15).or(SessionPolicy.afterEachUnitOfWork()));
+
+        Album album = dao.inUnitOfWork(work -> {
+            Collection<Musician> musicians = work.loadAll(Musician.class);
+            assertEquals(30, dao.getLifecycle().getTrackedEntities());
+            Musician first = musicians.iterator().next();
+            assertSame(first, work.load(Musician.class, first.getId()));
+            Album saved = new Album(1975, "ECM 1064/65", "The Köln Concert");
+            saved.setFeaturedMusicians(Lists.newArrayList(first));
+            return work.createOrUpdate(saved);
+        });
+
+        assertEquals(0, dao.getLifecycle().getTrackedEntities());
+        assertEquals(1, dao.getLifecycle().getClearCount());
+        assertEquals(1, dao.load(Album.class, album.getId()).getFeaturedMusicians().size());
+    }
+
+    /** To Validate that a rolled back unit of work leaves neither data nor entities behind */
+    @Test
+    @DisplayName("A unit of work that throws should roll back and clear the session.")
+    public void unitOfWorkRollsBack()
+    {
+        ManagedNeo4jDAO dao = new ManagedNeo4jDAO(sessionFactory.openSession(), SessionPolicy.NEVER);
+
+        assertThrows(IllegalStateException.class, () -> dao.inUnitOfWork(work -> {
+            work.createOrUpdate(new Musician("Keith Jarrett"));
+            throw new IllegalStateException("Changed my mind.");
+        }));
+
+        assertEquals(0, dao.getLifecycle().getTrackedEntities());
+        assertNull(dao.findMusicianByName("Keith Jarrett"));
+    }
+
+    /** To Validate the pool's metrics */
+    @Test
+    @DisplayName("The pool should report what its idle sessions track and how often they were cleared.")
+    public void poolMetrics()
+    {
+        saveMusicians(30);
+        PooledNeo4jDAO bounded = new PooledNeo4jDAO(sessionFactory, 1, SessionPolicy.afterEntities(15));
+
+        bounded.findMusicianByName(musicianName(1));
+        assertEquals(1, bounded.getTrackedEntities());
+        bounded.loadAll(Musician.class);
+        assertEquals(0, bounded.getTrackedEntities());
+        assertEquals(1, bounded.getClearCount());
+
+        PooledNeo4jDAO perUnitOfWork = new PooledNeo4jDAO(sessionFactory, 1, SessionPolicy.afterEachUnitOfWork());
+        perUnitOfWork.loadAll(Musician.class);
+        assertEquals(30, perUnitOfWork.getTrackedEntities());
+        perUnitOfWork.inUnitOfWork(work -> work.findMusicianByName(musicianName(1)));
+        assertEquals(0, perUnitOfWork.getTrackedEntities());
+    }
+
+    /** To Validate the argument checks */
+    @Test
+    @DisplayName("Invalid arguments should be rejected.")
+    public void invalidArgumentsAreRejected()
+    {
+        assertThrows(NullPointerException.class, () -> new SessionLifecycle(null, SessionPolicy.NEVER));
+        assertThrows(NullPointerException.class, () -> new SessionLifecycle(session, null));
+        assertThrows(NullPointerException.class, () -> new PooledNeo4jDAO(sessionFactory, 1, (SessionPolicy) null));
+        assertThrows(NullPointerException.class,
+                () -> new ManagedNeo4jDAO(session, SessionPolicy.NEVER).inUnitOfWork(null));
+    }
+}
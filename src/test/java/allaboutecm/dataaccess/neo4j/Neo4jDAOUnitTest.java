@@ -1,27 +1,39 @@
 package allaboutecm.dataaccess.neo4j;
 
+import allaboutecm.dataaccess.AlbumSummary;
+import allaboutecm.dataaccess.BatchResult;
+import allaboutecm.dataaccess.CollaborationEdges;
 import allaboutecm.dataaccess.DAO;
+import allaboutecm.dataaccess.FetchPlan;
+import allaboutecm.dataaccess.MusicianSummary;
 import allaboutecm.model.*;
 
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
-import com.sun.org.apache.regexp.internal.RE;
 import org.junit.jupiter.api.*;
 import org.neo4j.ogm.config.Configuration;
+import org.neo4j.ogm.cypher.query.Pagination;
+import org.neo4j.ogm.model.Result;
 import org.neo4j.ogm.session.Session;
 import org.neo4j.ogm.session.SessionFactory;
+import org.neo4j.ogm.transaction.Transaction;
 
 import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
 
 /**
  * TODO: add test cases to adequately test the Neo4jDAO class.
@@ -51,6 +63,10 @@ class Neo4jDAOUnitTest {
 
         //Activate database
         sessionFactory = new SessionFactory(configuration, Musician.class.getPackage().getName());
+        IndexManager indexManager = new IndexManager(sessionFactory);
+        // Fixtures save namesake musicians and instruments through cascades, which the constraints would refuse.
+        indexManager.setUniqueConstraints(false);
+        indexManager.ensureIndexes();
         session = sessionFactory.openSession();
 
         dao = new Neo4jDAO(session);
@@ -747,6 +763,106 @@ class Neo4jDAOUnitTest {
         assertEquals(a1.getRecordNumber(), albums.iterator().next().getRecordNumber());
     }
 
+    /**
+     * To Validate that createOrUpdate merges groups on their name.
+     */
+    @DisplayName("Same group would be saved once")
+    @Test
+    public void sameGroupWouldSaveOnce()
+    {
+        Group g1 = new Group("Oregon");
+        dao.createOrUpdate(g1);
+        Group g2 = new Group("Oregon");
+        dao.createOrUpdate(g2);
+
+        assertEquals(1, dao.loadAll(Group.class).size());
+        assertEquals(g1.getId(), g2.getId());
+    }
+
+    /**
+     * To Validate that an entity with an id keeps its node when its key changes, even to a key already taken.
+     */
+    @DisplayName("Renaming a saved musician should update its own node, and never move it onto another")
+    @Test
+    public void renamedMusicianKeepsItsNode()
+    {
+        Musician musician = dao.createOrUpdate(new Musician("Keith Jarrett"));
+        Long id = musician.getId();
+        musician.setName("Jan Garbarek");
+        dao.createOrUpdate(musician);
+
+        assertEquals(id, musician.getId());
+        assertEquals("Jan Garbarek", dao.load(Musician.class, id).getName());
+
+        Musician other = dao.createOrUpdate(new Musician("Charlie Haden"));
+        Long otherId = other.getId();
+        other.setName("Jan Garbarek");
+        dao.createOrUpdate(other);
+
+        assertEquals(otherId, other.getId());
+        assertEquals(2, dao.loadAll(Musician.class).size());
+        assertEquals(2, dao.loadAll(Musician.class).stream().filter(m -> "Jan Garbarek".equals(m.getName())).count());
+
+        Musician third = dao.createOrUpdate(new Musician("Ralph Towner"));
+        Long thirdId = third.getId();
+        third.setName("Jan Garbarek");
+        dao.createOrUpdateAll(Lists.newArrayList(third));
+        assertEquals(thirdId, third.getId());
+        assertEquals(3, dao.loadAll(Musician.class).size());
+    }
+
+    /**
+     * To Validate relating saved entities by id.
+     */
+    @DisplayName("Entities should be related by id in the direction of the field, and only once")
+    @Test
+    public void relateByIds()
+    {
+        Album album = dao.createOrUpdate(new Album(1975, "ECM 1064/65", "The Köln Concert"));
+        Musician keith = dao.createOrUpdate(new Musician("Keith Jarrett"));
+        Musician jan = dao.createOrUpdate(new Musician("Jan Garbarek"));
+
+        dao.relate(Album.class, "featuredMusicians", ImmutableListMultimap.of(album.getId(), keith.getId(), album.getId(), jan.getId()));
+        dao.relate(Album.class, "featuredMusicians", ImmutableListMultimap.of(album.getId(), keith.getId()));
+        dao.relate(Musician.class, "albums", ImmutableListMultimap.of(keith.getId(), album.getId()));
+        dao.relate(Musician.class, "albums", ImmutableListMultimap.of());
+
+        DAO fresh = new Neo4jDAO(sessionFactory.openSession());
+        assertEquals(2, fresh.load(Album.class, album.getId()).getFeaturedMusicians().size());
+        assertEquals(1, fresh.load(Musician.class, keith.getId()).getAlbums().size());
+        assertEquals(Lists.newArrayList(keith.getName()), fresh.findMostProlificMusicians(5, 1970, 1980).stream()
+                .map(Musician::getName).collect(Collectors.toList()));
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> dao.relate(Album.class, "producers", ImmutableListMultimap.of(album.getId(), keith.getId())));
+        assertEquals("Album has no relationship producers.", exception.getMessage());
+    }
+
+    /** To Validate the collaboration edges read from the database */
+    @DisplayName("Musicians sharing albums should be joined by an edge weighted by the albums they share")
+    @Test
+    public void collaborationEdges()
+    {
+        Musician keith = new Musician("Keith Jarrett");
+        Musician jan = new Musician("Jan Garbarek");
+        Musician solo = new Musician("Ralph Towner");
+        Album belonging = new Album(1974, "ECM 1049", "Belonging");
+        belonging.setFeaturedMusicians(Lists.newArrayList(keith, jan));
+        Album luminessence = new Album(1975, "ECM 1049/2", "Luminessence");
+        luminessence.setFeaturedMusicians(Lists.newArrayList(keith, jan));
+        Album diary = new Album(1974, "ECM 1032", "Diary");
+        diary.setFeaturedMusicians(Lists.newArrayList(solo));
+        dao.createOrUpdate(belonging);
+        dao.createOrUpdate(luminessence);
+        dao.createOrUpdate(diary);
+
+        CollaborationEdges edges = new Neo4jDAO(sessionFactory.openSession()).findCollaborationEdges();
+        assertEquals(1, edges.getEdgeCount());
+        assertEquals(2, edges.getWeights()[0]);
+        assertEquals(Sets.newHashSet(keith.getName(), jan.getName()), Sets.newHashSet(
+                edges.getMusicians().get(edges.getSources()[0]).getName(),
+                edges.getMusicians().get(edges.getTargets()[0]).getName()));
+    }
+
     /**
      * To Validate if multiple musicians are saved at a time.
      */
@@ -776,4 +892,384 @@ class Neo4jDAOUnitTest {
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * To Validate if the server-side ranking returns musicians ordered by albums released in the window.
+     */
+    @DisplayName("Most prolific musicians are ranked by the database")
+    @Test
+    public void findMostProlificMusiciansIsRankedInDatabase()
+    {
+        Album album1 = new Album(1975, "ECM 1064/65", "The Köln Concert");
+        Album album2 = new Album(2016, "ECM 1064/66", "Meteora");
+        Musician musician1 = new Musician("Keith Jarrett");
+        Musician musician2 = new Musician("Mike Shinoda");
+        musician1.setAlbums(Sets.newHashSet(album1, album2));
+        musician2.setAlbums(Sets.newHashSet(album2));
+        dao.createOrUpdate(musician1);
+        dao.createOrUpdate(musician2);
+
+        assertEquals(Lists.newArrayList(musician1, musician2), dao.findMostProlificMusicians(5, 0, Integer.MAX_VALUE));
+        assertEquals(Lists.newArrayList(musician1), dao.findMostProlificMusicians(1, 0, Integer.MAX_VALUE));
+        // Both released one album in the window, so the tie is broken on the name.
+        assertEquals(Lists.newArrayList(musician1, musician2), dao.findMostProlificMusicians(5, 2000, 2020));
+    }
+
+    /**
+     * To Validate if the server-side ranking breaks ties on the later year.
+     */
+    @DisplayName("Busiest years are ranked by the database")
+    @Test
+    public void findBusiestYearsIsRankedInDatabase()
+    {
+        dao.createOrUpdate(new Album(1975, "ECM 1064/65", "The Köln Concert"));
+        dao.createOrUpdate(new Album(2016, "ECM 1064/66", "Meteora"));
+        dao.createOrUpdate(new Album(2016, "ECM 1064/67", "Minutes to midnight"));
+        dao.createOrUpdate(new Album(1990, "ECM 1064/68", "Shadow of the day"));
+
+        assertEquals(Lists.newArrayList(2016, 1990, 1975), dao.findBusiestYears(5, 0, Integer.MAX_VALUE));
+        assertEquals(Lists.newArrayList(2016), dao.findBusiestYears(1, 0, Integer.MAX_VALUE));
+        assertEquals(Lists.newArrayList(1990, 1975), dao.findBusiestYears(5, 1970, 2000));
+    }
+
+    /**
+     * To Validate if the server-side ranking orders albums by sales and by average rating.
+     */
+    @DisplayName("Best selling and highest rated albums are ranked by the database")
+    @Test
+    public void findBestSellingAndHighestRatedAlbumsIsRankedInDatabase() throws MalformedURLException
+    {
+        Album album1 = new Album(1975, "ECM 1064/65", "The Köln Concert");
+        Album album2 = new Album(2016, "ECM 1064/66", "Meteora");
+        album1.setSales(400);
+        album2.setSales(1000);
+        album1.setReviews(Sets.newHashSet(new Review(new URL("https://www.imdb.com/"), 90)));
+        album2.setReviews(Sets.newHashSet(new Review(new URL("https://www.imdb.com/"), 40),
+                new Review(new URL("https://www.rottentomatoes.com/"), 60)));
+        dao.createOrUpdate(album1);
+        dao.createOrUpdate(album2);
+
+        assertEquals(Lists.newArrayList(album2, album1), dao.findBestSellingAlbums(5));
+        assertEquals(Lists.newArrayList(album1, album2), dao.findHighestRatedAlbums(5, 1));
+        assertEquals(Lists.newArrayList(album1), dao.findHighestRatedAlbums(1, 1));
+        assertEquals(Lists.newArrayList(album2), dao.findHighestRatedAlbums(5, 2));
+    }
+
+    /**
+     * To Validate if the server-side lookup only returns albums of the same genre and instrument set.
+     */
+    @DisplayName("Similar albums are matched by the database")
+    @Test
+    public void findSimilarAlbumsMatchesGenreAndInstruments()
+    {
+        Musician musician = new Musician("Keith Jarrett");
+        Album album1 = new Album(1975, "ECM 1064/65", "The Köln Concert");
+        Album album2 = new Album(2016, "ECM 1064/66", "Meteora");
+        Album album3 = new Album(2016, "ECM 1064/67", "Minutes to midnight");
+        MusicianInstrument piano = new MusicianInstrument(musician, Sets.newHashSet(new MusicalInstrument("Piano")));
+        MusicianInstrument pianoAndDrums = new MusicianInstrument(musician, Sets.newHashSet(new MusicalInstrument("Piano"), new MusicalInstrument("Drums")));
+        dao.createOrUpdate(piano);
+        dao.createOrUpdate(pianoAndDrums);
+        album1.setInstruments(Sets.newHashSet(piano));
+        album2.setInstruments(Sets.newHashSet(pianoAndDrums));
+        album3.setInstruments(Sets.newHashSet(piano));
+        album3.setGenre("Rock");
+        dao.createOrUpdate(album1);
+        dao.createOrUpdate(album2);
+        dao.createOrUpdate(album3);
+
+        assertEquals(Lists.newArrayList(album1), dao.findSimilarAlbums(5, "Jazz", Sets.newHashSet("Piano")));
+        assertEquals(Lists.newArrayList(album3), dao.findSimilarAlbums(5, "Rock", Sets.newHashSet("Piano")));
+        assertEquals(0, dao.findSimilarAlbums(5, "Jazz", Sets.newHashSet("Violin")).size());
+    }
+
+    /**
+     * To Validate if a batch save creates new entities and updates the ones that already exist.
+     */
+    @DisplayName("createOrUpdateAll saves new entities and reuses existing ones")
+    @Test
+    public void createOrUpdateAllResolvesExistingEntities()
+    {
+        Musician existing = new Musician("Keith Jarrett");
+        dao.createOrUpdate(existing);
+        Musician sameName = new Musician("Keith Jarrett");
+        sameName.setBiography("Pianist.");
+        List<Entity> entities = Lists.newArrayList(sameName, new Musician("Mike Shinoda"),
+                new Album(1975, "ECM 1064/65", "The Köln Concert"), new MusicalInstrument("Piano"),
+                new Album(1975, "ECM 1064/65", "The Köln Concert"));
+        List<Integer> progress = Lists.newArrayList();
+
+        BatchResult<Entity> result = dao.createOrUpdateAll(entities, 2, (processed, total) -> progress.add(processed));
+
+        assertTrue(result.isComplete());
+        assertEquals(5, result.getSavedCount());
+        assertEquals(existing.getId(), sameName.getId());
+        assertEquals(entities.get(2).getId(), entities.get(4).getId());
+        assertEquals(2, dao.loadAll(Musician.class).size());
+        assertEquals(1, dao.loadAll(Album.class).size());
+        assertEquals("Pianist.", dao.findMusicianByName("Keith Jarrett").getBiography());
+        assertEquals(Lists.newArrayList(2, 4, 5), progress);
+    }
+
+    /**
+     * To Validate if a batch save finds musician instruments already saved for the same musician and instruments.
+     */
+    @DisplayName("createOrUpdateAll reuses existing musician instruments")
+    @Test
+    public void createOrUpdateAllResolvesMusicianInstruments()
+    {
+        Musician musician = new Musician("Keith Jarrett");
+        dao.createOrUpdateAll(Lists.newArrayList(new MusicianInstrument(musician, Sets.newHashSet(new MusicalInstrument("Piano")))));
+        MusicianInstrument again = new MusicianInstrument(musician, Sets.newHashSet(new MusicalInstrument("Piano")));
+        MusicianInstrument other = new MusicianInstrument(musician, Sets.newHashSet(new MusicalInstrument("Drums")));
+        dao.createOrUpdateAll(Lists.newArrayList(again, other));
+        assertEquals(2, dao.loadAll(MusicianInstrument.class).size());
+    }
+
+    /**
+     * To Validate if a failing chunk is rolled back and reported without stopping the other chunks.
+     */
+    @DisplayName("createOrUpdateAll reports failed chunks and carries on")
+    @Test
+    public void createOrUpdateAllReportsFailedChunks()
+    {
+        Session failingSession = mock(Session.class);
+        Transaction tx = mock(Transaction.class);
+        when(failingSession.beginTransaction()).thenReturn(tx);
+        Track good = new Track("Part I", 60);
+        Track bad = new Track("Part II", 60);
+        Track alsoGood = new Track("Part III", 60);
+        IllegalStateException cause = new IllegalStateException("Bad record.");
+        doThrow(cause).when(failingSession).save(bad, 1);
+
+        BatchResult<Track> result = new Neo4jDAO(failingSession).createOrUpdateAll(Lists.newArrayList(good, bad, alsoGood), 2, (processed, total) -> { });
+
+        assertFalse(result.isComplete());
+        assertEquals(Lists.newArrayList(alsoGood), result.getSaved());
+        assertEquals(1, result.getFailures().size());
+        assertEquals(0, result.getFailures().get(0).getChunk());
+        assertEquals(Lists.newArrayList(good, bad), result.getFailures().get(0).getEntities());
+        assertSame(cause, result.getFailures().get(0).getCause());
+        assertEquals(2, result.getFailedCount());
+        verify(tx, times(1)).rollback();
+        verify(tx, times(1)).commit();
+    }
+
+    /**
+     * To Validate if a failed save leaves the entity, and the entities saved with it, with the ids they had.
+     */
+    @DisplayName("Failed saves restore the ids of the entity and its related entities")
+    @Test
+    public void failedSavesRestoreIds()
+    {
+        Session failingSession = mock(Session.class);
+        when(failingSession.beginTransaction()).thenReturn(mock(Transaction.class));
+        Result upserted = mock(Result.class);
+        when(upserted.queryResults()).thenReturn(Lists.newArrayList(Collections.singletonMap("id", 42L)));
+        when(failingSession.query(anyString(), anyMap())).thenReturn(upserted);
+        Musician musician = new Musician("Keith Jarrett");
+        Album album = new Album(1975, "ECM 1064/65", "The Köln Concert");
+        musician.setAlbums(Sets.newHashSet(album));
+        IllegalStateException cause = new IllegalStateException("Bad record.");
+        // The session gives the related album an id before the save fails, as OGM does for new nodes.
+        doAnswer(invocation -> {
+            album.setId(43L);
+            throw cause;
+        }).when(failingSession).save(musician, 1);
+
+        Neo4jDAO failingDAO = new Neo4jDAO(failingSession);
+        assertSame(cause, assertThrows(IllegalStateException.class, () -> failingDAO.createOrUpdate(musician)));
+        assertNull(musician.getId());
+        assertNull(album.getId());
+
+        BatchResult<Musician> result = failingDAO.createOrUpdateAll(Lists.newArrayList(musician));
+        assertEquals(1, result.getFailedCount());
+        assertNull(musician.getId());
+        assertNull(album.getId());
+    }
+
+    /**
+     * To Validate if a batch save rejects invalid arguments.
+     */
+    @DisplayName("createOrUpdateAll rejects invalid arguments")
+    @Test
+    public void createOrUpdateAllRejectsInvalidArguments()
+    {
+        assertThrows(NullPointerException.class, () -> dao.createOrUpdateAll(null));
+        assertThrows(IllegalArgumentException.class, () -> dao.createOrUpdateAll(Lists.newArrayList((Musician) null)));
+        assertThrows(IllegalArgumentException.class, () -> dao.createOrUpdateAll(Lists.newArrayList(new Musician("Keith Jarrett")), 0, (processed, total) -> { }));
+        assertThrows(NullPointerException.class, () -> dao.createOrUpdateAll(Lists.newArrayList(new Musician("Keith Jarrett")), 10, null));
+    }
+
+    /**
+     * To Validate if streaming goes through every entity once, in id order, whatever the page size.
+     */
+    @DisplayName("streamAll returns every entity once, a page at a time")
+    @Test
+    public void streamAllReturnsEveryEntityOnce()
+    {
+        List<Musician> musicians = Lists.newArrayList(new Musician("Keith Jarrett"), new Musician("Mike Shinoda"),
+                new Musician("Chester Bennington"), new Musician("Jan Garbarek"), new Musician("Manfred Eicher"));
+        dao.createOrUpdateAll(musicians);
+
+        for (int pageSize : new int[]{1, 2, 5, 100}) {
+            List<Long> streamed = dao.streamAll(Musician.class, pageSize).map(Entity::getId).collect(Collectors.toList());
+            assertEquals(musicians.stream().map(Entity::getId).sorted().collect(Collectors.toList()), streamed);
+        }
+        assertEquals(0, dao.streamAll(Album.class, 10).count());
+        assertThrows(IllegalArgumentException.class, () -> dao.streamAll(Musician.class, 0));
+    }
+
+    /**
+     * To Validate if a page of entities is no larger than the page size and the pages cover every entity.
+     */
+    @DisplayName("loadAll with pagination returns one page")
+    @Test
+    public void loadAllReturnsOnePage()
+    {
+        dao.createOrUpdateAll(Lists.newArrayList(new MusicalInstrument("Piano"), new MusicalInstrument("Drums"),
+                new MusicalInstrument("Violin")));
+
+        Set<MusicalInstrument> instruments = Sets.newHashSet();
+        instruments.addAll(dao.loadAll(MusicalInstrument.class, new Pagination(0, 2)));
+        assertEquals(2, instruments.size());
+        instruments.addAll(dao.loadAll(MusicalInstrument.class, new Pagination(1, 2)));
+        assertEquals(3, instruments.size());
+        assertEquals(0, dao.loadAll(MusicalInstrument.class, new Pagination(2, 2)).size());
+    }
+
+    /**
+     * To Validate if a fetch plan loads exactly the planned relationships into a cleared session.
+     */
+    @DisplayName("loadAll with a fetch plan loads the planned relationships and nothing else")
+    @Test
+    public void loadAllFollowsFetchPlan() throws MalformedURLException
+    {
+        Musician musician = new Musician("Keith Jarrett");
+        MusicalInstrument piano = new MusicalInstrument("Piano");
+        MusicalInstrument voice = new MusicalInstrument("Voice");
+        MusicianInstrument musicianInstrument = new MusicianInstrument(musician, Sets.newHashSet(piano, voice));
+        Album album = new Album(1975, "ECM 1064/65", "The Koln Concert");
+        album.setFeaturedMusicians(Lists.newArrayList(musician));
+        album.setInstruments(Sets.newHashSet(musicianInstrument));
+        album.setReviews(Sets.newHashSet(new Review(new URL("https://www.allmusic.com/album/the-koln-concert"), 90),
+                new Review(new URL("https://www.bbc.co.uk/music/reviews/the-koln-concert"), 80)));
+        dao.createOrUpdateAll(Lists.newArrayList(musician, piano, voice, musicianInstrument, album));
+        session.clear();
+
+        Album bare = dao.loadAll(Album.class).iterator().next();
+        assertTrue(null == bare.getReviews() || bare.getReviews().isEmpty());
+        session.clear();
+
+        Collection<Album> albums = dao.loadAll(Album.class, FetchPlan.of("reviews", "instruments.musicalInstruments"));
+        assertEquals(1, albums.size());
+        Album loaded = albums.iterator().next();
+        assertEquals(2, loaded.getReviews().size());
+        assertEquals(1, loaded.getInstruments().size());
+        assertEquals(Sets.newHashSet("Piano", "Voice"), loaded.getInstruments().iterator().next().getMusicalInstruments()
+                .stream().map(MusicalInstrument::getName).collect(Collectors.toSet()));
+        assertTrue(null == loaded.getFeaturedMusicians() || loaded.getFeaturedMusicians().isEmpty());
+        assertEquals(1, dao.loadAll(Musician.class, FetchPlan.of("albums")).size());
+    }
+
+    /**
+     * To Validate if streaming with a fetch plan loads the planned relationships page by page.
+     */
+    @DisplayName("streamAll with a fetch plan loads the planned relationships of every page")
+    @Test
+    public void streamAllFollowsFetchPlan()
+    {
+        String[] bassists = {"Palle Danielsson", "Charlie Haden", "Gary Peacock", "Eberhard Weber", "Dave Holland"};
+        List<Album> albums = Lists.newArrayList();
+        for (int i = 0; i < bassists.length; i++) {
+            Album album = new Album(2000 + i, "ECM 10" + i, "Album " + i);
+            album.setFeaturedMusicians(Lists.newArrayList(new Musician("Keith Jarrett"), new Musician(bassists[i])));
+            albums.add(album);
+        }
+        dao.createOrUpdateAll(albums);
+        session.clear();
+
+        List<Album> streamed = dao.streamAll(Album.class, 2, FetchPlan.of("featuredMusicians")).collect(Collectors.toList());
+        assertEquals(albums.stream().map(Entity::getId).sorted().collect(Collectors.toList()),
+                streamed.stream().map(Entity::getId).collect(Collectors.toList()));
+        for (Album album : streamed) {
+            assertEquals(2, album.getFeaturedMusicians().size());
+        }
+    }
+
+    /**
+     * To Validate if a fetch plan naming a field that is not a relationship is rejected.
+     */
+    @DisplayName("A fetch plan with an unknown relationship is rejected")
+    @Test
+    public void fetchPlanWithUnknownRelationshipIsRejected()
+    {
+        dao.createOrUpdate(new Album(1975, "ECM 1064/65", "The Koln Concert"));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> dao.loadAll(Album.class, FetchPlan.of("instruments.producer")));
+        assertEquals("MusicianInstrument has no relationship producer.", exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> dao.loadAll(Album.class, FetchPlan.of("albumName")));
+        assertThrows(NullPointerException.class, () -> dao.loadAll(Album.class, (FetchPlan) null));
+    }
+
+    /**
+     * To Validate if album summaries carry the album's own fields with its reviews counted and averaged.
+     */
+    @DisplayName("findAlbumSummaries projects every album with its review count and average rating")
+    @Test
+    public void findAlbumSummariesProjectsAlbums() throws MalformedURLException
+    {
+        Album reviewed = new Album(1975, "ECM 1064/65", "The Koln Concert");
+        reviewed.setSales(1000);
+        reviewed.setReviews(Sets.newHashSet(new Review(new URL("https://www.allmusic.com/album/the-koln-concert"), 90),
+                new Review(new URL("https://www.bbc.co.uk/music/reviews/the-koln-concert"), 75)));
+        Album unreviewed = new Album(2016, "ECM 1064/66", "Meteora");
+        dao.createOrUpdate(reviewed);
+        dao.createOrUpdate(unreviewed);
+
+        Set<AlbumSummary> summaries = new HashSet<>(dao.findAlbumSummaries());
+        assertEquals(Sets.newHashSet(
+                new AlbumSummary(reviewed.getId(), "The Koln Concert", "ECM 1064/65", 1975, 1000, 2, 82.5),
+                new AlbumSummary(unreviewed.getId(), "Meteora", "ECM 1064/66", 2016, 0, 0, 0)), summaries);
+    }
+
+    /**
+     * To Validate if musician summaries count only the albums released in the given years.
+     */
+    @DisplayName("findMusicianSummaries counts each musician's albums in the year range")
+    @Test
+    public void findMusicianSummariesCountsAlbumsInRange()
+    {
+        Album album1 = new Album(1975, "ECM 1064/65", "The Koln Concert");
+        Album album2 = new Album(2016, "ECM 1064/66", "Meteora");
+        Musician musician1 = new Musician("Keith Jarrett");
+        Musician musician2 = new Musician("Mike Shinoda");
+        musician1.setAlbums(Sets.newHashSet(album1, album2));
+        dao.createOrUpdate(musician1);
+        dao.createOrUpdate(musician2);
+
+        assertEquals(Sets.newHashSet(new MusicianSummary(musician1.getId(), "Keith Jarrett", 2),
+                new MusicianSummary(musician2.getId(), "Mike Shinoda", 0)),
+                new HashSet<>(dao.findMusicianSummaries(0, Integer.MAX_VALUE)));
+        assertEquals(Sets.newHashSet(new MusicianSummary(musician1.getId(), "Keith Jarrett", 1),
+                new MusicianSummary(musician2.getId(), "Mike Shinoda", 0)),
+                new HashSet<>(dao.findMusicianSummaries(2000, 2020)));
+    }
+
+    /**
+     * To Validate if loading by ids keeps the order of the ids and skips ids without an entity.
+     */
+    @DisplayName("loadAll by ids returns the entities in the order of the ids")
+    @Test
+    public void loadAllByIdsKeepsTheirOrder()
+    {
+        List<Musician> musicians = Lists.newArrayList(new Musician("Keith Jarrett"), new Musician("Mike Shinoda"),
+                new Musician("Chester Bennington"));
+        dao.createOrUpdateAll(musicians);
+
+        List<Long> ids = Lists.newArrayList(musicians.get(2).getId(), -1L, musicians.get(0).getId());
+        assertEquals(Lists.newArrayList(musicians.get(2), musicians.get(0)), dao.loadAll(Musician.class, ids));
+        assertEquals(0, dao.loadAll(Musician.class, Lists.<Long>newArrayList()).size());
+        assertThrows(IllegalArgumentException.class, () -> dao.loadAll(Musician.class, Lists.newArrayList((Long) null)));
+    }
+}
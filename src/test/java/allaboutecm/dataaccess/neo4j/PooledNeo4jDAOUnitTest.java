@@ -0,0 +1,226 @@
+package allaboutecm.dataaccess.neo4j;
+
+import allaboutecm.dataaccess.DAO;
+import allaboutecm.model.Album;
+import allaboutecm.model.Musician;
+import com.google.common.collect.Lists;
+import org.junit.jupiter.api.*;
+import org.neo4j.ogm.config.Configuration;
+import org.neo4j.ogm.session.Session;
+import org.neo4j.ogm.session.SessionFactory;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PooledNeo4jDAOUnitTest {
+    private static SessionFactory sessionFactory;
+    private static Session session;
+
+    @BeforeAll
+    public static void setUp() {
+        sessionFactory = new SessionFactory(new Configuration.Builder().build(), Musician.class.getPackage().getName());
+        new IndexManager(sessionFactory).ensureIndexes();
+        session = sessionFactory.openSession();
+    }
+
+    /*
+     Purging the database*/
+
+    @AfterEach
+    public void tearDownEach() {
+        session.purgeDatabase();
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        session.purgeDatabase();
+        session.clear();
+        sessionFactory.close();
+    }
+
+    // Musician names are letters only, so numbers are spelled in them.
+    private static String musicianName(int i) {
+        StringBuilder name = new StringBuilder("Musician ");
+        do {
+            name.append((char) ('a' + i % 26));
+            i /= 26;
+        } while (i > 0);
+        return name.toString();
+    }
+
+    /** To Validate many threads sharing one DAO */
+    @Test
+    @DisplayName("Threads sharing the DAO should all see their writes and each other's, on no more sessions than the pool holds.")
+    public void loadFromManyThreads() throws Exception
+    {
+        PooledNeo4jDAO dao = new PooledNeo4jDAO(sessionFactory, 4, 100);
+        int threads = 8;
+        int perThread = 40;
+        CyclicBarrier start = new CyclicBarrier(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> found = Lists.newArrayList();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                found.add(executor.submit(() -> {
+                    start.await();
+                    int hits = 0;
+                    for (int i = 0; i < perThread; i++) {
+                        String name = musicianName(thread * perThread + i);
+                        dao.createOrUpdate(new Musician(name));
+                        // Everyone writes the first few names as well, and reads a name some other thread owns.
+                        dao.createOrUpdate(new Musician(musicianName(i % 5)));
+                        assertEquals(name, dao.findMusicianByName(name).getName());
+                        if (null != dao.findMusicianByName(musicianName(((thread + 1) % threads) * perThread + i))) {
+                            hits++;
+                        }
+                    }
+                    return hits;
+                }));
+            }
+            for (Future<Integer> hits : found) {
+                hits.get(120, TimeUnit.SECONDS);
+            }
+
+            assertEquals(threads * perThread, dao.loadAll(Musician.class).size());
+            assertTrue(dao.getIdleSessions() <= 4);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /** To Validate that a unit of work commits together */
+    @Test
+    @DisplayName("A unit of work should commit its writes together, on one session.")
+    public void unitOfWorkCommits()
+    {
+        PooledNeo4jDAO dao = new PooledNeo4jDAO(sessionFactory, 2, 100);
+
+        Musician loaded = dao.inUnitOfWork(work -> {
+            Musician musician = work.createOrUpdate(new Musician("Keith Jarrett"));
+            work.createOrUpdate(new Album(1975, "ECM 1064/65", "The Köln Concert"));
+            // Nested units of work join the outer one.
+            dao.inUnitOfWork(inner -> inner.createOrUpdate(new Musician("Jan Garbarek")));
+            return dao.load(Musician.class, musician.getId());
+        });
+
+        assertEquals("Keith Jarrett", loaded.getName());
+        assertEquals(2, dao.loadAll(Musician.class).size());
+        assertEquals(1, dao.loadAll(Album.class).size());
+        assertEquals(1, dao.getIdleSessions());
+    }
+
+    /** To Validate that a failing unit of work leaves nothing behind */
+    @Test
+    @DisplayName("A unit of work that throws should roll back all of its writes.")
+    public void unitOfWorkRollsBack()
+    {
+        PooledNeo4jDAO dao = new PooledNeo4jDAO(sessionFactory, 1, 100);
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> dao.inUnitOfWork(work -> {
+            work.createOrUpdate(new Musician("Keith Jarrett"));
+            work.createOrUpdate(new Musician("Jan Garbarek"));
+            throw new IllegalStateException("Changed my mind.");
+        }));
+
+        assertEquals("Changed my mind.", exception.getMessage());
+        assertEquals(0, dao.loadAll(Musician.class).size());
+        assertNull(dao.findMusicianByName("Keith Jarrett"));
+    }
+
+    /** To Validate the bound on what a pooled session remembers */
+    @Test
+    @DisplayName("A session that handed out more than the maximum entities should be cleared when it comes back.")
+    public void sessionsAreClearedPastTheBound()
+    {
+        for (int i = 0; i < 10; i++) {
+            session.save(new Musician(musicianName(i)));
+        }
+        PooledNeo4jDAO bounded = new PooledNeo4jDAO(sessionFactory, 1, 5);
+        PooledNeo4jDAO unbounded = new PooledNeo4jDAO(sessionFactory, 1, 100);
+
+        Musician first = bounded.loadAll(Musician.class).iterator().next();
+        Musician again = unbounded.loadAll(Musician.class).iterator().next();
+
+        assertNotSame(first, bounded.load(Musician.class, first.getId()));
+        assertSame(again, unbounded.load(Musician.class, again.getId()));
+    }
+
+    /** To Validate that a full pool makes callers wait, up to the lease timeout */
+    @Test
+    @DisplayName("A call should fail after the lease timeout when every session is taken.")
+    public void fullPoolTimesOut() throws Exception
+    {
+        PooledNeo4jDAO dao = new PooledNeo4jDAO(sessionFactory, 1, 100);
+        dao.setLeaseTimeout(200, TimeUnit.MILLISECONDS);
+        CountDownLatch leased = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> holder = executor.submit(() -> dao.inUnitOfWork(work -> {
+                leased.countDown();
+                try {
+                    return done.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+            assertTrue(leased.await(30, TimeUnit.SECONDS));
+
+            IllegalStateException exception = assertThrows(IllegalStateException.class, () -> dao.findMusicianByName("Keith Jarrett"));
+            assertEquals("No session came free within 200 ms.", exception.getMessage());
+
+            done.countDown();
+            holder.get(30, TimeUnit.SECONDS);
+            assertNull(dao.findMusicianByName("Keith Jarrett"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /** To Validate streams outside and inside a unit of work */
+    @Test
+    @DisplayName("Streams should read on a session of their own, or on the unit of work's.")
+    public void streamsReadLazily()
+    {
+        PooledNeo4jDAO dao = new PooledNeo4jDAO(sessionFactory, 1, 100);
+        for (int i = 0; i < 7; i++) {
+            dao.createOrUpdate(new Musician(musicianName(i)));
+        }
+
+        try (Stream<Musician> musicians = dao.streamAll(Musician.class, 3)) {
+            // The pool's one session is free for other calls while the stream is read.
+            assertEquals(7, musicians.peek(musician -> dao.findMusicianByName(musician.getName())).count());
+        }
+        List<String> names = dao.inUnitOfWork(work -> {
+            work.createOrUpdate(new Musician("Keith Jarrett"));
+            return work.streamAll(Musician.class, 3).map(Musician::getName).collect(Collectors.toList());
+        });
+        assertEquals(8, names.size());
+    }
+
+    /** To Validate the argument checks */
+    @Test
+    @DisplayName("Invalid arguments should be rejected.")
+    public void invalidArgumentsAreRejected()
+    {
+        assertThrows(NullPointerException.class, () -> new PooledNeo4jDAO(null));
+        assertThrows(IllegalArgumentException.class, () -> new PooledNeo4jDAO(sessionFactory, 0, 100));
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> new PooledNeo4jDAO(sessionFactory, 1, 0));
+        assertEquals("Maximum entities should be positive.", exception.getMessage());
+        DAO dao = new PooledNeo4jDAO(sessionFactory);
+        assertThrows(NullPointerException.class, () -> ((PooledNeo4jDAO) dao).inUnitOfWork(null));
+        Collection<Musician> none = dao.loadAll(Musician.class);
+        assertTrue(none.isEmpty());
+    }
+}
@@ -0,0 +1,71 @@
+package allaboutecm.dataaccess.neo4j;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.MemoryUsage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionPolicyUnitTest {
+
+    /** To Validate the entity bound */
+    @Test
+    @DisplayName("afterEntities should clear past the bound, and when the entities cannot be counted.")
+    public void afterEntities()
+    {
+        SessionPolicy policy = SessionPolicy.afterEntities(100);
+
+        assertFalse(policy.shouldClear(100, false));
+        assertTrue(policy.shouldClear(101, false));
+        assertTrue(policy.shouldClear(-1, false));
+        assertFalse(policy.shouldClear(0, true));
+    }
+
+    /** To Validate clearing after each unit of work */
+    @Test
+    @DisplayName("afterEachUnitOfWork should clear at the end of a unit of work only.")
+    public void afterEachUnitOfWork()
+    {
+        SessionPolicy policy = SessionPolicy.afterEachUnitOfWork();
+
+        assertFalse(policy.shouldClear(1_000_000, false));
+        assertTrue(policy.shouldClear(0, true));
+    }
+
+    /** To Validate the heap watermark */
+    @Test
+    @DisplayName("heapWatermark should clear above the fraction of the maximum, or of the committed memory without one.")
+    public void heapWatermark()
+    {
+        assertFalse(SessionPolicy.heapWatermark(0.8, () -> new MemoryUsage(0, 800, 900, 1000)).shouldClear(0, false));
+        assertTrue(SessionPolicy.heapWatermark(0.8, () -> new MemoryUsage(0, 801, 900, 1000)).shouldClear(0, false));
+        assertTrue(SessionPolicy.heapWatermark(0.8, () -> new MemoryUsage(0, 500, 600, -1)).shouldClear(0, false));
+    }
+
+    /** To Validate combining policies */
+    @Test
+    @DisplayName("Combined policies should clear when either would.")
+    public void combinedPolicies()
+    {
+        SessionPolicy policy = SessionPolicy.afterEntities(10).or(SessionPolicy.afterEachUnitOfWork());
+
+        assertFalse(policy.shouldClear(5, false));
+        assertTrue(policy.shouldClear(5, true));
+        assertTrue(policy.shouldClear(11, false));
+        assertFalse(SessionPolicy.NEVER.shouldClear(Long.MAX_VALUE, true));
+    }
+
+    /** To Validate the argument checks */
+    @Test
+    @DisplayName("Invalid arguments should be rejected.")
+    public void invalidArgumentsAreRejected()
+    {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> SessionPolicy.afterEntities(0));
+        assertEquals("Maximum entities should be positive.", exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> SessionPolicy.heapWatermark(1));
+        assertThrows(IllegalArgumentException.class, () -> SessionPolicy.heapWatermark(0));
+        assertThrows(NullPointerException.class, () -> SessionPolicy.heapWatermark(0.5, null));
+        assertThrows(NullPointerException.class, () -> SessionPolicy.NEVER.or(null));
+    }
+}
@@ -1,5 +1,6 @@
 package allaboutecm.dataaccess.neo4j;
 
+import allaboutecm.model.WebAddress;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -25,7 +26,7 @@ class URLConverterUnitTest {
 
     @Test
     void toGraphPropertyShouldReturnTheStringValueOfUrl() throws MalformedURLException {
-        URL validUrl = new URL(VALID_URL_STRING);
+        WebAddress validUrl = WebAddress.of(new URL(VALID_URL_STRING));
         String result = urlConverter.toGraphProperty(validUrl);
         assertEquals(VALID_URL_STRING, result);
 
@@ -39,14 +40,26 @@ class URLConverterUnitTest {
 
     @Test
     void toEntityAttributeShouldReturnNullWithInputNull() {
-        URL resultUrl = urlConverter.toEntityAttribute(null);
+        WebAddress resultUrl = urlConverter.toEntityAttribute(null);
         assertNull(resultUrl);
     }
 
     @Test
     void toEntityAttributeShouldReturnUrlWithValidStringValue() throws MalformedURLException {
-        URL resultUrl = urlConverter.toEntityAttribute(VALID_URL_STRING);
-        assertEquals(new URL(VALID_URL_STRING), resultUrl);
+        WebAddress resultUrl = urlConverter.toEntityAttribute(VALID_URL_STRING);
+        assertEquals(VALID_URL_STRING, resultUrl.toString());
+        assertEquals(WebAddress.of(new URL(VALID_URL_STRING)), resultUrl);
+    }
+
+    @Test
+    void toGraphPropertyShouldKeepTheOriginalSpelling() throws MalformedURLException {
+        String spelling = "http://Monash.EDU:80";
+        assertEquals(spelling, urlConverter.toGraphProperty(urlConverter.toEntityAttribute(spelling)));
+    }
+
+    @Test
+    void toEntityAttributeShouldRejectMalformedStrings() {
+        assertThrows(IllegalArgumentException.class, () -> urlConverter.toEntityAttribute("monash.edu"));
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+package allaboutecm.mining;
+
+import allaboutecm.model.Album;
+import allaboutecm.model.MusicalInstrument;
+import allaboutecm.model.Musician;
+import allaboutecm.model.MusicianInstrument;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlbumSimilarityIndexUnitTest {
+    private static final Comparator<Album> BY_RECORD_NUMBER = Comparator.comparing(Album::getRecordNumber);
+
+    private Musician musician;
+    private Album target;
+    private Album sameInstruments;
+    private Album twoOfThree;
+    private Album oneOfThree;
+    private Album otherGenre;
+    private AlbumSimilarityIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        musician = new Musician("Keith Jarrett");
+        target = album("ECM 1001", "Jazz", "Piano", "Drums", "Bass");
+        sameInstruments = album("ECM 1002", "Jazz", "Bass", "Drums", "Piano");
+        twoOfThree = album("ECM 1003", "Jazz", "Piano", "Drums");
+        oneOfThree = album("ECM 1004", "Jazz", "Piano", "Violin", "Oud");
+        otherGenre = album("ECM 1005", "Rock", "Piano", "Drums", "Bass");
+        index = AlbumSimilarityIndex.build(Lists.newArrayList(target, sameInstruments, twoOfThree, oneOfThree, otherGenre));
+    }
+
+    private Album album(String recordNumber, String genre, String... instruments) {
+        Album album = new Album(2000, recordNumber, "Album " + recordNumber);
+        album.setGenre(genre);
+        Set<MusicalInstrument> played = Sets.newHashSet();
+        for (String instrument : instruments) {
+            played.add(new MusicalInstrument(instrument));
+        }
+        album.setInstruments(Sets.newHashSet(new MusicianInstrument(musician, played)));
+        return album;
+    }
+
+    @Test
+    @DisplayName("Exact matches need the same genre and the same instrument set.")
+    public void exactMatchesNeedSameGenreAndInstruments()
+    {
+        assertEquals(Sets.newHashSet(target, sameInstruments),
+                index.exactMatches("Jazz", Sets.newHashSet("Bass", "Piano", "Drums")));
+        assertEquals(Sets.newHashSet(otherGenre), index.exactMatches("Rock", Sets.newHashSet("Bass", "Piano", "Drums")));
+        assertEquals(0, index.exactMatches("Blues", Sets.newHashSet("Piano")).size());
+    }
+
+    @Test
+    @DisplayName("Nearest albums are ranked by Jaccard similarity, excluding the album itself.")
+    public void nearestAlbumsAreRankedByJaccard()
+    {
+        assertEquals(Lists.newArrayList(sameInstruments, twoOfThree, oneOfThree), index.nearest(5, target, BY_RECORD_NUMBER));
+        assertEquals(Lists.newArrayList(sameInstruments), index.nearest(1, target, BY_RECORD_NUMBER));
+        assertEquals(0, index.nearest(0, target, BY_RECORD_NUMBER).size());
+    }
+
+    @Test
+    @DisplayName("Re-adding an album re-indexes it, and removed albums are no longer found.")
+    public void indexShouldFollowChanges()
+    {
+        twoOfThree.setGenre("Rock");
+        index.add(twoOfThree);
+        assertEquals(Lists.newArrayList(sameInstruments, oneOfThree), index.nearest(5, target, BY_RECORD_NUMBER));
+
+        index.remove(sameInstruments);
+        assertEquals(Sets.newHashSet(target), index.exactMatches("Jazz", Sets.newHashSet("Bass", "Piano", "Drums")));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    @DisplayName("An album renamed after it was added should be re-indexed, not indexed twice.")
+    public void renamedAlbumIsIndexedOnce()
+    {
+        twoOfThree.setAlbumName("Renamed");
+        twoOfThree.setInstruments(sameInstruments.getInstruments());
+        assertTrue(index.update(twoOfThree));
+        index.add(twoOfThree);
+
+        assertEquals(5, index.size());
+        assertEquals(3, index.exactMatches("Jazz", Sets.newHashSet("Bass", "Piano", "Drums")).size());
+        assertTrue(index.remove(twoOfThree));
+        assertFalse(index.remove(twoOfThree));
+        assertFalse(index.update(twoOfThree));
+        assertEquals(2, index.exactMatches("Jazz", Sets.newHashSet("Bass", "Piano", "Drums")).size());
+    }
+
+    @Test
+    @DisplayName("Distinct albums sharing a natural key should both be indexed.")
+    public void albumsSharingAKeyAreKeptApart()
+    {
+        Album namesake = album("ECM 1002", "Jazz", "Bass", "Drums", "Piano");
+        assertEquals(sameInstruments, namesake);
+        index.add(namesake);
+
+        assertEquals(6, index.size());
+        Set<Album> matches = index.exactMatches("Jazz", Sets.newHashSet("Bass", "Piano", "Drums"));
+        assertEquals(3, matches.size());
+        assertTrue(matches.contains(namesake));
+        assertTrue(matches.contains(sameInstruments));
+        assertEquals(Lists.newArrayList(sameInstruments, namesake), index.nearest(2, target,
+                BY_RECORD_NUMBER.thenComparing(album -> album == namesake)));
+
+        index.remove(namesake);
+        assertTrue(index.contains(sameInstruments));
+        assertFalse(index.contains(namesake));
+    }
+
+    @Test
+    @DisplayName("Building from a null collection should throw.")
+    public void buildingFromNullShouldThrow()
+    {
+        NullPointerException exception = assertThrows(NullPointerException.class, () -> AlbumSimilarityIndex.build(null));
+        assertEquals("Object is null.", exception.getMessage());
+    }
+}
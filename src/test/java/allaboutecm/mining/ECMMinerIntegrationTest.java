@@ -1,8 +1,14 @@
 package allaboutecm.mining;
 
 import allaboutecm.dataaccess.DAO;
+import allaboutecm.dataaccess.neo4j.IndexManager;
 import allaboutecm.dataaccess.neo4j.Neo4jDAO;
+import allaboutecm.mining.graph.CentralityScores;
+import allaboutecm.mining.graph.CollaborationAnalytics;
+import allaboutecm.mining.graph.CollaborationGraph;
 import allaboutecm.model.*;
+import allaboutecm.synthetic.CatalogueGenerator;
+import allaboutecm.synthetic.SyntheticCatalogue;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import org.junit.jupiter.api.*;
@@ -48,6 +54,10 @@ class ECMMinerIntegrationTest {
     public static void setUp() {
         Configuration configuration = new Configuration.Builder().build();
         sessionFactory = new SessionFactory(configuration, Musician.class.getPackage().getName());
+        IndexManager indexManager = new IndexManager(sessionFactory);
+        // Fixtures save namesake musicians and instruments through cascades, which the constraints would refuse.
+        indexManager.setUniqueConstraints(false);
+        indexManager.ensureIndexes();
         session = sessionFactory.openSession();
         dao = new Neo4jDAO(session);
     }
@@ -500,4 +510,175 @@ class ECMMinerIntegrationTest {
         assertTrue(musicians.contains(musician1));
     }*/
 
-}
\ No newline at end of file
+    /**
+     * To Validate if the query pushdown mode ranks musicians the same way as the in-memory mode.
+     */
+    @DisplayName("Query pushdown returns the same prolific musicians as in-memory mining")
+    @Test
+    public void pushdownProlificMusiciansMatchInMemory()
+    {
+        dao.createOrUpdate(musician1);
+        dao.createOrUpdate(musician3);
+        ECMMiner pushdownMiner = new ECMMiner(dao, MiningMode.QUERY_PUSHDOWN);
+        List<Musician> musicians = pushdownMiner.mostProlificMusicians(2, -1, -1);
+        assertEquals(Lists.newArrayList(musician1, musician3), musicians);
+        assertEquals(musicians, ecmMiner.mostProlificMusicians(2, -1, -1));
+    }
+
+    /**
+     * To Validate if the query pushdown mode returns the busiest years and best selling albums.
+     */
+    @DisplayName("Query pushdown ranks years and albums in the database")
+    @Test
+    public void pushdownBusiestYearsAndBestSellingAlbums()
+    {
+        album1.setSales(1000);
+        album2.setSales(400);
+        album3.setSales(999);
+        dao.createOrUpdate(album1);dao.createOrUpdate(album2);dao.createOrUpdate(album3);dao.createOrUpdate(album4);
+        ECMMiner pushdownMiner = new ECMMiner(dao, MiningMode.QUERY_PUSHDOWN);
+        assertEquals(Lists.newArrayList(2016, 1975), pushdownMiner.busiestYears(5));
+        assertEquals(Lists.newArrayList(album1, album3), pushdownMiner.bestSellingAlbums(2));
+        assertEquals(0, pushdownMiner.bestSellingAlbums(0).size());
+    }
+
+    /**
+     * To Validate if the query pushdown mode ranks albums by rating and matches similar albums.
+     */
+    @DisplayName("Query pushdown ranks ratings and similar albums in the database")
+    @Test
+    public void pushdownHighestRatedAndSimilarAlbums() throws MalformedURLException
+    {
+        album1.setReviews(Sets.newHashSet(new Review(url1,98),new Review(url2,48)));
+        album3.setReviews(Sets.newHashSet(new Review(url2,99)));
+        MusicianInstrument guitar = new MusicianInstrument(new Musician("Old Man"),Sets.newHashSet(new MusicalInstrument("Guitar")));
+        MusicianInstrument drums = new MusicianInstrument(new Musician("Old Man"),Sets.newHashSet(new MusicalInstrument("Drums")));
+        dao.createOrUpdate(guitar);
+        dao.createOrUpdate(drums);
+        album2.setInstruments(Sets.newHashSet(guitar));
+        album4.setInstruments(Sets.newHashSet(drums));
+        dao.createOrUpdate(album1);dao.createOrUpdate(album2);dao.createOrUpdate(album3);dao.createOrUpdate(album4);
+
+        Album albumToBeChecked = new Album(2014,"ECM 1064/69", "Shadow");
+        albumToBeChecked.setInstruments(Sets.newHashSet(new MusicianInstrument(musician3,Sets.newHashSet(new MusicalInstrument("Guitar")))));
+
+        ECMMiner pushdownMiner = new ECMMiner(dao, MiningMode.QUERY_PUSHDOWN);
+        assertEquals(Lists.newArrayList(album3, album1), pushdownMiner.highestRatedAlbums(5));
+        assertEquals(Lists.newArrayList(album2), pushdownMiner.mostSimilarAlbums(5, albumToBeChecked));
+    }
+
+    /**
+     * To Validate if the query pushdown mode counts distinct instruments and featured albums.
+     */
+    @DisplayName("Query pushdown ranks talented and social musicians in the database")
+    @Test
+    public void pushdownTalentedAndSocialMusicians()
+    {
+        Musician drummer = new Musician("Chester Bennington");
+        Musician keyboardist = new Musician("Bon Jovi");
+        dao.createOrUpdate(new MusicianInstrument(drummer, Sets.newHashSet(new MusicalInstrument("Drums"), new MusicalInstrument("Piano"))));
+        dao.createOrUpdate(new MusicianInstrument(keyboardist, Sets.newHashSet(new MusicalInstrument("Synthesizer"))));
+        dao.createOrUpdate(album1);
+        dao.createOrUpdate(album2);
+
+        ECMMiner pushdownMiner = new ECMMiner(dao, MiningMode.QUERY_PUSHDOWN);
+        assertEquals(Lists.newArrayList(drummer, keyboardist), pushdownMiner.mostTalentedMusicians(5));
+        assertEquals(Lists.newArrayList(musician1, musician2), pushdownMiner.mostSocialMusicians(2));
+    }
+
+    /**
+     * To Validate if a generated catalogue saved to the database ranks the same in memory and in the database.
+     */
+    @DisplayName("A generated catalogue should rank the same in memory and with query pushdown")
+    @Test
+    public void generatedCatalogueRanksTheSameInBothModes()
+    {
+        SyntheticCatalogue catalogue = new CatalogueGenerator(5171).generate(200);
+        assertTrue(catalogue.saveTo(dao).isComplete());
+        assertEquals(200, dao.loadAll(Album.class).size());
+        assertEquals(catalogue.getMusicians().size(), dao.loadAll(Musician.class).size());
+
+        ECMMiner pushdownMiner = new ECMMiner(dao, MiningMode.QUERY_PUSHDOWN);
+        assertEquals(ecmMiner.mostProlificMusicians(10, 1990, 2010), pushdownMiner.mostProlificMusicians(10, 1990, 2010));
+        assertEquals(ecmMiner.mostSocialMusicians(10), pushdownMiner.mostSocialMusicians(10));
+        assertEquals(ecmMiner.mostTalentedMusicians(10), pushdownMiner.mostTalentedMusicians(10));
+        assertEquals(ecmMiner.busiestYears(10), pushdownMiner.busiestYears(10));
+        assertEquals(ecmMiner.bestSellingAlbums(10), pushdownMiner.bestSellingAlbums(10));
+        assertEquals(ecmMiner.highestRatedAlbums(10, 2), pushdownMiner.highestRatedAlbums(10, 2));
+    }
+
+    /**
+     * To Validate if in-memory mining over a fresh session loads the relationships it needs instead of seeing empty ones.
+     */
+    @DisplayName("In-memory mining over a cleared session should still rank like query pushdown")
+    @Test
+    public void inMemoryMiningLoadsRelationshipsIntoAClearedSession()
+    {
+        SyntheticCatalogue catalogue = new CatalogueGenerator(19).generate(120);
+        assertTrue(catalogue.saveTo(dao).isComplete());
+        ECMMiner pushdownMiner = new ECMMiner(dao, MiningMode.QUERY_PUSHDOWN);
+        List<Object> pushedDown = Lists.newArrayList(pushdownMiner.mostProlificMusicians(10, -1, -1),
+                pushdownMiner.mostSocialMusicians(10), pushdownMiner.mostTalentedMusicians(10),
+                pushdownMiner.highestRatedAlbums(10, 2));
+
+        session.clear();
+        List<Object> inMemory = Lists.newArrayList(ecmMiner.mostProlificMusicians(10, -1, -1),
+                ecmMiner.mostSocialMusicians(10), ecmMiner.mostTalentedMusicians(10), ecmMiner.highestRatedAlbums(10, 2));
+        assertEquals(pushedDown, inMemory);
+
+        session.clear();
+        ECMMiner pagedMiner = new ECMMiner(dao);
+        pagedMiner.setPageSize(7);
+        assertEquals(pushedDown.get(0), pagedMiner.mostProlificMusicians(10, -1, -1));
+        assertEquals(pushedDown.get(3), pagedMiner.highestRatedAlbums(10, 2));
+    }
+
+    /**
+     * To Validate if ranking summaries gives the same results as ranking entities in memory and in the database.
+     */
+    @DisplayName("The projection mode should rank a generated catalogue like the other modes")
+    @Test
+    public void projectionModeRanksTheSameAsTheOtherModes()
+    {
+        SyntheticCatalogue catalogue = new CatalogueGenerator(20).generate(150);
+        assertTrue(catalogue.saveTo(dao).isComplete());
+
+        ECMMiner projectionMiner = new ECMMiner(dao, MiningMode.PROJECTION);
+        ECMMiner pushdownMiner = new ECMMiner(dao, MiningMode.QUERY_PUSHDOWN);
+        for (ECMMiner miner : Lists.newArrayList(ecmMiner, pushdownMiner)) {
+            assertEquals(miner.mostProlificMusicians(10, 1990, 2010), projectionMiner.mostProlificMusicians(10, 1990, 2010));
+            assertEquals(miner.busiestYears(10), projectionMiner.busiestYears(10));
+            assertEquals(miner.bestSellingAlbums(10), projectionMiner.bestSellingAlbums(10));
+            assertEquals(miner.highestRatedAlbums(10, 2), projectionMiner.highestRatedAlbums(10, 2));
+        }
+        assertEquals(ecmMiner.mostSocialMusicians(5), projectionMiner.mostSocialMusicians(5));
+    }
+
+    /**
+     * To Validate if the collaboration graph projected in the database gives the same analytics as the one built in memory.
+     */
+    @DisplayName("The collaboration graph should give the same analytics in memory and with query pushdown")
+    @Test
+    public void collaborationGraphIsTheSameInBothModes()
+    {
+        SyntheticCatalogue catalogue = new CatalogueGenerator(18).generate(150);
+        assertTrue(catalogue.saveTo(dao).isComplete());
+
+        CollaborationGraph<Musician> inMemory = CollaborationGraph.of(catalogue.getAlbums(), catalogue.getMusicians());
+        CollaborationGraph<Musician> pushedDown = new ECMMiner(dao, MiningMode.QUERY_PUSHDOWN).collaborationGraph();
+
+        assertEquals(inMemory.size(), pushedDown.size());
+        assertEquals(inMemory.edgeCount(), pushedDown.edgeCount());
+        CentralityScores<Musician> ranks = new CollaborationAnalytics<>(inMemory).pageRank();
+        CentralityScores<Musician> pushedDownRanks = new CollaborationAnalytics<>(pushedDown).pageRank();
+        CentralityScores<Musician> betweenness = new CollaborationAnalytics<>(inMemory).betweenness(inMemory.size(), 1);
+        CentralityScores<Musician> pushedDownBetweenness = new CollaborationAnalytics<>(pushedDown).betweenness(pushedDown.size(), 1);
+        for (int id = 0; id < inMemory.size(); id++) {
+            Musician musician = inMemory.musician(id);
+            assertEquals(inMemory.degree(id), pushedDown.degreeOf(musician));
+            assertEquals(inMemory.weightedDegree(id), pushedDown.weightedDegree(pushedDown.idOf(musician)));
+            assertEquals(ranks.score(id), pushedDownRanks.scoreOf(musician), 1e-9);
+            assertEquals(betweenness.score(id), pushedDownBetweenness.scoreOf(musician), 1e-6);
+        }
+    }
+}
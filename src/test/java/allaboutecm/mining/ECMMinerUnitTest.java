@@ -1,8 +1,17 @@
 package allaboutecm.mining;
 
+import allaboutecm.dataaccess.AlbumSummary;
 import allaboutecm.dataaccess.DAO;
+import allaboutecm.dataaccess.FetchPlan;
+import allaboutecm.dataaccess.MusicianSummary;
 import allaboutecm.dataaccess.neo4j.Neo4jDAO;
+import allaboutecm.mining.graph.CentralityScores;
+import allaboutecm.mining.graph.CollaborationAnalytics;
+import allaboutecm.mining.graph.CollaborationGraph;
+import allaboutecm.mining.statistics.StatisticsDAO;
 import allaboutecm.model.*;
+import allaboutecm.synthetic.CatalogueGenerator;
+import allaboutecm.synthetic.SyntheticCatalogue;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,6 +26,7 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.mockito.Mockito.*;
 
@@ -77,7 +87,7 @@ class ECMMinerUnitTest {
     @Test
     public void positiveProlificMusician()
     {
-        when(dao.loadAll(Musician.class)).thenReturn(Sets.newHashSet(musician1,musician2));
+        when(dao.loadAll(eq(Musician.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(musician1,musician2));
         List<Musician> musicians = ecmMiner.mostProlificMusicians(2, 1974, 2017);
         assertEquals(2, musicians.size());
         //assertTrue(musicians.equals(Lists.newArrayList(musician1,musician2)));
@@ -94,7 +104,7 @@ class ECMMinerUnitTest {
     public void mostProlificMusicianReturnEmptyWithInvalidK(int arg)
     {
         musician1.setAlbums(Sets.newHashSet(album1));
-        when(dao.loadAll(Musician.class)).thenReturn(Sets.newHashSet(musician1));
+        when(dao.loadAll(eq(Musician.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(musician1));
         //List<Musician> musicians = ecmMiner.mostProlificMusicians(arg, 1960, 2010);
         //assertEquals(0, musicians.size());
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> ecmMiner.mostProlificMusicians(arg, 1960, 2010));
@@ -106,7 +116,7 @@ class ECMMinerUnitTest {
      */
     @Test
     public void nullIsPassedToProlific() {
-        when(dao.loadAll(Musician.class)).thenReturn(null);
+        when(dao.loadAll(eq(Musician.class), any(FetchPlan.class))).thenReturn(null);
         NullPointerException exception = assertThrows(NullPointerException.class, () -> ecmMiner.mostProlificMusicians(4, -1, -1));
         assertEquals(exception.getMessage(),"Object is null.");
     }
@@ -119,7 +129,7 @@ class ECMMinerUnitTest {
     public void shouldReturnTheProlificMusicianWhenThereIsOnlyOne()
     {
         musician1.setAlbums(Sets.newHashSet(album1));
-        when(dao.loadAll(Musician.class)).thenReturn(Sets.newHashSet(musician1));
+        when(dao.loadAll(eq(Musician.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(musician1));
         List<Musician> musicians = ecmMiner.mostProlificMusicians(999, 1960, 2018);
         assertEquals(1, musicians.size());
         assertTrue(musicians.contains(musician1));
@@ -133,7 +143,7 @@ class ECMMinerUnitTest {
     public void positiveBusiestYear()
     {
 
-        when(dao.loadAll(Album.class)).thenReturn(Sets.newHashSet(album1,album2,album3,album4));
+        when(dao.loadAll(eq(Album.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(album1,album2,album3,album4));
         List<Integer> years = ecmMiner.busiestYears(1);
         List<Integer> expectedYears = Lists.newArrayList(2016);
         assertEquals(years,expectedYears);
@@ -146,7 +156,7 @@ class ECMMinerUnitTest {
     @Test
     public void busiestYearWhenNullPassed()
     {
-        when(dao.loadAll(Album.class)).thenReturn(null);
+        when(dao.loadAll(eq(Album.class), any(FetchPlan.class))).thenReturn(null);
         NullPointerException exception = assertThrows(NullPointerException.class, () -> ecmMiner.busiestYears(2));
         assertEquals(exception.getMessage(),"Object is null.");
     }
@@ -159,7 +169,7 @@ class ECMMinerUnitTest {
     @ValueSource(ints = {0, -100})
     public void busiestYearWhenNegativeOrZeroParameterPassed(int arg)
     {
-        when(dao.loadAll(Album.class)).thenReturn(Sets.newHashSet(album1,album2,album3,album4));
+        when(dao.loadAll(eq(Album.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(album1,album2,album3,album4));
         //List<Integer> years = ecmMiner.busiestYears(arg);
         //assertEquals(0,years.size());
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> ecmMiner.busiestYears(arg));
@@ -173,9 +183,9 @@ class ECMMinerUnitTest {
     @Test
     public void positiveMostTalentedMusician()
     {
-        when(dao.loadAll(MusicianInstrument.class)).thenReturn(Sets.newHashSet(musicianInstrument1,musicianInstrument2
+        when(dao.loadAll(eq(MusicianInstrument.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(musicianInstrument1,musicianInstrument2
                 ,musicianInstrument3,musicianInstrument4));
-        when(dao.loadAll(Musician.class)).thenReturn(Sets.newHashSet(musician1,musician2,musician3,musician4));
+        when(dao.loadAll(eq(Musician.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(musician1,musician2,musician3,musician4));
         List<Musician> musicians = ecmMiner.mostTalentedMusicians(1);
         assertEquals(1, musicians.size());
     }
@@ -187,8 +197,8 @@ class ECMMinerUnitTest {
     @Test
     public void whenNullIsPassedToTalented()
     {
-        when(dao.loadAll(MusicianInstrument.class)).thenReturn(null);
-        when(dao.loadAll(Musician.class)).thenReturn(null);
+        when(dao.loadAll(eq(MusicianInstrument.class), any(FetchPlan.class))).thenReturn(null);
+        when(dao.loadAll(eq(Musician.class), any(FetchPlan.class))).thenReturn(null);
         NullPointerException exception = assertThrows(NullPointerException.class, () -> ecmMiner.mostTalentedMusicians(5));
         assertEquals(exception.getMessage(),"Object is null.");
     }
@@ -202,8 +212,8 @@ class ECMMinerUnitTest {
     @ValueSource(ints = {0, -1, -100})
     public void mostTalentedMusicianReturnNullWithInvalidK(int arg)
     {
-        when(dao.loadAll(MusicianInstrument.class)).thenReturn(Sets.newHashSet(musicianInstrument3));
-        when(dao.loadAll(Musician.class)).thenReturn(Sets.newHashSet(musician3));
+        when(dao.loadAll(eq(MusicianInstrument.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(musicianInstrument3));
+        when(dao.loadAll(eq(Musician.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(musician3));
         //List<Musician> musicians = ecmMiner.mostTalentedMusicians(arg);
         //assertEquals(0, musicians.size());
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> ecmMiner.mostTalentedMusicians(arg));
@@ -218,7 +228,7 @@ class ECMMinerUnitTest {
     @Test
     public void positiveMostSocialMusicians()
     {
-        when(dao.loadAll(Musician.class)).thenReturn(Sets.newHashSet(musician1,musician2,musician3,musician4));
+        when(dao.loadAll(eq(Musician.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(musician1,musician2,musician3,musician4));
         List<Musician> musicians = ecmMiner.mostSocialMusicians(2);
         assertTrue(musicians.contains(musician1));
         assertTrue(musicians.contains(musician2));
@@ -233,7 +243,7 @@ class ECMMinerUnitTest {
      @ValueSource(ints = {-100, 0})
      public void mostSocialMusiciansReturnWithZeroSizeWithInvalidK(int arg)
      {
-         when(dao.loadAll(Musician.class)).thenReturn(Sets.newHashSet(musician1,musician2,musician3,musician4));
+         when(dao.loadAll(eq(Musician.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(musician1,musician2,musician3,musician4));
          List<Musician> musicians = ecmMiner.mostSocialMusicians(arg);
          assertEquals(0, musicians.size());
      }*/
@@ -244,7 +254,7 @@ class ECMMinerUnitTest {
         Musician musicianB = new Musician("Old Man");
         Album albumA = new Album(1979, "ECM 1134", "PATH");
         albumA.setFeaturedMusicians(Lists.newArrayList(musicianA,musicianB));
-        when(dao.loadAll(Album.class)).thenReturn(Sets.newHashSet(albumA));
+        when(dao.loadAll(eq(Album.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(albumA));
 
         List<Musician> musicians = ecmMiner.mostSocialMusicians(5);
 
@@ -253,6 +263,49 @@ class ECMMinerUnitTest {
         assertTrue(musicians.contains(musicianB));
     }
 
+    /**
+     * To Validate if social musicians are ranked by distinct collaborators rather than by albums.
+     */
+    @DisplayName("Most social musicians count each collaborator once")
+    @Test
+    public void mostSocialMusiciansCountDistinctCollaborators()
+    {
+        Album albumA = new Album(1979, "ECM 1134", "PATH");
+        Album albumB = new Album(1980, "ECM 1135", "Nude Ants");
+        Album albumC = new Album(1981, "ECM 1136", "Solo");
+        albumA.setFeaturedMusicians(Lists.newArrayList(musician4, musician2));
+        albumB.setFeaturedMusicians(Lists.newArrayList(musician4, musician2));
+        albumC.setFeaturedMusicians(Lists.newArrayList(musician4));
+        when(dao.loadAll(eq(Album.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(album1, albumA, albumB, albumC));
+
+        // Bon Jovi is on three albums, more than anyone, but has only worked with Mike Shinoda.
+        assertEquals(Lists.newArrayList(musician2, musician3, musician1, musician4), ecmMiner.mostSocialMusicians(5));
+    }
+
+    /**
+     * To Validate if the collaboration graph takes line-ups from both sides of the musician-album relation.
+     */
+    @DisplayName("Collaboration graph joins featured musicians and the musicians' own albums")
+    @Test
+    public void collaborationGraphJoinsBothSides()
+    {
+        // Bon Jovi lists The Köln Concert among his albums, though the album does not feature him.
+        musician4.setAlbums(Sets.newHashSet(album1, album2));
+        when(dao.loadAll(eq(Album.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(album1, album2));
+        when(dao.loadAll(eq(Musician.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(musician4));
+
+        CollaborationGraph<Musician> graph = ecmMiner.collaborationGraph();
+
+        assertEquals(4, graph.size());
+        assertEquals(3, graph.degreeOf(musician4));
+        CollaborationAnalytics<Musician> analytics = ecmMiner.collaborationAnalytics();
+        assertNull(analytics.getExecutor());
+        CentralityScores<Musician> sharedAlbums = analytics.weightedDegree();
+        assertEquals(5, sharedAlbums.scoreOf(musician1));
+        assertEquals(3, sharedAlbums.scoreOf(musician3));
+        assertEquals(Lists.newArrayList(musician4, musician1), sharedAlbums.top(2, ECMMiner.MUSICIAN_ORDER));
+    }
+
     @Test
     public void shouldThrowIllegalArgWhenKIsNegativeForMostSocialMusician() {
         IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> ecmMiner.mostSocialMusicians(-1));
@@ -274,7 +327,7 @@ class ECMMinerUnitTest {
          album2.setGenre("Rock");
          album3.setGenre("Rock");
          albumToBeChecked.setGenre("Rock");
-         when(dao.loadAll(Album.class)).thenReturn(Sets.newHashSet(album1,album2,album3));
+         when(dao.loadAll(eq(Album.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(album1,album2,album3));
          List<Album> albums = ecmMiner.mostSimilarAlbums(2,albumToBeChecked);
          assertTrue(albums.contains(album2));
          assertTrue(albums.contains(album3));
@@ -293,7 +346,7 @@ class ECMMinerUnitTest {
         albumToBeChecked.setInstruments(Sets.newHashSet(new MusicianInstrument(musician1,Sets.newHashSet(new MusicalInstrument("Guitar"))),new MusicianInstrument(musician3,Sets.newHashSet(new MusicalInstrument("Drums")))));
         album3.setGenre("Jazz");
         albumToBeChecked.setGenre("Rock");
-        when(dao.loadAll(Album.class)).thenReturn(Sets.newHashSet(album3));
+        when(dao.loadAll(eq(Album.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(album3));
         List<Album> albums = ecmMiner.mostSimilarAlbums(2,albumToBeChecked);
         assertEquals(albums.size(),0);
     }
@@ -308,7 +361,7 @@ class ECMMinerUnitTest {
         Album albumToBeChecked = new Album(2014,"ECM 1064/68", "Shadow");
         albumToBeChecked.setInstruments(Sets.newHashSet(new MusicianInstrument(musician1,Sets.newHashSet(new MusicalInstrument("Guitar"))),new MusicianInstrument(musician3,Sets.newHashSet(new MusicalInstrument("Drums")))));
         albumToBeChecked.setGenre("Rock");
-        when(dao.loadAll(Album.class)).thenReturn(null);
+        when(dao.loadAll(eq(Album.class), any(FetchPlan.class))).thenReturn(null);
         NullPointerException exception = assertThrows(NullPointerException.class, () -> ecmMiner.mostSimilarAlbums(999,albumToBeChecked));
         assertEquals(exception.getMessage(),"Object is null.");
     }
@@ -325,7 +378,7 @@ class ECMMinerUnitTest {
         albumToBeChecked.setInstruments(Sets.newHashSet(new MusicianInstrument(musician1,Sets.newHashSet(new MusicalInstrument("Guitar"))),new MusicianInstrument(musician3,Sets.newHashSet(new MusicalInstrument("Drums")))));
         album3.setGenre("Rock");
         albumToBeChecked.setGenre("Rock");
-        when(dao.loadAll(Album.class)).thenReturn(Sets.newHashSet(album3));
+        when(dao.loadAll(eq(Album.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(album3));
         List<Album> albums = ecmMiner.mostSimilarAlbums(arg,albumToBeChecked);
         assertEquals(0, albums.size());
     }
@@ -339,7 +392,7 @@ class ECMMinerUnitTest {
         album1.setReviews(Sets.newHashSet(new Review(url1,98),new Review(url2,48.5)));
         album2.setReviews(Sets.newHashSet(new Review(url1,98),new Review(url2,98.5)));
         album3.setReviews(Sets.newHashSet(new Review(url2,99)));
-        when(dao.loadAll(Album.class)).thenReturn(Sets.newHashSet(album1,album2,album3));
+        when(dao.loadAll(eq(Album.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(album1,album2,album3));
         List<Album> albums = ecmMiner.highestRatedAlbums(2);
         assertTrue(albums.contains(album3));
         assertTrue(albums.contains(album2));
@@ -354,7 +407,7 @@ class ECMMinerUnitTest {
     public void highestRatedAlbumsWithInvalidK(int arg) throws MalformedURLException {
         album1.setReviews(Sets.newHashSet(new Review(url1,98),new Review(url2,48)));
         album2.setReviews(Sets.newHashSet(new Review(url2,98),new Review(url1,50)));
-         when(dao.loadAll(Album.class)).thenReturn(Sets.newHashSet(album1,album2));
+         when(dao.loadAll(eq(Album.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(album1,album2));
         List<Album> albums = ecmMiner.highestRatedAlbums(arg);
         assertEquals(0, albums.size());
     }
@@ -368,7 +421,7 @@ class ECMMinerUnitTest {
     public void shouldReturnTheHighestRatedAlbumWhenThereIsOnlyOne()
     {
         album1.setReviews(Sets.newHashSet(new Review(url1,98),new Review(url2,48)));
-        when(dao.loadAll(Album.class)).thenReturn(Sets.newHashSet(album1));
+        when(dao.loadAll(eq(Album.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(album1));
         List<Album> albums = ecmMiner.highestRatedAlbums(999);
         assertEquals(1, albums.size());
         assertTrue(albums.contains(album1));
@@ -380,7 +433,7 @@ class ECMMinerUnitTest {
     @DisplayName("Testing while there is null value in Album.")
     @Test
     public void whenNullIsPassedToHighestRatedAlbum() {
-        when(dao.loadAll(Album.class)).thenReturn(null);
+        when(dao.loadAll(eq(Album.class), any(FetchPlan.class))).thenReturn(null);
         NullPointerException exception = assertThrows(NullPointerException.class, () -> ecmMiner.highestRatedAlbums(2));
         assertEquals(exception.getMessage(),"Object is null.");
     }
@@ -394,7 +447,7 @@ class ECMMinerUnitTest {
         album1.setSales(1000);
         album2.setSales(400);
         album3.setSales(999);
-        when(dao.loadAll(Album.class)).thenReturn(Sets.newHashSet(album1,album2,album3));
+        when(dao.loadAll(eq(Album.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(album1,album2,album3));
         List<Album> albums = ecmMiner.bestSellingAlbums(1);
         assertTrue(albums.contains(album1));
         assertEquals(1,albums.size());
@@ -408,7 +461,7 @@ class ECMMinerUnitTest {
     @ValueSource(ints = {-100, 0})
     public void bestSellingAlbumsWithInvalidK(int arg){
         album1.setSales(1000);
-        when(dao.loadAll(Album.class)).thenReturn(Sets.newHashSet(album1));
+        when(dao.loadAll(eq(Album.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(album1));
         List<Album> albums = ecmMiner.bestSellingAlbums(arg);
         assertEquals(0,albums.size());
     }
@@ -422,7 +475,7 @@ class ECMMinerUnitTest {
     public void shouldReturnTheHighestSellingAlbumWhenThereIsOnlyOne()
     {
         album1.setSales(1000);
-        when(dao.loadAll(Album.class)).thenReturn(Sets.newHashSet(album1));
+        when(dao.loadAll(eq(Album.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(album1));
         List<Album> albums = ecmMiner.bestSellingAlbums(999);
         assertEquals(1, albums.size());
         assertTrue(albums.contains(album1));
@@ -434,7 +487,7 @@ class ECMMinerUnitTest {
     @DisplayName("Testing while there is null value in Album.")
     @Test
     public void whenNullIsPassedToHighestSellingAlbum() {
-        when(dao.loadAll(Album.class)).thenReturn(null);
+        when(dao.loadAll(eq(Album.class), any(FetchPlan.class))).thenReturn(null);
         NullPointerException exception = assertThrows(NullPointerException.class, () -> ecmMiner.bestSellingAlbums(2));
         assertEquals(exception.getMessage(),"Object is null.");
     }
@@ -450,8 +503,8 @@ class ECMMinerUnitTest {
         Concert concert2 = new Concert("Ultrasonic Festival","India");
         concert1.setMusicians(Sets.newHashSet(musician1,musician2,musician3));
         concert2.setMusicians(Sets.newHashSet(musician4,musician1));
-        when(dao.loadAll(Concert.class)).thenReturn(Sets.newHashSet(concert1,concert2));
-        when(dao.loadAll(Musician.class)).thenReturn(Sets.newHashSet(musician1,musician2,musician3,musician4));
+        when(dao.loadAll(eq(Concert.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(concert1,concert2));
+        when(dao.loadAll(eq(Musician.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(musician1,musician2,musician3,musician4));
         List<Musician> musicians = ecmMiner.mostPopularPerformer(1);
         assertTrue(musicians.contains(musician1));
         assertEquals(1,musicians.size());
@@ -466,8 +519,8 @@ class ECMMinerUnitTest {
     public void postPopularPerformerWithInvalidK(int arg){
         Concert concert1 = new Concert("Tokyo Festival","Japan");
         concert1.setMusicians(Sets.newHashSet(musician1));
-        when(dao.loadAll(Concert.class)).thenReturn(Sets.newHashSet(concert1));
-        when(dao.loadAll(Musician.class)).thenReturn(Sets.newHashSet(musician1));
+        when(dao.loadAll(eq(Concert.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(concert1));
+        when(dao.loadAll(eq(Musician.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(musician1));
         List<Musician> musicians = ecmMiner.mostPopularPerformer(arg);
         assertEquals(0,musicians.size());
     }
@@ -481,8 +534,8 @@ class ECMMinerUnitTest {
     {
         Concert concert1 = new Concert("Tokyo Festival","Japan");
         concert1.setMusicians(Sets.newHashSet(musician1));
-        when(dao.loadAll(Concert.class)).thenReturn(Sets.newHashSet(concert1));
-        when(dao.loadAll(Musician.class)).thenReturn(Sets.newHashSet(musician1));
+        when(dao.loadAll(eq(Concert.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(concert1));
+        when(dao.loadAll(eq(Musician.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(musician1));
         List<Musician> musicians = ecmMiner.mostPopularPerformer(999);
         assertEquals(1, musicians.size());
         assertTrue(musicians.contains(musician1));
@@ -494,11 +547,422 @@ class ECMMinerUnitTest {
     @DisplayName("Testing while there is null value in performer.")
     @Test
     public void whenNullIsPassedToMostPopularPerformer() {
-        when(dao.loadAll(Musician.class)).thenReturn(null);
-        when(dao.loadAll(Concert.class)).thenReturn(null);
+        when(dao.loadAll(eq(Musician.class), any(FetchPlan.class))).thenReturn(null);
+        when(dao.loadAll(eq(Concert.class), any(FetchPlan.class))).thenReturn(null);
         NullPointerException exception = assertThrows(NullPointerException.class, () -> ecmMiner.mostPopularPerformer(2));
         assertEquals(exception.getMessage(),"Object is null.");
     }*/
 
+    /**
+     * To Validate if the query pushdown mode asks the DAO for the ranking instead of loading everything.
+     */
+    @DisplayName("Query pushdown delegates rankings to the DAO")
+    @Test
+    public void pushdownDelegatesRankingToDao()
+    {
+        ECMMiner pushdownMiner = new ECMMiner(dao, MiningMode.QUERY_PUSHDOWN);
+        when(dao.findMostProlificMusicians(2, 0, Integer.MAX_VALUE)).thenReturn(Lists.newArrayList(musician1, musician2));
+        when(dao.findBusiestYears(1, 0, Integer.MAX_VALUE)).thenReturn(Lists.newArrayList(2016));
+
+        assertEquals(Lists.newArrayList(musician1, musician2), pushdownMiner.mostProlificMusicians(2, -1, -1));
+        assertEquals(Lists.newArrayList(2016), pushdownMiner.busiestYears(1));
+        verify(dao, never()).loadAll(any(), any(FetchPlan.class));
+    }
+
+    /**
+     * To Validate if the query pushdown mode keeps the argument checks of the in-memory mode.
+     */
+    @DisplayName("Query pushdown keeps the in-memory contract for invalid k and null results")
+    @Test
+    public void pushdownKeepsInMemoryContract()
+    {
+        ECMMiner pushdownMiner = new ECMMiner(dao, MiningMode.QUERY_PUSHDOWN);
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> pushdownMiner.mostTalentedMusicians(0));
+        assertEquals("k should be positive", exception.getMessage());
+        assertEquals(0, pushdownMiner.bestSellingAlbums(-1).size());
+        when(dao.findHighestRatedAlbums(2, 1)).thenReturn(null);
+        NullPointerException nullException = assertThrows(NullPointerException.class, () -> pushdownMiner.highestRatedAlbums(2));
+        assertEquals("Object is null.", nullException.getMessage());
+    }
+
+    /**
+     * To Validate if instruments from several MusicianInstrument entries of the same musician are counted once each.
+     */
+    @DisplayName("Most talented musician counts distinct instruments across entries")
+    @Test
+    public void mostTalentedCountsDistinctInstrumentsAcrossEntries()
+    {
+        MusicianInstrument moreOfMusician3 = new MusicianInstrument(musician3, Sets.newHashSet(new MusicalInstrument("Piano"),new MusicalInstrument("Violin"),new MusicalInstrument("Drums")));
+        when(dao.loadAll(eq(MusicianInstrument.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(musicianInstrument1,musicianInstrument3,moreOfMusician3));
+        List<Musician> musicians = ecmMiner.mostTalentedMusicians(1);
+        assertEquals(Lists.newArrayList(musician3), musicians);
+    }
+
+    /**
+     * To Validate if musicians with the same count are ranked by name, whatever order the DAO returns them in.
+     */
+    @DisplayName("Ties between musicians are broken on the name")
+    @Test
+    public void prolificMusicianTiesAreBrokenByName()
+    {
+        musician3.setAlbums(Sets.newHashSet(album1, album2));
+        when(dao.loadAll(eq(Musician.class), any(FetchPlan.class))).thenReturn(Lists.newArrayList(musician2, musician3, musician1, musician4));
+        List<Musician> musicians = ecmMiner.mostProlificMusicians(3, -1, -1);
+        assertEquals(Lists.newArrayList(musician3, musician1, musician2), musicians);
+    }
+
+    /**
+     * To Validate if best selling albums come back ordered by sales.
+     */
+    @DisplayName("Best selling albums are ordered by sales")
+    @Test
+    public void bestSellingAlbumsAreOrderedBySales()
+    {
+        album1.setSales(1000);
+        album2.setSales(400);
+        album3.setSales(999);
+        when(dao.loadAll(eq(Album.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(album1,album2,album3));
+        assertEquals(Lists.newArrayList(album1, album3, album2), ecmMiner.bestSellingAlbums(3));
+    }
+
+    /**
+     * To Validate if equal counts rank the later year first, and the year window is applied.
+     */
+    @DisplayName("Busiest years break ties on the later year and honour the year window")
+    @Test
+    public void busiestYearsTieBreakAndWindow()
+    {
+        Album album5 = new Album(1990, "ECM 1064/69", "Somewhere");
+        Album album6 = new Album(1975, "ECM 1064/70", "Elsewhere");
+        when(dao.loadAll(eq(Album.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(album1,album2,album3,album4,album5,album6));
+        assertEquals(Lists.newArrayList(2016, 1975, 1990), ecmMiner.busiestYears(5));
+        assertEquals(Lists.newArrayList(1975, 1990), ecmMiner.busiestYears(5, 1970, 2000));
+        assertEquals(Lists.newArrayList(2016), ecmMiner.busiestYears(5, 2000, -1));
+    }
+
+    /**
+     * To Validate if nearest albums rank partial instrument overlaps, on an index built once and kept current by writes.
+     */
+    @DisplayName("Nearest albums are ranked by instrument overlap, without reloading the catalogue per lookup")
+    @Test
+    public void nearestAlbumsRankPartialOverlap()
+    {
+        album1.setInstruments(Sets.newHashSet(new MusicianInstrument(musician1,Sets.newHashSet(new MusicalInstrument("Guitar"),new MusicalInstrument("Drums")))));
+        album2.setInstruments(Sets.newHashSet(new MusicianInstrument(musician1,Sets.newHashSet(new MusicalInstrument("Guitar")))));
+        album3.setInstruments(Sets.newHashSet(new MusicianInstrument(musician1,Sets.newHashSet(new MusicalInstrument("Violin")))));
+        Album albumToBeChecked = new Album(2014,"ECM 1064/69", "Shadow");
+        albumToBeChecked.setInstruments(Sets.newHashSet(new MusicianInstrument(musician3,Sets.newHashSet(new MusicalInstrument("Guitar"),new MusicalInstrument("Drums")))));
+        when(dao.loadAll(eq(Album.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(album1,album2,album3));
+
+        assertEquals(Lists.newArrayList(album1, album2), ecmMiner.nearestAlbums(5, albumToBeChecked));
+        assertEquals(Lists.newArrayList(album1), ecmMiner.mostSimilarAlbums(5, albumToBeChecked));
+        assertEquals(Lists.newArrayList(album1, album2), ecmMiner.nearestAlbums(5, albumToBeChecked));
+        verify(dao, times(1)).loadAll(Album.class, FetchPlan.of("instruments.musicalInstruments"));
+
+        // Written through a StatisticsDAO, an album is seen by the next lookup without reloading the catalogue.
+        album1.setId(1L);
+        album2.setId(2L);
+        album3.setId(3L);
+        StatisticsDAO statisticsDAO = new StatisticsDAO(dao);
+        ECMMiner writeThroughMiner = new ECMMiner(statisticsDAO);
+        album3.setInstruments(Sets.newHashSet(new MusicianInstrument(musician1,Sets.newHashSet(new MusicalInstrument("Guitar"),new MusicalInstrument("Drums")))));
+        when(dao.createOrUpdate(album3)).thenReturn(album3);
+        clearInvocations(dao);
+        statisticsDAO.createOrUpdate(album3);
+        assertEquals(Lists.newArrayList(album1, album3), writeThroughMiner.mostSimilarAlbums(5, albumToBeChecked));
+        verify(dao, never()).loadAll(any(), any(FetchPlan.class));
+
+        // A dropped index is built again on the next lookup, and an index set by the caller is used as it is.
+        ecmMiner.setSimilarityIndex(null);
+        assertEquals(Lists.newArrayList(album1, album3), ecmMiner.mostSimilarAlbums(5, albumToBeChecked));
+        ecmMiner.setSimilarityIndex(AlbumSimilarityIndex.build(Lists.newArrayList(album2)));
+        assertEquals(Lists.newArrayList(album2), ecmMiner.nearestAlbums(5, albumToBeChecked));
+        verify(dao, times(1)).loadAll(Album.class, FetchPlan.of("instruments.musicalInstruments"));
+    }
+
+    /**
+     * To Validate if albums sharing a name are ranked separately instead of being merged.
+     */
+    @DisplayName("Albums with the same name are ranked separately")
+    @Test
+    public void albumsWithTheSameNameAreRankedSeparately() throws MalformedURLException
+    {
+        Album sameName = new Album(1990, "ECM 2000", "Meteora");
+        album2.setSales(400);
+        sameName.setSales(1000);
+        album1.setSales(999);
+        album2.setReviews(Sets.newHashSet(new Review(url1,40)));
+        sameName.setReviews(Sets.newHashSet(new Review(url1,90)));
+        album1.setReviews(Sets.newHashSet(new Review(url1,60)));
+        when(dao.loadAll(eq(Album.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(album1,album2,sameName));
+
+        assertEquals(Lists.newArrayList(sameName, album1, album2), ecmMiner.bestSellingAlbums(5));
+        assertEquals(Lists.newArrayList(sameName, album1, album2), ecmMiner.highestRatedAlbums(5));
+    }
+
+    /**
+     * To Validate if albums with fewer reviews than the threshold are not ranked.
+     */
+    @DisplayName("Highest rated albums honour the minimum number of reviews")
+    @Test
+    public void highestRatedAlbumsHonourMinimumReviews()
+    {
+        album1.setReviews(Sets.newHashSet(new Review(url1,100)));
+        album2.setReviews(Sets.newHashSet(new Review(url1,80),new Review(url2,90)));
+        album3.setReviews(Sets.newHashSet(new Review(url1,50),new Review(url2,60)));
+        when(dao.loadAll(eq(Album.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(album1,album2,album3,album4));
+
+        assertEquals(Lists.newArrayList(album1, album2, album3), ecmMiner.highestRatedAlbums(5, 0));
+        assertEquals(Lists.newArrayList(album2, album3), ecmMiner.highestRatedAlbums(5, 2));
+        assertEquals(0, ecmMiner.highestRatedAlbums(5, 3).size());
+    }
+
+    /**
+     * To Validate if the statistics mode gives the same rankings as the in-memory mode without loading anything.
+     */
+    @DisplayName("Statistics mode matches in-memory mining without calling loadAll")
+    @Test
+    public void statisticsModeMatchesInMemory() throws MalformedURLException
+    {
+        long id = 1;
+        for (Entity entity : Lists.newArrayList(album1, album2, album3, album4, musician1, musician2, musician3, musician4,
+                musicianInstrument1, musicianInstrument2, musicianInstrument3, musicianInstrument4)) {
+            entity.setId(id++);
+        }
+        album1.setSales(1000);
+        album2.setSales(400);
+        album1.setReviews(Sets.newHashSet(new Review(url1,98),new Review(url2,48.5)));
+        album3.setReviews(Sets.newHashSet(new Review(url2,99)));
+        when(dao.loadAll(eq(Album.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(album1,album2,album3,album4));
+        when(dao.loadAll(eq(Musician.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(musician1,musician2,musician3,musician4));
+        when(dao.loadAll(eq(MusicianInstrument.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(musicianInstrument1,musicianInstrument2,musicianInstrument3,musicianInstrument4));
+
+        ECMMiner statisticsMiner = new ECMMiner(new StatisticsDAO(dao), MiningMode.STATISTICS);
+        clearInvocations(dao);
+
+        List<Object> fromStatistics = Lists.newArrayList(statisticsMiner.mostProlificMusicians(3, -1, -1),
+                statisticsMiner.mostProlificMusicians(3, 2000, 2020), statisticsMiner.mostTalentedMusicians(3),
+                statisticsMiner.mostSocialMusicians(3), statisticsMiner.busiestYears(3),
+                statisticsMiner.highestRatedAlbums(3), statisticsMiner.bestSellingAlbums(3),
+                statisticsMiner.mostSimilarAlbums(3, album1), statisticsMiner.bestSellingAlbums(0));
+        verify(dao, never()).loadAll(any(), any(FetchPlan.class));
+
+        List<Object> inMemory = Lists.newArrayList(ecmMiner.mostProlificMusicians(3, -1, -1),
+                ecmMiner.mostProlificMusicians(3, 2000, 2020), ecmMiner.mostTalentedMusicians(3),
+                ecmMiner.mostSocialMusicians(3), ecmMiner.busiestYears(3),
+                ecmMiner.highestRatedAlbums(3), ecmMiner.bestSellingAlbums(3),
+                ecmMiner.mostSimilarAlbums(3, album1), ecmMiner.bestSellingAlbums(0));
+        assertEquals(inMemory, fromStatistics);
+    }
+
+    /**
+     * To Validate if the statistics mode refuses a DAO that does not maintain statistics.
+     */
+    @DisplayName("Statistics mode needs a StatisticsDAO")
+    @Test
+    public void statisticsModeNeedsStatisticsDao()
+    {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> new ECMMiner(dao, MiningMode.STATISTICS));
+        assertEquals("Statistics mode needs a StatisticsDAO.", exception.getMessage());
+    }
+
+    /**
+     * To Validate if streaming a page at a time gives the same rankings as loading everything at once.
+     */
+    @DisplayName("Paged mining matches loading everything without calling loadAll")
+    @Test
+    public void pagedMiningMatchesLoadAll() throws MalformedURLException
+    {
+        album1.setSales(1000);
+        album2.setSales(400);
+        album1.setReviews(Sets.newHashSet(new Review(url1,98),new Review(url2,48.5)));
+        album3.setReviews(Sets.newHashSet(new Review(url2,99)));
+        List<Album> albums = Lists.newArrayList(album1,album2,album3,album4);
+        List<Musician> musicians = Lists.newArrayList(musician1,musician2,musician3,musician4);
+        List<MusicianInstrument> musicianInstruments = Lists.newArrayList(musicianInstrument1,musicianInstrument2,musicianInstrument3,musicianInstrument4);
+        when(dao.loadAll(eq(Album.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(albums));
+        when(dao.loadAll(eq(Musician.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(musicians));
+        when(dao.loadAll(eq(MusicianInstrument.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(musicianInstruments));
+        when(dao.streamAll(eq(Album.class), eq(2), any(FetchPlan.class))).thenAnswer(invocation -> albums.stream());
+        when(dao.streamAll(eq(Musician.class), eq(2), any(FetchPlan.class))).thenAnswer(invocation -> musicians.stream());
+        when(dao.streamAll(eq(MusicianInstrument.class), eq(2), any(FetchPlan.class))).thenAnswer(invocation -> musicianInstruments.stream());
+
+        List<Object> loaded = Lists.newArrayList(ecmMiner.mostProlificMusicians(3, -1, -1),
+                ecmMiner.mostTalentedMusicians(3), ecmMiner.mostSocialMusicians(3), ecmMiner.busiestYears(3),
+                ecmMiner.highestRatedAlbums(3), ecmMiner.bestSellingAlbums(3), ecmMiner.mostSimilarAlbums(3, album1));
+        clearInvocations(dao);
+
+        ECMMiner pagedMiner = new ECMMiner(dao);
+        pagedMiner.setPageSize(2);
+        List<Object> paged = Lists.newArrayList(pagedMiner.mostProlificMusicians(3, -1, -1),
+                pagedMiner.mostTalentedMusicians(3), pagedMiner.mostSocialMusicians(3), pagedMiner.busiestYears(3),
+                pagedMiner.highestRatedAlbums(3), pagedMiner.bestSellingAlbums(3), pagedMiner.mostSimilarAlbums(3, album1));
+
+        assertEquals(loaded, paged);
+        verify(dao, never()).loadAll(any(), any(FetchPlan.class));
+        verify(dao, times(1)).streamAll(Musician.class, 2, FetchPlan.of("albums"));
+    }
+
+    /**
+     * To Validate if each in-memory ranking asks the DAO for the relationships it walks, and for nothing else.
+     */
+    @DisplayName("In-memory rankings load their relationships through fetch plans")
+    @Test
+    public void rankingsAskForTheirRelationships()
+    {
+        when(dao.loadAll(eq(Album.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(album1,album2,album3,album4));
+        when(dao.loadAll(eq(Musician.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(musician1,musician2,musician3,musician4));
+        when(dao.loadAll(eq(MusicianInstrument.class), any(FetchPlan.class))).thenReturn(Sets.newHashSet(musicianInstrument1,musicianInstrument2));
+
+        ecmMiner.mostProlificMusicians(3, -1, -1);
+        verify(dao).loadAll(Musician.class, FetchPlan.of("albums"));
+        ecmMiner.mostTalentedMusicians(3);
+        verify(dao).loadAll(MusicianInstrument.class, FetchPlan.of("musician", "musicalInstruments"));
+        ecmMiner.mostSocialMusicians(3);
+        verify(dao).loadAll(Album.class, FetchPlan.of("featuredMusicians"));
+        ecmMiner.highestRatedAlbums(3);
+        verify(dao).loadAll(Album.class, FetchPlan.of("reviews"));
+        ecmMiner.busiestYears(3);
+        ecmMiner.bestSellingAlbums(3);
+        verify(dao, times(2)).loadAll(Album.class, FetchPlan.NONE);
+        ecmMiner.mostSimilarAlbums(3, album1);
+        verify(dao).loadAll(Album.class, FetchPlan.of("instruments.musicalInstruments"));
+        verify(dao, never()).loadAll(any());
+    }
+
+    /**
+     * To Validate if the projection mode ranks summaries and loads only the top k entities, in ranking order.
+     */
+    @DisplayName("Projection mode ranks summaries and loads only the winners")
+    @Test
+    public void projectionModeRanksSummaries()
+    {
+        ECMMiner projectionMiner = new ECMMiner(dao, MiningMode.PROJECTION);
+        when(dao.findAlbumSummaries()).thenReturn(Lists.newArrayList(
+                new AlbumSummary(1L, "The Köln Concert", "ECM 1064/65", 1975, 1000, 2, 73.25),
+                new AlbumSummary(2L, "Meteora", "ECM 1064/66", 2016, 400, 0, 0),
+                new AlbumSummary(3L, "Minutes to midnight", "ECM 1064/67", 2016, 999, 1, 99),
+                new AlbumSummary(4L, "Shadow of the day", "ECM 1064/68", 2016, 400, 1, 73.25)));
+        when(dao.findMusicianSummaries(0, Integer.MAX_VALUE)).thenReturn(Lists.newArrayList(
+                new MusicianSummary(11L, "Keith Jarrett", 2), new MusicianSummary(12L, "Mike Shinoda", 2),
+                new MusicianSummary(13L, "Chester Bennington", 1), new MusicianSummary(14L, "Bon Jovi", 0)));
+        when(dao.loadAll(Album.class, Lists.newArrayList(1L, 3L))).thenReturn(Lists.newArrayList(album1, album3));
+        when(dao.loadAll(Album.class, Lists.newArrayList(3L, 1L, 4L))).thenReturn(Lists.newArrayList(album3, album1, album4));
+        when(dao.loadAll(Album.class, Lists.newArrayList(1L))).thenReturn(Lists.newArrayList(album1));
+        when(dao.loadAll(Musician.class, Lists.newArrayList(11L, 12L, 13L))).thenReturn(Lists.newArrayList(musician1, musician2, musician3));
+
+        assertEquals(Lists.newArrayList(album1, album3), projectionMiner.bestSellingAlbums(2));
+        assertEquals(Lists.newArrayList(album3, album1, album4), projectionMiner.highestRatedAlbums(5));
+        assertEquals(Lists.newArrayList(album1), projectionMiner.highestRatedAlbums(5, 2));
+        assertEquals(Lists.newArrayList(2016, 1975), projectionMiner.busiestYears(5));
+        assertEquals(Lists.newArrayList(musician1, musician2, musician3), projectionMiner.mostProlificMusicians(5, -1, -1));
+        assertEquals(0, projectionMiner.bestSellingAlbums(0).size());
+        verify(dao, never()).loadAll(any(), any(FetchPlan.class));
+        verify(dao, never()).loadAll(any());
+    }
 
-}
\ No newline at end of file
+    /**
+     * To Validate if the projection mode refuses a DAO answering null.
+     */
+    @DisplayName("Projection mode rejects null summaries")
+    @Test
+    public void projectionModeRejectsNullSummaries()
+    {
+        ECMMiner projectionMiner = new ECMMiner(dao, MiningMode.PROJECTION);
+        when(dao.findAlbumSummaries()).thenReturn(null);
+        when(dao.findMusicianSummaries(0, Integer.MAX_VALUE)).thenReturn(null);
+
+        assertThrows(NullPointerException.class, () -> projectionMiner.bestSellingAlbums(2));
+        assertThrows(NullPointerException.class, () -> projectionMiner.mostProlificMusicians(2, -1, -1));
+    }
+
+    /**
+     * To Validate if the page size cannot be negative.
+     */
+    @DisplayName("Page size cannot be negative")
+    @Test
+    public void pageSizeCannotBeNegative()
+    {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> ecmMiner.setPageSize(-1));
+        assertEquals("Page size cannot be negative.", exception.getMessage());
+        ecmMiner.setPageSize(0);
+        assertEquals(0, ecmMiner.getPageSize());
+    }
+
+    /**
+     * To Validate if aggregating partitions on a thread pool gives the same rankings as the sequential mode.
+     */
+    @DisplayName("Parallel mining matches sequential mining, ties included")
+    @Test
+    public void parallelMiningMatchesSequential()
+    {
+        SyntheticCatalogue catalogue = new CatalogueGenerator(15).generate(3000);
+        when(dao.loadAll(eq(Album.class), any(FetchPlan.class))).thenReturn(catalogue.getAlbums());
+        when(dao.loadAll(eq(Musician.class), any(FetchPlan.class))).thenReturn(catalogue.getMusicians());
+        when(dao.loadAll(eq(MusicianInstrument.class), any(FetchPlan.class))).thenReturn(catalogue.getMusicianInstruments());
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ECMMiner parallelMiner = new ECMMiner(dao);
+            parallelMiner.setExecutor(pool);
+            assertEquals(4, parallelMiner.getParallelism());
+            for (int k : new int[]{1, 10, 500}) {
+                assertEquals(ecmMiner.mostProlificMusicians(k, 1980, 2000), parallelMiner.mostProlificMusicians(k, 1980, 2000));
+                assertEquals(ecmMiner.mostTalentedMusicians(k), parallelMiner.mostTalentedMusicians(k));
+                assertEquals(ecmMiner.mostSocialMusicians(k), parallelMiner.mostSocialMusicians(k));
+                assertEquals(ecmMiner.busiestYears(k), parallelMiner.busiestYears(k));
+                assertEquals(ecmMiner.highestRatedAlbums(k, 2), parallelMiner.highestRatedAlbums(k, 2));
+                assertEquals(ecmMiner.bestSellingAlbums(k), parallelMiner.bestSellingAlbums(k));
+            }
+            parallelMiner.setParallelism(7);
+            assertEquals(ecmMiner.mostSocialMusicians(50), parallelMiner.mostSocialMusicians(50));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * To Validate if a failure in a partition reaches the caller unwrapped.
+     */
+    @DisplayName("Parallel mining rethrows failures of a partition")
+    @Test
+    public void parallelMiningRethrowsFailures()
+    {
+        Album broken = mock(Album.class);
+        when(broken.getFeaturedMusicians()).thenThrow(new IllegalStateException("Broken album."));
+        when(dao.loadAll(eq(Album.class), any(FetchPlan.class))).thenReturn(Lists.newArrayList(album1, album2, album3, broken));
+        ecmMiner.setExecutor(Runnable::run);
+        ecmMiner.setParallelism(2);
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> ecmMiner.mostSocialMusicians(2));
+        assertEquals("Broken album.", exception.getMessage());
+    }
+
+    /**
+     * To Validate if namesake musicians in different partitions are ranked once, with the albums of both.
+     */
+    @DisplayName("Parallel mining merges namesake musicians across partitions")
+    @Test
+    public void parallelMiningMergesNamesakes()
+    {
+        Musician namesake = new Musician("Keith Jarrett");
+        namesake.setAlbums(Sets.newHashSet(album2, album3));
+        when(dao.loadAll(eq(Musician.class), any(FetchPlan.class))).thenReturn(Lists.newArrayList(musician2, musician1, namesake, musician3));
+        ecmMiner.setExecutor(Runnable::run);
+        ecmMiner.setParallelism(2);
+
+        assertEquals(Lists.newArrayList(musician1, musician2, musician3), ecmMiner.mostProlificMusicians(3, -1, -1));
+        assertEquals(Lists.newArrayList(musician1, musician2), ecmMiner.mostProlificMusicians(3, 2016, 2016));
+    }
+
+    /**
+     * To Validate if the parallelism cannot be negative.
+     */
+    @DisplayName("Parallelism cannot be negative")
+    @Test
+    public void parallelismCannotBeNegative()
+    {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> ecmMiner.setParallelism(-1));
+        assertEquals("Parallelism cannot be negative.", exception.getMessage());
+        assertEquals(Runtime.getRuntime().availableProcessors(), ecmMiner.getParallelism());
+    }
+}
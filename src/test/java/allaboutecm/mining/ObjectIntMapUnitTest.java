@@ -0,0 +1,106 @@
+package allaboutecm.mining;
+
+import com.google.common.collect.Maps;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObjectIntMapUnitTest {
+    private ObjectIntMap<String> counts;
+
+    @BeforeEach
+    public void setUp() {
+        counts = new ObjectIntMap<>();
+        counts.increment("Keith Jarrett");
+        counts.increment("Keith Jarrett");
+        counts.add("Jan Garbarek", 5);
+    }
+
+    @Test
+    @DisplayName("Should count per key, and absent keys should count zero.")
+    public void shouldCountPerKey()
+    {
+        assertEquals(2, counts.get("Keith Jarrett"));
+        assertEquals(5, counts.get("Jan Garbarek"));
+        assertEquals(0, counts.get("Bon Jovi"));
+        assertTrue(counts.containsKey("Jan Garbarek"));
+        assertFalse(counts.containsKey("Bon Jovi"));
+        assertEquals(2, counts.size());
+        assertEquals(3, counts.increment("Keith Jarrett"));
+    }
+
+    @Test
+    @DisplayName("Keys should be matched with equals, not identity.")
+    public void keysAreMatchedWithEquals()
+    {
+        counts.increment(new String("Keith Jarrett"));
+        assertEquals(3, counts.get("Keith Jarrett"));
+        assertEquals(2, counts.size());
+    }
+
+    @Test
+    @DisplayName("An identity-keyed map should count equal keys apart, across growing.")
+    public void identityKeyedMapCountsInstances()
+    {
+        ObjectIntMap<String> instances = ObjectIntMap.identityKeyed();
+        String keith = "Keith Jarrett";
+        instances.increment(keith);
+        instances.increment(new String(keith));
+        for (int i = 0; i < 100; i++) {
+            instances.increment(Integer.toString(i));
+        }
+        instances.increment(keith);
+
+        assertEquals(2, instances.get(keith));
+        assertEquals(0, instances.get(new String(keith)));
+        assertEquals(102, instances.size());
+    }
+
+    @Test
+    @DisplayName("Counts should survive growing, and match a HashMap for many keys.")
+    public void matchesHashMapWhenGrowing()
+    {
+        ObjectIntMap<Integer> map = new ObjectIntMap<>(0);
+        Map<Integer, Integer> expected = Maps.newHashMap();
+        Random random = new Random(16);
+        for (int i = 0; i < 100_000; i++) {
+            // Multiples of a power of two, so that poorly spread hash codes would collide
+            int key = random.nextInt(5000) * 1024;
+            map.increment(key);
+            expected.merge(key, 1, Integer::sum);
+        }
+        assertEquals(expected.size(), map.size());
+        Map<Integer, Integer> actual = Maps.newHashMap();
+        map.forEach(actual::put);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    @DisplayName("Adding another map should sum the counts of equal keys.")
+    public void addAllSumsCounts()
+    {
+        ObjectIntMap<String> other = new ObjectIntMap<>();
+        other.increment("Keith Jarrett");
+        other.increment("Bon Jovi");
+
+        counts.addAll(other);
+
+        assertEquals(3, counts.get("Keith Jarrett"));
+        assertEquals(1, counts.get("Bon Jovi"));
+        assertEquals(3, counts.size());
+    }
+
+    @Test
+    @DisplayName("Null keys and negative sizes should be rejected.")
+    public void invalidArgumentsAreRejected()
+    {
+        assertThrows(NullPointerException.class, () -> counts.increment(null));
+        assertThrows(NullPointerException.class, () -> counts.get(null));
+        assertThrows(IllegalArgumentException.class, () -> new ObjectIntMap<String>(-1));
+    }
+}
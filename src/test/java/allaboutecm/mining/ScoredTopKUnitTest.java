@@ -0,0 +1,107 @@
+package allaboutecm.mining;
+
+import com.google.common.collect.Lists;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScoredTopKUnitTest {
+
+    @Test
+    @DisplayName("Should keep the k highest scores, best first.")
+    public void shouldKeepTheBestKElements()
+    {
+        ScoredTopK<String> topK = new ScoredTopK<>(3, Comparator.naturalOrder());
+        topK.offer("e", 5);
+        topK.offer("a", 1);
+        topK.offer("i", 9);
+        topK.offer("g", 7);
+        topK.offer("c", 3);
+        topK.offer("h", 8);
+        assertEquals(Lists.newArrayList("i", "h", "g"), topK.toList());
+        assertEquals(3, topK.size());
+    }
+
+    @Test
+    @DisplayName("Scores should be read in the order of the selected elements.")
+    public void scoresFollowTheSelection()
+    {
+        ScoredTopK<String> topK = new ScoredTopK<>(3, Comparator.naturalOrder());
+        topK.offer("a", 1.5);
+        topK.offer("b", 2.5);
+        topK.offer("c", 0.5);
+        topK.offer("d", 2.5);
+        assertEquals(Lists.newArrayList("b", "d", "a"), topK.toList());
+        assertArrayEquals(new double[]{2.5, 2.5, 1.5}, topK.toScores());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {100_000_000, Integer.MAX_VALUE})
+    @DisplayName("Should not allocate for k up front when k is far beyond the candidates.")
+    public void shouldGrowWithTheCandidates(int arg)
+    {
+        ScoredTopK<Integer> topK = new ScoredTopK<>(arg, Comparator.naturalOrder());
+        for (int i = 0; i < 100; i++) {
+            topK.offer(i, i % 10);
+        }
+        assertEquals(100, topK.size());
+        assertEquals(Integer.valueOf(9), topK.toList().get(0));
+        assertEquals(0, topK.toScores()[99]);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, -100})
+    @DisplayName("Should keep nothing when k is zero or negative.")
+    public void shouldKeepNothingWithInvalidK(int arg)
+    {
+        ScoredTopK<String> topK = new ScoredTopK<>(arg, Comparator.naturalOrder());
+        topK.offer("a", 1);
+        assertEquals(0, topK.toList().size());
+    }
+
+    @Test
+    @DisplayName("Equal scores should be broken by the tie-break regardless of offer order.")
+    public void tiesShouldBeDeterministic()
+    {
+        List<String> words = Lists.newArrayList("bb", "aa", "cc", "d", "eee");
+        for (int i = 0; i < 10; i++) {
+            Collections.shuffle(words, new Random(i));
+            ScoredTopK<String> topK = new ScoredTopK<>(3, Comparator.naturalOrder());
+            for (String word : words) {
+                topK.offer(word, word.length());
+            }
+            assertEquals(Lists.newArrayList("eee", "aa", "bb"), topK.toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Merging partial selections should give the selection over all candidates.")
+    public void mergedPartialsMatchOneSelection()
+    {
+        Random random = new Random(16);
+        ScoredTopK<Integer> all = new ScoredTopK<>(10, Comparator.naturalOrder());
+        ScoredTopK<Integer> merged = new ScoredTopK<>(10, Comparator.naturalOrder());
+        List<ScoredTopK<Integer>> partials = Lists.newArrayList();
+        for (int p = 0; p < 4; p++) {
+            partials.add(new ScoredTopK<>(10, Comparator.naturalOrder()));
+        }
+        for (int i = 0; i < 1000; i++) {
+            double score = random.nextInt(50);
+            all.offer(i, score);
+            partials.get(i % 4).offer(i, score);
+        }
+        for (ScoredTopK<Integer> partial : partials) {
+            merged.offerAll(partial);
+        }
+        assertEquals(all.toList(), merged.toList());
+        assertThrows(NullPointerException.class, () -> new ScoredTopK<String>(1, null));
+    }
+}
@@ -0,0 +1,90 @@
+package allaboutecm.mining;
+
+import com.google.common.collect.Lists;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopKUnitTest {
+
+    @Test
+    @DisplayName("Should keep the k best elements, best first.")
+    public void shouldKeepTheBestKElements()
+    {
+        TopK<Integer> topK = new TopK<>(3, Comparator.reverseOrder());
+        topK.offerAll(Lists.newArrayList(5, 1, 9, 7, 3, 8));
+        assertEquals(Lists.newArrayList(9, 8, 7), topK.toList());
+        assertEquals(3, topK.size());
+    }
+
+    @Test
+    @DisplayName("Should return every element when k exceeds the number of candidates.")
+    public void shouldReturnAllWhenKExceedsCandidates()
+    {
+        TopK<Integer> topK = new TopK<>(999, Comparator.reverseOrder());
+        topK.offerAll(Lists.newArrayList(2, 3, 1));
+        assertEquals(Lists.newArrayList(3, 2, 1), topK.toList());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {100_000_000, Integer.MAX_VALUE})
+    @DisplayName("Should not allocate for k up front when k is far beyond the candidates.")
+    public void shouldGrowWithTheCandidates(int arg)
+    {
+        TopK<Integer> topK = new TopK<>(arg, Comparator.reverseOrder());
+        topK.offerAll(Lists.newArrayList(2, 3, 1));
+        assertEquals(Lists.newArrayList(3, 2, 1), topK.toList());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, -100})
+    @DisplayName("Should keep nothing when k is zero or negative.")
+    public void shouldKeepNothingWithInvalidK(int arg)
+    {
+        TopK<Integer> topK = new TopK<>(arg, Comparator.reverseOrder());
+        topK.offerAll(Lists.newArrayList(2, 3, 1));
+        assertEquals(0, topK.toList().size());
+    }
+
+    @Test
+    @DisplayName("Ties should be broken by the comparator regardless of offer order.")
+    public void tiesShouldBeDeterministic()
+    {
+        Comparator<String> byLengthThenName = Comparator.comparingInt(String::length).reversed()
+                .thenComparing(Comparator.naturalOrder());
+        List<String> words = Lists.newArrayList("bb", "aa", "cc", "d", "eee");
+        for (int i = 0; i < 10; i++) {
+            Collections.shuffle(words, new Random(i));
+            TopK<String> topK = new TopK<>(3, byLengthThenName);
+            topK.offerAll(words);
+            assertEquals(Lists.newArrayList("eee", "aa", "bb"), topK.toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Should agree with a full sort on random input.")
+    public void shouldAgreeWithFullSort()
+    {
+        List<Integer> numbers = new Random(42).ints(1000, 0, 100).boxed().collect(Collectors.toList());
+        TopK<Integer> topK = new TopK<>(25, Comparator.naturalOrder());
+        topK.offerAll(numbers);
+        List<Integer> sorted = numbers.stream().sorted().limit(25).collect(Collectors.toList());
+        assertEquals(sorted, topK.toList());
+    }
+
+    @Test
+    @DisplayName("Ranking comparator cannot be null.")
+    public void rankingCannotBeNull()
+    {
+        assertThrows(NullPointerException.class, () -> new TopK<Integer>(3, null));
+    }
+}
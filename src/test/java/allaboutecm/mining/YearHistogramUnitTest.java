@@ -0,0 +1,66 @@
+package allaboutecm.mining;
+
+import com.google.common.collect.Lists;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class YearHistogramUnitTest {
+    private YearHistogram histogram;
+
+    @BeforeEach
+    public void setUp() {
+        histogram = new YearHistogram(1970, 2020);
+        histogram.add(1975);
+        histogram.add(1990);
+        histogram.add(2016, 2);
+    }
+
+    @Test
+    @DisplayName("Should count albums per year.")
+    public void shouldCountAlbumsPerYear()
+    {
+        assertEquals(2, histogram.count(2016));
+        assertEquals(1, histogram.count(1975));
+        assertEquals(0, histogram.count(2000));
+    }
+
+    @Test
+    @DisplayName("Years outside the histogram should be ignored.")
+    public void yearsOutsideShouldBeIgnored()
+    {
+        assertFalse(histogram.add(1969));
+        assertFalse(histogram.add(2021));
+        assertEquals(0, histogram.count(1969));
+    }
+
+    @Test
+    @DisplayName("Busiest years rank by count, then the later year.")
+    public void busiestRanksByCountThenLaterYear()
+    {
+        assertEquals(Lists.newArrayList(2016, 1990, 1975), histogram.busiest(5, 0, Integer.MAX_VALUE));
+        assertEquals(Lists.newArrayList(2016, 1990), histogram.busiest(2, 0, Integer.MAX_VALUE));
+        assertEquals(Lists.newArrayList(1990, 1975), histogram.busiest(5, 1900, 1999));
+        assertEquals(0, histogram.busiest(5, 2030, 2040).size());
+    }
+
+    @Test
+    @DisplayName("Merging should add the counts of the same years.")
+    public void mergeShouldAddCounts()
+    {
+        YearHistogram other = new YearHistogram(1970, 2020);
+        other.add(1975, 3);
+        histogram.merge(other);
+        assertEquals(4, histogram.count(1975));
+        assertThrows(IllegalArgumentException.class, () -> histogram.merge(new YearHistogram(1980, 2020)));
+    }
+
+    @Test
+    @DisplayName("Last year cannot be before the first year.")
+    public void lastYearCannotBeBeforeFirstYear()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new YearHistogram(2000, 1999));
+    }
+}
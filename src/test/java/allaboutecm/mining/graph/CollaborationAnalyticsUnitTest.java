@@ -0,0 +1,200 @@
+package allaboutecm.mining.graph;
+
+import allaboutecm.synthetic.CatalogueGenerator;
+import com.google.common.collect.Lists;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CollaborationAnalyticsUnitTest {
+    private CollaborationGraph<String> scenes;
+    private CollaborationAnalytics<String> analytics;
+
+    // Two quartets who never met, except through Jan Garbarek, who played with one member of each.
+    @BeforeEach
+    public void setUp()
+    {
+        scenes = CollaborationGraph.fromLineUps(Lists.newArrayList(
+                Lists.newArrayList("Keith Jarrett", "Palle Danielsson", "Jon Christensen", "Charlie Haden"),
+                Lists.newArrayList("Keith Jarrett", "Palle Danielsson"),
+                Lists.newArrayList("Pat Metheny", "Lyle Mays", "Mark Egan", "Dan Gottlieb"),
+                Lists.newArrayList("Jan Garbarek", "Keith Jarrett"),
+                Lists.newArrayList("Jan Garbarek", "Pat Metheny")));
+        analytics = new CollaborationAnalytics<>(scenes);
+    }
+
+    /** To Validate the weighted degree */
+    @Test
+    @DisplayName("Weighted degree should count the albums shared with every collaborator.")
+    public void weightedDegreeCountsSharedAlbums()
+    {
+        CentralityScores<String> degrees = analytics.weightedDegree();
+
+        assertEquals(5, degrees.scoreOf("Keith Jarrett"));
+        assertEquals(2, degrees.scoreOf("Jan Garbarek"));
+        assertEquals(0, degrees.scoreOf("Manfred Eicher"));
+        assertEquals("Keith Jarrett", degrees.top(1, Comparator.naturalOrder()).get(0));
+    }
+
+    /** To Validate PageRank against a star solved by hand */
+    @Test
+    @DisplayName("PageRank should converge to the scores of a star solved by hand, adding up to one.")
+    public void pageRankOfAStar()
+    {
+        CollaborationGraph<String> star = CollaborationGraph.fromLineUps(Lists.newArrayList(
+                Lists.newArrayList("Keith Jarrett", "Palle Danielsson"),
+                Lists.newArrayList("Keith Jarrett", "Jon Christensen"),
+                Lists.newArrayList("Keith Jarrett", "Charlie Haden")));
+
+        CentralityScores<String> ranks = new CollaborationAnalytics<>(star).pageRank();
+
+        // Leaves: r = 0.15 / 4 + 0.85 * centre / 3; centre: c = 0.15 / 4 + 0.85 * 3 * r.
+        double leaf = 0.048125 / 0.2775;
+        assertEquals(0.0375 + 2.55 * leaf, ranks.scoreOf("Keith Jarrett"), 1e-8);
+        assertEquals(leaf, ranks.scoreOf("Charlie Haden"), 1e-8);
+        assertTrue(ranks.getConvergence().isConverged());
+        assertTrue(ranks.getConvergence().getFinalResidual() <= CollaborationAnalytics.DEFAULT_TOLERANCE);
+        assertEquals(ranks.getConvergence().getIterations(), ranks.getConvergence().getResiduals().length);
+        double sum = 0;
+        for (int id = 0; id < star.size(); id++) {
+            sum += ranks.score(id);
+        }
+        assertEquals(1, sum, 1e-9);
+    }
+
+    /** To Validate that PageRank reports running out of iterations */
+    @Test
+    @DisplayName("PageRank should report when it stops before converging.")
+    public void pageRankReportsNoConvergence()
+    {
+        CentralityScores<String> ranks = analytics.pageRank(0.85, 0, 3);
+
+        assertFalse(ranks.getConvergence().isConverged());
+        assertEquals(3, ranks.getConvergence().getIterations());
+        double[] residuals = ranks.getConvergence().getResiduals();
+        assertTrue(residuals[2] < residuals[0]);
+    }
+
+    /** To Validate exact betweenness on the bridge between two scenes */
+    @Test
+    @DisplayName("Exact betweenness should put the musicians bridging the two scenes on top.")
+    public void betweennessFindsTheBridge()
+    {
+        CentralityScores<String> betweenness = analytics.betweenness(100, 1);
+
+        // Jan Garbarek sits on every path between the 4 musicians on each side.
+        assertEquals(16, betweenness.scoreOf("Jan Garbarek"), 1e-9);
+        // Keith Jarrett lies between his 3 bandmates and the 5 musicians beyond him, and Pat Metheny likewise.
+        assertEquals(15, betweenness.scoreOf("Keith Jarrett"), 1e-9);
+        assertEquals(15, betweenness.scoreOf("Pat Metheny"), 1e-9);
+        assertEquals(0, betweenness.scoreOf("Charlie Haden"), 1e-9);
+        assertEquals(Lists.newArrayList("Jan Garbarek", "Keith Jarrett", "Pat Metheny"),
+                betweenness.top(3, Comparator.naturalOrder()));
+        assertTrue(betweenness.getConvergence().isConverged());
+        assertEquals(scenes.size(), betweenness.getConvergence().getIterations());
+    }
+
+    /** To Validate sampled betweenness */
+    @Test
+    @DisplayName("Sampled betweenness should scale up its estimate and report that it is not exact.")
+    public void sampledBetweenness()
+    {
+        CentralityScores<String> sampled = analytics.betweenness(4, 5171);
+
+        assertFalse(sampled.getConvergence().isConverged());
+        assertEquals(4, sampled.getConvergence().getIterations());
+        assertTrue(sampled.scoreOf("Jan Garbarek") > 0);
+        assertEquals(0, sampled.scoreOf("Charlie Haden"), 1e-9);
+    }
+
+    /** To Validate label propagation */
+    @Test
+    @DisplayName("Label propagation should find the two scenes, the same way for the same seed.")
+    public void labelPropagationFindsScenes()
+    {
+        Communities<String> communities = analytics.communities(7);
+
+        assertTrue(communities.getConvergence().isConverged());
+        assertEquals(0, communities.getConvergence().getFinalResidual());
+        assertEquals(communities.communityOf("Keith Jarrett"), communities.communityOf("Charlie Haden"));
+        assertEquals(communities.communityOf("Pat Metheny"), communities.communityOf("Dan Gottlieb"));
+        assertNotEquals(communities.communityOf("Keith Jarrett"), communities.communityOf("Pat Metheny"));
+        assertEquals(-1, communities.communityOf("Manfred Eicher"));
+        assertTrue(communities.modularity() > 0.3);
+        int total = 0;
+        for (int c = 0; c < communities.count(); c++) {
+            total += communities.size(c);
+            assertEquals(communities.size(c), communities.members(c).size());
+        }
+        assertEquals(scenes.size(), total);
+
+        Communities<String> again = analytics.communities(7);
+        for (int id = 0; id < scenes.size(); id++) {
+            assertEquals(communities.communityOf(id), again.communityOf(id));
+        }
+    }
+
+    /** To Validate that partitioning the work does not change the results */
+    @Test
+    @DisplayName("Parallel analytics should match sequential analytics on a generated catalogue.")
+    public void parallelMatchesSequential()
+    {
+        CollaborationGraph<?> generated = CollaborationGraph.of(new CatalogueGenerator(18).generate(2000).getAlbums());
+        CollaborationAnalytics<?> sequential = new CollaborationAnalytics<>(generated);
+        CollaborationAnalytics<?> parallel = new CollaborationAnalytics<>(generated);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            parallel.setExecutor(pool);
+            assertEquals(4, parallel.getParallelism());
+            CentralityScores<?> ranks = sequential.pageRank();
+            CentralityScores<?> parallelRanks = parallel.pageRank();
+            CentralityScores<?> betweenness = sequential.betweenness(50, 3);
+            CentralityScores<?> parallelBetweenness = parallel.betweenness(50, 3);
+            CentralityScores<?> degrees = parallel.weightedDegree();
+            assertTrue(ranks.getConvergence().isConverged());
+            assertEquals(ranks.getConvergence().getIterations(), parallelRanks.getConvergence().getIterations());
+            for (int id = 0; id < generated.size(); id++) {
+                assertEquals(ranks.score(id), parallelRanks.score(id));
+                assertEquals(betweenness.score(id), parallelBetweenness.score(id), 1e-6);
+                assertEquals(generated.weightedDegree(id), degrees.score(id));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** To Validate an empty graph */
+    @Test
+    @DisplayName("An empty graph should give empty results.")
+    public void emptyGraph()
+    {
+        CollaborationAnalytics<String> empty = new CollaborationAnalytics<>(
+                CollaborationGraph.fromLineUps(Lists.<List<String>>newArrayList()));
+
+        assertEquals(0, empty.pageRank().top(5, Comparator.naturalOrder()).size());
+        assertEquals(0, empty.betweenness(5, 1).top(5, Comparator.naturalOrder()).size());
+        assertEquals(0, empty.communities(1).count());
+        assertEquals(0, empty.communities(1).modularity());
+    }
+
+    /** To Validate the argument checks */
+    @Test
+    @DisplayName("Invalid arguments should be rejected.")
+    public void invalidArgumentsAreRejected()
+    {
+        assertThrows(NullPointerException.class, () -> new CollaborationAnalytics<String>(null));
+        assertThrows(IllegalArgumentException.class, () -> analytics.pageRank(1, 1e-9, 10));
+        assertThrows(IllegalArgumentException.class, () -> analytics.pageRank(0.85, -1, 10));
+        assertThrows(IllegalArgumentException.class, () -> analytics.pageRank(0.85, 1e-9, 0));
+        assertThrows(IllegalArgumentException.class, () -> analytics.betweenness(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> analytics.labelPropagation(0, 1));
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> analytics.setParallelism(-1));
+        assertEquals("Parallelism cannot be negative.", exception.getMessage());
+    }
+}
@@ -0,0 +1,132 @@
+package allaboutecm.mining.graph;
+
+import allaboutecm.model.Album;
+import allaboutecm.model.Musician;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CollaborationGraphUnitTest {
+    private CollaborationGraph<String> graph;
+
+    @BeforeEach
+    public void setUp()
+    {
+        graph = CollaborationGraph.fromLineUps(Lists.newArrayList(
+                Lists.newArrayList("Keith Jarrett", "Jan Garbarek", "Palle Danielsson"),
+                Lists.newArrayList("Keith Jarrett", "Jan Garbarek"),
+                Lists.newArrayList("Jan Garbarek", "Jon Christensen"),
+                Lists.newArrayList("Bon Jovi")));
+    }
+
+    /** To Validate the rows of the graph */
+    @Test
+    @DisplayName("Each collaborator should appear once per row, with the number of albums shared.")
+    public void rowsHoldDistinctCollaborators()
+    {
+        int keith = graph.idOf("Keith Jarrett");
+        int jan = graph.idOf("Jan Garbarek");
+        assertEquals(5, graph.size());
+        assertEquals(4, graph.edgeCount());
+        assertEquals(2, graph.degree(keith));
+        assertEquals(3, graph.degreeOf("Jan Garbarek"));
+        assertEquals(0, graph.degreeOf("Bon Jovi"));
+        assertEquals(0, graph.degreeOf("Manfred Eicher"));
+        assertEquals(-1, graph.idOf("Manfred Eicher"));
+
+        int[] neighbours = graph.neighbours(keith);
+        int[] weights = graph.weights(keith);
+        int janAt = (neighbours[0] == jan) ? 0 : 1;
+        assertEquals(2, weights[janAt]);
+        assertEquals("Palle Danielsson", graph.musician(neighbours[1 - janAt]));
+        assertEquals(1, weights[1 - janAt]);
+    }
+
+    /** To Validate the ranking by degree */
+    @Test
+    @DisplayName("Musicians should rank by distinct collaborators, ties by name, and solo musicians not at all.")
+    public void ranksByDegree()
+    {
+        assertEquals(Lists.newArrayList("Jan Garbarek", "Keith Jarrett", "Palle Danielsson", "Jon Christensen"),
+                graph.mostConnected(10, Comparator.naturalOrder()));
+        assertEquals(Lists.newArrayList("Jan Garbarek"), graph.mostConnected(1, Comparator.naturalOrder()));
+        assertEquals(0, graph.mostConnected(0, Comparator.naturalOrder()).size());
+    }
+
+    /** To Validate the graph of album line-ups */
+    @Test
+    @DisplayName("Albums should connect their featured musicians, a musician listed twice counting once.")
+    public void buildsFromAlbums()
+    {
+        Musician keith = new Musician("Keith Jarrett");
+        Musician jan = new Musician("Jan Garbarek");
+        Album album = new Album(1974, "ECM 1050", "Belonging");
+        album.setFeaturedMusicians(Lists.newArrayList(keith, jan));
+
+        CollaborationGraph<Musician> albums = CollaborationGraph.of(Lists.newArrayList(album));
+
+        assertEquals(2, albums.size());
+        assertEquals(1, albums.degreeOf(new Musician("Keith Jarrett")));
+        assertArrayEquals(new int[]{1}, albums.weights(albums.idOf(jan)));
+
+        CollaborationGraph<String> twice = CollaborationGraph.fromLineUps(Lists.<List<String>>newArrayList(
+                Lists.newArrayList("Keith Jarrett", "Jan Garbarek", "Keith Jarrett")));
+        assertEquals(1, twice.degreeOf("Keith Jarrett"));
+        assertArrayEquals(new int[]{1}, twice.weights(twice.idOf("Jan Garbarek")));
+    }
+
+    /** To Validate the degrees against counting with sets */
+    @Test
+    @DisplayName("Degrees should match counting collaborators with sets.")
+    public void matchesCountingWithSets()
+    {
+        List<List<Integer>> lineUps = Lists.newArrayList();
+        Random random = new Random(17);
+        for (int album = 0; album < 2000; album++) {
+            List<Integer> lineUp = Lists.newArrayList();
+            for (int i = random.nextInt(6); i >= 0; i--) {
+                lineUp.add(random.nextInt(300));
+            }
+            lineUps.add(lineUp);
+        }
+
+        CollaborationGraph<Integer> random300 = CollaborationGraph.fromLineUps(lineUps);
+
+        long edges = 0;
+        for (int musician = 0; musician < 300; musician++) {
+            Set<Integer> collaborators = Sets.newHashSet();
+            for (List<Integer> lineUp : lineUps) {
+                if (lineUp.contains(musician)) {
+                    collaborators.addAll(lineUp);
+                }
+            }
+            collaborators.remove(musician);
+            edges += collaborators.size();
+            assertEquals(collaborators.size(), random300.degreeOf(musician), "Musician " + musician);
+        }
+        assertEquals(edges / 2, random300.edgeCount());
+        assertEquals(edges, Arrays.stream(random300.offsets).max().getAsInt());
+    }
+
+    /** To Validate the argument checks */
+    @Test
+    @DisplayName("Null line-ups and musicians should be rejected.")
+    public void nullArgumentsAreRejected()
+    {
+        assertThrows(NullPointerException.class, () -> CollaborationGraph.of(null));
+        List<List<String>> withNull = Lists.newArrayList();
+        withNull.add(Arrays.asList("Keith Jarrett", null));
+        assertThrows(NullPointerException.class, () -> CollaborationGraph.fromLineUps(withNull));
+        assertThrows(NullPointerException.class, () -> graph.mostConnected(5, null));
+    }
+}
@@ -0,0 +1,114 @@
+package allaboutecm.mining.graph;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CollaborationIndexUnitTest {
+    private CollaborationIndex<String> index;
+
+    @BeforeEach
+    public void setUp()
+    {
+        index = new CollaborationIndex<>();
+        index.put(1L, Lists.newArrayList("Keith Jarrett", "Jan Garbarek", "Palle Danielsson"));
+        index.put(2L, Lists.newArrayList("Keith Jarrett", "Jan Garbarek"));
+    }
+
+    /** To Validate the degrees after adding albums */
+    @Test
+    @DisplayName("Adding albums should count distinct collaborators.")
+    public void addingCountsDistinctCollaborators()
+    {
+        assertEquals(2, index.degree("Keith Jarrett"));
+        assertEquals(2, index.degree("Palle Danielsson"));
+        assertEquals(0, index.degree("Bon Jovi"));
+        assertEquals(2, index.albumCount());
+
+        assertEquals(Sets.newHashSet("Jan Garbarek", "Jon Christensen"),
+                index.put(3L, Lists.newArrayList("Jan Garbarek", "Jon Christensen")));
+        assertEquals(3, index.degree("Jan Garbarek"));
+    }
+
+    /** To Validate replacing and removing line-ups */
+    @Test
+    @DisplayName("Replacing or removing a line-up should recount only its musicians.")
+    public void changesRecountTheirMusicians()
+    {
+        assertEquals(Sets.newHashSet("Keith Jarrett", "Jan Garbarek", "Palle Danielsson", "Jon Christensen"),
+                index.put(1L, Lists.newArrayList("Palle Danielsson", "Jon Christensen")));
+        assertEquals(1, index.degree("Keith Jarrett"));
+        assertEquals(1, index.degree("Palle Danielsson"));
+
+        assertEquals(Sets.newHashSet("Keith Jarrett", "Jan Garbarek"), index.remove(2L));
+        assertEquals(0, index.degree("Keith Jarrett"));
+        assertEquals(0, index.remove(2L).size());
+        assertEquals(1, index.albumCount());
+    }
+
+    /** To Validate that the index agrees with a graph built from scratch */
+    @Test
+    @DisplayName("After random changes the degrees and the snapshot should match a graph built from the line-ups.")
+    public void matchesRebuiltGraph()
+    {
+        CollaborationIndex<Integer> numbers = new CollaborationIndex<>();
+        Map<Long, List<Integer>> lineUps = new HashMap<>();
+        Random random = new Random(17);
+        for (int change = 0; change < 3000; change++) {
+            long album = random.nextInt(400);
+            if (random.nextInt(5) == 0) {
+                numbers.remove(album);
+                lineUps.remove(album);
+            } else {
+                List<Integer> lineUp = Lists.newArrayList();
+                for (int i = random.nextInt(5); i >= 0; i--) {
+                    lineUp.add(random.nextInt(200));
+                }
+                numbers.put(album, lineUp);
+                lineUps.put(album, lineUp);
+            }
+        }
+
+        CollaborationGraph<Integer> rebuilt = CollaborationGraph.fromLineUps(lineUps.values());
+        CollaborationGraph<Integer> snapshot = numbers.snapshot();
+        assertEquals(lineUps.size(), numbers.albumCount());
+        assertEquals(rebuilt.edgeCount(), snapshot.edgeCount());
+        for (int musician = 0; musician < 200; musician++) {
+            assertEquals(rebuilt.degreeOf(musician), numbers.degree(musician), "Musician " + musician);
+            assertEquals(rebuilt.degreeOf(musician), snapshot.degreeOf(musician), "Musician " + musician);
+        }
+    }
+
+    /** To Validate that a snapshot does not change with the index */
+    @Test
+    @DisplayName("A snapshot should keep the line-ups it was taken from.")
+    public void snapshotIsIndependent()
+    {
+        CollaborationGraph<String> snapshot = index.snapshot();
+        index.clear();
+
+        assertEquals(0, index.degree("Keith Jarrett"));
+        assertEquals(2, snapshot.degreeOf("Keith Jarrett"));
+        assertEquals(3, snapshot.edgeCount());
+    }
+
+    /** To Validate the argument checks */
+    @Test
+    @DisplayName("Null albums, line-ups and musicians should be rejected.")
+    public void nullArgumentsAreRejected()
+    {
+        assertThrows(NullPointerException.class, () -> index.put(null, Lists.newArrayList("Keith Jarrett")));
+        assertThrows(NullPointerException.class, () -> index.put(3L, null));
+        assertThrows(NullPointerException.class, () -> index.remove(null));
+        assertThrows(NullPointerException.class, () -> index.degree(null));
+    }
+}
@@ -0,0 +1,275 @@
+package allaboutecm.mining.statistics;
+
+import allaboutecm.dataaccess.BatchResult;
+import allaboutecm.dataaccess.DAO;
+import allaboutecm.mining.graph.CollaborationGraph;
+import allaboutecm.model.*;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class StatisticsDAOUnitTest {
+    private DAO delegate;
+    private StatisticsDAO dao;
+    private CatalogueStatistics statistics;
+    private Album album1;
+    private Album album2;
+    private Album album3;
+    private Musician musician1;
+    private Musician musician2;
+    private Musician musician3;
+    private URL url;
+
+    @BeforeEach
+    public void setUp() throws MalformedURLException {
+        delegate = mock(DAO.class);
+        AtomicLong ids = new AtomicLong();
+        // Saving through the mock gives the entity an id, as Neo4jDAO does.
+        when(delegate.createOrUpdate(any())).thenAnswer(invocation -> {
+            Entity entity = invocation.getArgument(0);
+            if (entity.getId() == null) {
+                entity.setId(ids.incrementAndGet());
+            }
+            return entity;
+        });
+        dao = new StatisticsDAO(delegate);
+        statistics = dao.getStatistics();
+
+        album1 = new Album(1975, "ECM 1064/65", "The Köln Concert");
+        album2 = new Album(2016, "ECM 1064/66", "Meteora");
+        album3 = new Album(2016, "ECM 1064/67", "Minutes to midnight");
+        musician1 = new Musician("Keith Jarrett");
+        musician2 = new Musician("Mike Shinoda");
+        musician3 = new Musician("Chester Bennington");
+        url = new URL("https://www.imdb.com/");
+    }
+
+    @Test
+    @DisplayName("Statistics are counted from the wrapped DAO on construction.")
+    public void statisticsAreCountedOnConstruction()
+    {
+        album1.setId(100L);
+        album2.setId(101L);
+        when(delegate.loadAll(Album.class, CatalogueStatistics.ALBUM_PLAN)).thenReturn(Sets.newHashSet(album1, album2));
+        StatisticsDAO rebuilt = new StatisticsDAO(delegate);
+        assertEquals(2, rebuilt.getStatistics().albumCount());
+        assertEquals(Lists.newArrayList(2016, 1975), rebuilt.getStatistics().busiestYears(5, 0, Integer.MAX_VALUE));
+    }
+
+    @Test
+    @DisplayName("Album writes update years, sales, ratings and collaborator counts.")
+    public void albumWritesUpdateCounters()
+    {
+        album1.setSales(1000);
+        album2.setSales(400);
+        album1.setReviews(Sets.newHashSet(new Review(url, 60)));
+        album2.setReviews(Sets.newHashSet(new Review(url, 90)));
+        album1.setFeaturedMusicians(Lists.newArrayList(musician1, musician2));
+        album2.setFeaturedMusicians(Lists.newArrayList(musician2, musician3));
+        dao.createOrUpdate(album1);
+        dao.createOrUpdate(album2);
+        dao.createOrUpdate(album3);
+
+        assertEquals(Lists.newArrayList(2016, 1975), statistics.busiestYears(5, 0, Integer.MAX_VALUE));
+        assertEquals(Lists.newArrayList(album1, album2, album3), statistics.bestSellingAlbums(5));
+        assertEquals(Lists.newArrayList(album2, album1), statistics.highestRatedAlbums(5, 1));
+        assertEquals(Lists.newArrayList(musician2, musician3, musician1), statistics.mostSocialMusicians(5));
+        verify(delegate, times(3)).createOrUpdate(any());
+    }
+
+    @Test
+    @DisplayName("Repeated collaborations count once, and changing a line-up recounts its musicians.")
+    public void collaboratorsAreCountedOnce()
+    {
+        album1.setFeaturedMusicians(Lists.newArrayList(musician1, musician2));
+        album2.setFeaturedMusicians(Lists.newArrayList(musician1, musician2));
+        album3.setFeaturedMusicians(Lists.newArrayList(musician3));
+        dao.createOrUpdate(album1);
+        dao.createOrUpdate(album2);
+        dao.createOrUpdate(album3);
+        assertEquals(Lists.newArrayList(musician1, musician2), statistics.mostSocialMusicians(5));
+
+        album2.setFeaturedMusicians(Lists.newArrayList(musician2, musician3));
+        dao.createOrUpdate(album2);
+        assertEquals(Lists.newArrayList(musician2, musician3, musician1), statistics.mostSocialMusicians(5));
+
+        dao.delete(album2);
+        assertEquals(Lists.newArrayList(musician1, musician2), statistics.mostSocialMusicians(5));
+    }
+
+    @Test
+    @DisplayName("The collaboration graph should follow the counted line-ups.")
+    public void collaborationGraphFollowsLineUps()
+    {
+        album1.setFeaturedMusicians(Lists.newArrayList(musician1, musician2));
+        album2.setFeaturedMusicians(Lists.newArrayList(musician2, musician3));
+        dao.createOrUpdate(album1);
+        dao.createOrUpdate(album2);
+        dao.delete(album1);
+
+        CollaborationGraph<Musician> graph = statistics.collaborationGraph();
+        assertEquals(2, graph.size());
+        assertEquals(1, graph.edgeCount());
+        assertSame(musician2, graph.musician(graph.idOf(musician2)));
+        assertEquals(-1, graph.idOf(musician1));
+    }
+
+    @Test
+    @DisplayName("Updating an album replaces its previous contribution.")
+    public void updatingAnAlbumReplacesItsContribution()
+    {
+        album1.setSales(1000);
+        album2.setSales(400);
+        dao.createOrUpdate(album1);
+        dao.createOrUpdate(album2);
+        album2.setSales(2000);
+        album2.setReleaseYear(1975);
+        dao.createOrUpdate(album2);
+
+        assertEquals(Lists.newArrayList(album2, album1), statistics.bestSellingAlbums(5));
+        assertEquals(Lists.newArrayList(1975), statistics.busiestYears(5, 0, Integer.MAX_VALUE));
+        assertEquals(2, statistics.albumCount());
+    }
+
+    @Test
+    @DisplayName("Deleting entities subtracts their contribution.")
+    public void deletingSubtractsContribution()
+    {
+        album1.setFeaturedMusicians(Lists.newArrayList(musician1));
+        dao.createOrUpdate(album1);
+        dao.createOrUpdate(album2);
+        dao.delete(album1);
+
+        assertEquals(Lists.newArrayList(2016), statistics.busiestYears(5, 0, Integer.MAX_VALUE));
+        assertEquals(0, statistics.mostSocialMusicians(5).size());
+        verify(delegate).delete(album1);
+    }
+
+    @Test
+    @DisplayName("A failed delete keeps the entity counted.")
+    public void failedDeleteKeepsEntityCounted()
+    {
+        dao.createOrUpdate(album1);
+        doThrow(new IllegalStateException("Database is down.")).when(delegate).delete(album1);
+        assertThrows(IllegalStateException.class, () -> dao.delete(album1));
+        assertEquals(1, statistics.albumCount());
+    }
+
+    @Test
+    @DisplayName("Musician writes count albums per year, and the window is applied.")
+    public void musicianWritesCountAlbumsPerYear()
+    {
+        musician1.setAlbums(Sets.newHashSet(album1, album2, album3));
+        musician2.setAlbums(Sets.newHashSet(album1));
+        dao.createOrUpdate(musician1);
+        dao.createOrUpdate(musician2);
+
+        assertEquals(Lists.newArrayList(musician1, musician2), statistics.mostProlificMusicians(5, 0, Integer.MAX_VALUE));
+        assertEquals(Lists.newArrayList(musician1, musician2), statistics.mostProlificMusicians(5, 1970, 1980));
+        assertEquals(Lists.newArrayList(musician1), statistics.mostProlificMusicians(5, 2000, 2020));
+
+        musician1.setAlbums(Sets.newHashSet(album2));
+        dao.createOrUpdate(musician1);
+        assertEquals(Lists.newArrayList(musician1, musician2), statistics.mostProlificMusicians(5, 0, Integer.MAX_VALUE));
+        assertEquals(Lists.newArrayList(musician2), statistics.mostProlificMusicians(5, 1970, 1980));
+    }
+
+    @Test
+    @DisplayName("Musician instrument writes count distinct instruments per musician.")
+    public void musicianInstrumentWritesCountDistinctInstruments()
+    {
+        MusicianInstrument piano = new MusicianInstrument(musician1, Sets.newHashSet(new MusicalInstrument("Piano")));
+        MusicianInstrument pianoAndDrums = new MusicianInstrument(musician1, Sets.newHashSet(new MusicalInstrument("Piano"), new MusicalInstrument("Drums")));
+        MusicianInstrument violin = new MusicianInstrument(musician3, Sets.newHashSet(new MusicalInstrument("Violin")));
+        dao.createOrUpdate(piano);
+        dao.createOrUpdate(pianoAndDrums);
+        dao.createOrUpdate(violin);
+        assertEquals(Lists.newArrayList(musician1, musician3), statistics.mostTalentedMusicians(5));
+
+        dao.delete(pianoAndDrums);
+        dao.delete(piano);
+        assertEquals(Lists.newArrayList(musician3), statistics.mostTalentedMusicians(5));
+    }
+
+    /** To Validate saving entities loaded without their relationships, whose collections OGM leaves as null */
+    @Test
+    @DisplayName("Entities loaded without relationships are counted with none.")
+    public void entitiesLoadedWithoutRelationshipsAreCounted()
+    {
+        album1.setFeaturedMusicians(Lists.newArrayList(musician1));
+        dao.createOrUpdate(album1);
+
+        Album loaded = new Album();
+        loaded.setId(album1.getId());
+        loaded.setReleaseYear(2016);
+        loaded.setRecordNumber("ECM 1064/65");
+        loaded.setAlbumName("The Köln Concert");
+        dao.createOrUpdate(loaded);
+        assertEquals(1, statistics.albumCount());
+        assertEquals(Lists.newArrayList(2016), statistics.busiestYears(5, 0, Integer.MAX_VALUE));
+        assertTrue(statistics.mostProlificMusicians(5, 0, Integer.MAX_VALUE).isEmpty());
+
+        Musician loadedMusician = new Musician();
+        loadedMusician.setName("Keith Jarrett");
+        dao.createOrUpdate(loadedMusician);
+        assertTrue(statistics.mostProlificMusicians(5, 0, Integer.MAX_VALUE).isEmpty());
+        dao.delete(loadedMusician);
+        dao.delete(loaded);
+        assertEquals(0, statistics.albumCount());
+    }
+
+    /** To Validate that musician nodes sharing a name are counted as the one musician Musician.equals sees */
+    @Test
+    @DisplayName("Namesake musicians are counted once, from the node saved last.")
+    public void namesakeMusiciansAreCountedOnce()
+    {
+        Musician namesake = new Musician("Keith Jarrett");
+        musician1.setAlbums(Sets.newHashSet(album1, album2));
+        namesake.setAlbums(Sets.newHashSet(album3));
+        dao.createOrUpdate(musician1);
+        dao.createOrUpdate(namesake);
+        musician2.setAlbums(Sets.newHashSet(album1, album2));
+        dao.createOrUpdate(musician2);
+        assertEquals(Lists.newArrayList(musician2, musician1), statistics.mostProlificMusicians(5, 0, Integer.MAX_VALUE));
+
+        dao.delete(musician1);
+        assertEquals(Lists.newArrayList(musician2, namesake), statistics.mostProlificMusicians(5, 0, Integer.MAX_VALUE));
+        dao.delete(namesake);
+        assertEquals(Lists.newArrayList(musician2), statistics.mostProlificMusicians(5, 0, Integer.MAX_VALUE));
+    }
+
+    @Test
+    @DisplayName("Entities must be saved before they are counted.")
+    public void unsavedEntitiesCannotBeCounted()
+    {
+        assertThrows(NullPointerException.class, () -> statistics.record(album1));
+        assertThrows(NullPointerException.class, () -> statistics.record(null));
+    }
+
+    @Test
+    @DisplayName("Batch saves only count the entities of committed chunks.")
+    public void batchSavesCountCommittedChunksOnly()
+    {
+        album1.setId(10L);
+        album2.setId(11L);
+        BatchResult<Album> result = new BatchResult<>();
+        result.addSaved(Lists.newArrayList(album1));
+        result.addFailure(new BatchResult.ChunkFailure<>(1, Lists.newArrayList(album2), new IllegalStateException("Bad record.")));
+        when(delegate.<Album>createOrUpdateAll(anyCollection())).thenReturn(result);
+
+        assertSame(result, dao.createOrUpdateAll(Lists.newArrayList(album1, album2)));
+        assertEquals(1, statistics.albumCount());
+        assertEquals(Lists.newArrayList(1975), statistics.busiestYears(5, 0, Integer.MAX_VALUE));
+    }
+}
@@ -0,0 +1,70 @@
+package allaboutecm.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebAddressUnitTest {
+
+    /** To Validate that spellings of one address are equal */
+    @ParameterizedTest
+    @DisplayName("Case of scheme and host, the default port and an empty path should not matter.")
+    @ValueSource(strings = {"https://www.ecmrecords.com/", "HTTPS://WWW.ECMRecords.com/", "https://www.ecmrecords.com",
+            "https://www.ecmrecords.com:443/", "https://www.ecmrecords.com:443"})
+    public void spellingsOfOneAddressAreEqual(String spelling) throws MalformedURLException
+    {
+        WebAddress address = WebAddress.parse("https://www.ecmrecords.com/");
+        WebAddress other = WebAddress.parse(spelling);
+
+        assertEquals(address, other);
+        assertEquals(address.hashCode(), other.hashCode());
+        assertEquals("https://www.ecmrecords.com/", other.getKey());
+        assertEquals(new URL(spelling).toString(), other.toString());
+    }
+
+    /** To Validate that the parts compared as written tell addresses apart */
+    @ParameterizedTest
+    @DisplayName("Path, query, fragment, user and a non-default port should tell addresses apart.")
+    @ValueSource(strings = {"https://www.ecmrecords.com/Catalogue", "https://www.ecmrecords.com/catalogue/",
+            "https://www.ecmrecords.com/catalogue?page=2", "https://www.ecmrecords.com/catalogue#top",
+            "https://manfred@www.ecmrecords.com/catalogue", "https://www.ecmrecords.com:8443/catalogue",
+            "http://www.ecmrecords.com/catalogue"})
+    public void differentAddressesAreNotEqual(String spelling) throws MalformedURLException
+    {
+        assertNotEquals(WebAddress.parse("https://www.ecmrecords.com/catalogue"), WebAddress.parse(spelling));
+    }
+
+    /** To Validate that comparing never resolves a host */
+    @Test
+    @DisplayName("Hosts that cannot be resolved should compare by name, without a lookup.")
+    public void unresolvableHostsCompareByName() throws MalformedURLException
+    {
+        Set<WebAddress> addresses = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            addresses.add(WebAddress.parse("https://host" + i + ".invalid/"));
+            addresses.add(WebAddress.parse("https://HOST" + i + ".invalid"));
+        }
+
+        assertEquals(1000, addresses.size());
+        assertTrue(addresses.contains(WebAddress.of(new URL("https://host7.invalid:443/"))));
+    }
+
+    /** To Validate the argument checks */
+    @Test
+    @DisplayName("Null and malformed addresses should be rejected.")
+    public void invalidAddressesAreRejected()
+    {
+        NullPointerException exception = assertThrows(NullPointerException.class, () -> WebAddress.of(null));
+        assertEquals("Object is null.", exception.getMessage());
+        assertThrows(NullPointerException.class, () -> WebAddress.parse(null));
+        assertThrows(MalformedURLException.class, () -> WebAddress.parse("www.ecmrecords.com"));
+    }
+}
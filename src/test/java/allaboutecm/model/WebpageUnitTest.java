@@ -72,6 +72,17 @@ public class WebpageUnitTest {
         assertEquals(webpage1, webpage);
     }
 
+    @Test
+    @DisplayName("Spellings of the same url mean the same web page.")
+    public void sameUrlSpelledDifferentlyMeansSameWebPage() throws IOException {
+        Webpage webpage1 = new Webpage("Chester Bennington's Website",new URL("HTTPS://EN.Wikipedia.org:443/wiki/Chester_Bennington"));
+        Webpage webpage2 = new Webpage("Chester Bennington's Website",new URL("https://en.wikipedia.org/wiki/chester_bennington"));
+        assertEquals(webpage, webpage1);
+        assertEquals(webpage.hashCode(), webpage1.hashCode());
+        assertNotEquals(webpage, webpage2);
+        assertEquals("https://EN.Wikipedia.org:443/wiki/Chester_Bennington", webpage1.getUrl().toString());
+    }
+
     @Test
     @DisplayName("URL cannot be null")
     public void urlCannotBeNull()
@@ -0,0 +1,178 @@
+package allaboutecm.synthetic;
+
+import allaboutecm.dataaccess.BatchResult;
+import allaboutecm.dataaccess.DAO;
+import allaboutecm.model.*;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogueGeneratorUnitTest {
+    private static final int ALBUMS = 2000;
+    private static SyntheticCatalogue catalogue;
+
+    @BeforeAll
+    public static void setUp()
+    {
+        catalogue = new CatalogueGenerator(42).generate(ALBUMS);
+    }
+
+    /** To Validate that the same seed gives the same catalogue */
+    @Test
+    @DisplayName("The same seed should generate the same catalogue, and another seed another one.")
+    public void sameSeedSameCatalogue() throws IOException
+    {
+        assertEquals(csv(catalogue), csv(new CatalogueGenerator(42).generate(ALBUMS)));
+        assertNotEquals(csv(catalogue), csv(new CatalogueGenerator(43).generate(ALBUMS)));
+    }
+
+    /** To Validate that albums and musicians are linked both ways */
+    @Test
+    @DisplayName("Every album should feature musicians playing instruments, and musicians should know their albums.")
+    public void albumsAndMusiciansAreLinked()
+    {
+        assertEquals(ALBUMS, catalogue.getAlbums().size());
+        for (Album album : catalogue.getAlbums()) {
+            assertFalse(album.getFeaturedMusicians().isEmpty());
+            assertEquals(album.getFeaturedMusicians().size(), album.getInstruments().size());
+            assertEquals(album.getFeaturedMusicians().size(), Sets.newHashSet(album.getFeaturedMusicians()).size());
+            for (MusicianInstrument musicianInstrument : album.getInstruments()) {
+                assertTrue(album.getFeaturedMusicians().contains(musicianInstrument.getMusician()));
+                assertFalse(musicianInstrument.getMusicalInstruments().isEmpty());
+            }
+            for (Musician musician : album.getFeaturedMusicians()) {
+                assertTrue(musician.getAlbums().contains(album));
+            }
+            assertTrue(album.getReleaseYear() >= CatalogueGenerator.FIRST_YEAR);
+            assertTrue(album.getReleaseYear() <= CatalogueGenerator.LAST_YEAR);
+        }
+        assertEquals(ALBUMS, Sets.newHashSet(catalogue.getAlbums()).size());
+        assertEquals(catalogue.getMusicians().size(), Sets.newHashSet(catalogue.getMusicians()).size());
+    }
+
+    /** To Validate the skew of the musician and sales distributions */
+    @Test
+    @DisplayName("Albums per musician and sales should follow a power law.")
+    public void distributionsAreSkewed()
+    {
+        List<Integer> albumsPerMusician = Lists.newArrayList();
+        for (Musician musician : catalogue.getMusicians()) {
+            albumsPerMusician.add(musician.getAlbums().size());
+        }
+        albumsPerMusician.sort((a, b) -> b - a);
+        // The busiest musician plays on far more albums than the median one
+        assertTrue(albumsPerMusician.get(0) > 20 * Math.max(1, albumsPerMusician.get(albumsPerMusician.size() / 2)));
+
+        List<Integer> sales = Lists.newArrayList();
+        long total = 0;
+        for (Album album : catalogue.getAlbums()) {
+            sales.add(album.getSales());
+            total += album.getSales();
+        }
+        sales.sort((a, b) -> b - a);
+        assertEquals(CatalogueGenerator.TOP_SALES, (int) sales.get(0));
+        long top = 0;
+        for (int i = 0; i < ALBUMS / 10; i++) {
+            top += sales.get(i);
+        }
+        assertTrue(top > total / 2);
+    }
+
+    /** To Validate that musicians play several instruments across albums */
+    @Test
+    @DisplayName("Some musicians should play several instruments, and reviews, concerts and groups should be generated.")
+    public void instrumentsReviewsConcertsAndGroups()
+    {
+        int multiInstrumentalists = 0;
+        for (MusicianInstrument musicianInstrument : catalogue.getMusicianInstruments()) {
+            if (musicianInstrument.getMusicalInstruments().size() > 1) {
+                multiInstrumentalists++;
+            }
+        }
+        assertTrue(multiInstrumentalists > 0);
+        assertFalse(catalogue.getReviews().isEmpty());
+        assertFalse(catalogue.getConcerts().isEmpty());
+        assertFalse(catalogue.getGroups().isEmpty());
+        for (Group group : catalogue.getGroups()) {
+            for (Album album : group.getAlbums()) {
+                assertTrue(album.getFeaturedGroup().contains(group));
+            }
+        }
+        for (Concert concert : catalogue.getConcerts()) {
+            assertFalse(concert.getMusicians().isEmpty());
+        }
+    }
+
+    /** To Validate that the catalogue is saved in dependency order */
+    @Test
+    @DisplayName("Saving should write musicians and instruments before albums, and concerts and groups after them.")
+    public void savesInDependencyOrder()
+    {
+        DAO dao = mock(DAO.class);
+        List<Class<?>> order = Lists.newArrayList();
+        AtomicLong ids = new AtomicLong();
+        when(dao.createOrUpdateAll(anyCollection(), anyInt(), any())).thenAnswer(invocation -> {
+            Collection<Entity> entities = invocation.getArgument(0);
+            order.add(entities.iterator().next().getClass());
+            for (Entity entity : entities) {
+                entity.setId(ids.incrementAndGet());
+            }
+            BatchResult<Entity> result = new BatchResult<>();
+            result.addSaved(entities);
+            return result;
+        });
+        SyntheticCatalogue small = new CatalogueGenerator(7).generate(50);
+
+        BatchResult<Entity> result = small.saveTo(dao);
+
+        assertTrue(result.isComplete());
+        assertEquals(Lists.newArrayList(Musician.class, MusicalInstrument.class, MusicianInstrument.class, Album.class,
+                Concert.class, Group.class), order);
+        int expected = small.getMusicians().size() + small.getInstruments().size() + small.getMusicianInstruments().size()
+                + small.getAlbums().size() + small.getConcerts().size() + small.getGroups().size();
+        assertEquals(expected, result.getSavedCount());
+    }
+
+    /** To Validate the argument checks */
+    @Test
+    @DisplayName("Generator should reject a catalogue without albums.")
+    public void albumCountShouldBePositive()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new CatalogueGenerator(1).generate(0));
+        assertThrows(NullPointerException.class, () -> catalogue.saveTo(null));
+    }
+
+    /** To Validate that generated names stay valid past the list of names */
+    @Test
+    @DisplayName("Generated musician names should be distinct and valid musician names.")
+    public void musicianNamesAreDistinct()
+    {
+        Set<String> names = Sets.newHashSet();
+        for (int i = 0; i < 50_000; i += 7) {
+            String name = CatalogueGenerator.musicianName(i);
+            assertTrue(names.add(name), name);
+            assertEquals(name, new Musician(name).getName());
+        }
+    }
+
+    private static String csv(SyntheticCatalogue catalogue) throws IOException {
+        StringBuilder out = new StringBuilder();
+        catalogue.writeCsv(out);
+        return out.toString();
+    }
+}
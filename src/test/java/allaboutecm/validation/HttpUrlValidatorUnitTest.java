@@ -0,0 +1,185 @@
+package allaboutecm.validation;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.Lists;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpUrlValidatorUnitTest {
+    private HttpServer server;
+    private HttpUrlValidator validator;
+    private FakeTicker ticker;
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+    private final List<String> methods = Lists.newCopyOnWriteArrayList();
+    private CountDownLatch release;
+
+    @BeforeEach
+    public void setUp() throws IOException
+    {
+        release = new CountDownLatch(0);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(java.util.concurrent.Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            requests.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+            methods.add(exchange.getRequestMethod());
+            int code = 200;
+            try {
+                if (path.startsWith("/missing")) {
+                    code = 404;
+                } else if (path.startsWith("/slow")) {
+                    Thread.sleep(2000);
+                } else if (path.startsWith("/held")) {
+                    release.await(5, TimeUnit.SECONDS);
+                } else if (path.startsWith("/get-only") && "HEAD".equals(exchange.getRequestMethod())) {
+                    code = 405;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(code, -1);
+            exchange.close();
+        });
+        server.start();
+        ticker = new FakeTicker();
+        validator = new HttpUrlValidator(500, 500, 60, 5, TimeUnit.MINUTES, 4, ticker);
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        validator.close();
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("A 200 answer to a HEAD request should make a URL reachable.")
+    public void okIsReachable() throws IOException
+    {
+        assertTrue(validator.isReachable(url("/album")));
+        assertEquals(Lists.newArrayList("HEAD"), methods);
+    }
+
+    @Test
+    @DisplayName("A 404 answer, or no server at all, should make a URL unreachable.")
+    public void errorsAreUnreachable() throws IOException
+    {
+        assertFalse(validator.isReachable(url("/missing")));
+        assertFalse(validator.isReachable(new URL("http://127.0.0.1:1/nothing")));
+    }
+
+    @Test
+    @DisplayName("Servers that refuse HEAD should be asked with GET.")
+    public void headFallsBackToGet() throws IOException
+    {
+        assertTrue(validator.isReachable(url("/get-only")));
+        assertEquals(Lists.newArrayList("HEAD", "GET"), methods);
+    }
+
+    @Test
+    @DisplayName("A server slower than the read timeout should make a URL unreachable without waiting for it.")
+    public void slowServerTimesOut() throws IOException
+    {
+        long start = System.nanoTime();
+        assertFalse(validator.isReachable(url("/slow")));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1900);
+    }
+
+    @Test
+    @DisplayName("Answers should be cached, unreachable ones for less time than reachable ones.")
+    public void answersAreCachedWithTheirOwnExpiry() throws IOException
+    {
+        assertTrue(validator.isReachable(url("/album")));
+        assertFalse(validator.isReachable(url("/missing")));
+        assertTrue(validator.isReachable(url("/album")));
+        assertFalse(validator.isReachable(url("/missing")));
+        assertEquals(Boolean.TRUE, validator.cached(url("/album")));
+        assertEquals(1, requests.get("/album").get());
+        assertEquals(1, requests.get("/missing").get());
+
+        ticker.advance(6, TimeUnit.MINUTES);
+        validator.isReachable(url("/album"));
+        validator.isReachable(url("/missing"));
+        assertEquals(1, requests.get("/album").get());
+        assertEquals(2, requests.get("/missing").get());
+
+        validator.invalidateAll();
+        assertNull(validator.cached(url("/album")));
+    }
+
+    @Test
+    @DisplayName("A batch should be checked concurrently, and a URL checked twice at once should be requested once.")
+    public void batchIsCheckedConcurrently() throws IOException
+    {
+        release = new CountDownLatch(1);
+        List<URL> urls = Lists.newArrayList(url("/held/1"), url("/held/2"), url("/held/3"), url("/missing"), url("/held/1"));
+        // The held requests only finish once all of them have arrived, which needs them to run at the same time
+        new Thread(() -> {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (requests.size() < 4 && System.currentTimeMillis() < deadline) {
+                Thread.yield();
+            }
+            release.countDown();
+        }).start();
+
+        long start = System.nanoTime();
+        Map<String, Boolean> results = validator.validate(urls);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 4000);
+
+        assertEquals(4, results.size());
+        assertTrue(results.get(url("/held/1").toExternalForm()));
+        assertFalse(results.get(url("/missing").toExternalForm()));
+        assertEquals(1, requests.get("/held/1").get());
+    }
+
+    @Test
+    @DisplayName("A closed validator should fail new checks instead of blocking.")
+    public void closedValidatorFails() throws IOException
+    {
+        validator.close();
+        assertTrue(validator.check(url("/album")).isCompletedExceptionally());
+    }
+
+    @Test
+    @DisplayName("Validator settings should be valid.")
+    public void invalidSettingsAreRejected()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new HttpUrlValidator(0, 10, 1, 1, TimeUnit.MINUTES, 1));
+        assertThrows(IllegalArgumentException.class, () -> new HttpUrlValidator(10, 10, -1, 1, TimeUnit.MINUTES, 1));
+        assertThrows(IllegalArgumentException.class, () -> new HttpUrlValidator(10, 10, 1, 1, TimeUnit.MINUTES, 0));
+        assertThrows(NullPointerException.class, () -> validator.check(null));
+    }
+
+    private URL url(String path) throws IOException {
+        return new URL("http://127.0.0.1:" + server.getAddress().getPort() + path);
+    }
+
+    private static class FakeTicker extends Ticker {
+        private final AtomicLong nanos = new AtomicLong();
+
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+
+        void advance(long time, TimeUnit unit) {
+            nanos.addAndGet(unit.toNanos(time));
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package allaboutecm.validation;
+
+import allaboutecm.model.Album;
+import allaboutecm.model.Musician;
+import allaboutecm.model.Review;
+import allaboutecm.model.Webpage;
+import com.google.common.collect.Lists;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.UnknownHostException;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UrlValidationUnitTest {
+    private final List<URL> checked = Lists.newArrayList();
+    private UrlValidator previous;
+    private UrlCheckListener previousListener;
+
+    @BeforeEach
+    public void setUp()
+    {
+        previous = UrlValidation.getValidator();
+        previousListener = UrlValidation.getListener();
+        UrlValidation.setValidator(url -> {
+            checked.add(url);
+            return new CompletableFuture<>();
+        });
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        UrlValidation.setValidator(previous);
+        UrlValidation.setListener(previousListener);
+    }
+
+    /** To Validate that the model stays off the network unless a validator is installed */
+    @Test
+    @DisplayName("The default validator should accept every URL without any I/O.")
+    public void defaultAcceptsAll()
+    {
+        assertSame(UrlValidator.ACCEPT_ALL, previous);
+    }
+
+    @Test
+    @DisplayName("Setters should queue a check and return without waiting for it.")
+    public void settersDeferTheCheck() throws IOException
+    {
+        URL albumUrl = new URL("https://www.ecmrecords.com/catalogue/143038750696/the-koln-concert-keith-jarrett");
+        URL musicianUrl = new URL("https://www.keithjarrett.org/");
+        Album album = new Album(1975, "ECM 1064/65", "The Köln Concert");
+        Musician musician = new Musician("Keith Jarrett");
+        album.setAlbumURL(albumUrl);
+        musician.setMusicianUrl(musicianUrl);
+        assertEquals(albumUrl, album.getAlbumURL());
+        assertEquals(Lists.newArrayList(albumUrl, musicianUrl), checked);
+    }
+
+    /** To Validate that constructors taking a URL check it like the setters */
+    @Test
+    @DisplayName("Constructors should queue a check too, and reject URLs that are not well formed.")
+    public void constructorsDeferTheCheck() throws MalformedURLException
+    {
+        URL reviewUrl = new URL("https://www.allmusic.com/album/the-koln-concert");
+        URL webpageUrl = new URL("https://en.wikipedia.org/wiki/Keith_Jarrett");
+        new Review(reviewUrl, 90);
+        new Webpage("Keith Jarrett", webpageUrl);
+        assertEquals(Lists.newArrayList(reviewUrl, webpageUrl), checked);
+
+        assertThrows(IllegalArgumentException.class, () -> new Review(new URL("ftp://www.allmusic.com/"), 90));
+        assertThrows(IllegalArgumentException.class, () -> new Webpage("Keith Jarrett", new URL("file:///tmp/a")));
+        assertEquals(2, checked.size());
+    }
+
+    /** To Validate that the answer of a deferred check reaches the listener */
+    @Test
+    @DisplayName("A deferred check should tell the listener its answer, and a failed check should answer false.")
+    public void deferredAnswersReachTheListener() throws MalformedURLException
+    {
+        URL reachable = new URL("https://www.ecmrecords.com/");
+        URL failing = new URL("https://www.imdb.com/");
+        UrlValidation.setValidator(url -> {
+            CompletableFuture<Boolean> answer = new CompletableFuture<>();
+            if (url == failing) {
+                answer.completeExceptionally(new IllegalStateException("No route to host."));
+            } else {
+                answer.complete(true);
+            }
+            return answer;
+        });
+        Map<URL, Boolean> answers = new IdentityHashMap<>();
+        UrlValidation.setListener(answers::put);
+
+        assertTrue(UrlValidation.defer(reachable).join());
+        assertFalse(UrlValidation.defer(failing).join());
+        assertEquals(Boolean.TRUE, answers.get(reachable));
+        assertEquals(Boolean.FALSE, answers.get(failing));
+        assertThrows(NullPointerException.class, () -> UrlValidation.setListener(null));
+    }
+
+    @Test
+    @DisplayName("Setters should still reject URLs that are not well formed.")
+    public void settersRejectMalformedUrls() throws MalformedURLException
+    {
+        Album album = new Album(1975, "ECM 1064/65", "The Köln Concert");
+        assertThrows(UnknownHostException.class, () -> album.setAlbumURL(new URL("https:///ecm")));
+        assertThrows(UnknownHostException.class, () -> album.setAlbumURL(new URL("https://www.imdb.com/")));
+        assertEquals(0, checked.size());
+    }
+
+    @Test
+    @DisplayName("Only http and https URLs with a host are well formed.")
+    public void wellFormedUrls() throws MalformedURLException
+    {
+        assertTrue(UrlValidation.isWellFormed(new URL("https://www.ecmrecords.com/")));
+        assertTrue(UrlValidation.isWellFormed(new URL("http://localhost:8080/a")));
+        assertFalse(UrlValidation.isWellFormed(new URL("ftp://www.ecmrecords.com/")));
+        assertFalse(UrlValidation.isWellFormed(new URL("file:///tmp/a")));
+        assertFalse(UrlValidation.isWellFormed(null));
+    }
+
+    @Test
+    @DisplayName("A batch through the default method should answer each distinct URL once.")
+    public void batchAnswersEachUrlOnce() throws MalformedURLException
+    {
+        URL url = new URL("https://www.ecmrecords.com/");
+        Map<String, Boolean> results = UrlValidator.ACCEPT_ALL.validate(Lists.newArrayList(url, url));
+        assertEquals(1, results.size());
+        assertTrue(results.get(url.toExternalForm()));
+        assertThrows(NullPointerException.class, () -> UrlValidation.setValidator(null));
+    }
+}
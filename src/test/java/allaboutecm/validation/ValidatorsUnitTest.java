@@ -0,0 +1,72 @@
+package allaboutecm.validation;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Calendar;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidatorsUnitTest {
+
+    // The checks the model used to run, kept here to show the validators agree with them
+    private static boolean legacyMusicianName(String name) {
+        for (String token : name.split(" ")) {
+            if (!token.toLowerCase().matches("^[a-záäâèëéàêîïôüùû,/&à]*$")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean legacyPlainDecimal(double value) {
+        return Double.toString(value).matches("[0-9.]+");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Keith Jarrett", "Chester Bennington", "Émile Zola", "ÀÉÎÔÛ", "Simon & Garfunkel",
+            "AC/DC", "a,b", "  double  space ", "Keith Jarrett3", "Mike_Shinoda", "Ænima", "Straße", "Björk",
+            "İstanbul", "Tab\tName", "ÿ", "µ", "日本"})
+    @DisplayName("Musician names should be accepted exactly when the old regular expression accepted them.")
+    public void musicianNamesMatchLegacyCheck(String name)
+    {
+        assertEquals(legacyMusicianName(name), Validators.isMusicianName(name));
+    }
+
+    @Test
+    @DisplayName("Every Latin-1 character should be judged like the old regular expression judged it.")
+    public void everyLatinCharacterMatchesLegacyCheck()
+    {
+        for (char c = 0; c < 256; c++) {
+            String name = "ab" + c + "cd";
+            assertEquals(legacyMusicianName(name), Validators.isMusicianName(name), "Character " + (int) c);
+        }
+        assertFalse(Validators.isMusicianName(null));
+    }
+
+    @Test
+    @DisplayName("Ratings should be accepted exactly when Double.toString printed only digits and a dot.")
+    public void plainDecimalsMatchLegacyCheck()
+    {
+        double[] edges = {0, -0.0, 1, 99.8, 100, 101, -1, 1e-3, 9.99e-4, 1e7, 9999999.99, Double.NaN,
+                Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.MIN_VALUE, Double.MAX_VALUE};
+        for (double value : edges) {
+            assertEquals(legacyPlainDecimal(value), Validators.isPlainDecimal(value), "Value " + value);
+        }
+        Random random = new Random(5171);
+        for (int i = 0; i < 10_000; i++) {
+            double value = Math.pow(10, random.nextInt(20) - 8) * random.nextDouble() * (random.nextBoolean() ? 1 : -1);
+            assertEquals(legacyPlainDecimal(value), Validators.isPlainDecimal(value), "Value " + value);
+        }
+    }
+
+    @Test
+    @DisplayName("The cached current year should be the calendar year.")
+    public void currentYearIsTheCalendarYear()
+    {
+        assertEquals(Calendar.getInstance().get(Calendar.YEAR), Validators.currentYear());
+    }
+}